@@ -0,0 +1,86 @@
+// Commits y latencia de préstamo, devolución y edición de herramienta.
+// Un solo usuario virtual y un solo backend (sin nginx): los contadores de /api/cache/stats son por nodo.
+// Uso (el usuario debe ser ADMIN para leer las estadísticas y editar herramientas):
+//   k6 run -e BASE_URL=http://localhost:8090 -e KC_USER=admin -e KC_PASSWORD=secreto \
+//          -e RUT=<rut sin deudas> -e TOOL_ID=<id disponible> -e LABEL=despues loadtest/rent-flow.js
+// Correr una vez con el código anterior (LABEL=antes) y otra con el actual, con la misma BD.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8090';
+const KC_URL = __ENV.KC_URL || 'http://localhost:9090';
+const REALM = __ENV.KC_REALM || 'sisph-realm';
+const CLIENT_ID = __ENV.KC_CLIENT || 'sisph-frontend';
+const LABEL = __ENV.LABEL || 'actual';
+const RUT = __ENV.RUT;
+const TOOL_ID = __ENV.TOOL_ID;
+const ITERATIONS = parseInt(__ENV.ITERATIONS || '200');
+
+const createLatency = new Trend(`create_latency_${LABEL}`, true);
+const returnLatency = new Trend(`return_latency_${LABEL}`, true);
+const updateLatency = new Trend(`tool_update_latency_${LABEL}`, true);
+
+export const options = {
+    scenarios: {
+        sequential: { executor: 'shared-iterations', vus: 1, iterations: ITERATIONS },
+    },
+};
+
+function params(token) {
+    return { headers: { Authorization: `Bearer ${token}`, 'Content-Type': 'application/json' } };
+}
+
+function stats(token) {
+    return http.get(`${BASE_URL}/api/cache/stats`, params(token)).json();
+}
+
+export function setup() {
+    const res = http.post(`${KC_URL}/realms/${REALM}/protocol/openid-connect/token`, {
+        grant_type: 'password',
+        client_id: CLIENT_ID,
+        username: __ENV.KC_USER,
+        password: __ENV.KC_PASSWORD,
+    });
+    check(res, { 'token ok': (r) => r.status === 200 });
+    const token = res.json('access_token');
+    const tool = http.get(`${BASE_URL}/api/tools/${TOOL_ID}`, params(token)).json();
+    return { token, tool, before: stats(token) };
+}
+
+export default function (data) {
+    const p = params(data.token);
+    const finishDate = new Date(Date.now() + 3 * 86400000).toISOString().slice(0, 10);
+
+    const created = http.post(`${BASE_URL}/api/rent`,
+        JSON.stringify({ rut: RUT, toolId: String(TOOL_ID), finishDate }), p);
+    createLatency.add(created.timings.duration);
+    if (!check(created, { 'préstamo ok': (r) => r.status === 200 && r.json('id') })) return;
+
+    const returned = http.post(`${BASE_URL}/api/rent/return/${created.json('id')}`,
+        JSON.stringify({ damaged: false, irreparable: false }), p);
+    returnLatency.add(returned.timings.duration);
+    check(returned, { 'devolución ok': (r) => r.status === 200 });
+
+    // Edición con cambio de estado (a reparación y de vuelta) y de valor: el camino más largo de updateTool
+    const value = data.tool.replacementValue + (__ITER % 2 === 0 ? 1 : 0);
+    for (const status of [3, 1]) {
+        const updated = http.put(`${BASE_URL}/api/tools/${TOOL_ID}`,
+            JSON.stringify({ ...data.tool, status, replacementValue: value }), p);
+        updateLatency.add(updated.timings.duration);
+        check(updated, { 'edición ok': (r) => r.status === 200 });
+    }
+}
+
+export function teardown(data) {
+    const after = stats(data.token);
+    const transactions = after.transactions - data.before.transactions;
+    const flushes = after.flushes - data.before.flushes;
+    // Por iteración: 1 préstamo + 1 devolución + 2 ediciones
+    console.log(`[${LABEL}] ${ITERATIONS} iteraciones: ${transactions} transacciones ` +
+        `(${(transactions / ITERATIONS).toFixed(1)} por iteración), ` +
+        `${flushes} flushes (${(flushes / ITERATIONS).toFixed(1)} por iteración)`);
+
+    // Devolver la herramienta a como estaba
+    http.put(`${BASE_URL}/api/tools/${TOOL_ID}`, JSON.stringify(data.tool), params(data.token));
+}
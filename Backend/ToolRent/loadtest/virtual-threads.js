@@ -0,0 +1,78 @@
+// Prueba de carga: hilos de plataforma vs hilos virtuales.
+// Uso (un backend directo, sin nginx, para medir un solo nodo):
+//   k6 run -e BASE_URL=http://localhost:8090 -e KC_URL=http://localhost:9090 \
+//          -e KC_USER=empleado -e KC_PASSWORD=secreto -e MODE=platform loadtest/virtual-threads.js
+// Repetir con el backend levantado con spring.threads.virtual.enabled=true y MODE=virtual.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend, Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8090';
+const KC_URL = __ENV.KC_URL || 'http://localhost:9090';
+const REALM = __ENV.KC_REALM || 'sisph-realm';
+const CLIENT_ID = __ENV.KC_CLIENT || 'sisph-frontend';
+const MODE = __ENV.MODE || 'platform';
+
+// Opcional: préstamo + devolución por iteración (RUT de un cliente sin deudas y ids de herramientas disponibles)
+const WRITE_RUT = __ENV.WRITE_RUT;
+const WRITE_TOOL_IDS = (__ENV.WRITE_TOOL_IDS || '').split(',').filter(Boolean);
+
+const readLatency = new Trend(`read_latency_${MODE}`, true);
+const writeLatency = new Trend(`write_latency_${MODE}`, true);
+const errors = new Rate(`errors_${MODE}`);
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 100 },
+                { duration: '1m', target: 400 },
+                { duration: '1m', target: 800 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        [`errors_${MODE}`]: ['rate<0.01'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${KC_URL}/realms/${REALM}/protocol/openid-connect/token`, {
+        grant_type: 'password',
+        client_id: CLIENT_ID,
+        username: __ENV.KC_USER,
+        password: __ENV.KC_PASSWORD,
+    });
+    check(res, { 'token ok': (r) => r.status === 200 });
+    return { token: res.json('access_token') };
+}
+
+export default function (data) {
+    const params = { headers: { Authorization: `Bearer ${data.token}`, 'Content-Type': 'application/json' } };
+
+    for (const path of ['/api/rent/report/active', '/api/tools/available', '/api/dashboard/summary']) {
+        const res = http.get(`${BASE_URL}${path}`, params);
+        readLatency.add(res.timings.duration);
+        errors.add(res.status !== 200);
+    }
+
+    if (WRITE_RUT && WRITE_TOOL_IDS.length > 0) {
+        const toolId = WRITE_TOOL_IDS[(__VU + __ITER) % WRITE_TOOL_IDS.length];
+        const finishDate = new Date(Date.now() + 3 * 86400000).toISOString().slice(0, 10);
+
+        const created = http.post(`${BASE_URL}/api/rent`,
+            JSON.stringify({ rut: WRITE_RUT, toolId: String(toolId), finishDate }), params);
+        writeLatency.add(created.timings.duration);
+
+        // Herramienta ocupada por otra VU: es esperado, no se cuenta como error
+        if (created.status === 200 && created.json('id')) {
+            const returned = http.post(`${BASE_URL}/api/rent/return/${created.json('id')}`,
+                JSON.stringify({ damaged: false, irreparable: false }), params);
+            writeLatency.add(returned.timings.duration);
+            errors.add(returned.status !== 200);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caché de tokens ya validados: el front manda el mismo token en cada llamada hasta que expira,
+// así que la firma, los claims y los roles se verifican una sola vez por token y por nodo.
+// La clave es el SHA-256 del token (no se guarda el token) y la entrada vence junto con él.
+// Los tokens rechazados no se guardan.
+public class CachedJwtAuthenticationManager implements AuthenticationManager {
+
+    private final AuthenticationProvider delegate;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachedJwtAuthenticationManager(AuthenticationProvider delegate, int maxEntries) {
+        this(delegate, maxEntries, Clock.systemUTC());
+    }
+
+    CachedJwtAuthenticationManager(AuthenticationProvider delegate, int maxEntries, Clock clock) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        BearerTokenAuthenticationToken bearer = (BearerTokenAuthenticationToken) authentication;
+        String key = hash(bearer.getToken());
+        Instant now = clock.instant();
+
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (now.isBefore(entry.expiresAt)) {
+                hits.increment();
+                return entry.authentication;
+            }
+            cache.remove(key, entry);
+        }
+
+        misses.increment();
+        Authentication result = delegate.authenticate(bearer);
+
+        if (result instanceof JwtAuthenticationToken jwtAuth && jwtAuth.getToken().getExpiresAt() != null) {
+            if (cache.size() >= maxEntries) evict(now);
+            cache.put(key, new Entry(result, jwtAuth.getToken().getExpiresAt()));
+        }
+        return result;
+    }
+
+    // Primero se botan los vencidos; si no alcanza, entradas cualquiera hasta bajar al 90%
+    private void evict(Instant now) {
+        cache.values().removeIf(e -> !now.isBefore(e.expiresAt));
+
+        Iterator<String> it = cache.keySet().iterator();
+        while (cache.size() >= maxEntries * 9 / 10 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private record Entry(Authentication authentication, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.Tingeso.ToolRent.Config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.atomic.LongAdder;
+
+// Invalidación de la caché de segundo nivel entre los tres backends, sobre InvalidationBus (tema "entity").
+// Cada cambio a una entidad cacheada hace NOTIFY dentro de la misma transacción: Postgres lo entrega
+// solo si hace commit y justo después, así que ningún nodo sirve una fila vieja más que la latencia del aviso.
+// Al recibirlo se desaloja la entidad y se marcan sus tablas como modificadas en la región de
+// timestamps: solo las consultas cacheadas que leen esas tablas quedan viejas.
+@Component
+public class EntityCacheInvalidator implements InvalidationBus.Subscriber {
+
+    static final String TOPIC = "entity";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InvalidationBus bus;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        Listener entityListener = new Listener();
+        registry.appendListeners(EventType.POST_INSERT, entityListener);
+        registry.appendListeners(EventType.POST_UPDATE, entityListener);
+        registry.appendListeners(EventType.POST_DELETE, entityListener);
+
+        bus.subscribe(TOPIC, this);
+    }
+
+    // Para UPDATE masivos (JPQL) que no pasan por los eventos de entidad. Debe llamarse dentro de la transacción
+    public void publishAll(Class<?> entity) {
+        bus.publishInTransaction(TOPIC, entity.getName() + "#" + InvalidationBus.ALL);
+        sent.increment();
+    }
+
+    public void publish(Class<?> entity, Object id) {
+        bus.publishInTransaction(TOPIC, entity.getName() + "#" + id);
+        sent.increment();
+    }
+
+    // Durante el flush: el NOTIFY va por la misma conexión y transacción que el cambio
+    private void publish(EventSource session, EntityPersister persister, Object id) {
+        if (!persister.canWriteToCache()) return;
+
+        String payload = bus.payload(TOPIC, persister.getEntityName() + "#" + id);
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                ps.setString(1, InvalidationBus.CHANNEL);
+                ps.setString(2, payload);
+                ps.execute();
+            }
+        });
+        bus.countSent();
+        sent.increment();
+    }
+
+    @Override
+    public void invalidate(String key) {
+        received.increment();
+
+        int sep = key.lastIndexOf('#');
+        String entityName = key.substring(0, sep);
+        String id = key.substring(sep + 1);
+        if (InvalidationBus.ALL.equals(id)) {
+            sessionFactory.getCache().evictEntityData(entityName);
+        } else {
+            sessionFactory.getCache().evictEntityData(entityName, Long.valueOf(id));
+        }
+        // Un cambio puede mover la fila dentro o fuera de las consultas sobre sus tablas, no de las demás
+        touchTables(entityName);
+    }
+
+    // Lo mismo que hace Hibernate al confirmar un cambio local: las consultas cacheadas antes de este
+    // momento sobre estas tablas ya no están al día y se vuelven a ejecutar
+    private void touchTables(String entityName) {
+        String[] tables = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityName).getSynchronizationSpaces();
+        try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+            sessionFactory.getCache().getTimestampsCache().invalidate(tables, session);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (sessionFactory != null) sessionFactory.getCache().evictAllRegions();
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public String getNode() {
+        return bus.getNode();
+    }
+
+    // Eventos dentro de la transacción (no post-commit): el aviso viaja con el commit
+    private class Listener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            publish(event.getSession(), event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            publish(event.getSession(), event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            publish(event.getSession(), event.getPersister(), event.getId());
+        }
+
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
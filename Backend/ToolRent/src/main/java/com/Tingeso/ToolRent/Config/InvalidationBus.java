@@ -0,0 +1,220 @@
+package com.Tingeso.ToolRent.Config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bus de invalidación entre nodos sobre LISTEN/NOTIFY de Postgres (los backends solo comparten la BD).
+// Quien modifica publica "tema + clave"; cada nodo tiene una única conexión LISTEN (fuera del pool)
+// que reparte los avisos a las cachés registradas para ese tema. Los avisos del propio nodo se ignoran:
+// cada servicio invalida su caché local por su cuenta.
+// NOTIFY no se reintenta ni se guarda: si la conexión se corta se pierden avisos, así que al reconectar
+// se vacían todas las cachés registradas.
+@Component
+public class InvalidationBus {
+
+    public static final String CHANNEL = "toolrent_invalidation";
+    public static final String ALL = "*";
+
+    // Una caché que recibe avisos de otros nodos
+    public interface Subscriber {
+        void invalidate(String key);
+
+        // Se perdieron avisos (reconexión): descartar todo
+        void flush();
+    }
+
+    // Identifica a este nodo para ignorar sus propios avisos
+    private final String node = UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${toolrent.invalidation.enabled:true}")
+    private boolean enabled;
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "invalidation-publish");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Thread listener;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        listener = new Thread(this::listen, "invalidation-listen");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listener != null) listener.interrupt();
+        publisher.shutdownNow();
+    }
+
+    public void subscribe(String topic, Subscriber subscriber) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    // Para llamar después del commit (listeners de eventos, código sin transacción): se envía en segundo plano
+    public void publish(String topic, String key) {
+        String payload = payload(topic, key);
+        publisher.execute(() -> {
+            try {
+                notify(payload);
+            } catch (Exception e) {
+                System.out.println("Invalidación: no se pudo publicar " + payload + " (" + e.getMessage() + ")");
+            }
+        });
+    }
+
+    // Dentro de una transacción: Postgres entrega el aviso solo si hace commit
+    public void publishInTransaction(String topic, String key) {
+        notify(payload(topic, key));
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+        sent.increment();
+    }
+
+    public String payload(String topic, String key) {
+        return node + "|" + topic + "|" + key;
+    }
+
+    // Para quien hace el NOTIFY por su cuenta (p.ej. dentro del flush de Hibernate)
+    public void countSent() {
+        sent.increment();
+    }
+
+    void dispatch(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3 || node.equals(parts[0])) return;
+        received.increment();
+
+        for (Subscriber s : subscribers.getOrDefault(parts[1], List.of())) {
+            try {
+                s.invalidate(parts[2]);
+            } catch (Exception e) {
+                // Mejor vaciar que seguir con una entrada que no se pudo invalidar
+                s.flush();
+            }
+        }
+    }
+
+    void flushAll() {
+        subscribers.values().forEach(list -> list.forEach(s -> {
+            try {
+                s.flush();
+            } catch (Exception e) {
+                System.out.println("Invalidación: error al vaciar una caché (" + e.getMessage() + ")");
+            }
+        }));
+    }
+
+    private void listen() {
+        while (running) {
+            Properties props = new Properties();
+            props.setProperty("user", username);
+            props.setProperty("password", password);
+            props.setProperty("ApplicationName", "toolrent-invalidation-" + node);
+
+            try (Connection connection = DriverManager.getConnection(url, props)) {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                // Lo que cambió mientras no se escuchaba se perdió
+                flushAll();
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                long lastCheck = System.currentTimeMillis();
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification n : notifications) dispatch(n.getParameter());
+                    }
+                    // Una conexión muerta en silencio no siempre tira excepción en getNotifications
+                    if (System.currentTimeMillis() - lastCheck > 30_000) {
+                        if (!connection.isValid(5)) break;
+                        lastCheck = System.currentTimeMillis();
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) return;
+                System.out.println("Invalidación: sin conexión LISTEN (" + e.getMessage() + "), reintentando");
+            } finally {
+                connected = false;
+            }
+
+            if (!running) return;
+            reconnects.increment();
+            // Mientras no hay escucha las cachés podrían quedar viejas
+            flushAll();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getReconnects() {
+        return reconnects.sum();
+    }
+}
@@ -0,0 +1,102 @@
+package com.Tingeso.ToolRent.Config;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Llaves públicas de Keycloak (JWKS) descargadas al arrancar y refrescadas en segundo plano,
+// así ninguna petición espera a Keycloak. Si llega un token con un kid desconocido
+// (rotación de llaves) se descarga de nuevo, como máximo una vez cada minRefreshMillis.
+@Component
+public class JwksKeySource implements JWKSource<SecurityContext> {
+
+    private static final int TIMEOUT_MS = 3000;
+    private static final int SIZE_LIMIT = 512 * 1024;
+
+    private final String jwkSetUri;
+    private final long minRefreshMillis;
+
+    private volatile JWKSet jwkSet;
+    private volatile long lastFetch;
+    private final ReentrantLock fetchLock = new ReentrantLock();
+
+    public JwksKeySource(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:${spring.security.oauth2.resourceserver.jwt.issuer-uri}/protocol/openid-connect/certs}") String jwkSetUri,
+            @Value("${toolrent.security.jwks-min-refresh-ms:30000}") long minRefreshMillis) {
+        this.jwkSetUri = jwkSetUri;
+        this.minRefreshMillis = minRefreshMillis;
+    }
+
+    // Keycloak puede no estar arriba todavía: en ese caso se intenta en la primera petición
+    @PostConstruct
+    public void prefetch() {
+        try {
+            fetch();
+        } catch (Exception e) {
+            System.out.println("JWKS no disponible al arrancar: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${toolrent.security.jwks-refresh-ms:300000}",
+            initialDelayString = "${toolrent.security.jwks-refresh-ms:300000}")
+    public void refresh() {
+        try {
+            fetch();
+        } catch (Exception e) {
+            // Se sigue usando el juego de llaves anterior
+            System.out.println("No se pudo refrescar el JWKS: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current != null) {
+            List<JWK> keys = selector.select(current);
+            if (!keys.isEmpty()) return keys;
+        }
+
+        // Sin llaves o kid desconocido: descargar (limitado para no golpear a Keycloak con tokens falsos)
+        if (current == null || System.currentTimeMillis() - lastFetch >= minRefreshMillis) {
+            try {
+                return selector.select(fetchIfUnchanged(current));
+            } catch (Exception e) {
+                throw new KeySourceException("No se pudo obtener el JWKS: " + e.getMessage(), e);
+            }
+        }
+        return List.of();
+    }
+
+    // Una sola descarga aunque lleguen varias peticiones a la vez
+    private JWKSet fetchIfUnchanged(JWKSet seen) throws Exception {
+        fetchLock.lock();
+        try {
+            if (jwkSet != seen) return jwkSet;
+            return fetch();
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    JWKSet fetch() throws Exception {
+        JWKSet loaded = JWKSet.load(URI.create(jwkSetUri).toURL(), TIMEOUT_MS, TIMEOUT_MS, SIZE_LIMIT);
+        jwkSet = loaded;
+        lastFetch = System.currentTimeMillis();
+        return loaded;
+    }
+
+    public String getJwkSetUri() {
+        return jwkSetUri;
+    }
+}
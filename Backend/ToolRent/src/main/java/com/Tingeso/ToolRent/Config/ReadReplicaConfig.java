@@ -0,0 +1,117 @@
+package com.Tingeso.ToolRent.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+// Réplica de lectura (toolrent.replica.enabled=true). El primario sale de spring.datasource.*
+// y la réplica de toolrent.replica.*; ambos pools quedan detrás de un solo DataSource que enruta.
+// Sin la propiedad no se crea nada y todo va al primario como antes.
+// Con hilos virtuales cada pool se acota por separado a su propio tamaño (ver VirtualThreadsConfig).
+@Configuration
+@ConditionalOnProperty(name = "toolrent.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int primaryPoolSize;
+
+    @Value("${spring.datasource.hikari.data-source-properties.reWriteBatchedInserts:true}")
+    private String reWriteBatchedInserts;
+
+    @Value("${toolrent.replica.url}")
+    private String replicaUrl;
+
+    @Value("${toolrent.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${toolrent.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${toolrent.replica.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${toolrent.replica.max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${toolrent.replica.read-your-writes-ms:5000}")
+    private long readYourWritesMillis;
+
+    @Value("${toolrent.replica.max-concurrency:${toolrent.replica.pool-size:10}}")
+    private int replicaPermits;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private Environment env;
+
+    private HikariDataSource replicaPool;
+
+    @Bean
+    public ReplicaHealth replicaHealth() {
+        ReplicaHealth health = new ReplicaHealth(replicaPool(), maxLagMillis);
+        health.check();
+        return health;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ReplicaHealth replicaHealth) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        primary.setMaximumPoolSize(primaryPoolSize);
+        // El pool se arma a mano: las propiedades spring.datasource.hikari.* no se aplican solas
+        primary.addDataSourceProperty("reWriteBatchedInserts", reWriteBatchedInserts);
+
+        if (!virtualThreads) {
+            return new ReadWriteRoutingDataSource(primary, replicaPool(), replicaHealth);
+        }
+        // ReplicaHealth sigue usando el pool sin acotar: su consulta de retraso no hace cola
+        int primaryPermits = env.getProperty("toolrent.db.max-concurrency", Integer.class, primaryPoolSize);
+        return new ReadWriteRoutingDataSource(
+                VirtualThreadsConfig.bound(env, primary, "BD primaria", primaryPermits),
+                VirtualThreadsConfig.bound(env, replicaPool(), "réplica", replicaPermits),
+                replicaHealth);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory emf,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReplicaAwareTransactionManager tm = new ReplicaAwareTransactionManager(emf);
+        customizers.ifAvailable(c -> c.customize(tm));
+        return tm;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter(readYourWritesMillis);
+    }
+
+    private HikariDataSource replicaPool() {
+        if (replicaPool == null) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica");
+            pool.setJdbcUrl(replicaUrl);
+            pool.setUsername(replicaUsername);
+            pool.setPassword(replicaPassword);
+            pool.setMaximumPoolSize(replicaPoolSize);
+            pool.setReadOnly(true);
+            // Arranca aunque la réplica esté caída; ReplicaHealth la marca fuera de uso
+            pool.setInitializationFailTimeout(-1);
+            replicaPool = pool;
+        }
+        return replicaPool;
+    }
+}
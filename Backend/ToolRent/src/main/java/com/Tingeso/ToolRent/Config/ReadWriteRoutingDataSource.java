@@ -0,0 +1,49 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+// Primario para todo, réplica solo para las lecturas marcadas (ver ReplicaRouting) mientras esté sana.
+// Si la réplica no entrega la conexión se usa el primario en la misma llamada.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaHealth health;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealth health) {
+        this.primary = primary;
+        this.replica = replica;
+        this.health = health;
+        setTargetDataSources(Map.<Object, Object>of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReplicaRouting.isReplicaRequested() && health.isUsable() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!REPLICA.equals(determineCurrentLookupKey())) {
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            connection.setReadOnly(true);
+            return connection;
+        } catch (SQLException e) {
+            health.markDown();
+            return primary.getConnection();
+        }
+    }
+}
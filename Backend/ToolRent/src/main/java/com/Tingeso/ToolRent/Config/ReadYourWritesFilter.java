@@ -0,0 +1,53 @@
+package com.Tingeso.ToolRent.Config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+// Leer lo propio: nginx reparte sin afinidad, así que la marca viaja con el cliente.
+// Toda petición que modifica responde X-Last-Write (hora del servidor) y va entera al primario;
+// el front reenvía la marca y, mientras tenga menos de windowMillis, sus lecturas también van al primario.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Last-Write";
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            response.setHeader(HEADER, Long.toString(now));
+            ReplicaRouting.pinToPrimary();
+        } else if (isRecent(request.getHeader(HEADER), now)) {
+            ReplicaRouting.pinToPrimary();
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.unpin();
+        }
+    }
+
+    boolean isRecent(String lastWrite, long now) {
+        if (lastWrite == null || lastWrite.isBlank()) return false;
+        try {
+            return now - Long.parseLong(lastWrite.trim()) < windowMillis;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.Tingeso.ToolRent.Config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+// JpaTransactionManager que traduce cada transacción a un alcance de ReplicaRouting:
+// readOnly con label "replica" -> réplica, escritura -> primario, el resto hereda.
+// La conexión se pide en doBegin, así que el alcance tiene que existir antes.
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    public ReplicaAwareTransactionManager(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        if (!definition.isReadOnly()) {
+            ReplicaRouting.enter(false);
+        } else if (definition instanceof TransactionAttribute ta && ta.getLabels().contains(ReplicaRouting.LABEL)) {
+            ReplicaRouting.enter(true);
+        } else {
+            ReplicaRouting.inherit();
+        }
+
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException e) {
+            ReplicaRouting.exit();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ReplicaRouting.exit();
+        }
+    }
+}
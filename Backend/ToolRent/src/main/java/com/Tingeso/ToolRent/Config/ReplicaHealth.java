@@ -0,0 +1,64 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+// Estado de la réplica: se consulta el retraso de replicación cada cierto tiempo.
+// Si la réplica está caída o atrasada más de maxLagMillis, todas las lecturas van al primario
+// hasta el siguiente chequeo que la encuentre bien.
+public class ReplicaHealth {
+
+    // En un standby sin tráfico pendiente (recibido = aplicado) el retraso es 0 aunque la última transacción sea antigua
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END::bigint
+            """;
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile boolean usable;
+    private volatile long lagMillis = -1;
+
+    public ReplicaHealth(DataSource replica, long maxLagMillis) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${toolrent.replica.check-ms:5000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Long lag = replica.queryForObject(LAG_SQL, Long.class);
+            lagMillis = lag == null ? 0 : lag;
+            usable = lagMillis <= maxLagMillis;
+        } catch (Exception e) {
+            lagMillis = -1;
+            usable = false;
+        }
+
+        if (wasUsable != usable) {
+            System.out.println("Réplica " + (usable ? "disponible" : "fuera de uso")
+                    + " (retraso " + lagMillis + " ms)");
+        }
+    }
+
+    // Falló al pedir una conexión: fuera de uso hasta el próximo chequeo
+    public void markDown() {
+        if (usable) System.out.println("Réplica fuera de uso: no entrega conexiones");
+        usable = false;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
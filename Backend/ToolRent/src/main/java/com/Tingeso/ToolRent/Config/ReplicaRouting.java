@@ -0,0 +1,62 @@
+package com.Tingeso.ToolRent.Config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+// Qué lecturas pueden ir a la réplica. Una lectura va a la réplica solo si lo pide explícitamente:
+//  - @Transactional(readOnly = true, label = ReplicaRouting.LABEL) en un método de servicio, o
+//  - ReplicaRouting.read(() -> ...) para código que no pasa por un proxy (cachés, particiones en paralelo).
+// Una transacción de escritura dentro del alcance vuelve al primario, y una petición "fijada"
+// (escritura o escritura reciente del mismo usuario) nunca usa la réplica.
+public final class ReplicaRouting {
+
+    public static final String LABEL = "replica";
+
+    private static final ThreadLocal<Deque<Boolean>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static <T> T read(Supplier<T> query) {
+        enter(true);
+        try {
+            return query.get();
+        } finally {
+            exit();
+        }
+    }
+
+    static void enter(boolean replica) {
+        SCOPES.get().push(replica);
+    }
+
+    // Transacción que no dice nada (p.ej. la readOnly por defecto de los repositorios): hereda
+    static void inherit() {
+        SCOPES.get().push(Boolean.TRUE.equals(SCOPES.get().peek()));
+    }
+
+    static void exit() {
+        Deque<Boolean> scopes = SCOPES.get();
+        scopes.poll();
+        if (scopes.isEmpty()) SCOPES.remove();
+    }
+
+    public static boolean isReplicaRequested() {
+        return Boolean.TRUE.equals(SCOPES.get().peek()) && !Boolean.TRUE.equals(PINNED.get());
+    }
+
+    // Petición con escritura reciente: no debe compartir lecturas con otras (ver SingleFlight)
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    static void pinToPrimary() {
+        PINNED.set(true);
+    }
+
+    static void unpin() {
+        PINNED.remove();
+    }
+}
@@ -1,5 +1,11 @@
 package com.Tingeso.ToolRent.Config;
 
+import com.Tingeso.ToolRent.Services.EmployeeService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -7,7 +13,12 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -20,8 +31,15 @@ import java.util.*;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuerUri;
+
+    @Value("${toolrent.security.token-cache-size:10000}")
+    private int tokenCacheSize;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, CachedJwtAuthenticationManager jwtAuthManager)
+            throws Exception {
         http
                 // 1. PRIMERO CORS (más prioritario)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -40,27 +58,46 @@ public class SecurityConfig {
                 // 4. OAUTH2 RESOURCE SERVER
                 .oauth2ResourceServer(oauth2 ->
                         oauth2.jwt(jwt ->
-                                jwt.jwtAuthenticationConverter(jwtAuthConverter())
+                                jwt.authenticationManager(jwtAuthManager)
                         )
                 );
 
         return http.build();
     }
 
-    private JwtAuthenticationConverter jwtAuthConverter() {
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
-            Collection<GrantedAuthority> authorities = new ArrayList<>();
-            Map<String, Object> realmAccess = (Map<String, Object>) jwt.getClaims().get("realm_access");
+    // Decoder con las llaves precargadas de JwksKeySource (sin ida a Keycloak por petición)
+    @Bean
+    public JwtDecoder jwtDecoder(JwksKeySource jwksKeySource) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwksKeySource));
+        // Los claims (exp, iss) los valida Spring más abajo
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        processor.setJWSTypeVerifier((type, context) -> { });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+
+    // Verificación + roles + nombre del empleado una vez por token; las llamadas siguientes salen de la caché
+    @Bean
+    public CachedJwtAuthenticationManager jwtAuthManager(JwtDecoder jwtDecoder) {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(jwtDecoder);
+        provider.setJwtAuthenticationConverter(SecurityConfig::toAuthentication);
+        return new CachedJwtAuthenticationManager(provider, tokenCacheSize);
+    }
+
+    // Roles del realm como ROLE_*; el nombre de la autenticación es el nombre visible del empleado
+    static JwtAuthenticationToken toAuthentication(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = new ArrayList<>();
+        Map<String, Object> realmAccess = (Map<String, Object>) jwt.getClaims().get("realm_access");
 
-            if (realmAccess != null && realmAccess.get("roles") instanceof List<?>) {
-                List<?> roles = (List<?>) realmAccess.get("roles");
-                roles.forEach(r -> authorities.add(new SimpleGrantedAuthority("ROLE_" + r)));
-            }
+        if (realmAccess != null && realmAccess.get("roles") instanceof List<?>) {
+            List<?> roles = (List<?>) realmAccess.get("roles");
+            roles.forEach(r -> authorities.add(new SimpleGrantedAuthority("ROLE_" + r)));
+        }
 
-            return authorities;
-        });
-        return converter;
+        return new JwtAuthenticationToken(jwt, authorities, EmployeeService.displayName(jwt));
     }
 
     @Bean
@@ -78,8 +115,9 @@ public class SecurityConfig {
         ));
 
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "X-Last-Write"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Total-Count", "Age", "X-Report-Generated-At",
+                "Content-Disposition", "X-Last-Write"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L); // 1 hora
 
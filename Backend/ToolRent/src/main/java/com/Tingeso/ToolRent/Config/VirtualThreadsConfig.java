@@ -0,0 +1,42 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Modo opcional con hilos virtuales (spring.threads.virtual.enabled=true, requiere Java 21).
+// Spring Boot ya atiende Tomcat, @Async y @Scheduled con hilos virtuales; aquí solo se acota
+// la concurrencia hacia la BD al tamaño del pool para que las peticiones hagan cola en vez de agotarlo.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Con réplica, ReadReplicaConfig ya acota cada pool por separado
+                if (bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)
+                        && !(bean instanceof ReadWriteRoutingDataSource)) {
+                    // Por defecto, el tamaño del pool de Hikari (10 si no se configuró)
+                    int poolSize = env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                    return bound(env, dataSource, "BD", env.getProperty("toolrent.db.max-concurrency",
+                            Integer.class, poolSize));
+                }
+                return bean;
+            }
+        };
+    }
+
+    static DataSource bound(Environment env, DataSource pool, String name, int permits) {
+        long timeout = env.getProperty("toolrent.db.acquire-timeout-ms", Long.class, 60000L);
+
+        System.out.println("Hilos virtuales: " + name + " acotada a " + permits + " conexiones concurrentes");
+        return new BoundedDataSource(pool, permits, timeout);
+    }
+}
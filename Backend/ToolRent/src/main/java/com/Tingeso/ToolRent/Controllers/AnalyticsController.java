@@ -0,0 +1,30 @@
+package com.Tingeso.ToolRent.Controllers;
+
+import com.Tingeso.ToolRent.DTOs.RevenueAnalyticsDTO;
+import com.Tingeso.ToolRent.Services.RevenueAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin
+public class AnalyticsController {
+
+    @Autowired
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    // Ingresos de arriendos cerrados agrupados por day/week/month/category/employee/outcome
+    @GetMapping("/revenue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RevenueAnalyticsDTO> getRevenue(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "month") String groupBy,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String employee,
+            @RequestParam(required = false) String outcome) {
+        return ResponseEntity.ok(revenueAnalyticsService.query(from, to, groupBy, category, employee, outcome));
+    }
+}
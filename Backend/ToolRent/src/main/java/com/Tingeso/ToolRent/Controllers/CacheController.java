@@ -0,0 +1,24 @@
+package com.Tingeso.ToolRent.Controllers;
+
+import com.Tingeso.ToolRent.DTOs.CacheStatsDTO;
+import com.Tingeso.ToolRent.Services.CacheStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin
+public class CacheController {
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    // Estadísticas del nodo que atiende la petición
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDTO> getStats() {
+        return ResponseEntity.ok(cacheStatsService.getStats());
+    }
+}
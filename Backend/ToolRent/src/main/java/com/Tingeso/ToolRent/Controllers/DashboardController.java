@@ -0,0 +1,24 @@
+package com.Tingeso.ToolRent.Controllers;
+
+import com.Tingeso.ToolRent.DTOs.DashboardSummaryDTO;
+import com.Tingeso.ToolRent.Services.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    // Conteos de la pantalla de inicio en una sola llamada (sin consultar la BD)
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    public ResponseEntity<DashboardSummaryDTO> getSummary() {
+        return ResponseEntity.ok(dashboardService.getSummary());
+    }
+}
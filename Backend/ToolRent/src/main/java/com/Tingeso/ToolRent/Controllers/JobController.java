@@ -0,0 +1,26 @@
+package com.Tingeso.ToolRent.Controllers;
+
+import com.Tingeso.ToolRent.Entities.JobRunEntity;
+import com.Tingeso.ToolRent.Services.ClusterJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin
+public class JobController {
+
+    @Autowired
+    private ClusterJobService clusterJobService;
+
+    // Últimas corridas de los trabajos programados (todos los nodos), opcionalmente de un solo trabajo
+    @GetMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<JobRunEntity>> getRecentRuns(@RequestParam(required = false) String job) {
+        return ResponseEntity.ok(clusterJobService.getRecentRuns(job));
+    }
+}
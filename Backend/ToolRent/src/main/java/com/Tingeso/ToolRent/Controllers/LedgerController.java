@@ -0,0 +1,62 @@
+package com.Tingeso.ToolRent.Controllers;
+
+import com.Tingeso.ToolRent.Entities.LedgerEntryEntity;
+import com.Tingeso.ToolRent.Services.LedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ledger")
+@CrossOrigin
+public class LedgerController {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    // Saldo actual, o al cierre de una fecha (asOf=yyyy-MM-dd)
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    @GetMapping("/client/{clientId}/balance")
+    public ResponseEntity<Map<String, Object>> getBalance(@PathVariable Long clientId,
+                                                          @RequestParam(required = false) String asOf) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("clientId", clientId);
+
+        if (asOf == null) {
+            response.put("balance", ledgerService.getCurrentBalance(clientId));
+        } else {
+            response.put("asOf", asOf);
+            response.put("balance", ledgerService.getBalanceAsOf(clientId, LocalDate.parse(asOf)));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    @GetMapping("/client/{clientId}/entries")
+    public ResponseEntity<List<LedgerEntryEntity>> getEntries(@PathVariable Long clientId) {
+        return ResponseEntity.ok(ledgerService.getEntries(clientId));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    @PostMapping("/client/{clientId}/payments")
+    public ResponseEntity<LedgerEntryEntity> registerPayment(@PathVariable Long clientId,
+                                                             @RequestBody Map<String, Integer> body) {
+        int amount = body.get("amount");
+        return ResponseEntity.ok(ledgerService.registerPayment(clientId, amount));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping("/client/{clientId}/adjustments")
+    public ResponseEntity<LedgerEntryEntity> registerAdjustment(@PathVariable Long clientId,
+                                                                @RequestBody Map<String, String> body) {
+        int amount = Integer.parseInt(body.get("amount"));
+        String description = body.getOrDefault("description", "Ajuste");
+        return ResponseEntity.ok(ledgerService.registerAdjustment(clientId, amount, description));
+    }
+}
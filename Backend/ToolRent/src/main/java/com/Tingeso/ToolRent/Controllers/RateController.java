@@ -1,13 +1,18 @@
 package com.Tingeso.ToolRent.Controllers;
 
 import com.Tingeso.ToolRent.Entities.RateEntity;
+import com.Tingeso.ToolRent.Entities.RepricingJobEntity;
 import com.Tingeso.ToolRent.Services.RateService;
+import com.Tingeso.ToolRent.Services.RateSimulationService;
+import com.Tingeso.ToolRent.Services.RepricingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/api/rate")
@@ -17,6 +22,12 @@ public class RateController {
     @Autowired
     private RateService rateService;
 
+    @Autowired
+    private RepricingService repricingService;
+
+    @Autowired
+    private RateSimulationService rateSimulationService;
+
     // Obtener tarifa vigente
     @GetMapping("/latest")
     @PreAuthorize("hasRole('ADMIN')")
@@ -35,4 +46,86 @@ public class RateController {
         RateEntity created = rateService.createRate(rental, late);
         return ResponseEntity.ok(created);
     }
+
+    // Tarifa propia de una categoría (sin ella se usa la global)
+    @PostMapping("/category/{category}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RateEntity> createCategoryRate(@PathVariable String category,
+                                                         @RequestBody Map<String, Integer> body) {
+
+        int rental = body.get("dailyRentalRate");
+        int late = body.get("dailyLateFeeRent");
+
+        RateEntity created = rateService.createCategoryRate(category, rental, late);
+        return ResponseEntity.ok(created);
+    }
+
+    // Tarifas vigentes por categoría
+    @GetMapping("/categories")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Map<String, Integer>>> getCategoryRates() {
+        Map<String, Map<String, Integer>> result = new TreeMap<>();
+        rateService.getRateTable().getCategoryRates().forEach((category, rates) ->
+                result.put(category, Map.of(
+                        "dailyRentalRate", rates[0],
+                        "dailyLateFeeRent", rates[1]
+                )));
+        return ResponseEntity.ok(result);
+    }
+
+    // Cotizar total esperado para (categoría, días)
+    @GetMapping("/quote")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    public ResponseEntity<Map<String, Object>> quote(@RequestParam(required = false) String category,
+                                                     @RequestParam int days) {
+        int total = rateService.quote(category, days);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("category", category);
+        response.put("days", days);
+        response.put("total", total);
+        return ResponseEntity.ok(response);
+    }
+
+    // Avance del último recálculo de arriendos activos
+    @GetMapping("/repricing/latest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RepricingJobEntity> getLatestRepricing() {
+        RepricingJobEntity job = repricingService.getLatestJob();
+        if (job == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    // Simular el impacto de una tarifa propuesta sobre los arriendos cerrados del periodo
+    @PostMapping("/simulate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> simulate(@RequestBody Map<String, String> body) {
+
+        String category = body.get("category"); // opcional
+        String from = body.get("from");
+        String to = body.get("to");
+
+        // Datos faltantes o mal escritos: 400 con el motivo
+        int rental;
+        int late;
+        try {
+            rental = parseRate(body, "dailyRentalRate");
+            late = parseRate(body, "dailyLateFeeRent");
+            rateSimulationService.validate(from, to, rental, late);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        return ResponseEntity.ok(rateSimulationService.simulate(from, to, category, rental, late));
+    }
+
+    private static int parseRate(Map<String, String> body, String field) {
+        try {
+            return Integer.parseInt(body.get(field));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(field + " es obligatorio y debe ser un número entero");
+        }
+    }
 }
@@ -1,13 +1,14 @@
 package com.Tingeso.ToolRent.Controllers;
 
 import com.Tingeso.ToolRent.DTOs.RentDTO;
+import com.Tingeso.ToolRent.Services.EmployeeService;
 import com.Tingeso.ToolRent.Services.RentService;
 import com.Tingeso.ToolRent.Entities.RentEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -21,26 +22,17 @@ public class RentController {
     @Autowired
     private RentService rentService;
 
+    @Autowired
+    private EmployeeService employeeService;
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
     public Object createRent(
             @RequestBody Map<String, String> body,
             Authentication authentication
     ) {
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-
-        // Obtener nombre seguro del empleado
-        String given = jwt.getClaimAsString("given_name");
-        String family = jwt.getClaimAsString("family_name");
-        String employeeName;
-
-        if (given != null && family != null) {
-            employeeName = given + " " + family;
-        } else if (jwt.hasClaim("name")) {
-            employeeName = jwt.getClaimAsString("name"); // fallback
-        } else {
-            employeeName = jwt.getClaimAsString("preferred_username"); // último recurso
-        }
+        // Empleado de Keycloak (se registra la primera vez que opera)
+        Long employeeId = employeeService.resolve(authentication);
 
         // Datos enviados del front
         String rut = body.get("rut");
@@ -48,7 +40,12 @@ public class RentController {
         String finishDate = body.get("finishDate");
 
         // Guardar arriendo
-        return rentService.createRent(rut, toolId, finishDate, employeeName);
+        try {
+            return rentService.createRent(rut, toolId, finishDate, employeeId);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Otro préstamo (quizás en otro nodo) cambió la herramienta entre la lectura y el commit
+            return "TOOL_NOT_AVAILABLE";
+        }
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
@@ -59,11 +56,15 @@ public class RentController {
 
     @PostMapping("/return/{rentId}")
     @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
-    public ResponseEntity<RentDTO> returnTool(@PathVariable Long rentId, @RequestBody Map<String, Boolean> body) {
+    public ResponseEntity<RentDTO> returnTool(@PathVariable Long rentId, @RequestBody Map<String, Boolean> body,
+                                              Authentication authentication) {
         boolean damaged = body.getOrDefault("damaged", false);
         boolean irreparable = body.getOrDefault("irreparable", false);
 
-        return ResponseEntity.ok(rentService.returnTool(rentId, damaged, irreparable));
+        // Quien recibe la devolución, no quien hizo el préstamo
+        Long employeeId = employeeService.resolve(authentication);
+
+        return ResponseEntity.ok(rentService.returnTool(rentId, damaged, irreparable, employeeId));
     }
 
     @GetMapping("/report/active")
@@ -1,14 +1,23 @@
 package com.Tingeso.ToolRent.Controllers;
 
 import com.Tingeso.ToolRent.DTOs.ActiveRentReportDTO;
+import com.Tingeso.ToolRent.DTOs.CachedReportDTO;
+import com.Tingeso.ToolRent.DTOs.ClientExposureDTO;
+import com.Tingeso.ToolRent.DTOs.EmployeeActivityDTO;
+import com.Tingeso.ToolRent.DTOs.LateClientReportDTO;
+import com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO;
+import com.Tingeso.ToolRent.DTOs.ToolUtilizationDTO;
 import com.Tingeso.ToolRent.Entities.RentEntity;
+import com.Tingeso.ToolRent.Services.EmployeeActivityService;
+import com.Tingeso.ToolRent.Services.FineAccrualService;
 import com.Tingeso.ToolRent.Services.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -18,21 +27,77 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private FineAccrualService fineAccrualService;
+
+    @Autowired
+    private EmployeeActivityService employeeActivityService;
+
     @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
     @GetMapping("/active")
-    public List<ActiveRentReportDTO> getActiveRents() {
-        return reportService.getActiveRents();
+    public ResponseEntity<List<ActiveRentReportDTO>> getActiveRents() {
+        CachedReportDTO<List<ActiveRentReportDTO>> report = reportService.getActiveRents();
+        return withAge(report).body(report.value);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
     @GetMapping("/late")
-    public List<Map<String, Object>> getLateClients() {
-        return reportService.getLateClients();
+    public ResponseEntity<List<LateClientReportDTO>> getLateClients(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        int pageSize = Math.min(Math.max(size, 1), 500);
+        CachedReportDTO<List<LateClientReportDTO>> report = reportService.getLateClients(from, to, Math.max(page, 0), pageSize);
+        return withAge(report)
+                .header("X-Total-Count", String.valueOf(reportService.countLateClients(from, to).value))
+                .body(report.value);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
     @GetMapping("/ranking")
-    public List<Map<String, Object>> getToolRanking() {
-        return reportService.getToolRanking();
+    public ResponseEntity<List<ToolRankingReportDTO>> getToolRanking(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        CachedReportDTO<List<ToolRankingReportDTO>> report =
+                reportService.getToolRanking(days, category, Math.min(limit, 100));
+        return withAge(report).body(report.value);
+    }
+
+    // Fracción de días arrendados por modelo (groupBy=model) o por unidad (groupBy=unit)
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/utilization")
+    public ResponseEntity<List<ToolUtilizationDTO>> getUtilization(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "model") String groupBy) {
+        CachedReportDTO<List<ToolUtilizationDTO>> report = reportService.getUtilization(from, to, groupBy);
+        return withAge(report).body(report.value);
+    }
+
+    // Actividad por empleado, por día o por mes (sin fechas: mes en curso)
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/employee-activity")
+    public List<EmployeeActivityDTO> getEmployeeActivity(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(required = false) String employee) {
+        return employeeActivityService.getActivity(from, to, granularity, employee);
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/exposure")
+    public List<ClientExposureDTO> getClientExposure() {
+        return fineAccrualService.getClientExposure();
+    }
+
+    // Antigüedad de los datos: Age (segundos) y el momento exacto del cálculo
+    private ResponseEntity.BodyBuilder withAge(CachedReportDTO<?> report) {
+        return ResponseEntity.ok()
+                .header("Age", String.valueOf(report.ageSeconds()))
+                .header("X-Report-Generated-At", Instant.ofEpochMilli(report.generatedAt).toString());
     }
 }
@@ -0,0 +1,75 @@
+package com.Tingeso.ToolRent.Controllers;
+
+import com.Tingeso.ToolRent.Entities.ReportJobEntity;
+import com.Tingeso.ToolRent.Services.ReportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/report-jobs")
+@CrossOrigin
+public class ReportJobController {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    // Encola el reporte y responde de inmediato con el id del trabajo
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportJobEntity> submit(@RequestBody Map<String, String> body,
+                                                  Authentication authentication) {
+        String requestedBy = authentication.getName();
+        if (authentication.getPrincipal() instanceof Jwt jwt && jwt.hasClaim("preferred_username")) {
+            requestedBy = jwt.getClaimAsString("preferred_username");
+        }
+
+        ReportJobEntity job = reportJobService.submit(body.get("type"), body.get("from"), body.get("to"), requestedBy);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ReportJobEntity>> getRecentJobs() {
+        return ResponseEntity.ok(reportJobService.getRecentJobs());
+    }
+
+    // Estado y avance (processedRows / totalRows)
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportJobEntity> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+
+    @GetMapping("/{id}/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Resource> download(@PathVariable Long id) {
+        Path file = reportJobService.getResultFile(id);
+        ReportJobEntity job = reportJobService.getJob(id);
+        String name = job.getType().toLowerCase() + "_" + job.getFromDate() + "_" + job.getToDate() + ".csv";
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .contentLength(job.getFileSize())
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportJobEntity> cancel(@PathVariable Long id) {
+        return ResponseEntity.ok(reportJobService.cancel(id));
+    }
+}
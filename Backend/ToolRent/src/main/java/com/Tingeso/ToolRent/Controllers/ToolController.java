@@ -1,13 +1,13 @@
 package com.Tingeso.ToolRent.Controllers;
 
 import com.Tingeso.ToolRent.Entities.ToolEntity;
+import com.Tingeso.ToolRent.Services.EmployeeService;
 import com.Tingeso.ToolRent.Services.ToolService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -21,32 +21,19 @@ public class ToolController {
     @Autowired
     private final ToolService toolService;
 
+    @Autowired
+    private EmployeeService employeeService;
+
     public ToolController(ToolService toolService) {
         this.toolService = toolService;
     }
 
-    // Obtener nombre desde Keycloak
-    private String extractEmployeeName(Authentication auth) {
-        Jwt jwt = (Jwt) auth.getPrincipal();
-
-        String given = jwt.getClaimAsString("given_name");
-        String family = jwt.getClaimAsString("family_name");
-
-        if (given != null && family != null)
-            return given + " " + family;
-
-        if (jwt.hasClaim("name"))
-            return jwt.getClaimAsString("name");
-
-        return jwt.getClaimAsString("preferred_username");
-    }
-
     @PreAuthorize("hasAnyRole('ADMIN')")
     @PostMapping("/")
     public ResponseEntity<ToolEntity> addTool(@RequestBody ToolEntity tool, Authentication auth) {
-        String employeeName = extractEmployeeName(auth);
+        Long employeeId = employeeService.resolve(auth);
 
-        return ResponseEntity.ok(toolService.addTool(tool, employeeName));
+        return ResponseEntity.ok(toolService.addTool(tool, employeeId));
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
@@ -87,45 +74,18 @@ public class ToolController {
         System.out.println("🔧 ENTRANDO A updateTool DEL CONTROLADOR");
 
         try {
-            ToolEntity existing = toolService.getToolById(id);
-            if (existing == null) {
-                return ResponseEntity.notFound().build();
+            // Sin empleado no hay a quién cargarle el movimiento del cambio de estado
+            if (auth == null && !Objects.equals(toolService.getToolById(id).getStatus(), tool.getStatus())) {
+                return ResponseEntity.badRequest().build();
             }
 
-            tool.setId(id);
+            // El empleado se resuelve antes (su alta es idempotente); lo demás va en una transacción
+            Long employeeId = auth != null ? employeeService.resolve(auth) : null;
 
-            boolean statusChanged = !Objects.equals(existing.getStatus(), tool.getStatus());
-
-            System.out.println("existing status = " + existing.getStatus());
-            System.out.println("incoming status = " + tool.getStatus());
-            System.out.println("statusChanged = " + statusChanged);
-
-            boolean replacementChanged = !Objects.equals(existing.getReplacementValue(),
-                    tool.getReplacementValue());
-
-            System.out.println("existing replacementValue = " + existing.getReplacementValue());
-            System.out.println("incoming replacementValue = " + tool.getReplacementValue());
-            System.out.println("replacementChanged = " + replacementChanged);
-
-
-            // Si cambió replacementValue, Actualizar el grupo ANTES de actualizar esta herramienta
-            if (replacementChanged) {
-                toolService.updateToolGroupValues(
-                        existing.getName(),        // Usar los valores ANTIGUOS (correctos)
-                        existing.getCategory(),
-                        tool.getReplacementValue() // nuevo valor
-                );
-            }
-
-            // Cambió el estado actualizar estado + Kardex
-            if (statusChanged) {
-                if (auth == null) return ResponseEntity.badRequest().build();
-                String employeeName = extractEmployeeName(auth);
-                toolService.updateToolStatus(id, tool.getStatus(), employeeName);
+            ToolEntity saved = toolService.updateTool(id, tool, employeeId);
+            if (saved == null) {
+                return ResponseEntity.notFound().build();
             }
-
-            //Ahora actualizar esta herramienta (nombre/categoría/valor)
-            ToolEntity saved = toolService.updateToolFields(tool);
             return ResponseEntity.ok(saved);
 
         } catch (Exception e) {
@@ -0,0 +1,18 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheRegionStatsDTO {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long entries;   // -1 si el proveedor no lo informa
+    private double hitRatio;
+}
@@ -0,0 +1,24 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsDTO {
+
+    private String node;
+    private List<CacheRegionStatsDTO> regions;
+
+    // Avisos de invalidación enviados a / recibidos de los otros nodos
+    private long invalidationsSent;
+    private long invalidationsReceived;
+
+    // Transacciones terminadas y flushes de sesión desde que arrancó el nodo (para medir commits por operación)
+    private long transactions;
+    private long flushes;
+}
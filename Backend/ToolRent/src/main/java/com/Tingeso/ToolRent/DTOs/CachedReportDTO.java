@@ -0,0 +1,17 @@
+package com.Tingeso.ToolRent.DTOs;
+
+// Resultado de un reporte servido desde caché, con el momento en que se calculó
+public class CachedReportDTO<T> {
+    public T value;
+    public long generatedAt; // epoch millis
+
+    public CachedReportDTO(T value, long generatedAt) {
+        this.value = value;
+        this.generatedAt = generatedAt;
+    }
+
+    // Antigüedad en segundos (para el header Age)
+    public long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - generatedAt) / 1000);
+    }
+}
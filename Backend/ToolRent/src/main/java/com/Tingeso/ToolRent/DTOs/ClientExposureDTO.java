@@ -0,0 +1,18 @@
+package com.Tingeso.ToolRent.DTOs;
+
+public class ClientExposureDTO {
+    public Long clientId;
+    public String clientName;
+    public String rut;
+    public Long overdueRents;
+    public Long accruedFines;
+
+    public ClientExposureDTO(Long clientId, String clientName, String rut,
+                             Long overdueRents, Long accruedFines) {
+        this.clientId = clientId;
+        this.clientName = clientName;
+        this.rut = rut;
+        this.overdueRents = overdueRents;
+        this.accruedFines = accruedFines;
+    }
+}
@@ -0,0 +1,25 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardSummaryDTO {
+
+    private long activeRents;
+    private long lateRents;
+
+    private long availableTools;
+    private long rentedTools;
+    private long inRepairTools;
+    private long decommissionedTools;
+
+    private String today;
+    private long todayReturns;
+    private long todayRevenue;
+
+    private String reconciledAt; // última vez que los contadores se compararon con la BD
+}
@@ -0,0 +1,21 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeActivityDTO {
+
+    private String employeeName;
+    private String period; // yyyy-MM-dd (day) o yyyy-MM (month)
+
+    private long rentsIssued;       // kardex 1 = préstamo
+    private long returnsProcessed;  // kardex 2 = devolución
+    private long damageReports;     // kardex 5 = en reparación, 3 = baja
+    private long intakes;           // kardex 4 = ingreso
+
+    private long revenue;           // total de los arriendos cerrados ese periodo
+}
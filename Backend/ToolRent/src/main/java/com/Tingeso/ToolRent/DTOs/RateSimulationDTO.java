@@ -0,0 +1,30 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RateSimulationDTO {
+
+    private String from;
+    private String to;
+
+    private long rentsSimulated;
+
+    // Ingresos con las tarifas vigentes vs. con la propuesta
+    private long currentRevenue;
+    private long proposedRevenue;
+    private long delta;
+
+    // Lo realmente cobrado (totalAmount) en el periodo
+    private long recordedRevenue;
+
+    private long elapsedMillis;
+
+    private List<RateSimulationRowDTO> rows;
+}
@@ -0,0 +1,20 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RateSimulationRowDTO {
+
+    private String category;
+    private String month; // yyyy-MM
+
+    private long rents;
+
+    private long currentRevenue;
+    private long proposedRevenue;
+    private long delta;
+}
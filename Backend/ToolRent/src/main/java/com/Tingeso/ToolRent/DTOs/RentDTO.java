@@ -28,5 +28,8 @@ public class RentDTO {
     private int fineAmount;
     private int totalAmount;
 
+    // Total estimado con las tarifas vigentes mientras el arriendo sigue activo (ver RepricingService)
+    private Integer projectedAmount;
+
     private String employeeName;
 }
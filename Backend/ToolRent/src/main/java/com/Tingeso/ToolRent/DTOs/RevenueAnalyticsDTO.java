@@ -0,0 +1,24 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueAnalyticsDTO {
+
+    private String groupBy; // day, week, month, category, employee, outcome
+    private String from;
+    private String to;
+
+    private long rents;
+    private long revenue;
+
+    private long elapsedMicros;
+
+    private List<RevenueBucketDTO> rows;
+}
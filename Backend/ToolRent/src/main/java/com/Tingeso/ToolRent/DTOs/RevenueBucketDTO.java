@@ -0,0 +1,20 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueBucketDTO {
+
+    // yyyy-MM-dd (día o lunes de la semana), yyyy-MM, categoría, empleado u outcome
+    private String key;
+
+    private long rents;
+    private long revenue;
+
+    // Devueltos con atraso (multa > 0)
+    private long lateRents;
+}
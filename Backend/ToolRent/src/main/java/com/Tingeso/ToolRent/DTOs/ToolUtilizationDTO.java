@@ -0,0 +1,24 @@
+package com.Tingeso.ToolRent.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ToolUtilizationDTO {
+
+    private Long toolId;       // null cuando se agrupa por modelo (nombre/categoría)
+    private String name;
+    private String category;
+
+    private int units;         // unidades consideradas en la ventana
+    private int rents;         // arriendos que tocan la ventana
+
+    private long rentedDays;   // días-unidad arrendados dentro de la ventana
+    private long availableDays; // unidades * días de la ventana
+    private double utilization; // rentedDays / availableDays
+
+    private int peakConcurrent; // máximo de arriendos simultáneos
+}
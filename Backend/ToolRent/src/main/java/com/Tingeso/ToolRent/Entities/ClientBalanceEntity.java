@@ -0,0 +1,26 @@
+package com.Tingeso.ToolRent.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Saldo vigente por cliente, se actualiza con cada movimiento del libro
+@Entity
+@Table(name = "ClientBalance")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ClientBalanceEntity {
+
+    @Id
+    @Column(unique = true, nullable = false)
+    private Long clientId;
+
+    private int balance;
+
+    private Long lastEntryId;
+
+    private String updatedAt;
+}
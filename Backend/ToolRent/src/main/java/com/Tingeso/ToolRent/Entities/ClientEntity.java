@@ -4,9 +4,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Caché de segundo nivel (invalidación difundida entre nodos)
 @Entity
 @Table(name = "Client")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +19,8 @@ import lombok.NoArgsConstructor;
 public class ClientEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+    @SequenceGenerator(name = "client_seq", sequenceName = "client_seq", allocationSize = 50)
     @Column(unique = true, nullable = false)
     private Long id;
 
@@ -24,4 +30,8 @@ public class ClientEntity {
     private String phoneNumber;
     private int status; // Active = 1, restricted = 0
 
+    // Restringido a mano por un administrador: la restricción automática no lo levanta
+    @Column(nullable = false)
+    private boolean manualRestriction;
+
 }
@@ -0,0 +1,28 @@
+package com.Tingeso.ToolRent.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Empleado que opera el sistema, identificado por el subject (sub) de Keycloak.
+// Rents y KardexMovement guardan solo el id; el nombre vive aquí una vez.
+@Entity
+@Table(name = "Employee")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false)
+    private Long id;
+
+    // null en los empleados históricos creados desde los nombres antiguos (no inician sesión)
+    private String subject;
+
+    private String name;      // "given family" del token
+    private String username;  // preferred_username
+}
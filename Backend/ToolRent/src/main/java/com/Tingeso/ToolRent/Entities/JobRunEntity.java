@@ -0,0 +1,43 @@
+package com.Tingeso.ToolRent.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Una corrida de un trabajo programado de clúster (ver ClusterJobService)
+@Entity
+@Table(name = "JobRun")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class JobRunEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_run_seq")
+    @SequenceGenerator(name = "job_run_seq", sequenceName = "job_run_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false)
+    private Long id;
+
+    private String jobName;
+
+    // Nodo que la ejecutó
+    private String node;
+
+    // RUNNING, DONE, FAILED, INTERRUPTED (el nodo murió; otra corrida retomó desde su checkpoint)
+    private String status;
+
+    private String startedAt;
+    private String finishedAt;
+    private Long durationMs;
+
+    // Avance guardado por el trabajo; la corrida que retoma parte desde aquí
+    private String checkpoint;
+
+    // Corrida interrumpida que esta retomó
+    private Long resumedFrom;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -12,7 +12,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class KardexEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kardex_movement_seq")
+    @SequenceGenerator(name = "kardex_movement_seq", sequenceName = "kardex_movement_seq", allocationSize = 50)
     @Column(unique = true, nullable = false)
     private Long id;
 
@@ -31,8 +32,8 @@ public class KardexEntity {
     // Herramienta asociada
     private Long toolId;
 
-    // Usuario que generó el movimiento (empleado/admin)
-    private String employeeName;
+    // Usuario que generó el movimiento (empleado/admin), ver EmployeeEntity
+    private Long employeeId;
 
     // Relación opcional (solo si quieres cargar datos de la herramienta)
     @ManyToOne(fetch = FetchType.LAZY)
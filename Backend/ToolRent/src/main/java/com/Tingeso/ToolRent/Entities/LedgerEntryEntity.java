@@ -0,0 +1,43 @@
+package com.Tingeso.ToolRent.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "LedgerEntry")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class LedgerEntryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false)
+    private Long id;
+
+    private Long clientId;
+
+    // Arriendo asociado (solo cargos y multas)
+    private Long rentId;
+
+    // 1 = Cargo arriendo
+    // 2 = Multa por atraso
+    // 3 = Pago
+    // 4 = Ajuste
+    private int type;
+
+    // Positivo aumenta la deuda, negativo la disminuye
+    private int amount;
+
+    // Saldo del cliente justo después de este movimiento
+    private int balanceAfter;
+
+    // Fecha/hora en formato ISO (LocalDateTime.toString())
+    private String entryDate;
+
+    private String description;
+}
@@ -4,10 +4,15 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
+// Caché de segundo nivel (invalidación difundida entre nodos)
 @Entity
 @Table (name = "Rate")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rate")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,10 +20,19 @@ import lombok.NoArgsConstructor;
 public class RateEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rate_seq")
+    @SequenceGenerator(name = "rate_seq", sequenceName = "rate_seq", allocationSize = 50)
     @Column(unique = true, nullable = false)
     private Long id;
 
     private int dailyRentalRate;
     private int dailyLateFeeRent;
+
+    // Categoría a la que aplica la tarifa (null = tarifa global)
+    private String category;
+
+    // Tarifa global
+    public RateEntity(Long id, int dailyRentalRate, int dailyLateFeeRent) {
+        this(id, dailyRentalRate, dailyLateFeeRent, null);
+    }
 }
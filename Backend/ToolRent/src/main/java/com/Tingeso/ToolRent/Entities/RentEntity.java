@@ -14,13 +14,14 @@ import lombok.NoArgsConstructor;
 public class RentEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rents_seq")
+    @SequenceGenerator(name = "rents_seq", sequenceName = "rents_seq", allocationSize = 50)
     @Column (unique = true, nullable = false)
     private long id;
 
     private Long clientId;
     private Long toolId;
-    private String employeeName;
+    private Long employeeId; // EmployeeEntity
 
     private String startDate;
     private String finishDate;
@@ -29,6 +30,9 @@ public class RentEntity {
     private int fineAmount;
     private int totalAmount;
 
+    // Total si se devolviera en la fecha pactada (o hoy, si está atrasado); solo arriendos activos
+    private Integer projectedAmount;
+
     boolean active;
 
     boolean damaged;
@@ -0,0 +1,47 @@
+package com.Tingeso.ToolRent.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Trabajo de exportación asíncrono: se pide, se consulta el avance y se descarga el archivo
+@Entity
+@Table(name = "ReportJob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ReportJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_job_seq")
+    @SequenceGenerator(name = "report_job_seq", sequenceName = "report_job_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false)
+    private Long id;
+
+    // RENTS, KARDEX, LATE_CLIENTS
+    private String type;
+
+    // Periodo pedido (yyyy-MM-dd, ambos inclusive)
+    private String fromDate;
+    private String toDate;
+
+    // QUEUED, RUNNING, DONE, FAILED, CANCELLED, EXPIRED
+    private String status;
+
+    private long processedRows;
+    private long totalRows;
+
+    // Nodo que lo ejecuta y archivo resultante (en toolrent.report-jobs.dir)
+    private String node;
+    private String fileName;
+    private long fileSize;
+
+    private String requestedBy;
+    private String error;
+
+    private String createdAt;
+    private String finishedAt;
+    private String expiresAt;
+}
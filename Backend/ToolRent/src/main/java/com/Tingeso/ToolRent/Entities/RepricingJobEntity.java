@@ -0,0 +1,40 @@
+package com.Tingeso.ToolRent.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "RepricingJob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class RepricingJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "repricing_job_seq")
+    @SequenceGenerator(name = "repricing_job_seq", sequenceName = "repricing_job_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false)
+    private Long id;
+
+    // Tarifa que gatilló el recálculo
+    private Long rateId;
+
+    // RUNNING, DONE, SUPERSEDED, FAILED
+    private String status;
+
+    // Rango de ids de arriendos activos al iniciar el trabajo
+    private long fromId;
+    private long toId;
+
+    // Último id procesado sin huecos (desde aquí se retoma si el nodo se reinicia)
+    private long lastCompletedId;
+
+    private long processedRents;
+    private long totalRents;
+
+    private String startedAt;
+    private String finishedAt;
+}
@@ -5,16 +5,22 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Caché de segundo nivel: se lee en cada préstamo y devolución; la invalidación se difunde a los otros nodos
 @Entity
 @Table(name = "Tool")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tool")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 
 public class ToolEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tool_seq")
+    @SequenceGenerator(name = "tool_seq", sequenceName = "tool_seq", allocationSize = 50)
     @Column(unique = true, nullable = false)
     private Long id;
 
@@ -25,4 +31,9 @@ public class ToolEntity {
 
     @Transient
     private Integer stock;
+
+    // Bloqueo optimista: el estado puede venir de la caché de segundo nivel y estar viejo (otro nodo
+    // la prestó recién); el UPDATE con la versión vieja falla en vez de prestarla dos veces
+    @Version
+    private Long version;
 }
@@ -0,0 +1,34 @@
+package com.Tingeso.ToolRent.Entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Contador diario de préstamos por herramienta (nombre + categoría).
+// Se suma 1 con cada préstamo; el ranking se calcula desde aquí sin leer Rents.
+@Entity
+@Table(name = "ToolRentalDaily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_tool_rental_daily",
+                columnNames = {"rentalDay", "toolName", "category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ToolRentalDailyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tool_rental_daily_seq")
+    @SequenceGenerator(name = "tool_rental_daily_seq", sequenceName = "tool_rental_daily_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false)
+    private Long id;
+
+    private String rentalDay; // yyyy-MM-dd
+    private String toolName;
+    private String category;  // "" si la herramienta no tiene categoría
+
+    // Una de las unidades con ese nombre (la de menor id)
+    private Long toolId;
+
+    private long rentals;
+}
@@ -0,0 +1,12 @@
+package com.Tingeso.ToolRent.Events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Se publica cuando cambia el saldo de un cliente (cargo, multa, pago o ajuste)
+@Data
+@AllArgsConstructor
+public class LedgerChangedEvent {
+    private Long clientId;
+    private int balance;
+}
@@ -0,0 +1,11 @@
+package com.Tingeso.ToolRent.Events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Se publica cuando un admin registra una tarifa nueva (global o de categoría)
+@Data
+@AllArgsConstructor
+public class RateChangedEvent {
+    private Long rateId;
+}
@@ -0,0 +1,14 @@
+package com.Tingeso.ToolRent.Events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Se publica al registrar un préstamo
+@Data
+@AllArgsConstructor
+public class RentCreatedEvent {
+    private Long rentId;
+    private Long clientId;
+    private Long toolId;
+    private String finishDate;
+}
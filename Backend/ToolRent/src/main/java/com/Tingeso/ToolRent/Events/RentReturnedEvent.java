@@ -0,0 +1,17 @@
+package com.Tingeso.ToolRent.Events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Se publica al procesar una devolución
+@Data
+@AllArgsConstructor
+public class RentReturnedEvent {
+    private Long rentId;
+    private Long clientId;
+    private Long toolId;
+    private int totalAmount;
+    private boolean damaged;
+    private boolean irreparable;
+    private String finishDate;
+}
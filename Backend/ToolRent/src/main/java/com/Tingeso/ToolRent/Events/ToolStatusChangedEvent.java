@@ -0,0 +1,14 @@
+package com.Tingeso.ToolRent.Events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Se publica cada vez que una herramienta cambia de estado
+// (0 = no existía / eliminada, 1 disponible, 2 prestada, 3 en reparación, 4 dada de baja)
+@Data
+@AllArgsConstructor
+public class ToolStatusChangedEvent {
+    private Long toolId;
+    private int oldStatus;
+    private int newStatus;
+}
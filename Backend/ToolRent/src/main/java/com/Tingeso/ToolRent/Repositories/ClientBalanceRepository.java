@@ -0,0 +1,48 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.ClientBalanceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+
+public interface ClientBalanceRepository extends JpaRepository<ClientBalanceEntity, Long> {
+
+    // Crea la fila en 0 si el cliente aún no tiene movimientos
+    @Modifying
+    @Query(value = """
+            INSERT INTO client_balance (client_id, balance, last_entry_id, updated_at)
+            VALUES (:clientId, 0, NULL, NULL)
+            ON CONFLICT (client_id) DO NOTHING
+            """, nativeQuery = true)
+    void insertIfMissing(@Param("clientId") Long clientId);
+
+    // Bloquea el saldo del cliente hasta el fin de la transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ClientBalanceEntity b WHERE b.clientId = :clientId")
+    Optional<ClientBalanceEntity> findForUpdate(@Param("clientId") Long clientId);
+
+    // Saldo vencido: el saldo menos los cargos aún dentro del plazo (los pagos cubren primero lo más antiguo)
+    @Query("""
+            SELECT b.clientId
+            FROM ClientBalanceEntity b
+            WHERE b.clientId BETWEEN :fromId AND :toId
+              AND b.balance > :maxBalance
+              AND b.balance - COALESCE((SELECT SUM(e.amount) FROM LedgerEntryEntity e
+                                        WHERE e.clientId = b.clientId
+                                          AND e.amount > 0
+                                          AND e.entryDate >= :since), 0) > :maxBalance
+            """)
+    List<Long> findClientIdsWithOverdueBalanceAbove(@Param("maxBalance") int maxBalance,
+                                                    @Param("since") String since,
+                                                    @Param("fromId") Long fromId,
+                                                    @Param("toId") Long toId);
+}
@@ -2,16 +2,52 @@ package com.Tingeso.ToolRent.Repositories;
 
 
 import com.Tingeso.ToolRent.Entities.ClientEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 
 public interface ClientRepository extends JpaRepository<ClientEntity, Long> {
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<ClientEntity> findByRut(String rut);
 
-
+    // Cambia el estado solo si es distinto y no fue restringido a mano (0 filas = no cambió)
+    @Modifying
+    @Query("""
+            UPDATE ClientEntity c SET c.status = :status
+            WHERE c.id = :id AND c.status <> :status AND c.manualRestriction = false
+            """)
+    int updateStatusIfChanged(@Param("id") Long id, @Param("status") int status);
+
+    @Query("SELECT MIN(c.id) FROM ClientEntity c")
+    Long findMinId();
+
+    @Query("SELECT MAX(c.id) FROM ClientEntity c")
+    Long findMaxId();
+
+    @Modifying
+    @Query("UPDATE ClientEntity c SET c.status = 0 WHERE c.id IN :ids AND c.status <> 0")
+    int restrictAll(@Param("ids") Collection<Long> ids);
+
+    // Habilita el tramo salvo los ids indicados y los restringidos a mano (la lista nunca debe ir vacía)
+    @Modifying
+    @Query("""
+            UPDATE ClientEntity c SET c.status = 1
+            WHERE c.id BETWEEN :fromId AND :toId
+              AND c.id NOT IN :excluded
+              AND c.status <> 1
+              AND c.manualRestriction = false
+            """)
+    int enableRangeExcept(@Param("fromId") Long fromId,
+                          @Param("toId") Long toId,
+                          @Param("excluded") Collection<Long> excluded);
 }
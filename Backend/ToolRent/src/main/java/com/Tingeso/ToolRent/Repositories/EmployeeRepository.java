@@ -0,0 +1,13 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.EmployeeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EmployeeRepository extends JpaRepository<EmployeeEntity, Long> {
+
+    Optional<EmployeeEntity> findBySubject(String subject);
+}
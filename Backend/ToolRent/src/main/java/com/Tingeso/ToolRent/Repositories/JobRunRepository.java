@@ -0,0 +1,31 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.JobRunEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+
+public interface JobRunRepository extends JpaRepository<JobRunEntity, Long> {
+
+    JobRunEntity findTopByJobNameAndStatusOrderByIdDesc(String jobName, String status);
+
+    boolean existsByJobNameAndStatus(String jobName, String status);
+
+    List<JobRunEntity> findTop50ByOrderByIdDesc();
+
+    List<JobRunEntity> findTop50ByJobNameOrderByIdDesc(String jobName);
+
+    @Modifying
+    @Query("UPDATE JobRunEntity j SET j.checkpoint = :checkpoint WHERE j.id = :id")
+    int updateCheckpoint(@Param("id") Long id, @Param("checkpoint") String checkpoint);
+
+    @Modifying
+    @Query("DELETE FROM JobRunEntity j WHERE j.status <> 'RUNNING' AND j.startedAt < :before")
+    int deleteFinishedBefore(@Param("before") String before);
+}
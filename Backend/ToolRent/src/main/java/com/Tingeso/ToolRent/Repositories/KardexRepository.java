@@ -1,9 +1,13 @@
 package com.Tingeso.ToolRent.Repositories;
 
 import com.Tingeso.ToolRent.Entities.KardexEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 
@@ -11,11 +15,41 @@ public interface KardexRepository extends JpaRepository<KardexEntity, Long> {
 
     List<KardexEntity> findByMovementType(int type);
 
+    // Los listados del kardex muestran nombre y categoría: la herramienta viene en la misma consulta
+    // (sin open-in-view no hay sesión para cargarla después)
+    @Override
+    @EntityGraph(attributePaths = "tool")
+    List<KardexEntity> findAll();
+
+    @EntityGraph(attributePaths = "tool")
     List<KardexEntity> findByToolIdOrderByMovementDateDesc(Long toolId);
 
+    @EntityGraph(attributePaths = "tool")
     List<KardexEntity> findByMovementDateBetweenOrderByMovementDateDesc(
             String startDate,
             String endDate
         );
+
+    // Movimientos por empleado, día del mes y tipo en [from, to) (usa idx_kardex_movement_date)
+    @Query(value = """
+            SELECT
+                e.name AS employeeName,
+                m.day AS day,
+                m.movement_type AS movementType,
+                m.movements AS movements
+            FROM (
+                SELECT
+                    k.employee_id,
+                    CAST(SUBSTRING(k.movement_date, 9, 2) AS INTEGER) AS day,
+                    k.movement_type,
+                    COUNT(*) AS movements
+                FROM kardex_movement k
+                WHERE k.movement_date >= :from
+                  AND k.movement_date < :to
+                GROUP BY k.employee_id, CAST(SUBSTRING(k.movement_date, 9, 2) AS INTEGER), k.movement_type
+            ) m
+            LEFT JOIN employee e ON m.employee_id = e.id
+            """, nativeQuery = true)
+    List<Map<String, Object>> countByEmployeeDayAndType(@Param("from") String from, @Param("to") String to);
 }
 
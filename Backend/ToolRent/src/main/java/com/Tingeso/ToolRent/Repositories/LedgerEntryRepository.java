@@ -0,0 +1,38 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.LedgerEntryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntryEntity, Long> {
+
+    List<LedgerEntryEntity> findByClientIdOrderByIdDesc(Long clientId);
+
+    // Cargo o multa ya registrado para el arriendo (usa uq_ledger_rent_type)
+    boolean existsByRentIdAndType(Long rentId, int type);
+
+    // Último movimiento anterior a la fecha dada (usa idx_ledger_client_date)
+    LedgerEntryEntity findTopByClientIdAndEntryDateLessThanOrderByEntryDateDescIdDesc(Long clientId, String before);
+
+    // Cargos y multas del cliente desde la fecha dada, es decir, aún dentro del plazo de pago
+    @Query("""
+            SELECT COALESCE(SUM(e.amount), 0)
+            FROM LedgerEntryEntity e
+            WHERE e.clientId = :clientId AND e.amount > 0 AND e.entryDate >= :since
+            """)
+    long sumChargesSince(@Param("clientId") Long clientId, @Param("since") String since);
+
+    // Clientes con cargos en [from, to) (usa idx_ledger_charge_date)
+    @Query("""
+            SELECT DISTINCT e.clientId
+            FROM LedgerEntryEntity e
+            WHERE e.amount > 0 AND e.entryDate >= :from AND e.entryDate < :to
+            """)
+    List<Long> findClientIdsChargedBetween(@Param("from") String from, @Param("to") String to);
+}
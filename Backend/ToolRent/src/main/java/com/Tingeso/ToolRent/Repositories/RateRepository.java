@@ -1,12 +1,25 @@
 package com.Tingeso.ToolRent.Repositories;
 
 import com.Tingeso.ToolRent.Entities.RateEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 
 public interface RateRepository extends JpaRepository<RateEntity, Long> {
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     RateEntity findTopByOrderByIdDesc();
+
+    // Última tarifa global (sin categoría)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    RateEntity findTopByCategoryIsNullOrderByIdDesc();
+
+    // Historial completo, la fila más nueva de cada categoría queda al final
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<RateEntity> findAllByOrderByIdAsc();
 }
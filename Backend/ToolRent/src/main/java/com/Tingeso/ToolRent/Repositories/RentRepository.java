@@ -1,51 +1,207 @@
 package com.Tingeso.ToolRent.Repositories;
 
 import com.Tingeso.ToolRent.DTOs.ActiveRentReportDTO;
+import com.Tingeso.ToolRent.DTOs.ClientExposureDTO;
 import com.Tingeso.ToolRent.DTOs.LateClientReportDTO;
 import com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO;
 import com.Tingeso.ToolRent.Entities.RentEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Repository
 
 public interface RentRepository extends JpaRepository<RentEntity, Long> {
 
+    // Listado completo y reportes que devuelven la entidad: cliente y herramienta en la misma consulta
+    @Override
+    @EntityGraph(attributePaths = {"client", "tool"})
+    List<RentEntity> findAll();
+
     List<RentEntity> findByClientIdAndActiveTrue(Long id);
 
     boolean existsByClientIdAndToolIdAndActiveTrue(Long id, Long toolId);
 
-    // 1) Prestamos activos
+    // 1) Prestamos activos (cliente y herramienta en la misma consulta: el reporte se arma fuera de la petición)
+    @EntityGraph(attributePaths = {"client", "tool"})
     List<RentEntity> findByActiveTrue();
 
-    // 2) Clientes con atrasos (finishDate < hoy && returnDate == null)
+    // Bloquea el arriendo hasta el fin de la transacción: dos devoluciones del mismo se serializan
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RentEntity r WHERE r.id = :id")
+    Optional<RentEntity> findForUpdate(@Param("id") Long id);
+
+    // 2) Clientes con atrasos, agregados por cliente y ordenados por gravedad; solo arriendos
+    //    con término en [from, to] (usa idx_rents_unreturned_finish: return_date IS NULL AND finish_date < hoy)
     @Query(value = """
 SELECT
-    r.id AS rentId,
+    c.id AS clientId,
     c.name AS clientName,
-    r.finish_date AS finishDate
+    c.rut AS rut,
+    SUM(TO_DATE(:today, 'YYYY-MM-DD') - TO_DATE(r.finish_date, 'YYYY-MM-DD')) AS totalLateDays,
+    COUNT(r.id) AS totalLateOccurrences
 FROM rents r
 JOIN client c ON r.client_id = c.id
 WHERE r.return_date IS NULL
-  AND TO_DATE(r.finish_date, 'YYYY-MM-DD') < TO_DATE(:today, 'YYYY-MM-DD')
+  AND r.finish_date < :today
+  AND r.finish_date BETWEEN :from AND :to
+GROUP BY c.id, c.name, c.rut
+ORDER BY totalLateDays DESC, totalLateOccurrences DESC, c.id
+LIMIT :limit OFFSET :offset
+""", nativeQuery = true)
+    List<Map<String, Object>> findLateClients(@Param("today") String today,
+                                              @Param("from") String from,
+                                              @Param("to") String to,
+                                              @Param("limit") int limit,
+                                              @Param("offset") int offset);
+
+    @Query(value = """
+SELECT COUNT(DISTINCT r.client_id)
+FROM rents r
+WHERE r.return_date IS NULL
+  AND r.finish_date < :today
+  AND r.finish_date BETWEEN :from AND :to
+""", nativeQuery = true)
+    long countLateClients(@Param("today") String today, @Param("from") String from, @Param("to") String to);
+
+    // 3) Resumen del dashboard: arriendos activos por fecha de término y devoluciones del día
+    @Query(value = """
+SELECT r.finish_date AS finishDate, COUNT(*) AS rents
+FROM rents r
+WHERE r.active = true
+GROUP BY r.finish_date
+""", nativeQuery = true)
+    List<Map<String, Object>> countActiveByFinishDate();
+
+    @Query(value = """
+SELECT COUNT(*) AS returns, COALESCE(SUM(r.total_amount), 0) AS revenue
+FROM rents r
+WHERE r.return_date = :day
+""", nativeQuery = true)
+    List<Map<String, Object>> sumReturnedOn(@Param("day") String day);
+
+    // Ingresos de arriendos cerrados por empleado y día del mes en [from, to)
+    @Query(value = """
+SELECT
+    e.name AS employeeName,
+    CAST(SUBSTRING(r.return_date, 9, 2) AS INTEGER) AS day,
+    SUM(r.total_amount) AS revenue
+FROM rents r
+LEFT JOIN employee e ON r.employee_id = e.id
+WHERE r.return_date >= :from
+  AND r.return_date < :to
+GROUP BY e.name, CAST(SUBSTRING(r.return_date, 9, 2) AS INTEGER)
 """, nativeQuery = true)
-    List<Map<String, Object>> findLateClients(@Param("today") String today);
+    List<Map<String, Object>> sumRevenueByEmployeeDay(@Param("from") String from, @Param("to") String to);
+
+
+    // 4) Rango de ids de arriendos activos (recálculo por tramos)
+    @Query("SELECT MIN(r.id) FROM RentEntity r WHERE r.active = true")
+    Long findMinActiveId();
+
+    @Query("SELECT MAX(r.id) FROM RentEntity r WHERE r.active = true")
+    Long findMaxActiveId();
 
+    long countByActiveTrue();
 
-    // 3) Ranking herramientas más usadas
+    // Datos mínimos para calcular el total proyectado de un tramo de arriendos activos
     @Query(value = """
-            SELECT 
-                t.name AS toolName,
-                COUNT(r.id) AS timesUsed
+            SELECT
+                r.id AS id,
+                r.start_date AS startDate,
+                r.finish_date AS finishDate,
+                t.category AS category
             FROM rents r
             JOIN tool t ON r.tool_id = t.id
-            GROUP BY t.name
-            ORDER BY timesUsed DESC
+            WHERE r.active = true
+              AND r.id BETWEEN :fromId AND :toId
+            """, nativeQuery = true)
+    List<Map<String, Object>> findActiveForPricing(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // 5) Multas acumuladas de arriendos activos atrasados, una sentencia por tramo de tarifa
+    //    (las categorías se comparan normalizadas, igual que en RateTable)
+    @Modifying
+    @Query(value = """
+            UPDATE rents r
+            SET fine_amount = (TO_DATE(:today, 'YYYY-MM-DD') - TO_DATE(r.finish_date, 'YYYY-MM-DD')) * :rate
+            FROM tool t
+            WHERE r.tool_id = t.id
+              AND r.active = true
+              AND r.finish_date < :today
+              AND LOWER(TRIM(t.category)) = :category
+            """, nativeQuery = true)
+    int accrueFinesForCategory(@Param("today") String today,
+                               @Param("category") String category,
+                               @Param("rate") int rate);
+
+    // Tarifa global: categorías sin tarifa propia
+    @Modifying
+    @Query(value = """
+            UPDATE rents r
+            SET fine_amount = (TO_DATE(:today, 'YYYY-MM-DD') - TO_DATE(r.finish_date, 'YYYY-MM-DD')) * :rate
+            FROM tool t
+            WHERE r.tool_id = t.id
+              AND r.active = true
+              AND r.finish_date < :today
+              AND (t.category IS NULL OR LOWER(TRIM(t.category)) NOT IN (:categories))
+            """, nativeQuery = true)
+    int accrueFinesExcept(@Param("today") String today,
+                          @Param("categories") List<String> categories,
+                          @Param("rate") int rate);
+
+    @Modifying
+    @Query(value = """
+            UPDATE rents r
+            SET fine_amount = (TO_DATE(:today, 'YYYY-MM-DD') - TO_DATE(r.finish_date, 'YYYY-MM-DD')) * :rate
+            WHERE r.active = true
+              AND r.finish_date < :today
             """, nativeQuery = true)
-    List<Map<String, Object>> getToolRanking();
+    int accrueFinesAll(@Param("today") String today, @Param("rate") int rate);
+
+    // 6) Exposición acumulada por cliente (usa idx_rents_active_client_fine)
+    @Query("""
+            SELECT new com.Tingeso.ToolRent.DTOs.ClientExposureDTO(
+                r.clientId, c.name, c.rut, COUNT(r), SUM(r.fineAmount))
+            FROM RentEntity r
+            JOIN r.client c
+            WHERE r.active = true
+              AND r.fineAmount > 0
+            GROUP BY r.clientId, c.name, c.rut
+            ORDER BY SUM(r.fineAmount) DESC
+            """)
+    List<ClientExposureDTO> getClientExposure();
+
+    // 7) Restricción de clientes
+    boolean existsByClientIdAndActiveTrueAndFinishDateLessThan(Long clientId, String today);
+
+    // Clientes activos que tienen al menos un arriendo vencido (los que hay que restringir hoy)
+    @Query("""
+            SELECT DISTINCT r.clientId
+            FROM RentEntity r
+            JOIN r.client c
+            WHERE r.active = true
+              AND r.finishDate < :today
+              AND c.status = 1
+            """)
+    List<Long> findActiveClientsWithOverdueRents(@Param("today") String today);
+
+    @Query("""
+            SELECT DISTINCT r.clientId
+            FROM RentEntity r
+            WHERE r.active = true
+              AND r.finishDate < :today
+              AND r.clientId BETWEEN :fromId AND :toId
+            """)
+    List<Long> findOverdueClientIdsBetween(@Param("today") String today,
+                                           @Param("fromId") Long fromId,
+                                           @Param("toId") Long toId);
 }
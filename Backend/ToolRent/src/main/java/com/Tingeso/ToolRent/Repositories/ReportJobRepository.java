@@ -0,0 +1,59 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.ReportJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+
+public interface ReportJobRepository extends JpaRepository<ReportJobEntity, Long> {
+
+    List<ReportJobEntity> findTop20ByOrderByIdDesc();
+
+    List<ReportJobEntity> findByNodeAndStatusIn(String node, List<String> statuses);
+
+    List<ReportJobEntity> findByStatusAndExpiresAtLessThan(String status, String now);
+
+    // Toma el trabajo solo si sigue en cola (pudo cancelarse mientras esperaba)
+    @Modifying
+    @Query("""
+            UPDATE ReportJobEntity j
+            SET j.status = 'RUNNING', j.totalRows = :total
+            WHERE j.id = :id AND j.status = 'QUEUED'
+            """)
+    int markRunning(@Param("id") Long id, @Param("total") long total);
+
+    // Avance del trabajo; no pisa una cancelación pedida desde otro nodo
+    @Modifying
+    @Query("""
+            UPDATE ReportJobEntity j
+            SET j.processedRows = :processed
+            WHERE j.id = :id AND j.status = 'RUNNING'
+            """)
+    int updateProgress(@Param("id") Long id, @Param("processed") long processed);
+
+    // Resultado listo; si se canceló al final, la cancelación gana
+    @Modifying
+    @Query("""
+            UPDATE ReportJobEntity j
+            SET j.status = 'DONE', j.processedRows = :processed, j.fileName = :fileName,
+                j.fileSize = :fileSize, j.finishedAt = :now, j.expiresAt = :expiresAt
+            WHERE j.id = :id AND j.status = 'RUNNING'
+            """)
+    int markDone(@Param("id") Long id, @Param("processed") long processed, @Param("fileName") String fileName,
+                 @Param("fileSize") long fileSize, @Param("now") String now, @Param("expiresAt") String expiresAt);
+
+    // Solo se cancela lo que aún no termina
+    @Modifying
+    @Query("""
+            UPDATE ReportJobEntity j
+            SET j.status = 'CANCELLED', j.finishedAt = :now
+            WHERE j.id = :id AND j.status IN ('QUEUED', 'RUNNING')
+            """)
+    int cancel(@Param("id") Long id, @Param("now") String now);
+}
@@ -0,0 +1,16 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.RepricingJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+
+public interface RepricingJobRepository extends JpaRepository<RepricingJobEntity, Long> {
+
+    RepricingJobEntity findTopByOrderByIdDesc();
+
+    List<RepricingJobEntity> findByStatusOrderByIdAsc(String status);
+}
@@ -0,0 +1,64 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO;
+import com.Tingeso.ToolRent.Entities.ToolRentalDailyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+
+public interface ToolRentalDailyRepository extends JpaRepository<ToolRentalDailyEntity, Long> {
+
+    // Suma un préstamo al contador del día (crea la fila si no existe)
+    @Modifying
+    @Query(value = """
+            INSERT INTO tool_rental_daily (rental_day, tool_name, category, tool_id, rentals)
+            VALUES (:day, :toolName, :category, :toolId, 1)
+            ON CONFLICT (rental_day, tool_name, category) DO UPDATE
+            SET rentals = tool_rental_daily.rentals + 1,
+                tool_id = LEAST(tool_rental_daily.tool_id, EXCLUDED.tool_id)
+            """, nativeQuery = true)
+    void increment(@Param("day") String day,
+                   @Param("toolName") String toolName,
+                   @Param("category") String category,
+                   @Param("toolId") Long toolId);
+
+    // Carga inicial desde los arriendos existentes (solo cuando la tabla está vacía)
+    @Modifying
+    @Query(value = """
+            INSERT INTO tool_rental_daily (rental_day, tool_name, category, tool_id, rentals)
+            SELECT r.start_date, t.name, LOWER(TRIM(COALESCE(t.category, ''))), MIN(t.id), COUNT(r.id)
+            FROM rents r
+            JOIN tool t ON r.tool_id = t.id
+            WHERE r.start_date IS NOT NULL
+            GROUP BY r.start_date, t.name, LOWER(TRIM(COALESCE(t.category, '')))
+            ON CONFLICT (rental_day, tool_name, category) DO NOTHING
+            """, nativeQuery = true)
+    int backfillFromRents();
+
+    // Totales por herramienta desde un día (inclusive)
+    @Query("""
+            SELECT new com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO(
+                MIN(d.toolId), d.toolName, d.category, SUM(d.rentals))
+            FROM ToolRentalDailyEntity d
+            WHERE d.rentalDay >= :fromDay
+            GROUP BY d.toolName, d.category
+            """)
+    List<ToolRankingReportDTO> sumSince(@Param("fromDay") String fromDay);
+
+    @Query("""
+            SELECT new com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO(
+                MIN(d.toolId), d.toolName, d.category, SUM(d.rentals))
+            FROM ToolRentalDailyEntity d
+            WHERE d.category = :category
+              AND d.rentalDay >= :fromDay
+            GROUP BY d.toolName, d.category
+            """)
+    List<ToolRankingReportDTO> sumSinceForCategory(@Param("fromDay") String fromDay,
+                                                   @Param("category") String category);
+}
@@ -1,22 +1,33 @@
 package com.Tingeso.ToolRent.Repositories;
 
 import com.Tingeso.ToolRent.Entities.ToolEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public interface ToolRepository extends JpaRepository<ToolEntity, Long> {
 
     public ToolEntity findByName(String name);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<ToolEntity> findByStatus(int status);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<ToolEntity> findByCategory(String category);
 
     List<ToolEntity> findByNameContainingIgnoreCase(String namePart);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<ToolEntity> findByNameAndCategory(String name, String category);
 
+    // Cantidad de herramientas por estado (dashboard)
+    @Query(value = "SELECT t.status AS status, COUNT(*) AS tools FROM tool t GROUP BY t.status", nativeQuery = true)
+    List<Map<String, Object>> countByStatus();
+
 }
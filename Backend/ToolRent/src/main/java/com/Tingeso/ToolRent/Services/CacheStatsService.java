@@ -0,0 +1,50 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.EntityCacheInvalidator;
+import com.Tingeso.ToolRent.DTOs.CacheRegionStatsDTO;
+import com.Tingeso.ToolRent.DTOs.CacheStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Aciertos y fallos por región de la caché de segundo nivel (estadísticas de Hibernate, por nodo)
+@Service
+public class CacheStatsService {
+
+    public static final List<String> REGIONS = List.of(
+            "tool", "client", "rate", "default-query-results-region");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityCacheInvalidator cacheInvalidator;
+
+    public CacheStatsDTO getStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheRegionStatsDTO> regions = new ArrayList<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics s = statistics.getCacheRegionStatistics(region);
+            if (s == null) continue;
+            regions.add(toDTO(region, s.getHitCount(), s.getMissCount(), s.getPutCount(), s.getElementCountInMemory()));
+        }
+
+        return new CacheStatsDTO(cacheInvalidator.getNode(), regions,
+                cacheInvalidator.getSent(), cacheInvalidator.getReceived(),
+                statistics.getTransactionCount(), statistics.getFlushCount());
+    }
+
+    static CacheRegionStatsDTO toDTO(String region, long hits, long misses, long puts, long entries) {
+        long lookups = hits + misses;
+        double ratio = lookups == 0 ? 0 : (double) hits / lookups;
+        return new CacheRegionStatsDTO(region, hits, misses, puts, Math.max(entries, -1),
+                Math.round(ratio * 1000) / 1000.0);
+    }
+}
@@ -0,0 +1,199 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.EntityCacheInvalidator;
+import com.Tingeso.ToolRent.Entities.ClientEntity;
+import com.Tingeso.ToolRent.Events.LedgerChangedEvent;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
+import com.Tingeso.ToolRent.Repositories.ClientBalanceRepository;
+import com.Tingeso.ToolRent.Repositories.ClientRepository;
+import com.Tingeso.ToolRent.Repositories.LedgerEntryRepository;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+
+// Motor de restricción automática de clientes.
+// Un cliente queda restringido (status 0) si tiene arriendos vencidos o deuda vencida
+// (cargos y multas sin pagar pasado el plazo), y vuelve a activo (status 1) cuando ya no tiene ninguno.
+// Recién devuelta una herramienta su cargo aún está en plazo: no restringe.
+// Las restricciones puestas a mano (ClientService.changeClientStatus) no se tocan.
+// Cada evento re-evalúa solo al cliente afectado; la conciliación nocturna recorre
+// todos los clientes en tramos de id en paralelo, en un solo nodo y retomable.
+@Service
+public class ClientRestrictionService {
+
+    @Autowired private ClientRepository clientRepository;
+    @Autowired private RentRepository rentRepository;
+    @Autowired private ClientBalanceRepository clientBalanceRepository;
+    @Autowired private LedgerEntryRepository ledgerEntryRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    // Los UPDATE masivos no pasan por la caché de segundo nivel: hay que avisar a los otros nodos
+    @Autowired private EntityCacheInvalidator cacheInvalidator;
+    @Autowired private ClusterJobService clusterJobs;
+
+    static final String DUE_JOB = "restriction-due";
+    static final String RECONCILE_JOB = "restriction-reconcile";
+
+    // Deuda vencida máxima permitida antes de restringir
+    @Value("${toolrent.restriction.max-balance:0}")
+    private int maxBalance;
+
+    // Días para pagar un cargo antes de que cuente como deuda
+    @Value("${toolrent.restriction.payment-grace-days:7}")
+    private int paymentGraceDays;
+
+    @Value("${toolrent.restriction.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${toolrent.restriction.parallelism:4}")
+    private int parallelism;
+
+    @EventListener
+    public void onRentCreated(RentCreatedEvent event) {
+        evaluate(event.getClientId());
+    }
+
+    @EventListener
+    public void onRentReturned(RentReturnedEvent event) {
+        evaluate(event.getClientId());
+    }
+
+    @EventListener
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        evaluate(event.getClientId());
+    }
+
+    // Re-evalúa un cliente; devuelve el estado que le corresponde por las reglas automáticas
+    public int evaluate(Long clientId) {
+        if (clientId == null) return -1;
+
+        String today = LocalDate.now().toString();
+        boolean overdue = rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(clientId, today);
+        boolean debt = overdueBalance(clientId) > maxBalance;
+
+        int status = (overdue || debt) ? 0 : 1;
+        inTransaction(() -> {
+            if (clientRepository.updateStatusIfChanged(clientId, status) > 0) {
+                cacheInvalidator.publish(ClientEntity.class, clientId);
+            }
+        });
+        return status;
+    }
+
+    // Saldo menos los cargos aún en plazo: los pagos cubren primero lo más antiguo
+    int overdueBalance(Long clientId) {
+        int balance = clientBalanceRepository.findById(clientId)
+                .map(b -> b.getBalance())
+                .orElse(0);
+        if (balance <= maxBalance) return balance;
+        return (int) (balance - ledgerEntryRepository.sumChargesSince(clientId, graceCutoff().toString()));
+    }
+
+    // Los cargos desde esta fecha siguen en plazo
+    private LocalDate graceCutoff() {
+        return LocalDate.now().minusDays(paymentGraceDays);
+    }
+
+    // Un solo nodo corre cada barrido (ver ClusterJobService)
+    @PostConstruct
+    public void registerJobs() {
+        clusterJobs.register(DUE_JOB, Duration.ofHours(1), run -> restrictNewlyOverdue());
+        // La conciliación guarda el último id conciliado; si el nodo muere, otro sigue desde ahí
+        clusterJobs.register(RECONCILE_JOB, Duration.ofHours(1), run -> {
+            long fromId = run.getCheckpoint() != null ? Long.parseLong(run.getCheckpoint()) + 1 : Long.MIN_VALUE;
+            reconcileAll(fromId, lastId -> run.checkpoint(Long.toString(lastId)));
+        });
+    }
+
+    @Scheduled(cron = "${toolrent.restriction.due-cron:0 5 0 * * *}")
+    public void nightlyRestriction() {
+        clusterJobs.run(DUE_JOB);
+    }
+
+    @Scheduled(cron = "${toolrent.restriction.reconcile-cron:0 30 3 * * *}")
+    public void nightlyReconcile() {
+        clusterJobs.run(RECONCILE_JOB);
+    }
+
+    // Vencimientos: los clientes activos a los que hoy se les venció un arriendo
+    // y los que tienen cargos cuyo plazo de pago terminó hoy
+    public void restrictNewlyOverdue() {
+        LocalDate cutoff = graceCutoff();
+        Set<Long> clients = new HashSet<>(rentRepository.findActiveClientsWithOverdueRents(LocalDate.now().toString()));
+        clients.addAll(ledgerEntryRepository.findClientIdsChargedBetween(
+                cutoff.minusDays(1).toString(), cutoff.toString()));
+        clients.forEach(this::evaluate);
+        System.out.println("Restricción por vencimiento: " + clients.size() + " clientes evaluados");
+    }
+
+    // Conciliación completa desde fromId en tramos de id, varios tramos a la vez.
+    // Va por olas de tramos consecutivos: al terminar cada ola se informa el último id cubierto
+    public int reconcileAll(long fromId, LongConsumer progress) throws Exception {
+        Long minId = clientRepository.findMinId();
+        Long maxId = clientRepository.findMaxId();
+        if (minId == null) return 0;
+
+        String today = LocalDate.now().toString();
+        String graceCutoff = graceCutoff().toString();
+        int waveSize = parallelism * 2;
+        int changed = 0;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long next = Math.max(minId, fromId);
+            while (next <= maxId) {
+                List<long[]> wave = new ArrayList<>();
+                for (int i = 0; i < waveSize && next <= maxId; i++) {
+                    long to = Math.min(next + batchSize - 1, maxId);
+                    wave.add(new long[]{next, to});
+                    next = to + 1;
+                }
+
+                changed += pool.submit(() -> wave.parallelStream()
+                        .mapToInt(range -> reconcileRange(range[0], range[1], today, graceCutoff))
+                        .sum()).get();
+                progress.accept(wave.get(wave.size() - 1)[1]);
+            }
+            System.out.println("Conciliación de restricciones: " + changed + " clientes cambiaron de estado");
+            return changed;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    int reconcileRange(long fromId, long toId, String today, String graceCutoff) {
+        Set<Long> restricted = new HashSet<>(rentRepository.findOverdueClientIdsBetween(today, fromId, toId));
+        restricted.addAll(clientBalanceRepository.findClientIdsWithOverdueBalanceAbove(
+                maxBalance, graceCutoff, fromId, toId));
+
+        // NOT IN () no es válido: -1 nunca es un id real
+        Set<Long> excluded = restricted.isEmpty() ? Set.of(-1L) : restricted;
+
+        Integer changed = new TransactionTemplate(transactionManager).execute(tx -> {
+            int n = restricted.isEmpty() ? 0 : clientRepository.restrictAll(restricted);
+            n += clientRepository.enableRangeExcept(fromId, toId, excluded);
+            if (n > 0) cacheInvalidator.publishAll(ClientEntity.class);
+            return n;
+        });
+        return changed != null ? changed : 0;
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> action.run());
+    }
+}
@@ -1,6 +1,8 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Entities.ClientBalanceEntity;
 import com.Tingeso.ToolRent.Entities.ClientEntity;
+import com.Tingeso.ToolRent.Repositories.ClientBalanceRepository;
 import com.Tingeso.ToolRent.Repositories.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -11,6 +13,8 @@ import java.util.ArrayList;
 public class ClientService {
     @Autowired
     ClientRepository clientRepository;
+    @Autowired
+    ClientBalanceRepository clientBalanceRepository;
 
     //CRUD
     public ClientEntity addClient(ClientEntity client) {
@@ -52,6 +56,8 @@ public class ClientService {
         ClientEntity existingClient = clientRepository.findById(client.getId())
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
 
+        // La restricción manual solo cambia con changeClientStatus
+        client.setManualRestriction(existingClient.isManualRestriction());
         return clientRepository.save(client);
     }
 
@@ -59,10 +65,23 @@ public class ClientService {
         ClientEntity client = clientRepository.findById(clientId)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
         client.setStatus(newStatus);
+        // Restringir a mano la deja fija hasta que se habilite a mano; habilitar la quita
+        client.setManualRestriction(newStatus == 0);
         return clientRepository.save(client);
 
     }
 
+    // Saldo vigente (lectura por PK de ClientBalance)
+    public int getBalance(Long clientId) {
+        return clientBalanceRepository.findById(clientId)
+                .map(ClientBalanceEntity::getBalance)
+                .orElse(0);
+    }
+
+    public boolean hasDebt(Long clientId) {
+        return getBalance(clientId) > 0;
+    }
+
     public ClientEntity deleteClient(Long id) throws Exception {
         ClientEntity client = clientRepository.findById(id)
                 .orElseThrow(() -> new Exception("Client not found with id: " + id));
@@ -0,0 +1,216 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.JobRunEntity;
+import com.Tingeso.ToolRent.Repositories.JobRunRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Trabajos programados de clúster: los tres backends disparan el mismo @Scheduled, pero solo uno lo ejecuta.
+// Cada corrida toma un advisory lock de transacción en una conexión propia y lo mantiene hasta terminar;
+// si el nodo muere, Postgres suelta el lock al cortarse la conexión.
+// Cada corrida queda en JobRun (duración y resultado). Una corrida que quedó RUNNING sin dueño se retoma
+// desde su último checkpoint, en el próximo disparo o en la revisión periódica de resumePending.
+// Lo que es local a cada nodo (cachés, contadores del dashboard, JWKS) sigue con @Scheduled directo.
+@Service
+public class ClusterJobService {
+
+    // Primer argumento de pg_try_advisory_xact_lock(int, int): separa estos locks de otros usos
+    static final int LOCK_NAMESPACE = 4701;
+
+    static final String PURGE_JOB = "job-history-purge";
+
+    // Lo que ejecuta un trabajo; puede guardar su avance con run.checkpoint(...)
+    public interface Task {
+        void run(Run run) throws Exception;
+    }
+
+    // Corrida en curso, tal como la ve el trabajo
+    public class Run {
+        private final JobRunEntity entity;
+
+        Run(JobRunEntity entity) {
+            this.entity = entity;
+        }
+
+        // Checkpoint de la corrida interrumpida que se retoma (null si parte de cero)
+        public String getCheckpoint() {
+            return entity.getCheckpoint();
+        }
+
+        public void checkpoint(String value) {
+            entity.setCheckpoint(value);
+            new TransactionTemplate(transactionManager).executeWithoutResult(tx ->
+                    jobRunRepository.updateCheckpoint(entity.getId(), value));
+        }
+
+        public boolean isResumed() {
+            return entity.getResumedFrom() != null;
+        }
+    }
+
+    private record Job(String name, Duration minGap, Task task) {}
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JobRunRepository jobRunRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Value("${toolrent.jobs.history-days:30}")
+    private int historyDays;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final String node = resolveNode();
+
+    // minGap: si otro nodo terminó este trabajo hace menos que esto, el disparo se descarta
+    // (los relojes de los nodos no están alineados al segundo)
+    public void register(String name, Duration minGap, Task task) {
+        jobs.put(name, new Job(name, minGap, task));
+    }
+
+    // Para llamar desde el @Scheduled: true si este nodo lo ejecutó
+    public boolean run(String name) {
+        Job job = jobs.get(name);
+        if (job == null) throw new RuntimeException("Trabajo no registrado: " + name);
+        return execute(job, false);
+    }
+
+    // Corridas huérfanas (su nodo murió): se retoman aquí sin esperar al próximo disparo
+    @Scheduled(fixedDelayString = "${toolrent.jobs.resume-check-ms:60000}",
+            initialDelayString = "${toolrent.jobs.resume-check-ms:60000}")
+    public void resumePending() {
+        for (Job job : jobs.values()) {
+            if (jobRunRepository.existsByJobNameAndStatus(job.name(), "RUNNING")) {
+                execute(job, true);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void registerHistoryPurge() {
+        register(PURGE_JOB, Duration.ofHours(1), run -> {
+            String before = LocalDateTime.now().minusDays(historyDays).toString();
+            Integer deleted = new TransactionTemplate(transactionManager).execute(tx ->
+                    jobRunRepository.deleteFinishedBefore(before));
+            System.out.println("Historial de trabajos: " + deleted + " corridas borradas");
+        });
+    }
+
+    // Historial: se borran las corridas terminadas más antiguas que toolrent.jobs.history-days
+    @Scheduled(cron = "${toolrent.jobs.purge-cron:0 0 4 * * *}")
+    public void purgeHistory() {
+        run(PURGE_JOB);
+    }
+
+    boolean execute(Job job, boolean resumeOnly) {
+        try (Connection lock = dataSource.getConnection()) {
+            lock.setAutoCommit(false);
+            try {
+                if (!tryLock(lock, job.name())) return false;
+                return runLocked(job, resumeOnly);
+            } finally {
+                // Termina la transacción y con ella el lock
+                lock.rollback();
+            }
+        } catch (SQLException e) {
+            System.out.println("Trabajo " + job.name() + ": no se pudo tomar el lock (" + e.getMessage() + ")");
+            return false;
+        }
+    }
+
+    private boolean runLocked(Job job, boolean resumeOnly) {
+        // Con el lock tomado, una corrida RUNNING no tiene dueño vivo
+        JobRunEntity orphan = jobRunRepository.findTopByJobNameAndStatusOrderByIdDesc(job.name(), "RUNNING");
+        if (orphan == null) {
+            if (resumeOnly) return false;
+            JobRunEntity last = jobRunRepository.findTopByJobNameAndStatusOrderByIdDesc(job.name(), "DONE");
+            if (last != null && LocalDateTime.parse(last.getStartedAt())
+                    .isAfter(LocalDateTime.now().minus(job.minGap()))) {
+                return false;
+            }
+        } else {
+            orphan.setStatus("INTERRUPTED");
+            orphan.setFinishedAt(LocalDateTime.now().toString());
+            jobRunRepository.save(orphan);
+        }
+
+        JobRunEntity entity = new JobRunEntity();
+        entity.setJobName(job.name());
+        entity.setNode(node);
+        entity.setStatus("RUNNING");
+        entity.setStartedAt(LocalDateTime.now().toString());
+        if (orphan != null) {
+            entity.setCheckpoint(orphan.getCheckpoint());
+            entity.setResumedFrom(orphan.getId());
+        }
+        JobRunEntity saved = jobRunRepository.save(entity);
+
+        long start = System.nanoTime();
+        try {
+            job.task().run(new Run(saved));
+            saved.setStatus("DONE");
+        } catch (Exception e) {
+            e.printStackTrace();
+            saved.setStatus("FAILED");
+            saved.setError(truncate(e.toString()));
+        }
+        saved.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        saved.setFinishedAt(LocalDateTime.now().toString());
+        jobRunRepository.save(saved);
+
+        System.out.println("Trabajo " + job.name() + ": " + saved.getStatus() + " en " + saved.getDurationMs() + " ms"
+                + (orphan != null ? " (retomado de la corrida " + orphan.getId() + ")" : ""));
+        return true;
+    }
+
+    private static boolean tryLock(Connection connection, String name) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_xact_lock(?, hashtext(?))")) {
+            ps.setInt(1, LOCK_NAMESPACE);
+            ps.setString(2, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    public List<JobRunEntity> getRecentRuns(String jobName) {
+        return jobName == null
+                ? jobRunRepository.findTop50ByOrderByIdDesc()
+                : jobRunRepository.findTop50ByJobNameOrderByIdDesc(jobName);
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private static String resolveNode() {
+        String host = System.getenv("HOSTNAME");
+        if (host != null && !host.isBlank()) return host;
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "local";
+        }
+    }
+
+    public String getNode() {
+        return node;
+    }
+}
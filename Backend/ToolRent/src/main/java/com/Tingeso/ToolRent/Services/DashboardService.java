@@ -0,0 +1,256 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.InvalidationBus;
+import com.Tingeso.ToolRent.DTOs.DashboardSummaryDTO;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
+import com.Tingeso.ToolRent.Events.ToolStatusChangedEvent;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import com.Tingeso.ToolRent.Repositories.ToolRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Resumen del dashboard servido desde contadores en memoria.
+// Préstamos, devoluciones y cambios de estado de herramientas los actualizan al confirmar, en este nodo
+// y, por el InvalidationBus, en los demás; una reconciliación periódica contra la BD corrige la deriva
+// (p. ej. avisos perdidos).
+@Service
+public class DashboardService {
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @Autowired
+    private ToolRepository toolRepository;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    static final String TOPIC = "dashboard";
+
+    // Se reemplazan completos al reconciliar, así una lectura nunca ve una mezcla
+    private volatile Counters counters = new Counters();
+    private volatile String reconciledAt;
+
+    // Cambios que llegan mientras se arma una reconciliación: se aplican también a los contadores
+    // nuevos antes del reemplazo, si no se perderían hasta la próxima
+    private final Object changes = new Object();
+    private List<Consumer<Counters>> pending;
+
+    public DashboardSummaryDTO getSummary() {
+        Counters c = counters;
+        long today = LocalDate.now().toEpochDay();
+
+        // Atrasados = activos cuya fecha de término ya pasó
+        long late = 0;
+        for (LongAdder rents : c.activeByFinishDay.headMap(today, false).values()) {
+            late += rents.sum();
+        }
+
+        DayTotals totals = c.returnsToday.get();
+        boolean current = totals.day == today;
+
+        return new DashboardSummaryDTO(
+                c.activeRents.sum(),
+                late,
+                c.toolsByStatus.get(1),
+                c.toolsByStatus.get(2),
+                c.toolsByStatus.get(3),
+                c.toolsByStatus.get(4),
+                LocalDate.ofEpochDay(today).toString(),
+                current ? totals.returns : 0,
+                current ? totals.revenue : 0,
+                reconciledAt
+        );
+    }
+
+    // Cada cambio viaja como clave del bus: "created:<término>", "returned:<término>:<monto>", "tool:<antes>:<después>"
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(TOPIC, new InvalidationBus.Subscriber() {
+            @Override
+            public void invalidate(String key) {
+                apply(key);
+            }
+
+            // Se perdieron avisos de otros nodos
+            @Override
+            public void flush() {
+                reconcile();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentCreated(RentCreatedEvent event) {
+        share("created:" + orEmpty(event.getFinishDate()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentReturned(RentReturnedEvent event) {
+        share("returned:" + orEmpty(event.getFinishDate()) + ":" + event.getTotalAmount());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onToolStatusChanged(ToolStatusChangedEvent event) {
+        share("tool:" + event.getOldStatus() + ":" + event.getNewStatus());
+    }
+
+    private void share(String change) {
+        apply(change);
+        invalidationBus.publish(TOPIC, change);
+    }
+
+    void apply(String change) {
+        Consumer<Counters> delta = delta(change);
+        synchronized (changes) {
+            delta.accept(counters);
+            if (pending != null) pending.add(delta);
+        }
+    }
+
+    private static Consumer<Counters> delta(String change) {
+        String[] parts = change.split(":", -1);
+        switch (parts[0]) {
+            case "created" -> {
+                return c -> {
+                    c.activeRents.increment();
+                    if (!parts[1].isEmpty()) {
+                        c.activeByFinishDay.computeIfAbsent(LocalDate.parse(parts[1]).toEpochDay(),
+                                k -> new LongAdder()).increment();
+                    }
+                };
+            }
+            case "returned" -> {
+                long amount = Long.parseLong(parts[2]);
+                return c -> {
+                    c.activeRents.decrement();
+                    if (!parts[1].isEmpty()) {
+                        c.activeByFinishDay.computeIfAbsent(LocalDate.parse(parts[1]).toEpochDay(),
+                                k -> new LongAdder()).decrement();
+                    }
+
+                    long today = LocalDate.now().toEpochDay();
+                    c.returnsToday.updateAndGet(t -> t.day == today
+                            ? new DayTotals(today, t.returns + 1, t.revenue + amount)
+                            : new DayTotals(today, 1, amount));
+                };
+            }
+            case "tool" -> {
+                int oldStatus = Integer.parseInt(parts[1]);
+                int newStatus = Integer.parseInt(parts[2]);
+                return c -> {
+                    if (validStatus(oldStatus)) c.toolsByStatus.decrementAndGet(oldStatus);
+                    if (validStatus(newStatus)) c.toolsByStatus.incrementAndGet(newStatus);
+                };
+            }
+            default -> throw new RuntimeException("Cambio de dashboard desconocido: " + change);
+        }
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    // Recalcula todo desde la BD y reemplaza los contadores
+    @Scheduled(fixedDelayString = "${toolrent.dashboard.reconcile-ms:60000}",
+            initialDelayString = "${toolrent.dashboard.reconcile-ms:60000}")
+    public synchronized void reconcile() {
+        synchronized (changes) {
+            pending = new ArrayList<>();
+        }
+        Counters fresh = new Counters();
+
+        for (Map<String, Object> row : rentRepository.countActiveByFinishDate()) {
+            long rents = ((Number) row.get("rents")).longValue();
+            fresh.activeRents.add(rents);
+
+            String finishDate = (String) row.get("finishdate");
+            if (finishDate != null) {
+                LongAdder adder = new LongAdder();
+                adder.add(rents);
+                fresh.activeByFinishDay.put(LocalDate.parse(finishDate).toEpochDay(), adder);
+            }
+        }
+
+        for (Map<String, Object> row : toolRepository.countByStatus()) {
+            int status = ((Number) row.get("status")).intValue();
+            if (validStatus(status)) {
+                fresh.toolsByStatus.set(status, ((Number) row.get("tools")).longValue());
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        List<Map<String, Object>> returned = rentRepository.sumReturnedOn(today.toString());
+        if (!returned.isEmpty()) {
+            Map<String, Object> row = returned.get(0);
+            fresh.returnsToday.set(new DayTotals(today.toEpochDay(),
+                    ((Number) row.get("returns")).longValue(),
+                    ((Number) row.get("revenue")).longValue()));
+        }
+
+        Counters previous;
+        synchronized (changes) {
+            pending.forEach(delta -> delta.accept(fresh));
+            pending = null;
+            previous = counters;
+            counters = fresh;
+        }
+        reconciledAt = LocalDateTime.now().toString();
+
+        long drift = Math.abs(previous.activeRents.sum() - fresh.activeRents.sum());
+        for (int s = 1; s <= 4; s++) {
+            drift += Math.abs(previous.toolsByStatus.get(s) - fresh.toolsByStatus.get(s));
+        }
+        if (drift > 0) {
+            System.out.println("Dashboard reconciliado, diferencia corregida: " + drift);
+        }
+    }
+
+    private static boolean validStatus(int status) {
+        return status >= 1 && status <= 4;
+    }
+
+    static final class Counters {
+        final LongAdder activeRents = new LongAdder();
+        // día epoch de término -> arriendos activos
+        final ConcurrentSkipListMap<Long, LongAdder> activeByFinishDay = new ConcurrentSkipListMap<>();
+        // índice = estado de la herramienta (1..4)
+        final AtomicLongArray toolsByStatus = new AtomicLongArray(5);
+        final AtomicReference<DayTotals> returnsToday =
+                new AtomicReference<>(new DayTotals(LocalDate.now().toEpochDay(), 0, 0));
+    }
+
+    static final class DayTotals {
+        final long day;
+        final long returns;
+        final long revenue;
+
+        DayTotals(long day, long returns, long revenue) {
+            this.day = day;
+            this.returns = returns;
+            this.revenue = revenue;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
+import com.Tingeso.ToolRent.DTOs.EmployeeActivityDTO;
+import com.Tingeso.ToolRent.Repositories.KardexRepository;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Actividad por empleado (préstamos, devoluciones, reportes de daño, ingresos e ingresos en $)
+// por día o por mes. Se agrega por particiones mensuales en paralelo, en un pool propio y acotado
+// (no el ForkJoinPool común, que comparte toda la JVM); los meses cerrados
+// no cambian, así que se calculan una vez y quedan en memoria: solo el mes en curso se recalcula.
+@Service
+public class EmployeeActivityService {
+
+    public static final List<String> GRANULARITIES = List.of("day", "month");
+    private static final int MAX_MONTHS = 5 * 12;
+    private static final String NO_EMPLOYEE = "(sin empleado)";
+
+    static final int RENTS = 0;
+    static final int RETURNS = 1;
+    static final int DAMAGE = 2;
+    static final int INTAKE = 3;
+    static final int REVENUE = 4;
+
+    @Autowired
+    private KardexRepository kardexRepository;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @Value("${toolrent.activity.workers:4}")
+    private int workers;
+
+    @Value("${toolrent.activity.queue-size:120}")
+    private int queueSize;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<YearMonth, MonthActivity> closedMonths = new ConcurrentHashMap<>();
+
+    // Con la cola llena el mes lo calcula el hilo de la petición: se frena en vez de fallar
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "employee-activity");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    public List<EmployeeActivityDTO> getActivity(String from, String to, String granularity, String employee) {
+        if (!GRANULARITIES.contains(granularity)) {
+            throw new RuntimeException("Granularidad inválida, use " + String.join(", ", GRANULARITIES));
+        }
+
+        LocalDate end = to == null || to.isBlank() ? LocalDate.now() : LocalDate.parse(to);
+        LocalDate start = from == null || from.isBlank() ? end.withDayOfMonth(1) : LocalDate.parse(from);
+        if (end.isBefore(start)) {
+            throw new RuntimeException("Rango de fechas inválido");
+        }
+
+        YearMonth first = YearMonth.from(start);
+        YearMonth last = YearMonth.from(end);
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth m = first; !m.isAfter(last); m = m.plusMonths(1)) {
+            months.add(m);
+        }
+        if (months.size() > MAX_MONTHS) {
+            throw new RuntimeException("El rango no puede superar 5 años");
+        }
+
+        boolean byDay = "day".equals(granularity);
+
+        // Una partición por mes, en paralelo; cada una arma sus propias filas
+        List<Future<List<EmployeeActivityDTO>>> parts = new ArrayList<>(months.size());
+        for (YearMonth m : months) {
+            parts.add(executor.submit(() -> rows(month(m), start, end, byDay, employee)));
+        }
+
+        List<EmployeeActivityDTO> result = new ArrayList<>();
+        try {
+            for (Future<List<EmployeeActivityDTO>> part : parts) {
+                result.addAll(part.get());
+            }
+        } catch (InterruptedException e) {
+            parts.forEach(p -> p.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Consulta de actividad interrumpida");
+        } catch (ExecutionException e) {
+            parts.forEach(p -> p.cancel(true));
+            throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+        }
+
+        result.sort(Comparator.comparing(EmployeeActivityDTO::getPeriod)
+                .thenComparing(EmployeeActivityDTO::getEmployeeName));
+        return result;
+    }
+
+    // Meses cerrados desde memoria; el mes en curso (y el recién cerrado, por escrituras tardías) desde la BD.
+    // Cada partición corre en su propio hilo, por eso el alcance de réplica se abre aquí
+    MonthActivity month(YearMonth month) {
+        if (!isClosed(month)) {
+            return ReplicaRouting.read(() -> load(month));
+        }
+        return closedMonths.computeIfAbsent(month, m -> ReplicaRouting.read(() -> load(m)));
+    }
+
+    // Un mes se da por cerrado un día después de terminar
+    static boolean isClosed(YearMonth month) {
+        return LocalDate.now().isAfter(month.atEndOfMonth().plusDays(1));
+    }
+
+    MonthActivity load(YearMonth month) {
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+
+        MonthActivity activity = new MonthActivity(month);
+
+        for (Map<String, Object> row : kardexRepository.countByEmployeeDayAndType(from, to)) {
+            int metric = metricOf(((Number) row.get("movementtype")).intValue());
+            if (metric < 0) continue;
+            activity.add((String) row.get("employeename"), ((Number) row.get("day")).intValue(),
+                    metric, ((Number) row.get("movements")).longValue());
+        }
+
+        for (Map<String, Object> row : rentRepository.sumRevenueByEmployeeDay(from, to)) {
+            activity.add((String) row.get("employeename"), ((Number) row.get("day")).intValue(),
+                    REVENUE, ((Number) row.get("revenue")).longValue());
+        }
+
+        return activity;
+    }
+
+    static int metricOf(int movementType) {
+        return switch (movementType) {
+            case 1 -> RENTS;
+            case 2 -> RETURNS;
+            case 3, 5 -> DAMAGE;
+            case 4 -> INTAKE;
+            default -> -1;
+        };
+    }
+
+    static List<EmployeeActivityDTO> rows(MonthActivity activity, LocalDate start, LocalDate end,
+                                          boolean byDay, String employee) {
+        // Días del mes que caen dentro de [start, end]
+        LocalDate monthStart = activity.month.atDay(1);
+        LocalDate monthEnd = activity.month.atEndOfMonth();
+        int firstDay = start.isAfter(monthStart) ? start.getDayOfMonth() : 1;
+        int lastDay = end.isBefore(monthEnd) ? end.getDayOfMonth() : monthEnd.getDayOfMonth();
+
+        List<EmployeeActivityDTO> rows = new ArrayList<>();
+        for (Map.Entry<String, long[][]> e : activity.byEmployee.entrySet()) {
+            if (employee != null && !employee.isBlank() && !e.getKey().equalsIgnoreCase(employee.trim())) {
+                continue;
+            }
+
+            long[] total = new long[5];
+            for (int day = firstDay; day <= lastDay; day++) {
+                long[] m = e.getValue()[day - 1];
+                if (byDay) {
+                    if (isEmpty(m)) continue;
+                    rows.add(toDTO(e.getKey(), activity.month.atDay(day).toString(), m));
+                } else {
+                    for (int k = 0; k < 5; k++) total[k] += m[k];
+                }
+            }
+            if (!byDay && !isEmpty(total)) {
+                rows.add(toDTO(e.getKey(), activity.month.toString(), total));
+            }
+        }
+        return rows;
+    }
+
+    private static boolean isEmpty(long[] metrics) {
+        for (long v : metrics) {
+            if (v != 0) return false;
+        }
+        return true;
+    }
+
+    private static EmployeeActivityDTO toDTO(String employee, String period, long[] m) {
+        return new EmployeeActivityDTO(employee, period, m[RENTS], m[RETURNS], m[DAMAGE], m[INTAKE], m[REVENUE]);
+    }
+
+    // Contadores de un mes: empleado -> [día - 1][métrica]
+    static class MonthActivity {
+        final YearMonth month;
+        final Map<String, long[][]> byEmployee = new HashMap<>();
+
+        MonthActivity(YearMonth month) {
+            this.month = month;
+        }
+
+        void add(String employee, int day, int metric, long value) {
+            String key = employee == null || employee.isBlank() ? NO_EMPLOYEE : employee;
+            byEmployee.computeIfAbsent(key, k -> new long[month.lengthOfMonth()][5])[day - 1][metric] += value;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.InvalidationBus;
+import com.Tingeso.ToolRent.Entities.EmployeeEntity;
+import com.Tingeso.ToolRent.Repositories.EmployeeRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dimensión de empleados: subject de Keycloak -> id, y id -> nombre para armar los DTOs.
+// Ambos mapas se llenan la primera vez que se ve cada empleado y no vuelven a consultar la BD.
+@Service
+public class EmployeeService {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    static final String TOPIC = "employees";
+
+    private final Map<String, Long> idBySubject = new ConcurrentHashMap<>();
+    private final Map<Long, String> nameById = new ConcurrentHashMap<>();
+
+    // Nombre del empleado según el token: "given family", si no name y por último preferred_username
+    public static String displayName(Jwt jwt) {
+        String given = jwt.getClaimAsString("given_name");
+        String family = jwt.getClaimAsString("family_name");
+
+        if (given != null && family != null)
+            return given + " " + family;
+
+        if (jwt.hasClaim("name"))
+            return jwt.getClaimAsString("name");
+
+        return jwt.getClaimAsString("preferred_username");
+    }
+
+    // El nombre ya viene calculado en la autenticación (una vez por token, ver SecurityConfig)
+    public Long resolve(Authentication auth) {
+        return resolve((Jwt) auth.getPrincipal(), auth.getName());
+    }
+
+    public Long resolve(Jwt jwt) {
+        return resolve(jwt, displayName(jwt));
+    }
+
+    // Id del empleado del token; lo crea la primera vez que aparece
+    public Long resolve(Jwt jwt, String name) {
+        String subject = jwt.getSubject();
+        Long id = idBySubject.get(subject);
+        // Conocido y con el mismo nombre: sin ir a la BD. Si el nombre cambió en Keycloak se actualiza abajo
+        if (id != null && (name == null || name.equals(nameById.get(id)))) return id;
+
+        EmployeeEntity employee;
+        try {
+            employee = findOrCreate(subject, name, jwt.getClaimAsString("preferred_username"));
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo lo registró al mismo tiempo (uk_employee_subject)
+            employee = employeeRepository.findBySubject(subject)
+                    .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
+        }
+
+        idBySubject.put(subject, employee.getId());
+        nameById.put(employee.getId(), employee.getName());
+        return employee.getId();
+    }
+
+    private EmployeeEntity findOrCreate(String subject, String name, String username) {
+        return new TransactionTemplate(transactionManager).execute(tx -> {
+            Optional<EmployeeEntity> existing = employeeRepository.findBySubject(subject);
+            if (existing.isPresent()) {
+                EmployeeEntity employee = existing.get();
+                // El nombre pudo cambiar en Keycloak
+                if (name != null && !name.equals(employee.getName())) {
+                    employee.setName(name);
+                    EmployeeEntity saved = employeeRepository.save(employee);
+                    // Los otros nodos lo vuelven a leer; el aviso sale solo si se confirma el cambio
+                    invalidationBus.publishInTransaction(TOPIC, saved.getId().toString());
+                    return saved;
+                }
+                return employee;
+            }
+
+            // No se enlaza con los empleados históricos del mismo nombre (V3__employee_legacy_names):
+            // dos personas pueden compartir nombre y una se quedaría con el historial de la otra
+            EmployeeEntity employee = new EmployeeEntity();
+            employee.setSubject(subject);
+            employee.setName(name);
+            employee.setUsername(username);
+            return employeeRepository.save(employee);
+        });
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(TOPIC, new InvalidationBus.Subscriber() {
+            @Override
+            public void invalidate(String key) {
+                nameById.remove(Long.valueOf(key));
+            }
+
+            @Override
+            public void flush() {
+                nameById.clear();
+            }
+        });
+    }
+
+    public String nameOf(Long id) {
+        if (id == null) return null;
+
+        String name = nameById.get(id);
+        if (name != null) return name;
+
+        // Tabla chica: ante un id desconocido se carga completa
+        for (EmployeeEntity e : employeeRepository.findAll()) {
+            if (e.getName() != null) nameById.put(e.getId(), e.getName());
+        }
+        return nameById.get(id);
+    }
+}
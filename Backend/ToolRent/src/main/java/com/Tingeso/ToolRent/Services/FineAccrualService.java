@@ -0,0 +1,74 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.ClientExposureDTO;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Devengo diario de multas: fineAmount de los arriendos activos atrasados
+// = días de atraso * tarifa de multa de su categoría (o la global).
+// No escribe en el libro del cliente: la multa se carga una sola vez al devolver (ver LedgerService)
+@Service
+public class FineAccrualService {
+
+    @Autowired private RentRepository rentRepository;
+    @Autowired private RateService rateService;
+    @Autowired private ClusterJobService clusterJobs;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    static final String JOB = "fine-accrual";
+
+    // Un solo nodo por noche; el devengo recalcula el monto completo, así que repetirlo no duplica multas
+    @PostConstruct
+    public void registerJob() {
+        clusterJobs.register(JOB, Duration.ofHours(1), run -> {
+            // Llamada interna: no pasa por el proxy de @Transactional, y los UPDATE necesitan transacción
+            Integer updated = new TransactionTemplate(transactionManager).execute(tx -> accrueFines(LocalDate.now()));
+            System.out.println("Devengo de multas: " + updated + " arriendos actualizados");
+        });
+    }
+
+    @Scheduled(cron = "${toolrent.accrual.cron:0 10 0 * * *}")
+    public void nightlyAccrual() {
+        clusterJobs.run(JOB);
+    }
+
+    @Transactional
+    public int accrueFines(LocalDate day) {
+        String today = day.toString();
+        RateTable rates = rateService.getRateTable();
+        List<String> categories = new ArrayList<>(rates.getCategoryRates().keySet());
+
+        int updated = 0;
+
+        // Un UPDATE por cada categoría con tarifa propia
+        for (String category : categories) {
+            updated += rentRepository.accrueFinesForCategory(today, category, rates.lateFeeRate(category));
+        }
+
+        // Y uno para el resto con la tarifa global
+        if (rates.covers(null)) {
+            if (categories.isEmpty()) {
+                updated += rentRepository.accrueFinesAll(today, rates.lateFeeRate(null));
+            } else {
+                updated += rentRepository.accrueFinesExcept(today, categories, rates.lateFeeRate(null));
+            }
+        }
+
+        return updated;
+    }
+
+    public List<ClientExposureDTO> getClientExposure() {
+        return rentRepository.getClientExposure();
+    }
+}
@@ -1,10 +1,12 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
 import com.Tingeso.ToolRent.DTOs.KardexDTO;
 import com.Tingeso.ToolRent.Entities.KardexEntity;
 import com.Tingeso.ToolRent.Repositories.KardexRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +17,9 @@ public class KardexService {
     @Autowired
     private KardexRepository kardexRepository;
 
+    @Autowired
+    private EmployeeService employeeService;
+
     private KardexDTO toDTO(KardexEntity k) {
         return new KardexDTO(
                 k.getId(),
@@ -24,32 +29,36 @@ public class KardexService {
                 k.getToolId(),
                 k.getTool() != null ? k.getTool().getName() : null,
                 k.getTool() != null ? k.getTool().getCategory() : null,
-                k.getEmployeeName()
+                employeeService.nameOf(k.getEmployeeId())
         );
     }
 
-    public void registerMovement(int type, Long toolId, String employeeName) {
+    public void registerMovement(int type, Long toolId, Long employeeId) {
         KardexEntity mov = new KardexEntity();
         mov.setMovementType(type);
         mov.setMovementDate(LocalDateTime.now().toString());
         mov.setQuantity(1);
         mov.setToolId(toolId);
-        mov.setEmployeeName(employeeName);
+        mov.setEmployeeId(employeeId);
 
         kardexRepository.save(mov);
     }
 
 
+    // Consultas del kardex: pueden ir a la réplica de lectura
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
     public List<KardexDTO> getByTool(Long toolId) {
         return kardexRepository.findByToolIdOrderByMovementDateDesc(toolId)
                 .stream().map(this::toDTO).toList();
     }
 
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
     public List<KardexDTO> getByDateRange(String from, String to) {
         return kardexRepository.findByMovementDateBetweenOrderByMovementDateDesc(from, to)
                 .stream().map(this::toDTO).toList();
     }
 
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
     public List<KardexDTO> getAllMovements() {
         return kardexRepository.findAll()
                 .stream().map(this::toDTO).toList();
@@ -0,0 +1,114 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.ClientBalanceEntity;
+import com.Tingeso.ToolRent.Entities.LedgerEntryEntity;
+import com.Tingeso.ToolRent.Events.LedgerChangedEvent;
+import com.Tingeso.ToolRent.Repositories.ClientBalanceRepository;
+import com.Tingeso.ToolRent.Repositories.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Libro de cargos, multas, pagos y ajustes por cliente.
+// Cada movimiento guarda el saldo resultante y ClientBalance mantiene el saldo vigente,
+// así el saldo actual es una lectura por PK y el saldo a una fecha una búsqueda por índice.
+// Las multas entran al libro recién al devolver (registerReturn, con el monto final); el devengo
+// nocturno (FineAccrualService) solo actualiza rents.fine_amount. Mientras el arriendo sigue
+// atrasado el cliente ya queda restringido por ese atraso, así que el saldo no necesita la multa en curso.
+@Service
+public class LedgerService {
+
+    public static final int CHARGE = 1;
+    public static final int FINE = 2;
+    public static final int PAYMENT = 3;
+    public static final int ADJUSTMENT = 4;
+
+    @Autowired private LedgerEntryRepository ledgerEntryRepository;
+    @Autowired private ClientBalanceRepository clientBalanceRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public LedgerEntryEntity post(Long clientId, Long rentId, int type, int amount, String description) {
+        if (clientId == null) {
+            throw new RuntimeException("Cliente requerido");
+        }
+
+        // Serializa los movimientos del mismo cliente
+        clientBalanceRepository.insertIfMissing(clientId);
+        ClientBalanceEntity balance = clientBalanceRepository.findForUpdate(clientId)
+                .orElseThrow(() -> new RuntimeException("Saldo no encontrado"));
+
+        int newBalance = balance.getBalance() + amount;
+
+        LedgerEntryEntity entry = new LedgerEntryEntity();
+        entry.setClientId(clientId);
+        entry.setRentId(rentId);
+        entry.setType(type);
+        entry.setAmount(amount);
+        entry.setBalanceAfter(newBalance);
+        entry.setEntryDate(LocalDateTime.now().toString());
+        entry.setDescription(description);
+        LedgerEntryEntity saved = ledgerEntryRepository.save(entry);
+
+        balance.setBalance(newBalance);
+        balance.setLastEntryId(saved.getId());
+        balance.setUpdatedAt(saved.getEntryDate());
+        clientBalanceRepository.save(balance);
+
+        eventPublisher.publishEvent(new LedgerChangedEvent(clientId, newBalance));
+
+        return saved;
+    }
+
+    // Cargos de una devolución: arriendo (+ reposición) y multa por separado.
+    // Idempotente: un arriendo tiene a lo más un cargo y una multa (uq_ledger_rent_type)
+    @Transactional
+    public void registerReturn(Long clientId, Long rentId, int total, int fine) {
+        int charge = total - fine;
+        if (charge > 0 && !ledgerEntryRepository.existsByRentIdAndType(rentId, CHARGE)) {
+            post(clientId, rentId, CHARGE, charge, "Arriendo #" + rentId);
+        }
+        if (fine > 0 && !ledgerEntryRepository.existsByRentIdAndType(rentId, FINE)) {
+            post(clientId, rentId, FINE, fine, "Multa por atraso arriendo #" + rentId);
+        }
+    }
+
+    @Transactional
+    public LedgerEntryEntity registerPayment(Long clientId, int amount) {
+        if (amount <= 0) {
+            throw new RuntimeException("Monto de pago inválido");
+        }
+        return post(clientId, null, PAYMENT, -amount, "Pago");
+    }
+
+    @Transactional
+    public LedgerEntryEntity registerAdjustment(Long clientId, int amount, String description) {
+        if (amount == 0) {
+            throw new RuntimeException("Monto de ajuste inválido");
+        }
+        return post(clientId, null, ADJUSTMENT, amount, description);
+    }
+
+    public int getCurrentBalance(Long clientId) {
+        return clientBalanceRepository.findById(clientId)
+                .map(ClientBalanceEntity::getBalance)
+                .orElse(0);
+    }
+
+    // Saldo al cierre del día indicado
+    public int getBalanceAsOf(Long clientId, LocalDate date) {
+        LedgerEntryEntity last = ledgerEntryRepository
+                .findTopByClientIdAndEntryDateLessThanOrderByEntryDateDescIdDesc(
+                        clientId, date.plusDays(1).toString());
+        return last != null ? last.getBalanceAfter() : 0;
+    }
+
+    public List<LedgerEntryEntity> getEntries(Long clientId) {
+        return ledgerEntryRepository.findByClientIdOrderByIdDesc(clientId);
+    }
+}
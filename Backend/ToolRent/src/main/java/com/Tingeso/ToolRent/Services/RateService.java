@@ -1,17 +1,54 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.InvalidationBus;
 import com.Tingeso.ToolRent.Entities.RateEntity;
+import com.Tingeso.ToolRent.Events.RateChangedEvent;
 import com.Tingeso.ToolRent.Repositories.RateRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
 @Service
 public class RateService {
     @Autowired
     RateRepository rateRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    InvalidationBus invalidationBus;
+
+    static final String TOPIC = "rates";
+
+    // Tabla vigente; se reemplaza completa (nunca se modifica) al cambiar una tarifa
+    private volatile RateTable rateTable;
+
+    // Lock en vez de synchronized: la recarga va a la BD y con hilos virtuales synchronized fija el hilo portador
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Una tarifa creada en otro nodo recarga la tabla aquí; si se perdieron avisos se recarga en la próxima cotización
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(TOPIC, new InvalidationBus.Subscriber() {
+            @Override
+            public void invalidate(String key) {
+                reloadRateTable();
+            }
+
+            @Override
+            public void flush() {
+                rateTable = null;
+            }
+        });
+    }
+
     public RateEntity getLatestRate() {
-        return rateRepository.findTopByOrderByIdDesc();
+        return rateRepository.findTopByCategoryIsNullOrderByIdDesc();
     }
 
     public RateEntity createRate(int dailyRentalRate, int dailyLateFeeRent) {
@@ -20,15 +57,71 @@ public class RateService {
         rate.setDailyRentalRate(dailyRentalRate);
         rate.setDailyLateFeeRent(dailyLateFeeRent);
 
-        return rateRepository.save(rate);
+        RateEntity saved = rateRepository.save(rate);
+        reloadRateTable();
+        invalidationBus.publish(TOPIC, InvalidationBus.ALL);
+        eventPublisher.publishEvent(new RateChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    public RateEntity createCategoryRate(String category, int dailyRentalRate, int dailyLateFeeRent) {
+        String normalized = RateTable.normalizeCategory(category);
+        if (normalized == null) {
+            throw new RuntimeException("Categoría inválida");
+        }
+
+        RateEntity rate = new RateEntity();
+        rate.setCategory(normalized);
+        rate.setDailyRentalRate(dailyRentalRate);
+        rate.setDailyLateFeeRent(dailyLateFeeRent);
+
+        RateEntity saved = rateRepository.save(rate);
+        reloadRateTable();
+        invalidationBus.publish(TOPIC, InvalidationBus.ALL);
+        eventPublisher.publishEvent(new RateChangedEvent(saved.getId()));
+        return saved;
     }
 
     public RateEntity addRate(RateEntity rate) {
-        return rateRepository.save(rate);
+        RateEntity saved = rateRepository.save(rate);
+        reloadRateTable();
+        invalidationBus.publish(TOPIC, InvalidationBus.ALL);
+        eventPublisher.publishEvent(new RateChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    public RateTable getRateTable() {
+        RateTable table = rateTable;
+        if (table == null) {
+            table = reloadRateTable();
+        }
+        return table;
     }
 
-        RateEntity findTopByOrderByIdDesc() {
-            return rateRepository.findTopByOrderByIdDesc();
+    // Reconstruye la tabla desde la BD y la publica de una sola vez
+    public RateTable reloadRateTable() {
+        reloadLock.lock();
+        try {
+            List<RateEntity> rates = rateRepository.findAllByOrderByIdAsc();
+            RateTable table = RateTable.from(rates);
+            rateTable = table;
+            return table;
+        } finally {
+            reloadLock.unlock();
         }
+    }
 
+    // Cotización sin ir a la BD
+    public int quote(String category, int days) {
+        RateTable table = getRateTable();
+        String normalized = RateTable.normalizeCategory(category);
+        if (!table.covers(normalized)) {
+            throw new RuntimeException("Rate missing");
+        }
+        return table.quote(normalized, days);
+    }
+
+    public RateEntity findTopByOrderByIdDesc() {
+        return rateRepository.findTopByOrderByIdDesc();
+    }
 }
@@ -0,0 +1,247 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.RateSimulationDTO;
+import com.Tingeso.ToolRent.DTOs.RateSimulationRowDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Simulador "qué pasaría si" de tarifas: re-calcula los arriendos cerrados de un periodo
+// con la misma regla de RentService.calculateTotal (RateTable.computeTotal) y compara
+// los ingresos con las tarifas vigentes vs. las propuestas, por categoría y mes.
+@Service
+public class RateSimulationService {
+
+    private static final int CHUNK = 64 * 1024;
+    private static final long MAX_SPAN_DAYS = 10 * 366;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private RateService rateService;
+
+    @Transactional(readOnly = true)
+    public RateSimulationDTO simulate(String from, String to, String category,
+                                      int dailyRentalRate, int dailyLateFeeRent) {
+        validate(from, to, dailyRentalRate, dailyLateFeeRent);
+        long startedAt = System.currentTimeMillis();
+
+        RateTable current = rateService.getRateTable();
+        RateTable proposed = current.withRate(RateTable.normalizeCategory(category),
+                dailyRentalRate, dailyLateFeeRent);
+
+        ClosedRentColumns columns = load(from, to);
+        RateSimulationDTO result = simulate(columns, current, proposed);
+
+        result.setFrom(from);
+        result.setTo(to);
+        result.setElapsedMillis(System.currentTimeMillis() - startedAt);
+        return result;
+    }
+
+    // Errores del pedido: el controlador lo llama antes de simular para responder 400
+    public void validate(String from, String to, int dailyRentalRate, int dailyLateFeeRent) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (NullPointerException | DateTimeParseException e) {
+            throw new RuntimeException("from y to son obligatorios (yyyy-MM-dd)");
+        }
+        if (fromDate.isAfter(toDate) || toDate.toEpochDay() - fromDate.toEpochDay() > MAX_SPAN_DAYS) {
+            throw new RuntimeException("Rango de fechas inválido");
+        }
+        if (dailyRentalRate < 0 || dailyLateFeeRent < 0) {
+            throw new RuntimeException("Las tarifas no pueden ser negativas");
+        }
+    }
+
+    // Copia columnar de los arriendos cerrados (devueltos entre from y to).
+    // Las fechas llegan ya como día epoch y el mes como índice año*12+mes desde la BD.
+    ClosedRentColumns load(String from, String to) {
+        ClosedRentColumns columns = new ClosedRentColumns();
+
+        // Cursor con fetch size (requiere la transacción de simulate) para no traer todo de una vez
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(5000);
+        streaming.query("""
+                SELECT
+                    TO_DATE(r.start_date, 'YYYY-MM-DD') - DATE '1970-01-01' AS start_day,
+                    TO_DATE(r.finish_date, 'YYYY-MM-DD') - DATE '1970-01-01' AS finish_day,
+                    TO_DATE(r.return_date, 'YYYY-MM-DD') - DATE '1970-01-01' AS return_day,
+                    CAST(SUBSTRING(r.return_date, 1, 4) AS INTEGER) * 12
+                        + CAST(SUBSTRING(r.return_date, 6, 2) AS INTEGER) - 1 AS month_index,
+                    r.irreparable AS irreparable,
+                    COALESCE(t.replacement_value, 0) AS replacement_value,
+                    t.category AS category,
+                    r.total_amount AS total_amount
+                FROM rents r
+                JOIN tool t ON r.tool_id = t.id
+                WHERE r.active = false
+                  AND r.return_date IS NOT NULL
+                  AND r.return_date BETWEEN ? AND ?
+                """,
+                rs -> {
+                    columns.add(
+                            rs.getInt("start_day"),
+                            rs.getInt("finish_day"),
+                            rs.getInt("return_day"),
+                            rs.getInt("month_index"),
+                            rs.getBoolean("irreparable"),
+                            rs.getInt("replacement_value"),
+                            RateTable.normalizeCategory(rs.getString("category")),
+                            rs.getInt("total_amount"));
+                },
+                from, to);
+
+        return columns;
+    }
+
+    RateSimulationDTO simulate(ClosedRentColumns c, RateTable current, RateTable proposed) {
+        int n = c.size;
+        int categories = c.categoryNames.size();
+
+        // Tarifas por índice de categoría: el ciclo principal no toca mapas
+        int[] curRental = new int[categories];
+        int[] curLate = new int[categories];
+        int[] newRental = new int[categories];
+        int[] newLate = new int[categories];
+        for (int i = 0; i < categories; i++) {
+            String name = c.categoryNames.get(i);
+            curRental[i] = current.rentalRate(name);
+            curLate[i] = current.lateFeeRate(name);
+            newRental[i] = proposed.rentalRate(name);
+            newLate[i] = proposed.lateFeeRate(name);
+        }
+
+        int minMonth = Integer.MAX_VALUE;
+        int maxMonth = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minMonth = Math.min(minMonth, c.month[i]);
+            maxMonth = Math.max(maxMonth, c.month[i]);
+        }
+        int months = n == 0 ? 0 : maxMonth - minMonth + 1;
+        int cells = categories * months;
+        int firstMonth = minMonth;
+
+        // Cada tramo acumula en sus propios arreglos y al final se suman
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        long[][] totals = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[][] acc = new long[4][cells]; // count, actual, current, proposed
+                    int end = Math.min(n, (chunk + 1) * CHUNK);
+                    for (int i = chunk * CHUNK; i < end; i++) {
+                        int cat = c.category[i];
+                        int cell = cat * months + (c.month[i] - firstMonth);
+
+                        acc[0][cell]++;
+                        acc[1][cell] += c.recorded[i];
+                        acc[2][cell] += RateTable.computeTotal(curRental[cat], curLate[cat],
+                                c.start[i], c.finish[i], c.returned[i], c.irreparable[i], c.replacement[i]);
+                        acc[3][cell] += RateTable.computeTotal(newRental[cat], newLate[cat],
+                                c.start[i], c.finish[i], c.returned[i], c.irreparable[i], c.replacement[i]);
+                    }
+                    return acc;
+                })
+                .reduce(new long[4][cells], (a, b) -> {
+                    long[][] sum = new long[4][cells];
+                    for (int k = 0; k < 4; k++) {
+                        for (int i = 0; i < cells; i++) {
+                            sum[k][i] = a[k][i] + b[k][i];
+                        }
+                    }
+                    return sum;
+                });
+
+        List<RateSimulationRowDTO> rows = new ArrayList<>();
+        long count = 0, recorded = 0, currentRevenue = 0, proposedRevenue = 0;
+
+        for (int cat = 0; cat < categories; cat++) {
+            for (int m = 0; m < months; m++) {
+                int cell = cat * months + m;
+                if (totals[0][cell] == 0) continue;
+
+                int monthIndex = firstMonth + m;
+                String month = String.format("%04d-%02d", monthIndex / 12, monthIndex % 12 + 1);
+
+                rows.add(new RateSimulationRowDTO(
+                        c.categoryNames.get(cat),
+                        month,
+                        totals[0][cell],
+                        totals[2][cell],
+                        totals[3][cell],
+                        totals[3][cell] - totals[2][cell]
+                ));
+
+                count += totals[0][cell];
+                recorded += totals[1][cell];
+                currentRevenue += totals[2][cell];
+                proposedRevenue += totals[3][cell];
+            }
+        }
+
+        RateSimulationDTO result = new RateSimulationDTO();
+        result.setRentsSimulated(count);
+        result.setCurrentRevenue(currentRevenue);
+        result.setProposedRevenue(proposedRevenue);
+        result.setDelta(proposedRevenue - currentRevenue);
+        result.setRecordedRevenue(recorded);
+        result.setRows(rows);
+        return result;
+    }
+
+    // Columnas primitivas que crecen al cargar; categoría como índice de diccionario
+    static class ClosedRentColumns {
+        int size;
+        int[] start = new int[1024];
+        int[] finish = new int[1024];
+        int[] returned = new int[1024];
+        int[] month = new int[1024];
+        boolean[] irreparable = new boolean[1024];
+        int[] replacement = new int[1024];
+        int[] category = new int[1024];
+        int[] recorded = new int[1024];
+
+        final List<String> categoryNames = new ArrayList<>();
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+
+        void add(int startDay, int finishDay, int returnDay, int monthIndex, boolean irreparableFlag,
+                 int replacementValue, String categoryName, int totalAmount) {
+            if (size == start.length) grow();
+
+            start[size] = startDay;
+            finish[size] = finishDay;
+            returned[size] = returnDay;
+            month[size] = monthIndex;
+            irreparable[size] = irreparableFlag;
+            replacement[size] = replacementValue;
+            category[size] = categoryIndex.computeIfAbsent(categoryName, k -> {
+                categoryNames.add(k);
+                return categoryNames.size() - 1;
+            });
+            recorded[size] = totalAmount;
+            size++;
+        }
+
+        private void grow() {
+            int capacity = start.length * 2;
+            start = Arrays.copyOf(start, capacity);
+            finish = Arrays.copyOf(finish, capacity);
+            returned = Arrays.copyOf(returned, capacity);
+            month = Arrays.copyOf(month, capacity);
+            irreparable = Arrays.copyOf(irreparable, capacity);
+            replacement = Arrays.copyOf(replacement, capacity);
+            category = Arrays.copyOf(category, capacity);
+            recorded = Arrays.copyOf(recorded, capacity);
+        }
+    }
+}
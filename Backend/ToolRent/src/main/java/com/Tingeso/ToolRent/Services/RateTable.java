@@ -0,0 +1,134 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.RateEntity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Tabla de tarifas precalculada e inmutable.
+// Se construye una vez desde la tabla Rate y se reemplaza completa cuando cambia una tarifa,
+// así calcular un precio es solo leer campos (sin consultas ni objetos nuevos).
+public final class RateTable {
+
+    private static final int RENTAL = 0;
+    private static final int LATE = 1;
+
+    private final boolean hasDefault;
+    private final int defaultRentalRate;
+    private final int defaultLateFeeRate;
+
+    // categoría (minúsculas, igual que ToolEntity) -> {arriendo diario, multa diaria}
+    private final Map<String, int[]> byCategory;
+
+    private RateTable(boolean hasDefault, int defaultRentalRate, int defaultLateFeeRate,
+                      Map<String, int[]> byCategory) {
+        this.hasDefault = hasDefault;
+        this.defaultRentalRate = defaultRentalRate;
+        this.defaultLateFeeRate = defaultLateFeeRate;
+        this.byCategory = byCategory;
+    }
+
+    // Las filas vienen ordenadas por id, la última de cada categoría es la vigente
+    public static RateTable from(List<RateEntity> rates) {
+        boolean hasDefault = false;
+        int rental = 0;
+        int late = 0;
+        Map<String, int[]> categories = new HashMap<>();
+
+        for (RateEntity r : rates) {
+            String category = normalizeCategory(r.getCategory());
+            if (category == null) {
+                hasDefault = true;
+                rental = r.getDailyRentalRate();
+                late = r.getDailyLateFeeRent();
+            } else {
+                categories.put(category, new int[]{r.getDailyRentalRate(), r.getDailyLateFeeRent()});
+            }
+        }
+
+        return new RateTable(hasDefault, rental, late, Map.copyOf(categories));
+    }
+
+    // Tabla con una sola tarifa global (simulaciones)
+    public static RateTable global(int dailyRentalRate, int dailyLateFeeRent) {
+        return new RateTable(true, dailyRentalRate, dailyLateFeeRent, Map.of());
+    }
+
+    // Copia de la tabla con una tarifa cambiada (category null = global)
+    public RateTable withRate(String category, int dailyRentalRate, int dailyLateFeeRent) {
+        if (category == null) {
+            return new RateTable(true, dailyRentalRate, dailyLateFeeRent, byCategory);
+        }
+        Map<String, int[]> categories = new HashMap<>(byCategory);
+        categories.put(category, new int[]{dailyRentalRate, dailyLateFeeRent});
+        return new RateTable(hasDefault, defaultRentalRate, defaultLateFeeRate, Map.copyOf(categories));
+    }
+
+    public static String normalizeCategory(String category) {
+        if (category == null || category.isBlank()) return null;
+        return category.trim().toLowerCase();
+    }
+
+    // true si existe una tarifa aplicable a la categoría (propia o global)
+    public boolean covers(String category) {
+        return hasDefault || (category != null && byCategory.containsKey(category));
+    }
+
+    public int rentalRate(String category) {
+        int[] rates = category != null ? byCategory.get(category) : null;
+        return rates != null ? rates[RENTAL] : defaultRentalRate;
+    }
+
+    public int lateFeeRate(String category) {
+        int[] rates = category != null ? byCategory.get(category) : null;
+        return rates != null ? rates[LATE] : defaultLateFeeRate;
+    }
+
+    // Copia: los arreglos de la tabla compartida no se pueden modificar desde afuera
+    public Map<String, int[]> getCategoryRates() {
+        Map<String, int[]> copy = new HashMap<>();
+        byCategory.forEach((category, rates) -> copy.put(category, rates.clone()));
+        return copy;
+    }
+
+    // Total esperado de un arriendo de N días devuelto a tiempo
+    public int quote(String category, int days) {
+        return Math.max(days, 1) * rentalRate(category);
+    }
+
+    public int lateFee(String category, long finishDay, long returnDay) {
+        return lateFee(lateFeeRate(category), finishDay, returnDay);
+    }
+
+    public int total(String category, long startDay, long finishDay, long returnDay,
+                     boolean irreparable, int replacementValue) {
+        return computeTotal(rentalRate(category), lateFeeRate(category),
+                startDay, finishDay, returnDay, irreparable, replacementValue);
+    }
+
+    // Misma regla que usaba RentService.calculateTotal, sobre días epoch
+    public static int computeTotal(int dailyRentalRate, int dailyLateFeeRate,
+                                   long startDay, long finishDay, long returnDay,
+                                   boolean irreparable, int replacementValue) {
+
+        // Días de arriendo (incluyendo el día inicial)
+        int rentalDays = (int) (finishDay - startDay) + 1;
+        if (rentalDays < 1) rentalDays = 1;
+
+        int rentalCost = rentalDays * dailyRentalRate;
+
+        int lateFee = lateFee(dailyLateFeeRate, finishDay, returnDay);
+
+        // Reposición
+        int replacementCost = irreparable ? replacementValue : 0;
+
+        return rentalCost + lateFee + replacementCost;
+    }
+
+    public static int lateFee(int dailyLateFeeRate, long finishDay, long returnDay) {
+        // Días de atraso
+        int lateDays = returnDay > finishDay ? (int) (returnDay - finishDay) : 0;
+        return lateDays * dailyLateFeeRate;
+    }
+}
@@ -1,15 +1,20 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
 import com.Tingeso.ToolRent.DTOs.RentDTO;
 import com.Tingeso.ToolRent.Entities.*;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
+import com.Tingeso.ToolRent.Events.ToolStatusChangedEvent;
 import com.Tingeso.ToolRent.Repositories.ClientRepository;
 import com.Tingeso.ToolRent.Repositories.KardexRepository;
 import com.Tingeso.ToolRent.Repositories.RentRepository;
 import com.Tingeso.ToolRent.Repositories.ToolRepository;
-import com.Tingeso.ToolRent.Repositories.RateRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -24,9 +29,17 @@ public class RentService {
     @Autowired private RentRepository rentRepository;
     @Autowired private ToolRepository toolRepository;
     @Autowired private KardexRepository kardexRepository;
-    @Autowired private RateRepository rateRepository;
-
-    public Object createRent(String clientRut, Long toolId, String finishDate, String employeeName) {
+    @Autowired private RateService rateService;
+    @Autowired private LedgerService ledgerService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private SingleFlight singleFlight;
+    @Autowired private EmployeeService employeeService;
+
+    // Préstamo, estado de la herramienta y kardex en una sola transacción: un flush (los INSERT van en batch)
+    // y un commit. Los listeners síncronos (restricción, ranking) se unen a ella; los de después del commit
+    // (dashboard, reportes) solo ven préstamos que sí quedaron guardados
+    @Transactional
+    public Object createRent(String clientRut, Long toolId, String finishDate, Long employeeId) {
 
         // ===== CLIENTE =====
         ClientEntity client = clientRepository.findByRut(clientRut).orElse(null);
@@ -70,7 +83,10 @@ public class RentService {
         rent.setDamaged(false);
         rent.setIrreparable(false);
 
-        rent.setEmployeeName(employeeName); // <--- EMPLEADO DE KEYCLOAK
+        rent.setEmployeeId(employeeId); // <--- EMPLEADO DE KEYCLOAK (EmployeeEntity)
+
+        // Total estimado si se devuelve en la fecha pactada; el recálculo lo actualiza al cambiar una tarifa
+        rent.setProjectedAmount(projectedAmount(tool, rent.getStartDate(), finishDate));
 
         rentRepository.save(rent);
 
@@ -84,14 +100,24 @@ public class RentService {
         mov.setMovementDate(LocalDateTime.now().toString());
         mov.setQuantity(1);
         mov.setToolId(toolId);
-        mov.setEmployeeName(employeeName);
+        mov.setEmployeeId(employeeId);
 
         kardexRepository.save(mov);
 
+        eventPublisher.publishEvent(new RentCreatedEvent(rent.getId(), client.getId(), toolId, finishDate));
+        eventPublisher.publishEvent(new ToolStatusChangedEvent(toolId, 1, 2));
+
         return rent;
     }
 
+    // Varias pantallas piden la lista a la vez: se comparte una sola consulta.
+    // Una petición fijada al primario lee por su cuenta: la consulta en curso podría no ver su escritura
     public List<RentDTO> getAllRentsOrdered() {
+        if (ReplicaRouting.isPinned()) return loadAllRentsOrdered();
+        return singleFlight.execute("rents:ordered", () -> ReplicaRouting.read(this::loadAllRentsOrdered));
+    }
+
+    private List<RentDTO> loadAllRentsOrdered() {
 
         List<RentEntity> rents = rentRepository.findAll();
         LocalDate today = LocalDate.now();
@@ -109,7 +135,8 @@ public class RentService {
                         r.isIrreparable(),
                         r.getFineAmount(),
                         r.getTotalAmount(),      // ← AGREGADO
-                        r.getEmployeeName()      // ← ÚLTIMO
+                        r.getProjectedAmount(),
+                        employeeService.nameOf(r.getEmployeeId())      // ← ÚLTIMO
                 ))
                 .collect(Collectors.toList());
 
@@ -133,45 +160,47 @@ public class RentService {
                 .collect(Collectors.toList());
     }
 
-    private int calculateTotal(RentEntity rent, ToolEntity tool, RateEntity rate) {
-
-        LocalDate start = LocalDate.parse(rent.getStartDate());
-        LocalDate finish = LocalDate.parse(rent.getFinishDate());
-        LocalDate returned = LocalDate.parse(rent.getReturnDate());
+    // Misma proyección que RepricingService; null si la categoría no tiene tarifa
+    private Integer projectedAmount(ToolEntity tool, String startDate, String finishDate) {
+        String category = RateTable.normalizeCategory(tool.getCategory());
+        RateTable rates = rateService.getRateTable();
+        if (!rates.covers(category)) return null;
 
-        // Días de arriendo (incluyendo el día inicial)
-        int rentalDays = (int) (finish.toEpochDay() - start.toEpochDay()) + 1;
-        if (rentalDays < 1) rentalDays = 1;
+        long finish = LocalDate.parse(finishDate).toEpochDay();
+        return rates.total(category, LocalDate.parse(startDate).toEpochDay(), finish, finish, false, 0);
+    }
 
-        int rentalCost = rentalDays * rate.getDailyRentalRate();
+    private int calculateTotal(RentEntity rent, ToolEntity tool, String category, RateTable rates) {
 
-        // Días de atraso
-        int lateDays = 0;
-        if (returned.isAfter(finish)) {
-            lateDays = (int) (returned.toEpochDay() - finish.toEpochDay());
-        }
+        long start = LocalDate.parse(rent.getStartDate()).toEpochDay();
+        long finish = LocalDate.parse(rent.getFinishDate()).toEpochDay();
+        long returned = LocalDate.parse(rent.getReturnDate()).toEpochDay();
 
-        int lateFee = lateDays * rate.getDailyLateFeeRent();
+        int replacementValue = tool.getReplacementValue() != null ? tool.getReplacementValue() : 0;
 
-        // Reposición
-        int replacementCost = 0;
-        if (rent.isIrreparable()) {
-            replacementCost = tool.getReplacementValue();
-        }
-
-        return rentalCost + lateFee + replacementCost;
+        return rates.total(category, start, finish, returned,
+                rent.isIrreparable(), replacementValue);
     }
 
-    public RentDTO returnTool(Long rentId, boolean damaged, boolean irreparable) {
+    // Devolución, cargo al libro, estado de la herramienta y kardex: todo o nada, en un solo commit.
+    // employeeId es quien recibe la herramienta (va al kardex); el arriendo conserva a quien la prestó
+    @Transactional
+    public RentDTO returnTool(Long rentId, boolean damaged, boolean irreparable, Long employeeId) {
 
-        RentEntity rent = rentRepository.findById(rentId)
+        // Con el arriendo bloqueado, un doble clic o un reintento espera y luego ve que ya se devolvió
+        RentEntity rent = rentRepository.findForUpdate(rentId)
                 .orElseThrow(() -> new RuntimeException("Rent not found"));
+        if (!rent.isActive()) {
+            throw new RuntimeException("Rent already returned");
+        }
 
         ToolEntity tool = toolRepository.findById(rent.getToolId())
                 .orElseThrow(() -> new RuntimeException("Tool not found"));
 
-        RateEntity rate = rateRepository.findTopByOrderByIdDesc();
-        if (rate == null) {
+        // La tabla está indexada por categoría normalizada; la de la herramienta puede venir con mayúsculas
+        String category = RateTable.normalizeCategory(tool.getCategory());
+        RateTable rates = rateService.getRateTable();
+        if (!rates.covers(category)) {
             throw new RuntimeException("Rate missing");
         }
 
@@ -182,12 +211,23 @@ public class RentService {
         rent.setIrreparable(irreparable);
 
         // Calcular total
-        int total = calculateTotal(rent, tool, rate);
+        int total = calculateTotal(rent, tool, category, rates);
         rent.setTotalAmount(total);
+        rent.setProjectedAmount(null);
+
+        // La multa acumulada queda fija con la fecha real de devolución
+        rent.setFineAmount(rates.lateFee(category,
+                LocalDate.parse(rent.getFinishDate()).toEpochDay(),
+                LocalDate.parse(rent.getReturnDate()).toEpochDay()));
 
         rentRepository.save(rent);
 
+        // Cargar al libro del cliente
+        ledgerService.registerReturn(rent.getClientId(), rent.getId(), total, rent.getFineAmount());
+
         // Actualizar herramienta
+        int oldToolStatus = tool.getStatus();
+
         // Actualizar estado de la herramienta según daño
         if (irreparable) {
             tool.setStatus(4); // Dada de baja
@@ -196,7 +236,7 @@ public class RentService {
             mov.setMovementDate(LocalDateTime.now().toString());
             mov.setQuantity(1);
             mov.setToolId(tool.getId());
-            mov.setEmployeeName(rent.getEmployeeName());
+            mov.setEmployeeId(employeeId);
             kardexRepository.save(mov);
         } else if (damaged) {
             tool.setStatus(3); // En reparación
@@ -205,7 +245,7 @@ public class RentService {
             mov.setMovementDate(LocalDateTime.now().toString());
             mov.setQuantity(1);
             mov.setToolId(tool.getId());
-            mov.setEmployeeName(rent.getEmployeeName());
+            mov.setEmployeeId(employeeId);
             kardexRepository.save(mov);
         } else {
             tool.setStatus(1); // Disponible
@@ -220,9 +260,13 @@ public class RentService {
         mov.setMovementDate(LocalDateTime.now().toString());
         mov.setQuantity(1);
         mov.setToolId(tool.getId());
-        mov.setEmployeeName(rent.getEmployeeName());
+        mov.setEmployeeId(employeeId);
         kardexRepository.save(mov);
 
+        eventPublisher.publishEvent(new RentReturnedEvent(rent.getId(), rent.getClientId(), tool.getId(),
+                rent.getTotalAmount(), damaged, irreparable, rent.getFinishDate()));
+        eventPublisher.publishEvent(new ToolStatusChangedEvent(tool.getId(), oldToolStatus, tool.getStatus()));
+
         // Devolver DTO
         return new RentDTO(
                 rent.getId(),
@@ -236,7 +280,8 @@ public class RentService {
                 rent.isIrreparable(),
                 rent.getFineAmount(),
                 rent.getTotalAmount(),
-                rent.getEmployeeName()
+                rent.getProjectedAmount(),
+                employeeService.nameOf(rent.getEmployeeId())
         );
     }
 
@@ -0,0 +1,125 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.CachedReportDTO;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Caché de reportes en memoria con refresco en segundo plano (stale-while-revalidate).
+// Una lectura siempre devuelve el último valor calculado, aunque esté invalidado;
+// si lo está, lanza un único recálculo en segundo plano. Solo la primera lectura de una clave espera
+// (y las que lleguen a la vez se suman a ese mismo cálculo).
+public class ReportCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long idleMillis;
+    private final int maxEntries;
+
+    // Primeras lecturas concurrentes de una clave comparten un solo cálculo
+    private final SingleFlight firstLoads = new SingleFlight();
+
+    private final ExecutorService refresher = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "report-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // idleMillis: una clave que nadie lee en ese tiempo deja de refrescarse y se descarta.
+    // maxEntries: las claves salen de parámetros de la petición; al llenarse se descarta la menos leída
+    public ReportCache(long idleMillis, int maxEntries) {
+        this.idleMillis = idleMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CachedReportDTO<T> get(String key, Supplier<T> loader) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) evictLeastRecentlyRead();
+            entry = entries.computeIfAbsent(key, k -> new Entry(loader));
+        }
+        entry.lastRead = System.currentTimeMillis();
+
+        CachedReportDTO<Object> current = entry.current;
+        if (current == null) {
+            current = firstLoads.execute(key, entry::loadIfEmpty);
+        } else if (entry.stale) {
+            refreshAsync(entry);
+        }
+        return (CachedReportDTO<T>) current;
+    }
+
+    // Solo marca todo como viejo: cada clave se recalcula en segundo plano cuando alguien la vuelve a leer
+    // (llega en cada préstamo y devolución, de todos los nodos; recalcular todo aquí no tiene sentido)
+    public void invalidateAll() {
+        entries.values().forEach(entry -> entry.stale = true);
+    }
+
+    // Refresco periódico de las claves en uso
+    public void refreshAll() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> now - e.getValue().lastRead > idleMillis);
+        entries.values().forEach(this::refreshAsync);
+    }
+
+    private void evictLeastRecentlyRead() {
+        entries.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().lastRead, b.getValue().lastRead))
+                .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void refreshAsync(Entry entry) {
+        // Un solo recálculo por clave a la vez
+        if (!entry.refreshing.compareAndSet(false, true)) return;
+        try {
+            refresher.submit(() -> {
+                try {
+                    entry.refresh();
+                } catch (Exception e) {
+                    entry.stale = true;
+                    e.printStackTrace();
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException rejected) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private static final class Entry {
+        private final Supplier<?> loader;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile CachedReportDTO<Object> current;
+        private volatile boolean stale;
+        private volatile long lastRead;
+
+        Entry(Supplier<?> loader) {
+            this.loader = loader;
+        }
+
+        // La primera lectura calcula en el hilo de la petición
+        CachedReportDTO<Object> loadIfEmpty() {
+            if (current == null) refresh();
+            return current;
+        }
+
+        void refresh() {
+            // Se baja la marca antes de calcular: una invalidación durante el cálculo vuelve a subirla
+            stale = false;
+            current = new CachedReportDTO<>(loader.get(), System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
+import com.Tingeso.ToolRent.Entities.ReportJobEntity;
+import com.Tingeso.ToolRent.Repositories.ReportJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Exportaciones grandes en segundo plano (historial de arriendos, kardex, clientes atrasados).
+// La petición solo registra el trabajo y lo encola; un pool acotado genera el CSV en disco
+// por streaming, guardando el avance en ReportJob. El archivo se borra al vencer su TTL.
+// En varios nodos el directorio debe ser compartido (ver Docker/compose.yml).
+@Service
+public class ReportJobService {
+
+    public static final List<String> TYPES = List.of("RENTS", "KARDEX", "LATE_CLIENTS");
+
+    private static final int PROGRESS_EVERY = 5000;
+    private static final long MAX_SPAN_DAYS = 10 * 366;
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    @Autowired private ReportJobRepository reportJobRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ClusterJobService clusterJobs;
+
+    static final String CLEANUP_JOB = "report-jobs-cleanup";
+
+    @Value("${toolrent.report-jobs.dir:${java.io.tmpdir}/toolrent-jobs}")
+    private String dir;
+
+    @Value("${toolrent.report-jobs.workers:2}")
+    private int workers;
+
+    @Value("${toolrent.report-jobs.queue-size:20}")
+    private int queueSize;
+
+    @Value("${toolrent.report-jobs.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${toolrent.report-jobs.cleanup-ms:600000}")
+    private long cleanupMillis;
+
+    private ThreadPoolExecutor executor;
+
+    // Trabajos de este nodo en cola o corriendo
+    private final Map<Long, Future<?>> tasks = new ConcurrentHashMap<>();
+
+    // Identificador fijo del nodo: al reiniciar (aunque cambie el contenedor) recupera sus trabajos.
+    // Sin configurar se usa el nombre del host
+    @Value("${toolrent.report-jobs.node:}")
+    private String configuredNode;
+
+    private String node;
+
+    @PostConstruct
+    public void start() throws IOException {
+        node = configuredNode != null && !configuredNode.isBlank() ? configuredNode : resolveNode();
+        Files.createDirectories(Paths.get(dir));
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "report-job");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Si el nodo se reinició, sus trabajos pendientes ya no van a terminar
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        for (ReportJobEntity job : reportJobRepository.findByNodeAndStatusIn(node, List.of("QUEUED", "RUNNING"))) {
+            job.setStatus("FAILED");
+            job.setError("El servidor se reinició durante la generación");
+            job.setFinishedAt(LocalDateTime.now().toString());
+            reportJobRepository.save(job);
+        }
+    }
+
+    public ReportJobEntity submit(String type, String from, String to, String requestedBy) {
+        String jobType = type != null ? type.trim().toUpperCase() : null;
+        if (!TYPES.contains(jobType))
+            throw new RuntimeException("Tipo de reporte inválido, use " + String.join(", ", TYPES));
+
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        if (fromDate.isAfter(toDate) || toDate.toEpochDay() - fromDate.toEpochDay() > MAX_SPAN_DAYS)
+            throw new RuntimeException("Rango de fechas inválido");
+
+        ReportJobEntity job = new ReportJobEntity();
+        job.setType(jobType);
+        job.setFromDate(fromDate.toString());
+        job.setToDate(toDate.toString());
+        job.setStatus("QUEUED");
+        job.setNode(node);
+        job.setRequestedBy(requestedBy);
+        job.setCreatedAt(LocalDateTime.now().toString());
+        ReportJobEntity saved = reportJobRepository.save(job);
+
+        // La tarea se registra antes de encolarla para que run() la pueda quitar al terminar
+        Long id = saved.getId();
+        FutureTask<Void> task = new FutureTask<>(() -> run(id), null);
+        tasks.put(id, task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            tasks.remove(id);
+            saved.setStatus("FAILED");
+            saved.setError("Cola de reportes llena");
+            saved.setFinishedAt(LocalDateTime.now().toString());
+            reportJobRepository.save(saved);
+            throw new RuntimeException("Hay demasiados reportes en cola, intente más tarde");
+        }
+        return saved;
+    }
+
+    public ReportJobEntity getJob(Long id) {
+        return reportJobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Reporte no encontrado"));
+    }
+
+    public List<ReportJobEntity> getRecentJobs() {
+        return reportJobRepository.findTop20ByOrderByIdDesc();
+    }
+
+    // Funciona desde cualquier nodo: el que lo ejecuta ve el cambio de estado en el siguiente avance
+    public ReportJobEntity cancel(Long id) {
+        inNewTransaction(() -> reportJobRepository.cancel(id, LocalDateTime.now().toString()));
+        // Si está en este nodo: en cola no llega a correr, corriendo se interrumpe
+        Future<?> local = tasks.remove(id);
+        if (local != null) local.cancel(true);
+        return getJob(id);
+    }
+
+    public Path getResultFile(Long id) {
+        ReportJobEntity job = getJob(id);
+        if (!"DONE".equals(job.getStatus()))
+            throw new RuntimeException("El reporte no está listo (" + job.getStatus() + ")");
+
+        Path file = Paths.get(dir).resolve(job.getFileName());
+        if (!Files.exists(file))
+            throw new RuntimeException("El archivo no está disponible en este servidor");
+        return file;
+    }
+
+    void run(Long id) {
+        Path part = Paths.get(dir).resolve("job-" + id + ".csv.part");
+        Path file = Paths.get(dir).resolve("job-" + id + ".csv");
+        try {
+            ReportJobEntity job = reportJobRepository.findById(id).orElse(null);
+            if (job == null || !"QUEUED".equals(job.getStatus())) return; // cancelado antes de empezar
+
+            // Condicional, como el avance: guardar la entidad completa pisaría una cancelación concurrente
+            long total = ReplicaRouting.read(() -> count(job));
+            Integer started = inNewTransaction(() -> reportJobRepository.markRunning(id, total));
+            if (started == null || started == 0) return; // cancelado mientras contaba
+
+            long rows;
+            try (BufferedWriter out = Files.newBufferedWriter(part)) {
+                rows = ReplicaRouting.read(() -> export(job, out));
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            LocalDateTime now = LocalDateTime.now();
+            long size = Files.size(file);
+            Integer finished = inNewTransaction(() -> reportJobRepository.markDone(id, rows,
+                    file.getFileName().toString(), size, now.toString(), now.plusHours(ttlHours).toString()));
+
+            // Pudo cancelarse justo al final
+            if (finished == null || finished == 0) {
+                Files.deleteIfExists(file);
+            }
+
+        } catch (CancellationException e) {
+            deleteQuietly(part);
+        } catch (Exception e) {
+            deleteQuietly(part);
+            if (Thread.currentThread().isInterrupted()) return; // cancelado desde este nodo
+            e.printStackTrace();
+            reportJobRepository.findById(id).ifPresent(job -> {
+                job.setStatus("FAILED");
+                job.setError(e.getMessage());
+                job.setFinishedAt(LocalDateTime.now().toString());
+                reportJobRepository.save(job);
+            });
+        } finally {
+            tasks.remove(id);
+        }
+    }
+
+    long count(ReportJobEntity job) {
+        String[] range = range(job);
+        Long total = switch (job.getType()) {
+            case "RENTS" -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM rents r WHERE r.start_date BETWEEN ? AND ?",
+                    Long.class, range[0], range[1]);
+            case "KARDEX" -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM kardex_movement k WHERE k.movement_date >= ? AND k.movement_date < ?",
+                    Long.class, range[0], range[2]);
+            default -> jdbcTemplate.queryForObject("""
+                    SELECT COUNT(DISTINCT r.client_id) FROM rents r
+                    WHERE r.finish_date BETWEEN ? AND ?
+                      AND COALESCE(r.return_date, ?) > r.finish_date
+                    """, Long.class, range[0], range[1], range[3]);
+        };
+        return total != null ? total : 0;
+    }
+
+    // Escribe el CSV por streaming dentro de una transacción de solo lectura (cursor con fetch size)
+    long export(ReportJobEntity job, BufferedWriter out) {
+        String[] range = range(job);
+        CsvRowWriter writer = new CsvRowWriter(job.getId(), out);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(2000);
+
+            switch (job.getType()) {
+                case "RENTS" -> streaming.query("""
+                        SELECT r.id, c.rut, c.name AS client, t.name AS tool, t.category,
+                               r.start_date, r.finish_date, r.return_date, r.active,
+                               r.damaged, r.irreparable, r.fine_amount, r.total_amount, e.name AS employee_name
+                        FROM rents r
+                        JOIN client c ON r.client_id = c.id
+                        JOIN tool t ON r.tool_id = t.id
+                        LEFT JOIN employee e ON r.employee_id = e.id
+                        WHERE r.start_date BETWEEN ? AND ?
+                        ORDER BY r.start_date, r.id
+                        """, writer, range[0], range[1]);
+                case "KARDEX" -> streaming.query("""
+                        SELECT k.id, k.movement_date, k.movement_type, k.quantity, k.tool_id,
+                               t.name AS tool, t.category, e.name AS employee_name
+                        FROM kardex_movement k
+                        LEFT JOIN tool t ON k.tool_id = t.id
+                        LEFT JOIN employee e ON k.employee_id = e.id
+                        WHERE k.movement_date >= ? AND k.movement_date < ?
+                        ORDER BY k.movement_date, k.id
+                        """, writer, range[0], range[2]);
+                default -> streaming.query("""
+                        SELECT c.id AS client_id, c.rut, c.name AS client,
+                               COUNT(r.id) AS late_rents,
+                               SUM(TO_DATE(COALESCE(r.return_date, ?), 'YYYY-MM-DD')
+                                   - TO_DATE(r.finish_date, 'YYYY-MM-DD')) AS late_days,
+                               SUM(r.fine_amount) AS fines
+                        FROM rents r
+                        JOIN client c ON r.client_id = c.id
+                        WHERE r.finish_date BETWEEN ? AND ?
+                          AND COALESCE(r.return_date, ?) > r.finish_date
+                        GROUP BY c.id, c.rut, c.name
+                        ORDER BY late_days DESC, late_rents DESC
+                        """, writer, range[3], range[0], range[1], range[3]);
+            }
+        });
+        return writer.rows;
+    }
+
+    // El directorio es compartido: basta con que un nodo haga la limpieza
+    @PostConstruct
+    public void registerCleanup() {
+        clusterJobs.register(CLEANUP_JOB, Duration.ofMillis(cleanupMillis / 2), run -> expireOldResults());
+    }
+
+    @Scheduled(fixedDelayString = "${toolrent.report-jobs.cleanup-ms:600000}")
+    public void scheduledCleanup() {
+        clusterJobs.run(CLEANUP_JOB);
+    }
+
+    // Vencidos: se borra el archivo y queda el registro como EXPIRED
+    public void expireOldResults() {
+        List<ReportJobEntity> expired =
+                reportJobRepository.findByStatusAndExpiresAtLessThan("DONE", LocalDateTime.now().toString());
+        for (ReportJobEntity job : expired) {
+            if (job.getFileName() != null) deleteQuietly(Paths.get(dir).resolve(job.getFileName()));
+            job.setStatus("EXPIRED");
+            reportJobRepository.save(job);
+        }
+    }
+
+    // Avance cada PROGRESS_EVERY filas; si el trabajo ya no está RUNNING se corta
+    void checkpoint(Long id, long rows) {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException();
+        Integer updated = inNewTransaction(() -> reportJobRepository.updateProgress(id, rows));
+        if (updated == null || updated == 0) throw new CancellationException();
+    }
+
+    // from, to, día siguiente a to (para fechas con hora) y hoy
+    private static String[] range(ReportJobEntity job) {
+        return new String[]{
+                job.getFromDate(),
+                job.getToDate(),
+                LocalDate.parse(job.getToDate()).plusDays(1).toString(),
+                LocalDate.now().toString()
+        };
+    }
+
+    private <T> T inNewTransaction(Supplier<T> action) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return tx.execute(status -> action.get());
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {}
+    }
+
+    private static String resolveNode() {
+        String host = System.getenv("HOSTNAME");
+        if (host != null && !host.isBlank()) return host;
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "local";
+        }
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    // Escribe cada fila como CSV (encabezado con los nombres de columna) y reporta el avance
+    private class CsvRowWriter implements RowCallbackHandler {
+        private final Long jobId;
+        private final BufferedWriter out;
+        private long rows;
+
+        CsvRowWriter(Long jobId, BufferedWriter out) {
+            this.jobId = jobId;
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                if (rows == 0) {
+                    for (int i = 1; i <= columns; i++) {
+                        if (i > 1) out.write(',');
+                        out.write(meta.getColumnLabel(i));
+                    }
+                    out.newLine();
+                }
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) out.write(',');
+                    out.write(csv(rs.getString(i)));
+                }
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            rows++;
+            if (rows % PROGRESS_EVERY == 0) checkpoint(jobId, rows);
+        }
+    }
+
+    static String csv(String value) {
+        if (value == null) return "";
+        if (isFormula(value)) value = "'" + value;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // Una planilla abriría como fórmula lo que empieza con = + - @ (salvo un número negativo):
+    // se antepone ' para que quede como texto
+    private static boolean isFormula(String value) {
+        if (value.isEmpty()) return false;
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '@' || first == '\t' || first == '\r') return true;
+        return first == '-' && !NUMBER.matcher(value).matches();
+    }
+}
@@ -1,17 +1,25 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.InvalidationBus;
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
 import com.Tingeso.ToolRent.DTOs.ActiveRentReportDTO;
+import com.Tingeso.ToolRent.DTOs.CachedReportDTO;
+import com.Tingeso.ToolRent.DTOs.LateClientReportDTO;
+import com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO;
+import com.Tingeso.ToolRent.DTOs.ToolUtilizationDTO;
 import com.Tingeso.ToolRent.Entities.RentEntity;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
 import com.Tingeso.ToolRent.Repositories.RentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
-
-import static java.util.stream.Collectors.toList;
 
 @Service
 public class ReportService {
@@ -19,8 +27,102 @@ public class ReportService {
     @Autowired
     private RentRepository rentRepository;
 
+    @Autowired
+    private ToolRankingService toolRankingService;
+
+    @Autowired
+    private UtilizationService utilizationService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    static final String TOPIC = "reports";
+
+    // Los reportes se sirven desde memoria; se descarta una clave que nadie lee en 10 minutos
+    // y nunca se guardan más de 200. Se calculan en la réplica de lectura si está configurada
+    private final ReportCache cache = new ReportCache(10 * 60 * 1000L, 200);
+
+    public CachedReportDTO<List<ActiveRentReportDTO>> getActiveRents() {
+        return cache.get("active", () -> ReplicaRouting.read(this::computeActiveRents));
+    }
+
+    // from/to filtran por fecha de término; sin ellas no hay límite. Se validan antes de crear la clave
+    public CachedReportDTO<List<LateClientReportDTO>> getLateClients(String from, String to, int page, int size) {
+        String start = lateBound(from, "0000-01-01");
+        String end = lateBound(to, "9999-12-31");
+        return cache.get("late:" + start + ":" + end + ":" + page + ":" + size,
+                () -> ReplicaRouting.read(() -> computeLateClients(start, end, page, size)));
+    }
+
+    public CachedReportDTO<Long> countLateClients(String from, String to) {
+        String start = lateBound(from, "0000-01-01");
+        String end = lateBound(to, "9999-12-31");
+        return cache.get("late-count:" + start + ":" + end,
+                () -> ReplicaRouting.read(() -> computeLateClientCount(start, end)));
+    }
+
+    private static String lateBound(String date, String unbounded) {
+        return date == null || date.isBlank() ? unbounded : LocalDate.parse(date).toString();
+    }
+
+    public CachedReportDTO<List<ToolRankingReportDTO>> getToolRanking(int days, String category, int limit) {
+        String key = "ranking:" + days + ":" + RateTable.normalizeCategory(category) + ":" + limit;
+        return cache.get(key, () -> ReplicaRouting.read(() -> computeToolRanking(days, category, limit)));
+    }
+
+    // Sin fechas: últimos 30 días hasta hoy. Se valida antes de crear la clave de caché
+    public CachedReportDTO<List<ToolUtilizationDTO>> getUtilization(String from, String to, String groupBy) {
+        LocalDate end = to == null || to.isBlank() ? LocalDate.now() : LocalDate.parse(to);
+        LocalDate start = from == null || from.isBlank() ? end.minusDays(29) : LocalDate.parse(from);
+        utilizationService.validate(start, end, groupBy);
+
+        String key = "utilization:" + groupBy + ":" + start + ":" + end;
+        return cache.get(key, () -> utilizationService.compute(start, end, groupBy));
+    }
+
+    // Préstamos y devoluciones hechos en otro nodo también dejan viejos los reportes de este
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(TOPIC, new InvalidationBus.Subscriber() {
+            @Override
+            public void invalidate(String key) {
+                cache.invalidateAll();
+            }
+
+            @Override
+            public void flush() {
+                cache.invalidateAll();
+            }
+        });
+    }
+
+    // Refresco periódico en segundo plano
+    @Scheduled(fixedDelayString = "${toolrent.reports.refresh-ms:30000}",
+            initialDelayString = "${toolrent.reports.refresh-ms:30000}")
+    public void refreshReports() {
+        cache.refreshAll();
+    }
+
+    // Préstamos y devoluciones cambian los tres reportes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentCreated(RentCreatedEvent event) {
+        cache.invalidateAll();
+        invalidationBus.publish(TOPIC, InvalidationBus.ALL);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentReturned(RentReturnedEvent event) {
+        cache.invalidateAll();
+        invalidationBus.publish(TOPIC, InvalidationBus.ALL);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cache.shutdown();
+    }
+
     // 1) PRESTAMOS ACTIVOS
-    public List<ActiveRentReportDTO> getActiveRents() {
+    List<ActiveRentReportDTO> computeActiveRents() {
 
         List<RentEntity> rents = rentRepository.findByActiveTrue();
 
@@ -49,31 +151,30 @@ public class ReportService {
         }).toList();
     }
 
-    // 2) CLIENTES CON ATRASOS
-    public List<Map<String, Object>> getLateClients() {
+    // 2) CLIENTES CON ATRASOS (agregado por cliente, paginado)
+    List<LateClientReportDTO> computeLateClients(String from, String to, int page, int size) {
 
         // HOY como string yyyy-MM-dd (porque tu entidad usa String)
-        String today = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-
-        System.out.println("📌 Buscando clientes con atraso para la fecha: " + today);
-
-        List<Map<String, Object>> result = rentRepository.findLateClients(today);
-
-        System.out.println("📌 Resultado obtenido desde la BD (clientes con atraso): ");
-        result.forEach(r -> System.out.println(" - " + r));
-
-        return result;
+        String today = LocalDate.now().toString();
+
+        return rentRepository.findLateClients(today, from, to, size, page * size).stream()
+                .map(row -> new LateClientReportDTO(
+                        ((Number) row.get("clientid")).longValue(),
+                        (String) row.get("clientname"),
+                        (String) row.get("rut"),
+                        ((Number) row.get("totallatedays")).longValue(),
+                        ((Number) row.get("totallateoccurrences")).longValue()
+                ))
+                .toList();
     }
 
-    // 3) RANKING DE HERRAMIENTAS
-    public List<Map<String, Object>> getToolRanking() {
-        List<Map<String, Object>> raw = rentRepository.getToolRanking();
+    long computeLateClientCount(String from, String to) {
+        return rentRepository.countLateClients(LocalDate.now().toString(), from, to);
+    }
 
-        // Normalizar llaves a camelCase
-        return raw.stream().map(row -> Map.of(
-                "toolName", row.get("toolname"),
-                "timesUsed", row.get("timesused")
-        )).toList();
+    // 3) RANKING DE HERRAMIENTAS (desde los contadores diarios, no lee Rents)
+    List<ToolRankingReportDTO> computeToolRanking(int days, String category, int limit) {
+        return toolRankingService.getRanking(days, category, limit);
     }
 
 }
@@ -0,0 +1,215 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.RepricingJobEntity;
+import com.Tingeso.ToolRent.Events.RateChangedEvent;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import com.Tingeso.ToolRent.Repositories.RepricingJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Recalcula el total proyectado (projectedAmount) de todos los arriendos activos cuando cambia una tarifa.
+// totalAmount queda para lo cobrado en la devolución.
+// Los arriendos se reparten en tramos por rango de id, cada tramo se calcula en un ForkJoinPool
+// y se escribe con un batch update. El avance queda en RepricingJob para retomar tras un reinicio.
+// Corre como trabajo de ClusterJobService: un solo nodo a la vez, y si muere otro lo retoma.
+@Service
+public class RepricingService {
+
+    @Autowired private RentRepository rentRepository;
+    @Autowired private RepricingJobRepository repricingJobRepository;
+    @Autowired private RateService rateService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ClusterJobService clusterJobs;
+
+    static final String JOB = "repricing";
+
+    @Value("${toolrent.repricing.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${toolrent.repricing.parallelism:0}")
+    private int parallelism;
+
+    // Lanza el trabajo sin bloquear a quien cambió la tarifa; el cálculo de cada tramo va al pool
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "repricing-job");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile ForkJoinPool pool;
+    private final ReentrantLock poolLock = new ReentrantLock();
+
+    // Sin espacio mínimo entre corridas: cada cambio de tarifa necesita la suya
+    @PostConstruct
+    public void registerJob() {
+        clusterJobs.register(JOB, Duration.ZERO, run -> runPending());
+    }
+
+    @EventListener
+    public void onRateChanged(RateChangedEvent event) {
+        startJob(event.getRateId());
+    }
+
+    // Trabajos que quedaron RUNNING: su nodo murió, o se crearon mientras otro nodo tenía el lock
+    // y terminó justo antes de verlos. El nodo que toma el lock los retoma desde el último tramo completo
+    @Scheduled(fixedDelayString = "${toolrent.jobs.resume-check-ms:60000}",
+            initialDelayString = "${toolrent.jobs.resume-check-ms:60000}")
+    public void resumePendingJobs() {
+        if (!repricingJobRepository.findByStatusOrderByIdAsc("RUNNING").isEmpty()) {
+            clusterJobs.run(JOB);
+        }
+    }
+
+    // Con el lock tomado: corre el trabajo RUNNING más reciente (los anteriores quedan reemplazados)
+    // y vuelve a mirar, por si otro nodo creó uno nuevo mientras tanto
+    void runPending() throws Exception {
+        List<RepricingJobEntity> running = repricingJobRepository.findByStatusOrderByIdAsc("RUNNING");
+        while (!running.isEmpty()) {
+            for (int i = 0; i < running.size() - 1; i++) {
+                finish(running.get(i), "SUPERSEDED");
+            }
+            run(running.get(running.size() - 1));
+            running = repricingJobRepository.findByStatusOrderByIdAsc("RUNNING");
+        }
+    }
+
+    public RepricingJobEntity startJob(Long rateId) {
+        Long minId = rentRepository.findMinActiveId();
+        Long maxId = rentRepository.findMaxActiveId();
+
+        RepricingJobEntity job = new RepricingJobEntity();
+        job.setRateId(rateId);
+        job.setStatus("RUNNING");
+        job.setFromId(minId != null ? minId : 0L);
+        job.setToId(maxId != null ? maxId : -1L);
+        job.setLastCompletedId(job.getFromId() - 1);
+        job.setProcessedRents(0);
+        job.setTotalRents(rentRepository.countByActiveTrue());
+        job.setStartedAt(LocalDateTime.now().toString());
+
+        RepricingJobEntity saved = repricingJobRepository.save(job);
+        // Si otro nodo tiene el lock, es él quien ve el trabajo nuevo y lo corre
+        jobExecutor.submit(() -> clusterJobs.run(JOB));
+        return saved;
+    }
+
+    public RepricingJobEntity getLatestJob() {
+        return repricingJobRepository.findTopByOrderByIdDesc();
+    }
+
+    // Un error deja el trabajo FAILED y llega a la corrida de ClusterJobService;
+    // una interrupción lo deja RUNNING para que otro nodo lo retome
+    void run(RepricingJobEntity job) throws InterruptedException {
+        try {
+            RateTable rates = rateService.getRateTable();
+            long today = LocalDate.now().toEpochDay();
+            int waveSize = getPool().getParallelism() * 2;
+
+            long next = job.getLastCompletedId() + 1;
+            while (next <= job.getToId()) {
+
+                // Hay un trabajo más nuevo (de este u otro nodo)
+                if (!job.getId().equals(repricingJobRepository.findTopByOrderByIdDesc().getId())) {
+                    finish(job, "SUPERSEDED");
+                    return;
+                }
+
+                // Ola de tramos consecutivos que se calculan en paralelo
+                List<long[]> wave = new ArrayList<>();
+                for (int i = 0; i < waveSize && next <= job.getToId(); i++) {
+                    long to = Math.min(next + chunkSize - 1, job.getToId());
+                    wave.add(new long[]{next, to});
+                    next = to + 1;
+                }
+
+                long processed = getPool().submit(() ->
+                        wave.parallelStream()
+                                .mapToLong(range -> repriceChunk(range[0], range[1], rates, today))
+                                .sum()
+                ).get();
+
+                // Todos los tramos de la ola terminaron: avanzar la marca
+                job.setLastCompletedId(wave.get(wave.size() - 1)[1]);
+                job.setProcessedRents(job.getProcessedRents() + processed);
+                repricingJobRepository.save(job);
+            }
+
+            finish(job, "DONE");
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (Exception e) {
+            finish(job, "FAILED");
+            throw new RuntimeException("Recálculo " + job.getId() + " falló: " + e.getMessage(), e);
+        }
+    }
+
+    // Calcula y escribe un tramo; devuelve cuántos arriendos actualizó
+    long repriceChunk(long fromId, long toId, RateTable rates, long today) {
+        List<Map<String, Object>> rows = rentRepository.findActiveForPricing(fromId, toId);
+        if (rows.isEmpty()) return 0;
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            long start = LocalDate.parse((String) row.get("startdate")).toEpochDay();
+            long finish = LocalDate.parse((String) row.get("finishdate")).toEpochDay();
+            String category = RateTable.normalizeCategory((String) row.get("category"));
+
+            // Proyección: devuelta hoy si ya está atrasada, si no en la fecha pactada
+            long returned = Math.max(today, finish);
+            int total = rates.total(category, start, finish, returned, false, 0);
+
+            updates.add(new Object[]{total, ((Number) row.get("id")).longValue()});
+        }
+
+        jdbcTemplate.batchUpdate("UPDATE rents SET projected_amount = ? WHERE id = ? AND active = true", updates);
+        return updates.size();
+    }
+
+    private void finish(RepricingJobEntity job, String status) {
+        job.setStatus(status);
+        job.setFinishedAt(LocalDateTime.now().toString());
+        repricingJobRepository.save(job);
+    }
+
+    private ForkJoinPool getPool() {
+        ForkJoinPool p = pool;
+        if (p == null) {
+            poolLock.lock();
+            try {
+                if (pool == null) {
+                    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+                    pool = new ForkJoinPool(threads);
+                }
+                p = pool;
+            } finally {
+                poolLock.unlock();
+            }
+        }
+        return p;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        if (pool != null) pool.shutdownNow();
+    }
+}
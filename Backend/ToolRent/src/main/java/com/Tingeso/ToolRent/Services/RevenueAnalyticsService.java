@@ -0,0 +1,457 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.InvalidationBus;
+import com.Tingeso.ToolRent.DTOs.RevenueAnalyticsDTO;
+import com.Tingeso.ToolRent.DTOs.RevenueBucketDTO;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+// Analítica de ingresos en memoria sobre arriendos cerrados.
+// Los hechos (día epoch de devolución, categoría, empleado, monto y flags) se guardan en columnas
+// de arreglos primitivos, acumulados por celda día + categoría + empleado + resultado: miles de
+// arriendos del mismo día y combinación ocupan una sola fila. Las celdas quedan ordenadas por día,
+// así una consulta recorre solo el tramo pedido con un ciclo simple, en paralelo si es grande.
+// Se carga completa al iniciar y luego se suma cada devolución, también las de los otros nodos
+// (llegan por InvalidationBus; si se pierden avisos se releen las devoluciones recientes).
+@Service
+public class RevenueAnalyticsService {
+
+    static final byte DAMAGED = 1;
+    static final byte IRREPARABLE = 2;
+    static final byte LATE = 4;
+
+    static final List<String> GROUPS = List.of("day", "week", "month", "category", "employee", "outcome");
+    static final List<String> OUTCOMES = List.of("ok", "damaged", "irreparable");
+
+    // flags & (DAMAGED|IRREPARABLE) -> índice en OUTCOMES
+    private static final int[] OUTCOME_OF_FLAGS = {0, 1, 2, 2};
+
+    private static final int CHUNK = 256 * 1024;
+    private static final int PARALLEL_THRESHOLD = 200_000;
+    private static final int MAX_SPAN_DAYS = 20 * 366;
+
+    private static final String SELECT_CLOSED = """
+            SELECT
+                r.id AS id,
+                TO_DATE(r.return_date, 'YYYY-MM-DD') - DATE '1970-01-01' AS return_day,
+                LOWER(TRIM(COALESCE(t.category, ''))) AS category,
+                COALESCE(e.name, '') AS employee,
+                r.total_amount AS total_amount,
+                r.fine_amount AS fine_amount,
+                r.damaged AS damaged,
+                r.irreparable AS irreparable
+            FROM rents r
+            JOIN tool t ON r.tool_id = t.id
+            LEFT JOIN employee e ON r.employee_id = e.id
+            WHERE r.active = false
+              AND r.return_date IS NOT NULL
+            """;
+
+    static final String TOPIC = "rent-returned";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private InvalidationBus invalidationBus;
+
+    private final RevenueColumns columns = new RevenueColumns();
+
+    // Un solo escritor a la vez (carga o devoluciones); las consultas no bloquean
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Mientras carga, las devoluciones se anotan y se agregan al final si la carga no las trajo
+    private boolean loading = true;
+    private final List<Long> pendingReturns = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        long startedAt = System.currentTimeMillis();
+
+        // Cursor con fetch size (requiere la transacción) para no traer todo de una vez
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(10_000);
+        streaming.query(SELECT_CLOSED + " ORDER BY r.return_date, r.id", rowAppender());
+
+        List<Long> pending;
+        writeLock.lock();
+        try {
+            pending = new ArrayList<>(pendingReturns);
+            pendingReturns.clear();
+            loading = false;
+        } finally {
+            writeLock.unlock();
+        }
+        pending.forEach(this::ingest);
+
+        System.out.println("Analítica de ingresos: " + columns.facts + " arriendos cerrados en "
+                + columns.size + " celdas, cargados en " + (System.currentTimeMillis() - startedAt) + " ms");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(TOPIC, new InvalidationBus.Subscriber() {
+            @Override
+            public void invalidate(String key) {
+                accept(Long.parseLong(key));
+            }
+
+            @Override
+            public void flush() {
+                catchUp();
+            }
+        });
+    }
+
+    // Después del commit: la fila ya es visible aquí y para los nodos que reciban el aviso
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentReturned(RentReturnedEvent event) {
+        accept(event.getRentId());
+        invalidationBus.publish(TOPIC, Long.toString(event.getRentId()));
+    }
+
+    // Devolución de este u otro nodo
+    void accept(Long rentId) {
+        writeLock.lock();
+        try {
+            if (loading) {
+                pendingReturns.add(rentId);
+                return;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        ingest(rentId);
+    }
+
+    // Se perdieron avisos (el bus reconectó): se releen las devoluciones de ayer y hoy, las ya cargadas se saltan
+    void catchUp() {
+        writeLock.lock();
+        try {
+            // La carga inicial las traerá
+            if (loading) return;
+        } finally {
+            writeLock.unlock();
+        }
+        jdbcTemplate.query(SELECT_CLOSED + " AND r.return_date >= ?", rowAppender(),
+                LocalDate.now().minusDays(1).toString());
+    }
+
+    // Lee la fila del arriendo devuelto y la agrega (una sola vez por arriendo)
+    void ingest(Long rentId) {
+        jdbcTemplate.query(SELECT_CLOSED + " AND r.id = ?", rowAppender(), rentId);
+    }
+
+    private RowCallbackHandler rowAppender() {
+        return rs -> {
+            byte flags = 0;
+            if (rs.getBoolean("damaged")) flags |= DAMAGED;
+            if (rs.getBoolean("irreparable")) flags |= IRREPARABLE;
+            if (rs.getInt("fine_amount") > 0) flags |= LATE;
+
+            append(rs.getLong("id"),
+                    rs.getInt("return_day"),
+                    rs.getString("category"),
+                    rs.getString("employee"),
+                    rs.getInt("total_amount"),
+                    flags);
+        };
+    }
+
+    void append(long rentId, int day, String category, String employee, int amount, byte flags) {
+        writeLock.lock();
+        try {
+            columns.append(rentId, day, category, employee, amount, flags);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Arriendos cerrados cargados (no celdas)
+    public long size() {
+        return columns.facts;
+    }
+
+    public RevenueAnalyticsDTO query(String from, String to, String groupBy,
+                                     String category, String employee, String outcome) {
+        long startedAt = System.nanoTime();
+
+        LocalDate toDate = to != null && !to.isBlank() ? LocalDate.parse(to) : LocalDate.now();
+        LocalDate fromDate = from != null && !from.isBlank() ? LocalDate.parse(from) : toDate.minusDays(29);
+        String group = groupBy != null && !groupBy.isBlank() ? groupBy.trim().toLowerCase() : "month";
+
+        if (fromDate.isAfter(toDate))
+            throw new RuntimeException("Rango de fechas inválido");
+        if (toDate.toEpochDay() - fromDate.toEpochDay() > MAX_SPAN_DAYS)
+            throw new RuntimeException("Rango de fechas demasiado amplio");
+        if (!GROUPS.contains(group))
+            throw new RuntimeException("Agrupación inválida, use " + String.join(", ", GROUPS));
+
+        int outcomeFilter = -1;
+        if (outcome != null && !outcome.isBlank()) {
+            outcomeFilter = OUTCOMES.indexOf(outcome.trim().toLowerCase());
+            if (outcomeFilter < 0)
+                throw new RuntimeException("Resultado inválido, use " + String.join(", ", OUTCOMES));
+        }
+
+        RevenueAnalyticsDTO result = aggregate(columns, (int) fromDate.toEpochDay(), (int) toDate.toEpochDay(),
+                group, category, employee, outcomeFilter);
+
+        result.setFrom(fromDate.toString());
+        result.setTo(toDate.toString());
+        result.setElapsedMicros((System.nanoTime() - startedAt) / 1000);
+        return result;
+    }
+
+    static RevenueAnalyticsDTO aggregate(RevenueColumns c, int fromDay, int toDay, String group,
+                                         String category, String employee, int outcomeFilter) {
+        // Primero el tamaño (volatile): los arreglos y diccionarios leídos después cubren esas celdas
+        int n = c.size;
+        int[] day = c.day;
+        int[] cat = c.category;
+        int[] emp = c.employee;
+        byte[] outcomeOf = c.outcome;
+        int[] rentsOf = c.rents;
+        long[] amountOf = c.amount;
+        int[] lateOf = c.late;
+        List<String> categoryNames = List.copyOf(c.categoryNames);
+        List<String> employeeNames = List.copyOf(c.employeeNames);
+
+        RevenueAnalyticsDTO result = new RevenueAnalyticsDTO();
+        result.setGroupBy(group);
+        result.setRows(new ArrayList<>());
+
+        // Filtros como índices de diccionario; un nombre desconocido no tiene filas
+        int catFilter = filterIndex(c.categoryIndex, RateTable.normalizeCategory(category));
+        int empFilter = filterIndex(c.employeeIndex, employee != null && !employee.isBlank() ? employee.trim() : null);
+        if (catFilter == -2 || empFilter == -2) return result;
+
+        // Tramo de celdas: búsqueda binaria si están ordenadas por día
+        int lo = 0, hi = n;
+        if (c.sorted) {
+            lo = lowerBound(day, n, fromDay);
+            hi = lowerBound(day, n, toDay + 1);
+        }
+
+        // Clave de grupo: por día se usa una tabla día -> casillero
+        List<String> labels = new ArrayList<>();
+        int mode;
+        int[] bucketOfDay = null;
+        switch (group) {
+            case "category" -> { mode = 1; labels.addAll(categoryNames); }
+            case "employee" -> { mode = 2; labels.addAll(employeeNames); }
+            case "outcome" -> { mode = 3; labels.addAll(OUTCOMES); }
+            default -> { mode = 0; bucketOfDay = dayBuckets(group, fromDay, toDay, labels); }
+        }
+        int buckets = labels.size();
+        int[] dayTable = bucketOfDay;
+        int first = lo, last = hi;
+
+        // Si las celdas están ordenadas el tramo ya es exacto y no hace falta revisar el día
+        boolean checkDay = !c.sorted;
+        boolean filtered = catFilter >= 0 || empFilter >= 0 || outcomeFilter >= 0;
+        int chunks = Math.max(1, (last - first + CHUNK - 1) / CHUNK);
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (last - first >= PARALLEL_THRESHOLD) chunkStream = chunkStream.parallel();
+
+        // Acumuladores planos por tramo: [rents | revenue | late] de largo buckets cada uno
+        long[] totals = chunkStream
+                .mapToObj(chunk -> {
+                    long[] acc = new long[3 * buckets];
+                    int end = Math.min(last, first + (chunk + 1) * CHUNK);
+                    for (int i = first + chunk * CHUNK; i < end; i++) {
+                        if (checkDay) {
+                            int d = day[i];
+                            if (d < fromDay || d > toDay) continue;
+                        }
+                        // Filtros combinados sin cortocircuito: un solo salto por celda
+                        if (filtered && ((catFilter >= 0 & cat[i] != catFilter)
+                                | (empFilter >= 0 & emp[i] != empFilter)
+                                | (outcomeFilter >= 0 & outcomeOf[i] != outcomeFilter))) continue;
+
+                        int bucket = mode == 0 ? dayTable[day[i] - fromDay]
+                                : mode == 1 ? cat[i]
+                                : mode == 2 ? emp[i]
+                                : outcomeOf[i];
+
+                        acc[bucket] += rentsOf[i];
+                        acc[buckets + bucket] += amountOf[i];
+                        acc[2 * buckets + bucket] += lateOf[i];
+                    }
+                    return acc;
+                })
+                .reduce((x, y) -> {
+                    for (int i = 0; i < x.length; i++) x[i] += y[i];
+                    return x;
+                })
+                .orElseGet(() -> new long[3 * buckets]);
+
+        long rents = 0, revenue = 0;
+        for (int b = 0; b < buckets; b++) {
+            if (totals[b] == 0) continue;
+            result.getRows().add(new RevenueBucketDTO(labels.get(b), totals[b], totals[buckets + b],
+                    totals[2 * buckets + b]));
+            rents += totals[b];
+            revenue += totals[buckets + b];
+        }
+        result.setRents(rents);
+        result.setRevenue(revenue);
+        return result;
+    }
+
+    // Tabla día -> casillero para day/week/month; llena las etiquetas en orden
+    private static int[] dayBuckets(String group, int fromDay, int toDay, List<String> labels) {
+        int[] table = new int[toDay - fromDay + 1];
+        String previous = null;
+        for (int d = fromDay; d <= toDay; d++) {
+            LocalDate date = LocalDate.ofEpochDay(d);
+            String label = switch (group) {
+                case "week" -> date.with(DayOfWeek.MONDAY).toString();
+                case "month" -> date.toString().substring(0, 7);
+                default -> date.toString();
+            };
+            if (!label.equals(previous)) {
+                labels.add(label);
+                previous = label;
+            }
+            table[d - fromDay] = labels.size() - 1;
+        }
+        return table;
+    }
+
+    // -1 = sin filtro, -2 = valor que no existe
+    private static int filterIndex(Map<String, Integer> index, String value) {
+        if (value == null) return -1;
+        Integer id = index.get(value);
+        return id != null ? id : -2;
+    }
+
+    // Primera posición con day >= value
+    private static int lowerBound(int[] day, int n, int value) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (day[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Columnas primitivas por celda (día, categoría, empleado, resultado); solo se escriben con writeLock
+    static class RevenueColumns {
+        volatile int size;      // celdas publicadas
+        volatile long facts;    // arriendos sumados
+        volatile boolean sorted = true;
+
+        int[] day = new int[1024];
+        int[] category = new int[1024];
+        int[] employee = new int[1024];
+        byte[] outcome = new byte[1024];
+        int[] rents = new int[1024];
+        long[] amount = new long[1024];
+        int[] late = new int[1024];
+
+        // Arriendos ya sumados (evita duplicar una devolución que llegó durante la carga)
+        private final BitSet ingested = new BitSet();
+
+        // Celdas del último día: las devoluciones nuevas caen aquí
+        private int openDay = Integer.MIN_VALUE;
+        private final Map<Long, Integer> openCells = new HashMap<>();
+
+        final List<String> categoryNames = new CopyOnWriteArrayList<>();
+        final Map<String, Integer> categoryIndex = new ConcurrentHashMap<>();
+        final List<String> employeeNames = new CopyOnWriteArrayList<>();
+        final Map<String, Integer> employeeIndex = new ConcurrentHashMap<>();
+
+        boolean append(long rentId, int returnDay, String categoryName, String employeeName,
+                       int totalAmount, byte flagBits) {
+            if (rentId >= 0 && rentId <= Integer.MAX_VALUE) {
+                if (ingested.get((int) rentId)) return false;
+                ingested.set((int) rentId);
+            }
+
+            int cat = indexOf(categoryNames, categoryIndex, categoryName != null ? categoryName : "");
+            int emp = indexOf(employeeNames, employeeIndex, employeeName != null ? employeeName : "");
+            int result = OUTCOME_OF_FLAGS[flagBits & (DAMAGED | IRREPARABLE)];
+            long key = ((long) cat << 34) | ((long) emp << 2) | result;
+
+            Integer cell = null;
+            if (returnDay == openDay) {
+                cell = openCells.get(key);
+            } else if (returnDay > openDay) {
+                openDay = returnDay;
+                openCells.clear();
+            } else {
+                // Día anterior al último: celda suelta, las consultas revisan el día
+                sorted = false;
+            }
+
+            if (cell == null) {
+                int i = size;
+                if (i == day.length) grow();
+                day[i] = returnDay;
+                category[i] = cat;
+                employee[i] = emp;
+                outcome[i] = (byte) result;
+                cell = i;
+                if (returnDay == openDay) openCells.put(key, i);
+            }
+
+            int i = cell;
+            rents[i]++;
+            amount[i] += totalAmount;
+            if ((flagBits & LATE) != 0) late[i]++;
+
+            // Publica: quien lea size/facts después ve los datos escritos
+            if (i == size) size = i + 1;
+            facts = facts + 1;
+            return true;
+        }
+
+        private static int indexOf(List<String> names, Map<String, Integer> index, String name) {
+            Integer id = index.get(name);
+            if (id != null) return id;
+            names.add(name);
+            index.put(name, names.size() - 1);
+            return names.size() - 1;
+        }
+
+        private void grow() {
+            int capacity = day.length * 2;
+            // Se asignan completos antes de publicar el nuevo size
+            int[] newDay = Arrays.copyOf(day, capacity);
+            int[] newCategory = Arrays.copyOf(category, capacity);
+            int[] newEmployee = Arrays.copyOf(employee, capacity);
+            byte[] newOutcome = Arrays.copyOf(outcome, capacity);
+            int[] newRents = Arrays.copyOf(rents, capacity);
+            long[] newAmount = Arrays.copyOf(amount, capacity);
+            int[] newLate = Arrays.copyOf(late, capacity);
+            day = newDay;
+            category = newCategory;
+            employee = newEmployee;
+            outcome = newOutcome;
+            rents = newRents;
+            amount = newAmount;
+            late = newLate;
+        }
+    }
+}
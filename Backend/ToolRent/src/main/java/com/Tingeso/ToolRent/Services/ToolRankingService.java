@@ -0,0 +1,101 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO;
+import com.Tingeso.ToolRent.Entities.ToolEntity;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
+import com.Tingeso.ToolRent.Repositories.ToolRentalDailyRepository;
+import com.Tingeso.ToolRent.Repositories.ToolRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Ranking de herramientas por ventana de tiempo (7, 30 o 365 días) y opcionalmente por categoría.
+// Cada préstamo suma 1 al contador diario de su herramienta (ToolRentalDaily);
+// el ranking suma esos contadores y elige los K mayores con un heap acotado.
+@Service
+public class ToolRankingService {
+
+    public static final Set<Integer> WINDOWS = Set.of(7, 30, 365);
+
+    // Menor primero: la cabeza del heap es la que sale al llegar una mejor
+    private static final Comparator<ToolRankingReportDTO> BY_COUNT =
+            Comparator.comparingLong((ToolRankingReportDTO r) -> r.rentalCount)
+                    .thenComparing(r -> r.toolName, Comparator.reverseOrder());
+
+    @Autowired private ToolRentalDailyRepository toolRentalDailyRepository;
+    @Autowired private ToolRepository toolRepository;
+
+    @EventListener
+    @Transactional
+    public void onRentCreated(RentCreatedEvent event) {
+        ToolEntity tool = toolRepository.findById(event.getToolId()).orElse(null);
+        if (tool == null) return;
+
+        // El préstamo parte hoy (RentService usa LocalDate.now() como startDate)
+        toolRentalDailyRepository.increment(
+                LocalDate.now().toString(),
+                tool.getName(),
+                category(tool.getCategory()),
+                tool.getId());
+    }
+
+    // Primera vez: llenar los contadores con el historial de arriendos
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (toolRentalDailyRepository.count() > 0) return;
+        int rows = toolRentalDailyRepository.backfillFromRents();
+        System.out.println("Ranking de herramientas: " + rows + " contadores diarios cargados");
+    }
+
+    @Transactional(readOnly = true)
+    public List<ToolRankingReportDTO> getRanking(int days, String category, int limit) {
+        if (!WINDOWS.contains(days))
+            throw new RuntimeException("Ventana inválida, use 7, 30 o 365 días");
+        if (limit < 1)
+            throw new RuntimeException("Límite inválido");
+
+        // Ventana incluye hoy: últimos 7 días = hoy y los 6 anteriores
+        String fromDay = LocalDate.now().minusDays(days - 1L).toString();
+        String cat = RateTable.normalizeCategory(category);
+
+        List<ToolRankingReportDTO> totals = cat == null
+                ? toolRentalDailyRepository.sumSince(fromDay)
+                : toolRentalDailyRepository.sumSinceForCategory(fromDay, cat);
+
+        return topK(totals, limit);
+    }
+
+    // Los K con más préstamos, de mayor a menor, sin ordenar toda la lista
+    static List<ToolRankingReportDTO> topK(List<ToolRankingReportDTO> totals, int k) {
+        PriorityQueue<ToolRankingReportDTO> heap = new PriorityQueue<>(k + 1, BY_COUNT);
+        for (ToolRankingReportDTO row : totals) {
+            if (heap.size() < k) {
+                heap.add(row);
+            } else if (BY_COUNT.compare(row, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(row);
+            }
+        }
+
+        List<ToolRankingReportDTO> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) result.add(heap.poll());
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static String category(String category) {
+        String normalized = RateTable.normalizeCategory(category);
+        return normalized != null ? normalized : "";
+    }
+}
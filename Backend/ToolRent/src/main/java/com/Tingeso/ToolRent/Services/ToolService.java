@@ -1,10 +1,13 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
 import com.Tingeso.ToolRent.Entities.ToolEntity;
+import com.Tingeso.ToolRent.Events.ToolStatusChangedEvent;
 import com.Tingeso.ToolRent.Repositories.ToolRepository;
 import jakarta.transaction.Transactional;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.text.Normalizer;
@@ -19,11 +22,17 @@ public class ToolService {
     @Autowired
     private KardexService kardexService;
 
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public ToolService(ToolRepository toolRepository) {
         this.toolRepository = toolRepository;
     }
 
-    public ToolEntity addTool(ToolEntity tool, String employeeName){
+    public ToolEntity addTool(ToolEntity tool, Long employeeId){
 
         //convertir a minusculas el nombre y categoria
         tool.setName(tool.getName().trim().toLowerCase());
@@ -36,7 +45,9 @@ public class ToolService {
         ToolEntity saved = toolRepository.save(tool);
 
         // Ahora sí el ID existe
-        kardexService.registerMovement(4, saved.getId(), employeeName); // 4 = Ingreso
+        kardexService.registerMovement(4, saved.getId(), employeeId); // 4 = Ingreso
+
+        eventPublisher.publishEvent(new ToolStatusChangedEvent(saved.getId(), 0, 1));
 
         return saved;
     }
@@ -50,7 +61,14 @@ public class ToolService {
             .orElseThrow(() -> new RuntimeException("Tool not found with id: " + id));
     }
 
+    // Varias pantallas piden la lista a la vez: se comparte una sola consulta.
+    // Una petición fijada al primario lee por su cuenta: la consulta en curso podría no ver su escritura
     public List<ToolEntity> getAllTools() {
+        if (ReplicaRouting.isPinned()) return loadAllTools();
+        return singleFlight.execute("tools:all", () -> ReplicaRouting.read(this::loadAllTools));
+    }
+
+    private List<ToolEntity> loadAllTools() {
 
         List<ToolEntity> tools = toolRepository.findAll();
 
@@ -62,13 +80,28 @@ public class ToolService {
                         Collectors.counting()
                 ));
 
-        // insertar ese stock en cada herramienta
+        // Copias con el stock: la lista se comparte con todos los que esperaban la misma consulta,
+        // así que no se tocan las entidades de la sesión (ni de la caché)
+        List<ToolEntity> copies = new ArrayList<>(tools.size());
         for (ToolEntity t : tools) {
             long stock = disponiblesMap.getOrDefault(t.getName(), 0L);
-            t.setStock((int) stock);
+            copies.add(copyWithStock(t, (int) stock));
         }
 
-        return tools;
+        return Collections.unmodifiableList(copies);
+    }
+
+    private static ToolEntity copyWithStock(ToolEntity tool, int stock) {
+        ToolEntity copy = new ToolEntity();
+        copy.setId(tool.getId());
+        copy.setName(tool.getName());
+        copy.setCategory(tool.getCategory());
+        copy.setReplacementValue(tool.getReplacementValue());
+        copy.setStatus(tool.getStatus());
+        // Sin la versión la copia parece una herramienta nunca guardada (Spring Data la trata como nueva)
+        copy.setVersion(tool.getVersion());
+        copy.setStock(stock);
+        return copy;
     }
 
     public ArrayList<ToolEntity> getToolsByCategory(String category){
@@ -82,6 +115,37 @@ public class ToolService {
                 .toLowerCase();
     }
 
+    // Edición completa desde la pantalla de herramientas: valor del grupo, estado + kardex y campos,
+    // en una sola transacción (un flush y un commit). Si algo falla no queda el grupo repreciado a medias
+    // ni el estado cambiado sin su movimiento. null si la herramienta no existe
+    @Transactional
+    public ToolEntity updateTool(Long id, ToolEntity incoming, Long employeeId) {
+
+        ToolEntity existing = toolRepository.findById(id).orElse(null);
+        if (existing == null) return null;
+
+        incoming.setId(id);
+
+        boolean statusChanged = !Objects.equals(existing.getStatus(), incoming.getStatus());
+        boolean replacementChanged = !Objects.equals(existing.getReplacementValue(),
+                incoming.getReplacementValue());
+
+        if (statusChanged && employeeId == null) {
+            throw new RuntimeException("Se requiere un empleado para cambiar el estado");
+        }
+
+        // El grupo se busca con el nombre y categoría ANTIGUOS, antes de tocar esta herramienta
+        if (replacementChanged) {
+            updateToolGroupValues(existing.getName(), existing.getCategory(), incoming.getReplacementValue());
+        }
+
+        if (statusChanged) {
+            updateToolStatus(id, incoming.getStatus(), employeeId);
+        }
+
+        return updateToolFields(incoming);
+    }
+
     @Transactional
     public ToolEntity updateToolFields(ToolEntity tool) {
 
@@ -111,7 +175,8 @@ public class ToolService {
         toolRepository.saveAll(group);
     }
 
-    public ToolEntity updateToolStatus(Long toolId, int newStatus, String employeeName) {
+    @Transactional
+    public ToolEntity updateToolStatus(Long toolId, int newStatus, Long employeeId) {
 
         ToolEntity tool = toolRepository.findById(toolId)
                 .orElseThrow(() -> new RuntimeException("Herramienta no encontrada"));
@@ -131,20 +196,20 @@ public class ToolService {
             case 3: // En reparación
                 if (oldStatus == 1 || oldStatus == 2) {
                     System.out.println("MOVIMIENTO: En reparación");
-                    kardexService.registerMovement(5, id, employeeName);
+                    kardexService.registerMovement(5, id, employeeId);
                 }
                 break;
 
             case 1: // Disponible (cuando termina reparación)
                 if (oldStatus == 3) {
                     System.out.println("MOVIMIENTO: Reparación completada");
-                    kardexService.registerMovement(4, id, employeeName);
+                    kardexService.registerMovement(4, id, employeeId);
                 }
                 break;
 
             case 4: // Dada de baja
                 System.out.println("MOVIMIENTO: Baja");
-                kardexService.registerMovement(3, id, employeeName);
+                kardexService.registerMovement(3, id, employeeId);
                 break;
 
             default:
@@ -152,18 +217,27 @@ public class ToolService {
                 break;
         }
 
+        eventPublisher.publishEvent(new ToolStatusChangedEvent(id, oldStatus, newStatus));
+
         return saved;
     }
 
     public ToolEntity deactivateTool(Long id){
         ToolEntity tool = toolRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Herramienta no encontrada con id: " + id));
+        int oldStatus = tool.getStatus();
         tool.setStatus(4); // Estado 4 = dado de baja
-        return toolRepository.save(tool);
+        ToolEntity saved = toolRepository.save(tool);
+
+        eventPublisher.publishEvent(new ToolStatusChangedEvent(id, oldStatus, 4));
+        return saved;
     }
 
     public void deleteToolById(Long id){
+        Optional<ToolEntity> tool = toolRepository.findById(id);
         toolRepository.deleteById(id);
+
+        tool.ifPresent(t -> eventPublisher.publishEvent(new ToolStatusChangedEvent(id, t.getStatus(), 0)));
     }
 
     public Map<String, Object> checkDuplicateAndSuggestPrice(@NotNull String name, @NotNull String category) {
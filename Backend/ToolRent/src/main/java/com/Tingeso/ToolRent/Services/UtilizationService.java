@@ -0,0 +1,238 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
+import com.Tingeso.ToolRent.DTOs.ToolUtilizationDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.IntStream;
+
+// Utilización de herramientas en una ventana de fechas: qué fracción de los días
+// estuvo arrendada cada unidad (o cada modelo nombre/categoría) y cuántos arriendos
+// simultáneos hubo como máximo. Un solo barrido ordenado de inicios/fines por grupo,
+// en paralelo entre grupos, en vez de consultar día por día.
+@Service
+public class UtilizationService {
+
+    public static final List<String> GROUP_BY = List.of("model", "unit");
+    private static final int MAX_WINDOW_DAYS = 3 * 366;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void validate(LocalDate from, LocalDate to, String groupBy) {
+        if (!GROUP_BY.contains(groupBy)) {
+            throw new RuntimeException("Agrupación inválida, use " + String.join(", ", GROUP_BY));
+        }
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Rango de fechas inválido");
+        }
+        if (to.toEpochDay() - from.toEpochDay() + 1 > MAX_WINDOW_DAYS) {
+            throw new RuntimeException("La ventana no puede superar 3 años");
+        }
+    }
+
+    @Transactional(readOnly = true, label = ReplicaRouting.LABEL)
+    public List<ToolUtilizationDTO> compute(LocalDate from, LocalDate to, String groupBy) {
+        validate(from, to, groupBy);
+
+        Tools tools = loadTools();
+        Intervals rents = loadRents(tools, from, to);
+        return compute(tools, rents, from, to, "unit".equals(groupBy));
+    }
+
+    List<ToolUtilizationDTO> compute(Tools tools, Intervals rents, LocalDate from, LocalDate to, boolean byUnit) {
+        int windowDays = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+
+        // Una unidad cuenta si sigue en inventario o si se arrendó dentro de la ventana
+        boolean[] counted = new boolean[tools.size];
+        for (int t = 0; t < tools.size; t++) counted[t] = tools.status[t] != 4;
+        for (int i = 0; i < rents.size; i++) counted[rents.tool[i]] = true;
+
+        // Grupo de cada herramienta: ella misma o su modelo
+        int groups = byUnit ? tools.size : tools.modelNames.size();
+        int[] groupOf = byUnit ? IntStream.range(0, tools.size).toArray() : tools.model;
+
+        int[] units = new int[groups];
+        for (int t = 0; t < tools.size; t++) {
+            if (counted[t]) units[groupOf[t]]++;
+        }
+
+        // Intervalos ordenados por grupo (conteo + desplazamientos)
+        int[] offsets = new int[groups + 1];
+        for (int i = 0; i < rents.size; i++) offsets[groupOf[rents.tool[i]] + 1]++;
+        for (int g = 0; g < groups; g++) offsets[g + 1] += offsets[g];
+        int[] order = new int[rents.size];
+        int[] next = Arrays.copyOf(offsets, groups);
+        for (int i = 0; i < rents.size; i++) order[next[groupOf[rents.tool[i]]]++] = i;
+
+        return IntStream.range(0, groups).parallel()
+                .filter(g -> units[g] > 0)
+                .mapToObj(g -> {
+                    long[] sweep = sweep(rents, order, offsets[g], offsets[g + 1], units[g]);
+                    long available = (long) units[g] * windowDays;
+
+                    int sample = byUnit ? g : tools.firstOfModel[g];
+                    return new ToolUtilizationDTO(
+                            byUnit ? tools.id[g] : null,
+                            tools.name[sample],
+                            tools.category[sample],
+                            units[g],
+                            offsets[g + 1] - offsets[g],
+                            sweep[0],
+                            available,
+                            (double) sweep[0] / available,
+                            (int) sweep[1]
+                    );
+                })
+                .sorted(Comparator.comparingDouble(ToolUtilizationDTO::getUtilization).reversed()
+                        .thenComparing(ToolUtilizationDTO::getName))
+                .toList();
+    }
+
+    // Barrido de eventos de un grupo: {días-unidad arrendados, pico de simultáneos}.
+    // Cada intervalo [inicio, fin] aporta +1 en inicio y -1 en fin+1; en un mismo día
+    // los fines van antes que los inicios para no contar un traslape que no existe.
+    static long[] sweep(Intervals rents, int[] order, int fromPos, int toPos, int capacity) {
+        int k = toPos - fromPos;
+        long[] events = new long[2 * k];
+        for (int j = 0; j < k; j++) {
+            int i = order[fromPos + j];
+            events[2 * j] = (long) rents.start[i] * 2 + 1;
+            events[2 * j + 1] = ((long) rents.end[i] + 1) * 2;
+        }
+        Arrays.sort(events);
+
+        long busy = 0;
+        int active = 0;
+        int peak = 0;
+        long previous = 0;
+        for (long e : events) {
+            long day = e >> 1;
+            if (active > 0) {
+                // Datos inconsistentes (dos arriendos a la vez de una unidad) no superan la capacidad
+                busy += Math.min(active, capacity) * (day - previous);
+            }
+            previous = day;
+            if ((e & 1) == 1) {
+                active++;
+                peak = Math.max(peak, active);
+            } else {
+                active--;
+            }
+        }
+        return new long[]{busy, peak};
+    }
+
+    Tools loadTools() {
+        Tools tools = new Tools();
+        jdbcTemplate.query(
+                "SELECT id, name, COALESCE(category, '') AS category, status FROM tool ORDER BY id",
+                rs -> {
+                    tools.add(rs.getLong("id"), rs.getString("name"), rs.getString("category"), rs.getInt("status"));
+                });
+        return tools;
+    }
+
+    // Arriendos que tocan la ventana, recortados a ella; los activos llegan hasta hoy
+    Intervals loadRents(Tools tools, LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int lastDay = (int) Math.min(toDay, LocalDate.now().toEpochDay());
+
+        Intervals rents = new Intervals();
+
+        // Cursor con fetch size (requiere la transacción de compute)
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(5000);
+        streaming.query("""
+                SELECT
+                    r.tool_id AS tool_id,
+                    TO_DATE(r.start_date, 'YYYY-MM-DD') - DATE '1970-01-01' AS start_day,
+                    TO_DATE(r.return_date, 'YYYY-MM-DD') - DATE '1970-01-01' AS return_day
+                FROM rents r
+                WHERE r.start_date <= ?
+                  AND (r.return_date IS NULL OR r.return_date >= ?)
+                """,
+                rs -> {
+                    Integer tool = tools.index.get(rs.getLong("tool_id"));
+                    if (tool == null) return; // herramienta eliminada
+
+                    int start = rs.getInt("start_day");
+                    int returnDay = rs.getInt("return_day");
+                    int end = rs.wasNull() ? lastDay : Math.min(returnDay, toDay);
+                    start = Math.max(start, fromDay);
+                    if (end >= start) {
+                        rents.add(tool, start, end);
+                    }
+                },
+                to.toString(), from.toString());
+
+        return rents;
+    }
+
+    // Inventario con el modelo (nombre/categoría) como índice de diccionario
+    static class Tools {
+        int size;
+        long[] id = new long[256];
+        String[] name = new String[256];
+        String[] category = new String[256];
+        int[] status = new int[256];
+        int[] model = new int[256];
+
+        final List<String> modelNames = new ArrayList<>();
+        int[] firstOfModel = new int[16];
+        final Map<Long, Integer> index = new HashMap<>();
+        private final Map<String, Integer> modelIndex = new HashMap<>();
+
+        void add(long toolId, String toolName, String toolCategory, int toolStatus) {
+            if (size == id.length) {
+                int capacity = size * 2;
+                id = Arrays.copyOf(id, capacity);
+                name = Arrays.copyOf(name, capacity);
+                category = Arrays.copyOf(category, capacity);
+                status = Arrays.copyOf(status, capacity);
+                model = Arrays.copyOf(model, capacity);
+            }
+
+            id[size] = toolId;
+            name[size] = toolName;
+            category[size] = toolCategory;
+            status[size] = toolStatus;
+            model[size] = modelIndex.computeIfAbsent(toolName + "\u0000" + toolCategory, k -> {
+                int m = modelNames.size();
+                modelNames.add(k);
+                if (m == firstOfModel.length) firstOfModel = Arrays.copyOf(firstOfModel, m * 2);
+                firstOfModel[m] = size;
+                return m;
+            });
+            index.put(toolId, size);
+            size++;
+        }
+    }
+
+    // Intervalos [start, end] en días epoch, inclusive
+    static class Intervals {
+        int size;
+        int[] tool = new int[1024];
+        int[] start = new int[1024];
+        int[] end = new int[1024];
+
+        void add(int toolIndex, int startDay, int endDay) {
+            if (size == tool.length) {
+                int capacity = size * 2;
+                tool = Arrays.copyOf(tool, capacity);
+                start = Arrays.copyOf(start, capacity);
+                end = Arrays.copyOf(end, capacity);
+            }
+            tool[size] = toolIndex;
+            start[size] = startDay;
+            end[size] = endDay;
+            size++;
+        }
+    }
+}
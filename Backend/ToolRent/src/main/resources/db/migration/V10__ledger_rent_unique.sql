@@ -0,0 +1,4 @@
+-- Una devolución carga a lo más un arriendo (type 1) y una multa (type 2) por arriendo:
+-- un reintento o una devolución duplicada no puede cobrar dos veces
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ledger_rent_type ON ledger_entry (rent_id, type)
+    WHERE rent_id IS NOT NULL AND type IN (1, 2);
@@ -0,0 +1,58 @@
+-- Esquema tal como lo dejaba ddl-auto=update antes de Flyway (mismos nombres de restricción que generaba Hibernate).
+-- En una BD existente no se ejecuta: Flyway la marca en esta versión (baseline-on-migrate) y sigue desde V2.
+
+CREATE TABLE client (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY,
+    email        varchar(255),
+    name         varchar(255),
+    phone_number varchar(255),
+    rut          varchar(255),
+    status       integer NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE kardex_movement (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY,
+    employee_name varchar(255),
+    movement_date varchar(255),
+    movement_type integer NOT NULL,
+    quantity      integer NOT NULL,
+    tool_id       bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE rate (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY,
+    daily_late_fee_rent integer NOT NULL,
+    daily_rental_rate   integer NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE rents (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY,
+    active        boolean NOT NULL,
+    client_id     bigint,
+    damaged       boolean NOT NULL,
+    employee_name varchar(255),
+    fine_amount   integer NOT NULL,
+    finish_date   varchar(255),
+    irreparable   boolean NOT NULL,
+    return_date   varchar(255),
+    start_date    varchar(255),
+    tool_id       bigint,
+    total_amount  integer NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE tool (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY,
+    category          varchar(255),
+    name              varchar(255),
+    replacement_value integer,
+    status            integer NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE kardex_movement ADD CONSTRAINT FKd5v2j7n6y8w6sro5xp9fbtqvf FOREIGN KEY (tool_id) REFERENCES tool;
+ALTER TABLE rents ADD CONSTRAINT FKhqksjl6y9qijrc6tsefarsc83 FOREIGN KEY (client_id) REFERENCES client;
+ALTER TABLE rents ADD CONSTRAINT FKk0txddljk71shfi2ox8ffwk1x FOREIGN KEY (tool_id) REFERENCES tool;
@@ -0,0 +1,104 @@
+-- Tablas y columnas nuevas desde la línea base: categorías de tarifa, empleados, libro de saldos,
+-- reportes y repreciado en segundo plano, ranking diario de herramientas e historial de trabajos.
+-- Con IF NOT EXISTS: una BD que pasó por una versión intermedia con ddl-auto=update ya puede tener parte.
+
+ALTER TABLE rate ADD COLUMN IF NOT EXISTS category varchar(255);
+
+CREATE TABLE IF NOT EXISTS employee (
+    id       bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject  varchar(255),
+    name     varchar(255),
+    username varchar(255)
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_employee_subject ON employee (subject);
+
+ALTER TABLE rents ADD COLUMN IF NOT EXISTS employee_id bigint;
+ALTER TABLE kardex_movement ADD COLUMN IF NOT EXISTS employee_id bigint;
+
+-- Exposición por cliente: arriendos activos con multa acumulada
+CREATE INDEX IF NOT EXISTS idx_rents_active_client_fine ON rents (active, client_id, fine_amount);
+-- Filtros por empleado
+CREATE INDEX IF NOT EXISTS idx_rents_employee ON rents (employee_id);
+-- Lo reemplaza el parcial idx_rents_unreturned_finish (V4)
+DROP INDEX IF EXISTS idx_rents_return_finish;
+
+-- Actividad por empleado: movimientos de un mes
+CREATE INDEX IF NOT EXISTS idx_kardex_movement_date ON kardex_movement (movement_date);
+CREATE INDEX IF NOT EXISTS idx_kardex_employee_date ON kardex_movement (employee_id, movement_date);
+
+CREATE TABLE IF NOT EXISTS ledger_entry (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    client_id     bigint,
+    rent_id       bigint,
+    type          integer NOT NULL,
+    amount        integer NOT NULL,
+    balance_after integer NOT NULL,
+    entry_date    varchar(255),
+    description   varchar(255)
+);
+-- Saldo a una fecha: último movimiento del cliente hasta esa fecha
+CREATE INDEX IF NOT EXISTS idx_ledger_client_date ON ledger_entry (client_id, entry_date);
+
+CREATE TABLE IF NOT EXISTS client_balance (
+    client_id     bigint NOT NULL PRIMARY KEY,
+    balance       integer NOT NULL,
+    last_entry_id bigint,
+    updated_at    varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS report_job (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type           varchar(255),
+    from_date      varchar(255),
+    to_date        varchar(255),
+    status         varchar(255),
+    processed_rows bigint NOT NULL,
+    total_rows     bigint NOT NULL,
+    node           varchar(255),
+    file_name      varchar(255),
+    file_size      bigint NOT NULL,
+    requested_by   varchar(255),
+    error          varchar(255),
+    created_at     varchar(255),
+    finished_at    varchar(255),
+    expires_at     varchar(255)
+);
+CREATE INDEX IF NOT EXISTS idx_report_job_status_expires ON report_job (status, expires_at);
+
+CREATE TABLE IF NOT EXISTS repricing_job (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rate_id           bigint,
+    status            varchar(255),
+    from_id           bigint NOT NULL,
+    to_id             bigint NOT NULL,
+    last_completed_id bigint NOT NULL,
+    processed_rents   bigint NOT NULL,
+    total_rents       bigint NOT NULL,
+    started_at        varchar(255),
+    finished_at       varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS tool_rental_daily (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rental_day varchar(255),
+    tool_name  varchar(255),
+    category   varchar(255),
+    tool_id    bigint,
+    rentals    bigint NOT NULL,
+    CONSTRAINT uk_tool_rental_daily UNIQUE (rental_day, tool_name, category)
+);
+CREATE INDEX IF NOT EXISTS idx_tool_rental_daily_category_day ON tool_rental_daily (category, rental_day);
+
+CREATE TABLE IF NOT EXISTS job_run (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    job_name     varchar(255),
+    node         varchar(255),
+    status       varchar(255),
+    started_at   varchar(255),
+    finished_at  varchar(255),
+    duration_ms  bigint,
+    checkpoint   varchar(255),
+    resumed_from bigint,
+    error        varchar(1000)
+);
+CREATE INDEX IF NOT EXISTS idx_job_run_job_status ON job_run (job_name, status);
@@ -0,0 +1,38 @@
+-- Nombres de empleado guardados como texto en rents y kardex_movement (antes de la tabla employee):
+-- un empleado histórico (sin subject) por nombre distinto, y las filas pasan a referenciarlo por id.
+-- Con solo el nombre no se distingue a dos homónimos: comparten el empleado histórico. Por eso
+-- ningún empleado histórico se enlaza solo a una cuenta de Keycloak al iniciar sesión.
+--
+-- employee_name se conserva. Se borra en una migración posterior, una vez revisado que no quedó nada sin enlazar:
+--   SELECT COUNT(*) FROM rents WHERE TRIM(employee_name) <> '' AND employee_id IS NULL;
+--   SELECT COUNT(*) FROM kardex_movement WHERE TRIM(employee_name) <> '' AND employee_id IS NULL;
+-- En una BD creada desde cero la columna no existe y no hay nada que hacer.
+
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['rents', 'kardex_movement'] LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = t AND column_name = 'employee_name') THEN
+
+            EXECUTE format($sql$
+                INSERT INTO employee (name)
+                SELECT DISTINCT TRIM(x.employee_name)
+                FROM %I x
+                WHERE TRIM(x.employee_name) <> ''
+                  AND NOT EXISTS (SELECT 1 FROM employee e
+                                  WHERE e.subject IS NULL AND e.name = TRIM(x.employee_name))
+            $sql$, t);
+
+            EXECUTE format($sql$
+                UPDATE %I x
+                SET employee_id = e.id
+                FROM employee e
+                WHERE x.employee_id IS NULL
+                  AND e.subject IS NULL
+                  AND e.name = TRIM(x.employee_name)
+            $sql$, t);
+        END IF;
+    END LOOP;
+END $$;
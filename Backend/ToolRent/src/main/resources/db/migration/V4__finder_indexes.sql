@@ -0,0 +1,38 @@
+-- Un índice por cada búsqueda de los repositorios que antes recorría la tabla completa.
+-- Los de Rents son parciales: los arriendos devueltos son la gran mayoría y esas búsquedas no los miran.
+-- RepositoryIndexIntegrationTest revisa el plan de cada finder.
+
+-- ClientRepository.findByRut
+CREATE INDEX IF NOT EXISTS idx_client_rut ON client (rut);
+
+-- ToolRepository.findByStatus, findByCategory, findByName y findByNameAndCategory
+CREATE INDEX IF NOT EXISTS idx_tool_status ON tool (status);
+CREATE INDEX IF NOT EXISTS idx_tool_category ON tool (category);
+CREATE INDEX IF NOT EXISTS idx_tool_name_category ON tool (name, category);
+
+-- RentRepository.findByClientIdAndActiveTrue, existsByClientIdAndToolIdAndActiveTrue,
+-- existsByClientIdAndActiveTrueAndFinishDateLessThan y findOverdueClientIdsBetween
+CREATE INDEX IF NOT EXISTS idx_rents_active_client_tool ON rents (client_id, tool_id) WHERE active;
+
+-- RentRepository.findByActiveTrue, countByActiveTrue, MIN/MAX(id) y tramos por id (repricing)
+CREATE INDEX IF NOT EXISTS idx_rents_active_id ON rents (id) WHERE active;
+
+-- Devengo de multas y contadores del dashboard: activos por fecha de término
+CREATE INDEX IF NOT EXISTS idx_rents_active_finish ON rents (finish_date) WHERE active;
+
+-- Reporte de atrasos: sin devolver y vencidos
+CREATE INDEX IF NOT EXISTS idx_rents_unreturned_finish ON rents (finish_date) WHERE return_date IS NULL;
+
+-- KardexRepository.findByToolIdOrderByMovementDateDesc (ya ordenado, sin sort)
+CREATE INDEX IF NOT EXISTS idx_kardex_tool_date ON kardex_movement (tool_id, movement_date DESC);
+
+-- LedgerEntryRepository.findByClientIdOrderByIdDesc
+CREATE INDEX IF NOT EXISTS idx_ledger_client_id ON ledger_entry (client_id, id);
+
+-- ReportJobRepository.findByNodeAndStatusIn (trabajos del nodo al arrancar)
+CREATE INDEX IF NOT EXISTS idx_report_job_node_status ON report_job (node, status);
+
+-- RepricingJobRepository.findByStatusOrderByIdAsc
+CREATE INDEX IF NOT EXISTS idx_repricing_job_status ON repricing_job (status, id);
+
+ANALYZE client, tool, rents, kardex_movement, ledger_entry, employee;
@@ -0,0 +1,72 @@
+-- IDENTITY obligaba a Hibernate a insertar fila por fila para conocer el id; con secuencias
+-- el id se asigna antes del INSERT y los INSERT se agrupan en batches (hibernate.jdbc.batch_size).
+-- Secuencias de a 50 (allocationSize = 50, optimizador pooled): cada nextval entrega el tope de un bloque
+-- de 50 ids que el nodo usa sin volver a la BD. Parten sobre el id máximo actual.
+-- Los INSERT en SQL nativo que no dan id (tool_rental_daily) toman nextval por
+-- DEFAULT; ese valor nunca es tope de un bloque entregado a Hibernate, así que no choca.
+
+CREATE SEQUENCE IF NOT EXISTS client_seq INCREMENT BY 50;
+ALTER TABLE client ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE client ALTER COLUMN id SET DEFAULT nextval('client_seq');
+ALTER SEQUENCE client_seq OWNED BY client.id;
+SELECT setval('client_seq', COALESCE((SELECT MAX(id) FROM client), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS tool_seq INCREMENT BY 50;
+ALTER TABLE tool ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE tool ALTER COLUMN id SET DEFAULT nextval('tool_seq');
+ALTER SEQUENCE tool_seq OWNED BY tool.id;
+SELECT setval('tool_seq', COALESCE((SELECT MAX(id) FROM tool), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS rate_seq INCREMENT BY 50;
+ALTER TABLE rate ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE rate ALTER COLUMN id SET DEFAULT nextval('rate_seq');
+ALTER SEQUENCE rate_seq OWNED BY rate.id;
+SELECT setval('rate_seq', COALESCE((SELECT MAX(id) FROM rate), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS employee_seq INCREMENT BY 50;
+ALTER TABLE employee ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE employee ALTER COLUMN id SET DEFAULT nextval('employee_seq');
+ALTER SEQUENCE employee_seq OWNED BY employee.id;
+SELECT setval('employee_seq', COALESCE((SELECT MAX(id) FROM employee), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS rents_seq INCREMENT BY 50;
+ALTER TABLE rents ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE rents ALTER COLUMN id SET DEFAULT nextval('rents_seq');
+ALTER SEQUENCE rents_seq OWNED BY rents.id;
+SELECT setval('rents_seq', COALESCE((SELECT MAX(id) FROM rents), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS kardex_movement_seq INCREMENT BY 50;
+ALTER TABLE kardex_movement ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE kardex_movement ALTER COLUMN id SET DEFAULT nextval('kardex_movement_seq');
+ALTER SEQUENCE kardex_movement_seq OWNED BY kardex_movement.id;
+SELECT setval('kardex_movement_seq', COALESCE((SELECT MAX(id) FROM kardex_movement), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS ledger_entry_seq INCREMENT BY 50;
+ALTER TABLE ledger_entry ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE ledger_entry ALTER COLUMN id SET DEFAULT nextval('ledger_entry_seq');
+ALTER SEQUENCE ledger_entry_seq OWNED BY ledger_entry.id;
+SELECT setval('ledger_entry_seq', COALESCE((SELECT MAX(id) FROM ledger_entry), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS report_job_seq INCREMENT BY 50;
+ALTER TABLE report_job ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE report_job ALTER COLUMN id SET DEFAULT nextval('report_job_seq');
+ALTER SEQUENCE report_job_seq OWNED BY report_job.id;
+SELECT setval('report_job_seq', COALESCE((SELECT MAX(id) FROM report_job), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS repricing_job_seq INCREMENT BY 50;
+ALTER TABLE repricing_job ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE repricing_job ALTER COLUMN id SET DEFAULT nextval('repricing_job_seq');
+ALTER SEQUENCE repricing_job_seq OWNED BY repricing_job.id;
+SELECT setval('repricing_job_seq', COALESCE((SELECT MAX(id) FROM repricing_job), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS tool_rental_daily_seq INCREMENT BY 50;
+ALTER TABLE tool_rental_daily ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE tool_rental_daily ALTER COLUMN id SET DEFAULT nextval('tool_rental_daily_seq');
+ALTER SEQUENCE tool_rental_daily_seq OWNED BY tool_rental_daily.id;
+SELECT setval('tool_rental_daily_seq', COALESCE((SELECT MAX(id) FROM tool_rental_daily), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS job_run_seq INCREMENT BY 50;
+ALTER TABLE job_run ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE job_run ALTER COLUMN id SET DEFAULT nextval('job_run_seq');
+ALTER SEQUENCE job_run_seq OWNED BY job_run.id;
+SELECT setval('job_run_seq', COALESCE((SELECT MAX(id) FROM job_run), 0) + 50, false);
@@ -0,0 +1,3 @@
+-- La restricción por deuda solo cuenta los cargos que ya pasaron el plazo de pago.
+-- LedgerEntryRepository.findClientIdsChargedBetween: cada noche, los clientes cuyos cargos vencieron ese día
+CREATE INDEX IF NOT EXISTS idx_ledger_charge_date ON ledger_entry (entry_date) WHERE amount > 0;
@@ -0,0 +1,3 @@
+-- Distingue las restricciones puestas a mano de las automáticas: la conciliación solo levanta las automáticas.
+-- Las restricciones existentes no se pueden distinguir; quedan como automáticas.
+ALTER TABLE client ADD COLUMN IF NOT EXISTS manual_restriction boolean NOT NULL DEFAULT false;
@@ -0,0 +1,5 @@
+-- Total proyectado de los arriendos activos (RepricingService), aparte del total cobrado.
+ALTER TABLE rents ADD COLUMN IF NOT EXISTS projected_amount integer;
+
+-- El recálculo lo escribía en total_amount: en un arriendo activo cualquier total es una proyección
+UPDATE rents SET projected_amount = total_amount, total_amount = 0 WHERE active AND total_amount <> 0;
@@ -0,0 +1,3 @@
+-- Bloqueo optimista de Tool (ToolEntity.version): un estado leído viejo desde la caché
+-- hace fallar el UPDATE en vez de prestar dos veces la misma herramienta.
+ALTER TABLE tool ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,69 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(target.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    void getConnection_ShouldHoldPermitUntilClose() throws SQLException {
+        BoundedDataSource dataSource = new BoundedDataSource(target, 2, 50);
+
+        Connection c = dataSource.getConnection();
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        c.close();
+        c.close();
+
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_WhenExhausted_ShouldTimeOut() throws SQLException {
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, 50);
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_WhenPoolFails_ShouldReleasePermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool caído"));
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, 50);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void getConnection_ShouldDelegateOtherCalls() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(false);
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, 50);
+
+        assertFalse(dataSource.getConnection().getAutoCommit());
+    }
+}
@@ -0,0 +1,160 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachedJwtAuthenticationManagerTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-10T12:00:00Z");
+
+    @Mock
+    private AuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private CachedJwtAuthenticationManager manager(int size, Instant now) {
+        return new CachedJwtAuthenticationManager(provider, size, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private JwtAuthenticationToken authFor(String token, Instant expiresAt) {
+        Jwt jwt = Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("abc")
+                .issuedAt(expiresAt.minusSeconds(300))
+                .expiresAt(expiresAt)
+                .build();
+        return new JwtAuthenticationToken(jwt, List.of(), "Ana Soto");
+    }
+
+    private void stubProvider(Instant expiresAt) {
+        when(provider.authenticate(any())).thenAnswer(inv -> {
+            BearerTokenAuthenticationToken bearer = inv.getArgument(0);
+            return authFor(bearer.getToken(), expiresAt);
+        });
+    }
+
+    @Test
+    void authenticate_SameToken_ShouldVerifyOnce() {
+        stubProvider(NOW.plusSeconds(300));
+        CachedJwtAuthenticationManager manager = manager(10, NOW);
+
+        Authentication first = manager.authenticate(new BearerTokenAuthenticationToken("t1"));
+        Authentication second = manager.authenticate(new BearerTokenAuthenticationToken("t1"));
+
+        assertSame(first, second);
+        assertEquals("Ana Soto", second.getName());
+        verify(provider, times(1)).authenticate(any());
+        assertEquals(1, manager.getHits());
+        assertEquals(1, manager.getMisses());
+    }
+
+    @Test
+    void authenticate_ExpiredEntry_ShouldVerifyAgain() {
+        stubProvider(NOW.plusSeconds(60));
+        MovableClock clock = new MovableClock(NOW);
+        CachedJwtAuthenticationManager manager = new CachedJwtAuthenticationManager(provider, 10, clock);
+
+        manager.authenticate(new BearerTokenAuthenticationToken("t1"));
+        clock.now = NOW.plusSeconds(61);
+        manager.authenticate(new BearerTokenAuthenticationToken("t1"));
+
+        verify(provider, times(2)).authenticate(any());
+        assertEquals(0, manager.getHits());
+    }
+
+    @Test
+    void authenticate_InvalidToken_ShouldNotBeCached() {
+        when(provider.authenticate(any())).thenThrow(new InvalidBearerTokenException("firma inválida"));
+        CachedJwtAuthenticationManager manager = manager(10, NOW);
+
+        assertThrows(InvalidBearerTokenException.class,
+                () -> manager.authenticate(new BearerTokenAuthenticationToken("bad")));
+        assertThrows(InvalidBearerTokenException.class,
+                () -> manager.authenticate(new BearerTokenAuthenticationToken("bad")));
+
+        verify(provider, times(2)).authenticate(any());
+        assertEquals(0, manager.size());
+    }
+
+    @Test
+    void authenticate_WhenFull_ShouldStayBounded() {
+        stubProvider(NOW.plusSeconds(300));
+        CachedJwtAuthenticationManager manager = manager(10, NOW);
+
+        for (int i = 0; i < 50; i++) {
+            manager.authenticate(new BearerTokenAuthenticationToken("t" + i));
+        }
+
+        assertTrue(manager.size() <= 10);
+    }
+
+    @Test
+    void toAuthentication_ShouldMapRealmRolesAndDisplayName() {
+        Jwt jwt = Jwt.withTokenValue("t")
+                .header("alg", "RS256")
+                .subject("abc")
+                .claim("given_name", "Ana")
+                .claim("family_name", "Soto")
+                .claim("realm_access", Map.of("roles", List.of("ADMIN", "EMPLOYEE")))
+                .build();
+
+        JwtAuthenticationToken auth = SecurityConfig.toAuthentication(jwt);
+
+        assertEquals("Ana Soto", auth.getName());
+        assertTrue(auth.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority())));
+        assertEquals(2, auth.getAuthorities().size());
+    }
+
+    @Test
+    void hash_ShouldNotKeepTheToken() {
+        String hash = CachedJwtAuthenticationManager.hash("secret-token");
+
+        assertEquals(64, hash.length());
+        assertFalse(hash.contains("secret"));
+    }
+
+    private static class MovableClock extends Clock {
+        Instant now;
+
+        MovableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.Tingeso.ToolRent.Config;
+
+import com.Tingeso.ToolRent.Entities.ToolEntity;
+import com.Tingeso.ToolRent.Repositories.RateRepository;
+import com.Tingeso.ToolRent.Repositories.ToolRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Aviso de otro nodo sobre una herramienta: solo las consultas cacheadas sobre "tool" se recalculan,
+// las de tarifas siguen saliendo de la caché.
+// Usa un esquema aparte que se borra al terminar. Necesita Postgres:
+//   mvn test -Dtest=EntityCacheInvalidatorIntegrationTest -Dintegration=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + EntityCacheInvalidatorIntegrationTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + EntityCacheInvalidatorIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + EntityCacheInvalidatorIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntityCacheInvalidatorIntegrationTest {
+
+    static final String SCHEMA = "toolrent_entity_cache_check";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityCacheInvalidator invalidator;
+    @Autowired private ToolRepository toolRepository;
+    @Autowired private RateRepository rateRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO tool (id, name, category, replacement_value, status) VALUES (1, 'martillo', 'manual', 10000, 1)");
+        jdbcTemplate.update("INSERT INTO rate (id, daily_rental_rate, daily_late_fee_rent, category) VALUES (1, 3000, 500, NULL)");
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void remoteToolChange_ShouldOnlyStaleQueriesOnTheToolTable() throws InterruptedException {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        toolRepository.findByStatus(1);
+        rateRepository.findAllByOrderByIdAsc();
+        // Los timestamps de Hibernate tienen resolución de milisegundos
+        Thread.sleep(5);
+
+        invalidator.invalidate(ToolEntity.class.getName() + "#1");
+
+        long hits = stats.getQueryCacheHitCount();
+        long misses = stats.getQueryCacheMissCount();
+        assertEquals(1, toolRepository.findByStatus(1).size());
+        assertEquals(misses + 1, stats.getQueryCacheMissCount());
+
+        rateRepository.findAllByOrderByIdAsc();
+        assertEquals(hits + 1, stats.getQueryCacheHitCount());
+    }
+}
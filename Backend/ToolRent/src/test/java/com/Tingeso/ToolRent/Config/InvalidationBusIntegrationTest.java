@@ -0,0 +1,166 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Dos contextos (dos "nodos") contra la misma BD. Necesita Postgres:
+//   mvn test -Dtest=InvalidationBusIntegrationTest -Dintegration=true \
+//       -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent -Dit.db.username=postgres -Dit.db.password=1234
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+class InvalidationBusIntegrationTest {
+
+    private AnnotationConfigApplicationContext node1;
+    private AnnotationConfigApplicationContext node2;
+    private Recorder received1;
+    private Recorder received2;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        node1 = start();
+        node2 = start();
+        received1 = new Recorder();
+        received2 = new Recorder();
+        bus(node1).subscribe("test", received1);
+        bus(node2).subscribe("test", received2);
+        awaitConnected(bus(node1));
+        awaitConnected(bus(node2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (node1 != null) node1.close();
+        if (node2 != null) node2.close();
+    }
+
+    @Test
+    void publish_ShouldReachTheOtherNodeOnly() throws InterruptedException {
+        bus(node1).publish("test", "42");
+
+        assertEquals("42", received2.keys.poll(5, TimeUnit.SECONDS));
+        assertNull(received1.keys.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void publishInTransaction_ShouldBeDeliveredOnlyOnCommit() throws InterruptedException {
+        TransactionTemplate tx = new TransactionTemplate(
+                new DataSourceTransactionManager(node1.getBean(DataSource.class)));
+
+        tx.executeWithoutResult(status -> {
+            bus(node1).publishInTransaction("test", "rolled-back");
+            status.setRollbackOnly();
+        });
+        tx.executeWithoutResult(status -> {
+            bus(node1).publishInTransaction("test", "committed");
+            try {
+                // Aún sin commit: el otro nodo no puede verlo
+                assertNull(received2.keys.poll(300, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals("committed", received2.keys.poll(5, TimeUnit.SECONDS));
+        assertNull(received2.keys.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void lostListenConnection_ShouldFlushAndReconnect() throws InterruptedException {
+        InvalidationBus bus2 = bus(node2);
+        int flushesBefore = received2.flushes.get();
+
+        // Se corta la conexión LISTEN del nodo 2 desde el nodo 1
+        node1.getBean(JdbcTemplate.class).queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+                "toolrent-invalidation-" + bus2.getNode());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (bus2.getReconnects() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        awaitConnected(bus2);
+
+        assertTrue(received2.flushes.get() > flushesBefore);
+
+        // Vuelve a recibir avisos después de reconectar
+        bus(node1).publish("test", "after-gap");
+        assertEquals("after-gap", received2.keys.poll(5, TimeUnit.SECONDS));
+    }
+
+    private static InvalidationBus bus(AnnotationConfigApplicationContext node) {
+        return node.getBean(InvalidationBus.class);
+    }
+
+    private static void awaitConnected(InvalidationBus bus) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!bus.isConnected() && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        assertTrue(bus.isConnected(), "el nodo no logró escuchar");
+    }
+
+    private static AnnotationConfigApplicationContext start() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("it", Map.of(
+                "spring.datasource.url", System.getProperty("it.db.url", "jdbc:postgresql://localhost:5432/ToolRent"),
+                "spring.datasource.username", System.getProperty("it.db.username", "postgres"),
+                "spring.datasource.password", System.getProperty("it.db.password", "1234"))));
+        context.register(Node.class);
+        context.refresh();
+        return context;
+    }
+
+    static class Recorder implements InvalidationBus.Subscriber {
+        final BlockingQueue<String> keys = new LinkedBlockingQueue<>();
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void invalidate(String key) {
+            keys.add(key);
+        }
+
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+        }
+    }
+
+    // Lo mínimo que necesita el bus en cada nodo
+    @Configuration
+    @Import(InvalidationBus.class)
+    static class Node {
+
+        @Bean
+        static PropertySourcesPlaceholderConfigurer placeholders() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        DataSource dataSource(Environment env) {
+            return new DriverManagerDataSource(env.getProperty("spring.datasource.url"),
+                    env.getProperty("spring.datasource.username"), env.getProperty("spring.datasource.password"));
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+    }
+}
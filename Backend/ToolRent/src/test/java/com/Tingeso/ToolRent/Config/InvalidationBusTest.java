@@ -0,0 +1,74 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InvalidationBusTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private InvalidationBus.Subscriber rates;
+
+    @Mock
+    private InvalidationBus.Subscriber reports;
+
+    @InjectMocks
+    private InvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bus.subscribe("rates", rates);
+        bus.subscribe("reports", reports);
+    }
+
+    @Test
+    void dispatch_ShouldReachOnlySubscribersOfTheTopic() {
+        bus.dispatch("other-node|rates|*");
+
+        verify(rates).invalidate("*");
+        verifyNoInteractions(reports);
+        assertEquals(1, bus.getReceived());
+    }
+
+    @Test
+    void dispatch_OwnNotification_ShouldBeIgnored() {
+        bus.dispatch(bus.payload("rates", "*"));
+
+        verifyNoInteractions(rates);
+        assertEquals(0, bus.getReceived());
+    }
+
+    @Test
+    void dispatch_KeyMayContainSeparator() {
+        bus.dispatch("other-node|reports|a|b");
+
+        verify(reports).invalidate("a|b");
+    }
+
+    @Test
+    void dispatch_WhenSubscriberFails_ShouldFlushIt() {
+        doThrow(new RuntimeException("boom")).when(rates).invalidate("1");
+
+        bus.dispatch("other-node|rates|1");
+
+        verify(rates).flush();
+    }
+
+    @Test
+    void flushAll_ShouldFlushEverySubscriber() {
+        bus.flushAll();
+
+        verify(rates).flush();
+        verify(reports).flush();
+    }
+}
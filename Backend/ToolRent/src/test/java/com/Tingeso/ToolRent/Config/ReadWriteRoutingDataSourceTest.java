@@ -0,0 +1,120 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaHealth health;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(health.isUsable()).thenReturn(true);
+        routing = new ReadWriteRoutingDataSource(primary, replica, health);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRouting.unpin();
+    }
+
+    private Connection readOnReplica() {
+        return ReplicaRouting.read(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Test
+    void getConnection_WithoutReplicaScope_ShouldUsePrimary() throws SQLException {
+        assertSame(primaryConnection, routing.getConnection());
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_InReplicaScope_ShouldUseReplica() throws SQLException {
+        assertSame(replicaConnection, readOnReplica());
+        verify(replicaConnection).setReadOnly(true);
+    }
+
+    @Test
+    void getConnection_WriteInsideReplicaScope_ShouldUsePrimary() {
+        Connection connection = ReplicaRouting.read(() -> {
+            ReplicaRouting.enter(false);
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                ReplicaRouting.exit();
+            }
+        });
+
+        assertSame(primaryConnection, connection);
+    }
+
+    @Test
+    void getConnection_AfterRecentWrite_ShouldUsePrimary() {
+        ReplicaRouting.pinToPrimary();
+
+        assertSame(primaryConnection, readOnReplica());
+    }
+
+    @Test
+    void getConnection_WhenReplicaLagging_ShouldUsePrimary() throws SQLException {
+        when(health.isUsable()).thenReturn(false);
+
+        assertSame(primaryConnection, readOnReplica());
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_WhenReplicaDown_ShouldFallBackAndMarkDown() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("conexión rechazada"));
+
+        assertSame(primaryConnection, readOnReplica());
+        verify(health).markDown();
+    }
+
+    @Test
+    void readYourWrites_ShouldOnlyPinWithinWindow() {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(5000);
+        long now = 1_000_000L;
+
+        assertTrue(filter.isRecent(Long.toString(now - 1000), now));
+        assertFalse(filter.isRecent(Long.toString(now - 6000), now));
+        assertFalse(filter.isRecent("abc", now));
+        assertFalse(filter.isRecent(null, now));
+    }
+}
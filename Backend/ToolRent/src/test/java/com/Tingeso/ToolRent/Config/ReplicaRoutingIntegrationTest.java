@@ -0,0 +1,96 @@
+package com.Tingeso.ToolRent.Config;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Lecturas al primario y a la réplica mezcladas dentro de una misma petición.
+// La "réplica" es la misma BD con otro ApplicationName, así se sabe qué pool atendió cada consulta.
+// Necesita Postgres:
+//   mvn test -Dtest=ReplicaRoutingIntegrationTest -Dintegration=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}",
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "toolrent.replica.enabled=true",
+        "toolrent.replica.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?ApplicationName="
+                + ReplicaRoutingIntegrationTest.REPLICA_APP,
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@Import(ReplicaRoutingIntegrationTest.Probe.class)
+class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_APP = "toolrent-replica-check";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @RestController
+    static class Probe {
+
+        @Autowired
+        private EntityManager entityManager;
+
+        // Réplica, primario, réplica: cada lectura dice qué pool la atendió
+        @GetMapping("/test/replica-probe")
+        public List<String> probe() {
+            String first = ReplicaRouting.read(this::applicationName);
+            String second = applicationName();
+            String third = ReplicaRouting.read(this::applicationName);
+            return List.of(pool(first), pool(second), pool(third));
+        }
+
+        // Primario primero: con la conexión retenida por la petición, la lectura a la réplica caía en él
+        @GetMapping("/test/primary-first-probe")
+        public List<String> primaryFirst() {
+            String first = applicationName();
+            String second = ReplicaRouting.read(this::applicationName);
+            return List.of(pool(first), pool(second));
+        }
+
+        private String applicationName() {
+            return (String) entityManager
+                    .createNativeQuery("SELECT current_setting('application_name')")
+                    .getSingleResult();
+        }
+
+        private static String pool(String applicationName) {
+            return REPLICA_APP.equals(applicationName) ? "replica" : "primary";
+        }
+    }
+
+    @Test
+    void mixedReadsInOneRequest_ShouldEachUseTheirOwnPool() throws Exception {
+        mockMvc.perform(get("/test/replica-probe").with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"replica\",\"primary\",\"replica\"]"));
+
+        mockMvc.perform(get("/test/primary-first-probe").with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"primary\",\"replica\"]"));
+    }
+
+    @Test
+    void recentWrite_ShouldPinTheWholeRequestToThePrimary() throws Exception {
+        mockMvc.perform(get("/test/replica-probe").with(jwt())
+                        .header(ReadYourWritesFilter.HEADER, Long.toString(System.currentTimeMillis())))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"primary\",\"primary\",\"primary\"]"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.Tingeso.ToolRent.Config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Réplica y hilos virtuales a la vez: cada pool se acota por separado, no el DataSource que enruta
+// (un solo semáforo del tamaño del primario limitaba también las lecturas a la réplica).
+// Necesita Postgres:
+//   mvn test -Dtest=ReplicaVirtualThreadsIntegrationTest -Dintegration=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}",
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "toolrent.replica.enabled=true",
+        "toolrent.replica.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}",
+        "toolrent.replica.pool-size=6",
+        "spring.jpa.show-sql=false"
+})
+class ReplicaVirtualThreadsIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void eachPool_ShouldBeBoundedToItsOwnSize() {
+        ReadWriteRoutingDataSource routing = assertInstanceOf(ReadWriteRoutingDataSource.class, dataSource);
+        Map<Object, DataSource> pools = routing.getResolvedDataSources();
+
+        BoundedDataSource primary = assertInstanceOf(BoundedDataSource.class, pools.get(ReadWriteRoutingDataSource.PRIMARY));
+        BoundedDataSource replica = assertInstanceOf(BoundedDataSource.class, pools.get(ReadWriteRoutingDataSource.REPLICA));
+        assertEquals(4, primary.getAvailablePermits());
+        assertEquals(6, replica.getAvailablePermits());
+    }
+}
@@ -0,0 +1,75 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Los UPDATE de la restricción automática no levantan las restricciones puestas a mano.
+// Necesita Postgres:
+//   mvn test -Dtest=ClientRepositoryIntegrationTest -Dintegration=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + ClientRepositoryIntegrationTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + ClientRepositoryIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + ClientRepositoryIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClientRepositoryIntegrationTest {
+
+    static final String SCHEMA = "toolrent_client_check";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ClientRepository clientRepository;
+
+    // 1: restringido automáticamente, 2: restringido a mano
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE client CASCADE");
+        jdbcTemplate.execute("""
+                INSERT INTO client (id, rut, name, status, manual_restriction) VALUES
+                    (1, '1-9', 'Automático', 0, false),
+                    (2, '2-7', 'Manual', 0, true)
+                """);
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void enableRangeExcept_ShouldLiftOnlyAutomaticRestrictions() {
+        int changed = clientRepository.enableRangeExcept(1L, 2L, Set.of(-1L));
+
+        assertEquals(1, changed);
+        assertEquals(1, status(1L));
+        assertEquals(0, status(2L));
+    }
+
+    @Test
+    void updateStatusIfChanged_ShouldNotLiftManualRestriction() {
+        assertEquals(0, clientRepository.updateStatusIfChanged(2L, 1));
+        assertEquals(1, clientRepository.updateStatusIfChanged(1L, 1));
+
+        assertEquals(0, status(2L));
+    }
+
+    private int status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM client WHERE id = ?", Integer.class, id);
+    }
+}
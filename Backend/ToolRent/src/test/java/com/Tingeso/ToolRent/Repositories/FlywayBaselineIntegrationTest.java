@@ -0,0 +1,148 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.RentEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Una BD como la dejaba ddl-auto=update antes de Flyway, con nombres de empleado como texto:
+// al arrancar se marca en V1, recibe V2 en adelante y Hibernate valida el esquema (si no, el contexto no carga).
+// Usa un esquema aparte que se borra al terminar. Necesita Postgres:
+//   mvn test -Dtest=FlywayBaselineIntegrationTest -Dintegration=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + FlywayBaselineIntegrationTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + FlywayBaselineIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + FlywayBaselineIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FlywayBaselineIntegrationTest {
+
+    static final String SCHEMA = "toolrent_baseline_check";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private RentRepository rentRepository;
+
+    // Antes de que arranque el contexto (y con él Flyway)
+    @BeforeAll
+    static void createPreFlywayDatabase() throws Exception {
+        String baseline = new ClassPathResource("db/migration/V1__baseline.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        try (Connection connection = connect(); Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+            st.execute("SET search_path TO " + SCHEMA);
+            st.execute(baseline);
+            st.execute("""
+                    INSERT INTO client (id, rut, name, status) VALUES (1, '1-9', 'Cliente', 1);
+                    INSERT INTO tool (id, name, category, replacement_value, status) VALUES
+                        (1, 'martillo', 'manual', 10000, 1),
+                        (2, 'taladro', 'electrica', 50000, 1);
+                    INSERT INTO rents (id, client_id, tool_id, employee_name, start_date, finish_date,
+                                       fine_amount, total_amount, active, damaged, irreparable) VALUES
+                        (1, 1, 1, 'Ana Soto', '2024-01-01', '2024-01-05', 0, 5000, false, false, false),
+                        (2, 1, 2, ' Ana Soto ', '2024-02-01', '2024-02-05', 0, 5000, false, false, false),
+                        (3, 1, 1, 'Luis Rojas', '2024-03-01', '2024-03-05', 0, 5000, false, false, false),
+                        (4, 1, 2, NULL, '2024-04-01', '2024-04-05', 0, 5000, false, false, false);
+                    INSERT INTO kardex_movement (id, movement_type, movement_date, quantity, tool_id, employee_name) VALUES
+                        (1, 1, '2024-01-01T10:00', 1, 1, 'Ana Soto'),
+                        (2, 4, '2024-01-01T09:00', 1, 2, '');
+                    """);
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws Exception {
+        try (Connection connection = connect(); Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(
+                System.getProperty("it.db.url", "jdbc:postgresql://localhost:5432/ToolRent"),
+                System.getProperty("it.db.username", "postgres"),
+                System.getProperty("it.db.password", "1234"));
+    }
+
+    @Test
+    void existingDatabase_ShouldBeBaselinedAtV1AndReceiveTheRest() {
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(
+                "SELECT version, type FROM flyway_schema_history WHERE version IS NOT NULL ORDER BY installed_rank");
+
+        assertEquals("1", history.get(0).get("version"));
+        assertEquals("BASELINE", history.get(0).get("type"));
+        // Todas las siguientes se aplicaron sobre la BD existente
+        assertTrue(history.stream().map(h -> h.get("version")).toList().containsAll(List.of("2", "3", "4", "5")));
+        assertTrue(history.stream().skip(1).allMatch(h -> "SQL".equals(h.get("type"))));
+
+        for (String table : List.of("employee", "ledger_entry", "client_balance", "report_job",
+                "repricing_job", "tool_rental_daily", "job_run")) {
+            assertTrue(exists("SELECT 1 FROM information_schema.tables WHERE table_schema = ? AND table_name = ?",
+                    SCHEMA, table), table);
+        }
+    }
+
+    @Test
+    void legacyNames_ShouldBeLinkedToHistoricalEmployees_AndKeptUntilVerified() {
+        Long ana = jdbcTemplate.queryForObject(
+                "SELECT id FROM employee WHERE name = 'Ana Soto' AND subject IS NULL", Long.class);
+        Long luis = jdbcTemplate.queryForObject(
+                "SELECT id FROM employee WHERE name = 'Luis Rojas' AND subject IS NULL", Long.class);
+
+        assertEquals(ana, rentRepository.findById(1L).map(RentEntity::getEmployeeId).orElseThrow());
+        assertEquals(ana, rentRepository.findById(2L).map(RentEntity::getEmployeeId).orElseThrow());
+        assertEquals(luis, rentRepository.findById(3L).map(RentEntity::getEmployeeId).orElseThrow());
+        assertNull(rentRepository.findById(4L).orElseThrow().getEmployeeId());
+        assertEquals(ana, jdbcTemplate.queryForObject(
+                "SELECT employee_id FROM kardex_movement WHERE id = 1", Long.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Integer.class));
+
+        // La columna de texto sigue ahí para poder revisar el enlace
+        assertTrue(exists("SELECT 1 FROM information_schema.columns "
+                + "WHERE table_schema = ? AND table_name = 'rents' AND column_name = ?", SCHEMA, "employee_name"));
+    }
+
+    @Test
+    void indexes_ShouldReplaceTheReturnFinishIndexWithThePartialOne() {
+        assertFalse(exists("SELECT 1 FROM pg_indexes WHERE schemaname = ? AND indexname = ?",
+                SCHEMA, "idx_rents_return_finish"));
+        assertTrue(exists("SELECT 1 FROM pg_indexes WHERE schemaname = ? AND indexname = ?",
+                SCHEMA, "idx_rents_unreturned_finish"));
+    }
+
+    @Test
+    void newRent_ShouldTakeAnIdAboveTheExistingOnes() {
+        RentEntity rent = new RentEntity();
+        rent.setClientId(1L);
+        rent.setToolId(1L);
+        rent.setStartDate("2024-05-01");
+        rent.setFinishDate("2024-05-05");
+
+        assertTrue(rentRepository.saveAndFlush(rent).getId() > 4);
+    }
+
+    private boolean exists(String sql, Object... args) {
+        return !jdbcTemplate.queryForList(sql, args).isEmpty();
+    }
+}
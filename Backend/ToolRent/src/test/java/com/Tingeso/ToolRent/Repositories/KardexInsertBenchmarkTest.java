@@ -0,0 +1,112 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.KardexEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Inserción de 10 mil movimientos de kardex con saveAll, antes y después de las secuencias.
+// "Antes" es un INSERT por viaje a la BD, que es lo que obligaba IDENTITY (Hibernate necesitaba el id
+// de cada fila); se reproduce con batch de 1 en la sesión. "Después" es el batch de 50 de application.properties.
+// Usa un esquema aparte y deshace todo al terminar. Necesita Postgres:
+//   mvn test -Dtest=KardexInsertBenchmarkTest -Dbenchmarks=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + KardexInsertBenchmarkTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + KardexInsertBenchmarkTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + KardexInsertBenchmarkTest.SCHEMA,
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class KardexInsertBenchmarkTest {
+
+    static final String SCHEMA = "toolrent_insert_bench";
+
+    private static final int MOVEMENTS = 10_000;
+    private static final int RUNS = 5;
+
+    @Autowired private KardexRepository kardexRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO tool (id, name, category, replacement_value, status)
+                VALUES (1, 'martillo', 'manual', 10000, 1)
+                ON CONFLICT DO NOTHING
+                """);
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void insert10kMovements_BatchedShouldBeFasterThanRowByRow() {
+        double rowByRow = measure("fila por fila (como con IDENTITY)", 1);
+        double batched = measure("batch de 50 (secuencia pooled)", 50);
+
+        System.out.printf("Mejora: %.1fx%n", batched / rowByRow);
+        assertTrue(batched > rowByRow * 2, "batch " + batched + " filas/s vs " + rowByRow + " filas/s");
+    }
+
+    // Devuelve filas por segundo (mediana de RUNS corridas)
+    private double measure(String name, int batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+        // Calentamiento del JIT y del pool
+        insert(1_000);
+
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            insert(MOVEMENTS);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double medianMs = nanos[RUNS / 2] / 1_000_000.0;
+        double rowsPerSecond = MOVEMENTS / (medianMs / 1000.0);
+
+        System.out.printf("%-36s %d movimientos: mediana=%.0f ms (%.0f filas/s)%n",
+                name, MOVEMENTS, medianMs, rowsPerSecond);
+        return rowsPerSecond;
+    }
+
+    private void insert(int count) {
+        String now = LocalDateTime.now().toString();
+        List<KardexEntity> movements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            KardexEntity mov = new KardexEntity();
+            mov.setMovementType(1 + i % 4);
+            mov.setMovementDate(now);
+            mov.setQuantity(1);
+            mov.setToolId(1L);
+            mov.setEmployeeId((long) (i % 40));
+            movements.add(mov);
+        }
+        kardexRepository.saveAll(movements);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
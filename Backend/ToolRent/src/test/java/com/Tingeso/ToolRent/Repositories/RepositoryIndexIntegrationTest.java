@@ -0,0 +1,279 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plan de cada finder sobre datos sembrados: debe usar su índice (db/migration/V4__finder_indexes.sql).
+// Levanta JPA con Flyway y ddl-auto=validate en un esquema aparte, así que además comprueba que las
+// migraciones calzan con las entidades. Necesita Postgres:
+//   mvn test -Dtest=RepositoryIndexIntegrationTest -Dintegration=true \
+//       -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent -Dit.db.username=postgres -Dit.db.password=1234
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + RepositoryIndexIntegrationTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + RepositoryIndexIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + RepositoryIndexIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.Tingeso.ToolRent.Repositories.RepositoryIndexIntegrationTest$CapturedSql",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryIndexIntegrationTest {
+
+    static final String SCHEMA = "toolrent_index_check";
+
+    // Arriendo activo sembrado (ids explícitos; los activos son los más recientes: ids > 95000)
+    private static final long ACTIVE_RENT = 99_001L;
+    private static final long ACTIVE_CLIENT = ACTIVE_RENT % 20_000 + 1;
+    private static final long ACTIVE_TOOL = ACTIVE_RENT % 20_000 + 1;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Autowired private ClientRepository clientRepository;
+    @Autowired private ToolRepository toolRepository;
+    @Autowired private RentRepository rentRepository;
+    @Autowired private KardexRepository kardexRepository;
+    @Autowired private LedgerEntryRepository ledgerEntryRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+
+    // Guarda el SQL que genera Hibernate para poder pedir su plan
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE client, tool, employee, rents, kardex_movement, ledger_entry CASCADE");
+
+        jdbcTemplate.execute("""
+                INSERT INTO client (id, rut, name, email, phone_number, status)
+                SELECT g, 'rut-' || g, 'Cliente ' || g, 'c' || g || '@mail.cl', '9' || g, 1
+                FROM generate_series(1, 20000) g
+                """);
+        // 1000 categorías, 4000 nombres; pocas en reparación
+        jdbcTemplate.execute("""
+                INSERT INTO tool (id, name, category, replacement_value, status)
+                SELECT g, 'tool-' || (g % 4000), 'cat-' || (g % 1000), 10000, CASE WHEN g % 500 = 0 THEN 3 ELSE 1 END
+                FROM generate_series(1, 20000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO employee (id, subject, name, username)
+                SELECT g, CASE WHEN g % 10 = 0 THEN NULL ELSE 'sub-' || g END, 'Empleado ' || g, 'user' || g
+                FROM generate_series(1, 5000) g
+                """);
+        // 100 mil arriendos; solo los 5000 más recientes siguen activos (sin devolver)
+        jdbcTemplate.execute("""
+                INSERT INTO rents (id, client_id, tool_id, employee_id, start_date, finish_date, return_date,
+                                   fine_amount, total_amount, active, damaged, irreparable)
+                SELECT g, g % 20000 + 1, g % 20000 + 1, g % 5000 + 1,
+                       (DATE '2024-01-01' + g / 200)::text,
+                       (DATE '2024-01-08' + g / 200)::text,
+                       CASE WHEN g > 95000 THEN NULL ELSE (DATE '2024-01-08' + g / 200)::text END,
+                       0, 5000, g > 95000, false, false
+                FROM generate_series(1, 100000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO kardex_movement (id, movement_type, movement_date, quantity, tool_id, employee_id)
+                SELECT g, 1 + g % 4, (TIMESTAMP '2024-01-01' + g * INTERVAL '5 minutes')::text, 1, g % 20000 + 1, g % 5000 + 1
+                FROM generate_series(1, 100000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO ledger_entry (id, client_id, rent_id, type, amount, balance_after, entry_date, description)
+                SELECT g, g % 20000 + 1, g, 1, 5000, 5000, (TIMESTAMP '2024-01-01' + g * INTERVAL '5 minutes')::text, 'Cargo'
+                FROM generate_series(1, 100000) g
+                """);
+        jdbcTemplate.execute("ANALYZE client, tool, employee, rents, kardex_movement, ledger_entry");
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void clientFindByRut() {
+        String plan = explain(() -> clientRepository.findByRut("rut-123"), "rut-123");
+        assertUsesIndex(plan, "client", "idx_client_rut");
+    }
+
+    @Test
+    void rentFindByClientIdAndActiveTrue() {
+        String plan = explain(() -> rentRepository.findByClientIdAndActiveTrue(ACTIVE_CLIENT), ACTIVE_CLIENT);
+        assertUsesIndex(plan, "rents", "idx_rents_active_client_tool");
+    }
+
+    @Test
+    void rentExistsByClientIdAndToolIdAndActiveTrue() {
+        String plan = explain(() -> rentRepository.existsByClientIdAndToolIdAndActiveTrue(ACTIVE_CLIENT, ACTIVE_TOOL),
+                ACTIVE_CLIENT, ACTIVE_TOOL, 1);
+        assertUsesIndex(plan, "rents", "idx_rents_active_client_tool");
+    }
+
+    @Test
+    void rentExistsByClientIdAndActiveTrueAndFinishDateLessThan() {
+        String plan = explain(() -> rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(ACTIVE_CLIENT, "2025-06-01"),
+                ACTIVE_CLIENT, "2025-06-01", 1);
+        assertUsesIndex(plan, "rents", "idx_rents_active_client_tool");
+    }
+
+    @Test
+    void rentFindByActiveTrue() {
+        String plan = explain(() -> rentRepository.findByActiveTrue());
+        assertUsesIndex(plan, "rents", "idx_rents_active_id", "idx_rents_active_finish", "idx_rents_active_client_tool");
+    }
+
+    @Test
+    void rentFindOverdueClientIdsBetween() {
+        String plan = explain(() -> rentRepository.findOverdueClientIdsBetween("2025-06-01", 1L, 100L),
+                "2025-06-01", 1L, 100L);
+        assertUsesIndex(plan, "rents", "idx_rents_active_client_tool", "idx_rents_active_client_fine");
+    }
+
+    @Test
+    void rentFindForUpdate() {
+        String plan = explain(() -> rentRepository.findForUpdate(42L), 42L);
+        assertUsesIndex(plan, "rents", "rents_pkey");
+    }
+
+    @Test
+    void toolFindByStatus() {
+        String plan = explain(() -> toolRepository.findByStatus(3), 3);
+        assertUsesIndex(plan, "tool", "idx_tool_status");
+    }
+
+    @Test
+    void toolFindByCategory() {
+        String plan = explain(() -> toolRepository.findByCategory("cat-7"), "cat-7");
+        assertUsesIndex(plan, "tool", "idx_tool_category", "idx_tool_name_category");
+    }
+
+    @Test
+    void toolFindByNameAndCategory() {
+        String plan = explain(() -> toolRepository.findByNameAndCategory("tool-7", "cat-7"), "tool-7", "cat-7");
+        assertUsesIndex(plan, "tool", "idx_tool_name_category");
+    }
+
+    @Test
+    void kardexFindByToolIdOrderByMovementDateDesc() {
+        String plan = explain(() -> kardexRepository.findByToolIdOrderByMovementDateDesc(42L), 42L);
+        // Con unas pocas filas por herramienta el planificador puede preferir bitmap + sort; igual usa el índice
+        assertUsesIndex(plan, "kardex_movement", "idx_kardex_tool_date");
+    }
+
+    @Test
+    void ledgerFindByClientIdOrderByIdDesc() {
+        String plan = explain(() -> ledgerEntryRepository.findByClientIdOrderByIdDesc(42L), 42L);
+        assertUsesIndex(plan, "ledger_entry", "idx_ledger_client_id");
+    }
+
+    @Test
+    void ledgerExistsByRentIdAndType() {
+        String plan = explain(() -> ledgerEntryRepository.existsByRentIdAndType(42L, 1),
+                42L, 1, 1);
+        assertUsesIndex(plan, "ledger_entry", "uq_ledger_rent_type");
+    }
+
+    @Test
+    void ledgerFindClientIdsChargedBetween() {
+        String plan = explain(() -> ledgerEntryRepository.findClientIdsChargedBetween("2024-06-01", "2024-06-02"),
+                "2024-06-01", "2024-06-02");
+        assertUsesIndex(plan, "ledger_entry", "idx_ledger_charge_date");
+    }
+
+    @Test
+    void employeeFindBySubject() {
+        String plan = explain(() -> employeeRepository.findBySubject("sub-42"), "sub-42");
+        assertUsesIndex(plan, "employee", "uk_employee_subject");
+    }
+
+    // Ejecuta el finder, toma el SELECT que generó y pide su plan con los mismos valores
+    private String explain(Runnable finder, Object... params) {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache().evictAllRegions();
+        CapturedSql.statements.clear();
+        finder.run();
+
+        List<String> selects = CapturedSql.statements.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty(), "el finder no consultó la BD");
+        String sql = selects.get(0);
+
+        String prepared = numberParameters(sql);
+        assertEquals(params.length, prepared.split("\\$\\d+", -1).length - 1, "parámetros de " + sql);
+
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement st = connection.createStatement()) {
+                st.execute("PREPARE finder_plan AS " + prepared);
+                try {
+                    List<String> lines = new ArrayList<>();
+                    try (ResultSet rs = st.executeQuery("EXPLAIN EXECUTE finder_plan" + arguments(params))) {
+                        while (rs.next()) lines.add(rs.getString(1));
+                    }
+                    return String.join("\n", lines);
+                } finally {
+                    st.execute("DEALLOCATE finder_plan");
+                }
+            }
+        });
+        return plan;
+    }
+
+    private static void assertUsesIndex(String plan, String table, String... indexes) {
+        assertFalse(plan.contains("Seq Scan on " + table + " "), plan);
+        boolean any = false;
+        for (String index : indexes) any |= plan.contains(index);
+        assertTrue(any, "se esperaba " + String.join(" o ", indexes) + ":\n" + plan);
+    }
+
+    // "?" de JDBC a $1, $2... para PREPARE
+    private static String numberParameters(String sql) {
+        StringBuilder out = new StringBuilder();
+        int n = 0;
+        boolean quoted = false;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') quoted = !quoted;
+            if (c == '?' && !quoted) out.append('$').append(++n);
+            else out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static String arguments(Object... params) {
+        if (params.length == 0) return "";
+        List<String> literals = new ArrayList<>();
+        for (Object p : params) {
+            literals.add(p instanceof Number ? p.toString() : "'" + p.toString().replace("'", "''") + "'");
+        }
+        return "(" + String.join(", ", literals) + ")";
+    }
+}
@@ -0,0 +1,70 @@
+package com.Tingeso.ToolRent.Repositories;
+
+import com.Tingeso.ToolRent.Entities.ToolEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Dos préstamos que leyeron la misma herramienta disponible: el segundo en guardar debe fallar.
+// Cada llamada al repositorio es su propia transacción, como dos peticiones (o dos nodos).
+// Necesita Postgres:
+//   mvn test -Dtest=ToolVersionIntegrationTest -Dintegration=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + ToolVersionIntegrationTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + ToolVersionIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + ToolVersionIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ToolVersionIntegrationTest {
+
+    static final String SCHEMA = "toolrent_tool_check";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ToolRepository toolRepository;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE tool CASCADE");
+        jdbcTemplate.execute("""
+                INSERT INTO tool (id, name, category, replacement_value, status)
+                VALUES (1, 'martillo', 'manual', 10000, 1)
+                """);
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void staleStatus_ShouldFailInsteadOfLendingTwice() {
+        ToolEntity first = toolRepository.findById(1L).orElseThrow();
+        ToolEntity stale = toolRepository.findById(1L).orElseThrow();
+        assertEquals(1, stale.getStatus());
+
+        first.setStatus(2);
+        toolRepository.save(first);
+
+        stale.setStatus(2);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> toolRepository.save(stale));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM tool WHERE id = 1", Long.class));
+    }
+}
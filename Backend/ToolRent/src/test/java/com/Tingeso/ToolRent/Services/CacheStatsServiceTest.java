@@ -0,0 +1,73 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.EntityCacheInvalidator;
+import com.Tingeso.ToolRent.DTOs.CacheRegionStatsDTO;
+import com.Tingeso.ToolRent.DTOs.CacheStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheStatsServiceTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private EntityCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @InjectMocks
+    private CacheStatsService cacheStatsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+    }
+
+    @Test
+    void getStats_ShouldReportEachKnownRegion() {
+        CacheRegionStatistics tool = mock(CacheRegionStatistics.class);
+        when(tool.getHitCount()).thenReturn(90L);
+        when(tool.getMissCount()).thenReturn(10L);
+        when(tool.getPutCount()).thenReturn(10L);
+        when(tool.getElementCountInMemory()).thenReturn(Long.MIN_VALUE);
+        when(statistics.getCacheRegionStatistics("tool")).thenReturn(tool);
+        when(cacheInvalidator.getNode()).thenReturn("n1");
+        when(cacheInvalidator.getReceived()).thenReturn(4L);
+        when(statistics.getTransactionCount()).thenReturn(12L);
+        when(statistics.getFlushCount()).thenReturn(7L);
+
+        CacheStatsDTO stats = cacheStatsService.getStats();
+
+        assertEquals("n1", stats.getNode());
+        assertEquals(1, stats.getRegions().size());
+        CacheRegionStatsDTO region = stats.getRegions().get(0);
+        assertEquals("tool", region.getRegion());
+        assertEquals(0.9, region.getHitRatio());
+        assertEquals(-1, region.getEntries());
+        assertEquals(4, stats.getInvalidationsReceived());
+        assertEquals(12, stats.getTransactions());
+        assertEquals(7, stats.getFlushes());
+    }
+
+    @Test
+    void toDTO_WithoutLookups_ShouldHaveZeroRatio() {
+        assertEquals(0.0, CacheStatsService.toDTO("rate", 0, 0, 0, 3).getHitRatio());
+    }
+}
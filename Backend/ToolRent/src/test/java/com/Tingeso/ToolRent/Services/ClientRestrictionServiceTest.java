@@ -0,0 +1,190 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.EntityCacheInvalidator;
+import com.Tingeso.ToolRent.Entities.ClientEntity;
+import com.Tingeso.ToolRent.Entities.ClientBalanceEntity;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
+import com.Tingeso.ToolRent.Repositories.ClientBalanceRepository;
+import com.Tingeso.ToolRent.Repositories.ClientRepository;
+import com.Tingeso.ToolRent.Repositories.LedgerEntryRepository;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClientRestrictionServiceTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private RentRepository rentRepository;
+
+    @Mock
+    private ClientBalanceRepository clientBalanceRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private ClusterJobService clusterJobs;
+
+    @InjectMocks
+    private ClientRestrictionService restrictionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(restrictionService, "paymentGraceDays", 7);
+    }
+
+    @Test
+    void evaluate_WithOverdueRent_ShouldRestrictOnlyThatClient() {
+        when(rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(1L), anyString()))
+                .thenReturn(true);
+
+        int status = restrictionService.evaluate(1L);
+
+        assertEquals(0, status);
+        verify(clientRepository).updateStatusIfChanged(1L, 0);
+        verify(clientRepository, never()).findAll();
+        // Sin cambio real (0 filas) no se avisa a los otros nodos
+        verify(cacheInvalidator, never()).publish(any(), any());
+    }
+
+    @Test
+    void evaluate_WhenStatusChanges_ShouldBroadcastInvalidation() {
+        when(rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(1L), anyString()))
+                .thenReturn(true);
+        when(clientRepository.updateStatusIfChanged(1L, 0)).thenReturn(1);
+
+        restrictionService.evaluate(1L);
+
+        verify(cacheInvalidator).publish(ClientEntity.class, 1L);
+    }
+
+    @Test
+    void evaluate_WithUnpaidBalance_ShouldRestrict() {
+        when(rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(1L), anyString()))
+                .thenReturn(false);
+        when(clientBalanceRepository.findById(1L))
+                .thenReturn(Optional.of(new ClientBalanceEntity(1L, 2000, 3L, null)));
+
+        assertEquals(0, restrictionService.evaluate(1L));
+    }
+
+    @Test
+    void evaluate_WithChargeStillInGracePeriod_ShouldNotRestrict() {
+        // Recién devuelta: todo el saldo es el cargo de hoy
+        when(rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(1L), anyString()))
+                .thenReturn(false);
+        when(clientBalanceRepository.findById(1L))
+                .thenReturn(Optional.of(new ClientBalanceEntity(1L, 5000, 3L, null)));
+        when(ledgerEntryRepository.sumChargesSince(1L, LocalDate.now().minusDays(7).toString()))
+                .thenReturn(5000L);
+
+        assertEquals(1, restrictionService.evaluate(1L));
+        verify(clientRepository).updateStatusIfChanged(1L, 1);
+    }
+
+    @Test
+    void evaluate_WithOldChargePartlyPaid_ShouldRestrictForTheRemainder() {
+        // Saldo 7000: 5000 de un cargo reciente y 2000 que quedan de uno vencido
+        when(rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(1L), anyString()))
+                .thenReturn(false);
+        when(clientBalanceRepository.findById(1L))
+                .thenReturn(Optional.of(new ClientBalanceEntity(1L, 7000, 3L, null)));
+        when(ledgerEntryRepository.sumChargesSince(eq(1L), anyString())).thenReturn(5000L);
+
+        assertEquals(0, restrictionService.evaluate(1L));
+    }
+
+    @Test
+    void restrictNewlyOverdue_ShouldAlsoEvaluateClientsWhoseChargesCameDue() {
+        LocalDate cutoff = LocalDate.now().minusDays(7);
+        when(rentRepository.findActiveClientsWithOverdueRents(anyString())).thenReturn(List.of(1L));
+        when(ledgerEntryRepository.findClientIdsChargedBetween(cutoff.minusDays(1).toString(), cutoff.toString()))
+                .thenReturn(List.of(1L, 2L));
+        when(clientBalanceRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        restrictionService.restrictNewlyOverdue();
+
+        verify(rentRepository).existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(1L), anyString());
+        verify(rentRepository).existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(2L), anyString());
+    }
+
+    @Test
+    void onRentReturned_WhenNothingPending_ShouldEnableClient() {
+        when(rentRepository.existsByClientIdAndActiveTrueAndFinishDateLessThan(eq(2L), anyString()))
+                .thenReturn(false);
+        when(clientBalanceRepository.findById(2L)).thenReturn(Optional.empty());
+
+        restrictionService.onRentReturned(new RentReturnedEvent(10L, 2L, 5L, 3000, false, false, null));
+
+        verify(clientRepository).updateStatusIfChanged(2L, 1);
+    }
+
+    @Test
+    void reconcileRange_ShouldRestrictOverdueAndDebtors_AndEnableTheRest() {
+        when(rentRepository.findOverdueClientIdsBetween("2025-01-10", 1L, 100L)).thenReturn(List.of(3L));
+        when(clientBalanceRepository.findClientIdsWithOverdueBalanceAbove(0, "2025-01-03", 1L, 100L)).thenReturn(List.of(7L));
+        when(clientRepository.restrictAll(anyCollection())).thenReturn(2);
+        when(clientRepository.enableRangeExcept(eq(1L), eq(100L), anyCollection())).thenReturn(1);
+
+        int changed = restrictionService.reconcileRange(1L, 100L, "2025-01-10", "2025-01-03");
+
+        assertEquals(3, changed);
+        verify(clientRepository).restrictAll(Set.of(3L, 7L));
+        verify(clientRepository).enableRangeExcept(1L, 100L, Set.of(3L, 7L));
+        verify(cacheInvalidator).publishAll(ClientEntity.class);
+    }
+
+    @Test
+    void reconcileRange_WithNobodyPending_ShouldNotCallRestrict() {
+        when(rentRepository.findOverdueClientIdsBetween(anyString(), anyLong(), anyLong())).thenReturn(List.of());
+        when(clientBalanceRepository.findClientIdsWithOverdueBalanceAbove(anyInt(), anyString(), anyLong(), anyLong())).thenReturn(List.of());
+
+        restrictionService.reconcileRange(1L, 100L, "2025-01-10", "2025-01-03");
+
+        verify(clientRepository, never()).restrictAll(anyCollection());
+        verify(clientRepository).enableRangeExcept(1L, 100L, Set.of(-1L));
+    }
+
+    @Test
+    void reconcileAll_FromCheckpoint_ShouldSkipDoneRangesAndReportProgress() throws Exception {
+        ReflectionTestUtils.setField(restrictionService, "batchSize", 1000);
+        ReflectionTestUtils.setField(restrictionService, "parallelism", 1);
+        when(clientRepository.findMinId()).thenReturn(1L);
+        when(clientRepository.findMaxId()).thenReturn(4500L);
+        when(rentRepository.findOverdueClientIdsBetween(anyString(), anyLong(), anyLong())).thenReturn(List.of());
+        when(clientBalanceRepository.findClientIdsWithOverdueBalanceAbove(anyInt(), anyString(), anyLong(), anyLong())).thenReturn(List.of());
+        List<Long> progress = new ArrayList<>();
+
+        // Una corrida anterior llegó hasta 1000
+        restrictionService.reconcileAll(1001L, progress::add);
+
+        verify(clientRepository, never()).enableRangeExcept(eq(1L), anyLong(), anyCollection());
+        verify(clientRepository).enableRangeExcept(eq(1001L), eq(2000L), anyCollection());
+        verify(clientRepository).enableRangeExcept(eq(4001L), eq(4500L), anyCollection());
+        // Olas de dos tramos: 1001-3000, 3001-4500
+        assertEquals(List.of(3000L, 4500L), progress);
+    }
+}
@@ -1,6 +1,8 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Entities.ClientBalanceEntity;
 import com.Tingeso.ToolRent.Entities.ClientEntity;
+import com.Tingeso.ToolRent.Repositories.ClientBalanceRepository;
 import com.Tingeso.ToolRent.Repositories.ClientRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,6 +31,9 @@ public class ClientServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private ClientBalanceRepository clientBalanceRepository;
+
     @InjectMocks
     private ClientService clientService;
 
@@ -183,6 +188,20 @@ public class ClientServiceTest {
         verify(clientRepository).save(client);
     }
 
+    @Test
+    void updateClient_shouldKeepManualRestriction() {
+        ClientEntity stored = new ClientEntity();
+        stored.setId(1L);
+        stored.setManualRestriction(true);
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(clientRepository.save(any(ClientEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // El formulario de edición no envía el campo
+        ClientEntity updated = clientService.updateClient(client);
+
+        assertThat(updated.isManualRestriction()).isTrue();
+    }
+
     @Test
     void updateClient_withInvalidRut_throwsRuntimeException() {
         client.setRut("12345678-9"); // inválido
@@ -215,9 +234,23 @@ public class ClientServiceTest {
         ClientEntity result = clientService.changeClientStatus(1L, 0);
 
         assertThat(result.getStatus()).isEqualTo(0);
+        assertThat(result.isManualRestriction()).isTrue();
         verify(clientRepository).save(client);
     }
 
+    @Test
+    void changeClientStatus_toActive_clearsManualRestriction() {
+        client.setStatus(0);
+        client.setManualRestriction(true);
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(clientRepository.save(any(ClientEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ClientEntity result = clientService.changeClientStatus(1L, 1);
+
+        assertThat(result.getStatus()).isEqualTo(1);
+        assertThat(result.isManualRestriction()).isFalse();
+    }
+
     @Test
     void changeClientStatus_whenNotFound_throwsRuntimeException() {
         when(clientRepository.findById(1L)).thenReturn(Optional.empty());
@@ -267,4 +300,23 @@ public class ClientServiceTest {
         boolean valid = clientService.isValidRut("12345678-9");
         assertThat(valid).isFalse();
     }
+
+    // ===========================
+    // getBalance / hasDebt
+    // ===========================
+    @Test
+    void hasDebt_ShouldReadBalanceByPrimaryKey() {
+        when(clientBalanceRepository.findById(1L))
+                .thenReturn(Optional.of(new ClientBalanceEntity(1L, 4500, 10L, "2025-01-01T10:00")));
+
+        assertThat(clientService.getBalance(1L)).isEqualTo(4500);
+        assertThat(clientService.hasDebt(1L)).isTrue();
+    }
+
+    @Test
+    void hasDebt_WhenNoLedgerEntries_ShouldBeFalse() {
+        when(clientBalanceRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThat(clientService.hasDebt(2L)).isFalse();
+    }
 }
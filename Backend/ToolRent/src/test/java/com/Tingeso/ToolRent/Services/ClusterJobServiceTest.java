@@ -0,0 +1,176 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.JobRunEntity;
+import com.Tingeso.ToolRent.Repositories.JobRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClusterJobServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private JobRunRepository jobRunRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @InjectMocks
+    private ClusterJobService clusterJobService;
+
+    // Copias de lo que se guardó en JobRun, en orden
+    private final List<JobRunEntity> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(true);
+
+        when(jobRunRepository.save(any(JobRunEntity.class))).thenAnswer(inv -> {
+            JobRunEntity run = inv.getArgument(0);
+            if (run.getId() == null) run.setId(100L + saved.size());
+            saved.add(copy(run));
+            return run;
+        });
+    }
+
+    private static JobRunEntity copy(JobRunEntity r) {
+        return new JobRunEntity(r.getId(), r.getJobName(), r.getNode(), r.getStatus(), r.getStartedAt(),
+                r.getFinishedAt(), r.getDurationMs(), r.getCheckpoint(), r.getResumedFrom(), r.getError());
+    }
+
+    private static JobRunEntity run(Long id, String status, String startedAt, String checkpoint) {
+        JobRunEntity r = new JobRunEntity();
+        r.setId(id);
+        r.setJobName("sweep");
+        r.setStatus(status);
+        r.setStartedAt(startedAt);
+        r.setCheckpoint(checkpoint);
+        return r;
+    }
+
+    @Test
+    void run_WhenAnotherNodeHoldsTheLock_ShouldSkip() throws SQLException {
+        when(resultSet.getBoolean(1)).thenReturn(false);
+        AtomicInteger calls = new AtomicInteger();
+        clusterJobService.register("sweep", Duration.ofHours(1), r -> calls.incrementAndGet());
+
+        assertFalse(clusterJobService.run("sweep"));
+
+        assertEquals(0, calls.get());
+        verify(jobRunRepository, never()).save(any());
+        verify(connection).rollback();
+        verify(connection).close();
+    }
+
+    @Test
+    void run_WithLock_ShouldRecordDurationAndOutcome() throws SQLException {
+        AtomicInteger calls = new AtomicInteger();
+        clusterJobService.register("sweep", Duration.ofHours(1), r -> calls.incrementAndGet());
+
+        assertTrue(clusterJobService.run("sweep"));
+
+        assertEquals(1, calls.get());
+        assertEquals("RUNNING", saved.get(0).getStatus());
+        JobRunEntity done = saved.get(saved.size() - 1);
+        assertEquals("DONE", done.getStatus());
+        assertEquals("sweep", done.getJobName());
+        assertNotNull(done.getDurationMs());
+        assertNotNull(done.getFinishedAt());
+        // El lock se suelta al terminar la transacción
+        verify(connection).setAutoCommit(false);
+        verify(connection).rollback();
+    }
+
+    @Test
+    void run_WhenTaskFails_ShouldRecordFailure() {
+        clusterJobService.register("sweep", Duration.ofHours(1), r -> {
+            throw new IllegalStateException("sin datos");
+        });
+
+        assertTrue(clusterJobService.run("sweep"));
+
+        JobRunEntity failed = saved.get(saved.size() - 1);
+        assertEquals("FAILED", failed.getStatus());
+        assertTrue(failed.getError().contains("sin datos"));
+    }
+
+    @Test
+    void run_WhenAnotherNodeJustFinished_ShouldSkip() {
+        when(jobRunRepository.findTopByJobNameAndStatusOrderByIdDesc("sweep", "DONE"))
+                .thenReturn(run(5L, "DONE", LocalDateTime.now().minusMinutes(2).toString(), null));
+        AtomicInteger calls = new AtomicInteger();
+        clusterJobService.register("sweep", Duration.ofHours(1), r -> calls.incrementAndGet());
+
+        assertFalse(clusterJobService.run("sweep"));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void run_WithOrphanedRun_ShouldResumeFromItsCheckpoint() {
+        when(jobRunRepository.findTopByJobNameAndStatusOrderByIdDesc("sweep", "RUNNING"))
+                .thenReturn(run(7L, "RUNNING", LocalDateTime.now().minusMinutes(5).toString(), "2000"));
+        List<String> seen = new ArrayList<>();
+        clusterJobService.register("sweep", Duration.ofHours(1), r -> {
+            seen.add(r.getCheckpoint());
+            r.checkpoint("3000");
+        });
+
+        assertTrue(clusterJobService.run("sweep"));
+
+        assertEquals(List.of("2000"), seen);
+        assertEquals("INTERRUPTED", saved.get(0).getStatus());
+        assertEquals(7L, saved.get(0).getId());
+        assertEquals(7L, saved.get(1).getResumedFrom());
+        verify(jobRunRepository).updateCheckpoint(saved.get(1).getId(), "3000");
+        assertEquals("3000", saved.get(saved.size() - 1).getCheckpoint());
+    }
+
+    @Test
+    void resumePending_WithoutOrphans_ShouldNotRunJobs() throws SQLException {
+        AtomicInteger calls = new AtomicInteger();
+        clusterJobService.register("sweep", Duration.ofHours(1), r -> calls.incrementAndGet());
+        when(jobRunRepository.existsByJobNameAndStatus("sweep", "RUNNING")).thenReturn(false);
+
+        clusterJobService.resumePending();
+
+        assertEquals(0, calls.get());
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void run_UnknownJob_ShouldThrow() {
+        assertThrows(RuntimeException.class, () -> clusterJobService.run("missing"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.InvalidationBus;
+import com.Tingeso.ToolRent.DTOs.DashboardSummaryDTO;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
+import com.Tingeso.ToolRent.Events.ToolStatusChangedEvent;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import com.Tingeso.ToolRent.Repositories.ToolRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DashboardServiceTest {
+
+    @Mock
+    private RentRepository rentRepository;
+
+    @Mock
+    private ToolRepository toolRepository;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void reconcile_ShouldLoadCountersFromDatabase() {
+        when(rentRepository.countActiveByFinishDate()).thenReturn(List.of(
+                Map.of("finishdate", today.minusDays(2).toString(), "rents", 3L),
+                Map.of("finishdate", today.plusDays(1).toString(), "rents", 5L)
+        ));
+        when(toolRepository.countByStatus()).thenReturn(List.of(
+                Map.of("status", 1, "tools", 10L),
+                Map.of("status", 2, "tools", 8L),
+                Map.of("status", 3, "tools", 1L)
+        ));
+        when(rentRepository.sumReturnedOn(today.toString())).thenReturn(List.of(
+                Map.of("returns", 2L, "revenue", 15000L)
+        ));
+
+        dashboardService.reconcile();
+        DashboardSummaryDTO summary = dashboardService.getSummary();
+
+        assertEquals(8, summary.getActiveRents());
+        assertEquals(3, summary.getLateRents());
+        assertEquals(10, summary.getAvailableTools());
+        assertEquals(8, summary.getRentedTools());
+        assertEquals(1, summary.getInRepairTools());
+        assertEquals(0, summary.getDecommissionedTools());
+        assertEquals(2, summary.getTodayReturns());
+        assertEquals(15000, summary.getTodayRevenue());
+        assertNotNull(summary.getReconciledAt());
+    }
+
+    @Test
+    void events_ShouldUpdateCountersWithoutQueries() {
+        String overdue = today.minusDays(1).toString();
+
+        dashboardService.onToolStatusChanged(new ToolStatusChangedEvent(1L, 0, 1));
+        dashboardService.onToolStatusChanged(new ToolStatusChangedEvent(2L, 0, 1));
+
+        dashboardService.onRentCreated(new RentCreatedEvent(10L, 1L, 1L, overdue));
+        dashboardService.onToolStatusChanged(new ToolStatusChangedEvent(1L, 1, 2));
+
+        DashboardSummaryDTO summary = dashboardService.getSummary();
+        assertEquals(1, summary.getActiveRents());
+        assertEquals(1, summary.getLateRents());
+        assertEquals(1, summary.getAvailableTools());
+        assertEquals(1, summary.getRentedTools());
+
+        // Devolución con daño: la herramienta pasa a reparación
+        dashboardService.onRentReturned(new RentReturnedEvent(10L, 1L, 1L, 7000, true, false, overdue));
+        dashboardService.onToolStatusChanged(new ToolStatusChangedEvent(1L, 2, 3));
+
+        summary = dashboardService.getSummary();
+        assertEquals(0, summary.getActiveRents());
+        assertEquals(0, summary.getLateRents());
+        assertEquals(0, summary.getRentedTools());
+        assertEquals(1, summary.getInRepairTools());
+        assertEquals(1, summary.getTodayReturns());
+        assertEquals(7000, summary.getTodayRevenue());
+
+        verifyNoInteractions(rentRepository, toolRepository);
+        verify(invalidationBus).publish(DashboardService.TOPIC, "created:" + overdue);
+        verify(invalidationBus).publish(DashboardService.TOPIC, "returned:" + overdue + ":7000");
+    }
+
+    @Test
+    void reconcile_ShouldReplaceDriftedCounters() {
+        dashboardService.onRentCreated(new RentCreatedEvent(1L, 1L, 1L, today.toString()));
+        dashboardService.onRentCreated(new RentCreatedEvent(2L, 1L, 2L, today.toString()));
+
+        when(rentRepository.countActiveByFinishDate()).thenReturn(List.of(
+                Map.of("finishdate", today.toString(), "rents", 1L)
+        ));
+        when(toolRepository.countByStatus()).thenReturn(List.of());
+        when(rentRepository.sumReturnedOn(anyString())).thenReturn(List.of());
+
+        dashboardService.reconcile();
+
+        assertEquals(1, dashboardService.getSummary().getActiveRents());
+        assertEquals(0, dashboardService.getSummary().getLateRents());
+    }
+
+    @Test
+    void reconcile_WhenAnEventArrivesWhileLoading_ShouldKeepIt() {
+        when(rentRepository.countActiveByFinishDate()).thenReturn(List.of(
+                Map.of("finishdate", today.toString(), "rents", 1L)
+        ));
+        // El préstamo se confirma después de contar los arriendos y antes del reemplazo
+        when(toolRepository.countByStatus()).thenAnswer(inv -> {
+            dashboardService.onRentCreated(new RentCreatedEvent(2L, 1L, 2L, today.toString()));
+            return List.of();
+        });
+        when(rentRepository.sumReturnedOn(anyString())).thenReturn(List.of());
+
+        dashboardService.reconcile();
+
+        assertEquals(2, dashboardService.getSummary().getActiveRents());
+    }
+
+    @Test
+    void remoteChange_ShouldUpdateCounters() {
+        ArgumentCaptor<InvalidationBus.Subscriber> subscriber = ArgumentCaptor.forClass(InvalidationBus.Subscriber.class);
+        dashboardService.subscribe();
+        verify(invalidationBus).subscribe(eq(DashboardService.TOPIC), subscriber.capture());
+
+        subscriber.getValue().invalidate("created:" + today.minusDays(1));
+        subscriber.getValue().invalidate("tool:1:2");
+
+        DashboardSummaryDTO summary = dashboardService.getSummary();
+        assertEquals(1, summary.getActiveRents());
+        assertEquals(1, summary.getLateRents());
+        assertEquals(1, summary.getRentedTools());
+        // Los cambios de otro nodo no se vuelven a publicar
+        verify(invalidationBus, never()).publish(anyString(), anyString());
+    }
+}
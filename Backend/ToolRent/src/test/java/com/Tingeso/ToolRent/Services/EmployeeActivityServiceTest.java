@@ -0,0 +1,136 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.EmployeeActivityDTO;
+import com.Tingeso.ToolRent.Repositories.KardexRepository;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class EmployeeActivityServiceTest {
+
+    @Mock
+    private KardexRepository kardexRepository;
+
+    @Mock
+    private RentRepository rentRepository;
+
+    @InjectMocks
+    private EmployeeActivityService employeeActivityService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(employeeActivityService, "workers", 2);
+        ReflectionTestUtils.setField(employeeActivityService, "queueSize", 4);
+        employeeActivityService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeActivityService.shutdown();
+    }
+
+    private Map<String, Object> movement(String employee, int day, int type, long count) {
+        return Map.of("employeename", employee, "day", day, "movementtype", type, "movements", count);
+    }
+
+    @Test
+    void getActivity_ByMonth_ShouldAggregateMovementTypesAndRevenue() {
+        when(kardexRepository.countByEmployeeDayAndType("2024-03-01", "2024-04-01")).thenReturn(List.of(
+                movement("Ana Soto", 1, 1, 3L),
+                movement("Ana Soto", 2, 2, 2L),
+                movement("Ana Soto", 2, 5, 1L),
+                movement("Ana Soto", 9, 3, 1L),
+                movement("Luis Rojas", 15, 4, 4L)
+        ));
+        when(rentRepository.sumRevenueByEmployeeDay("2024-03-01", "2024-04-01")).thenReturn(List.of(
+                Map.of("employeename", "Ana Soto", "day", 2, "revenue", 12000L)
+        ));
+
+        List<EmployeeActivityDTO> rows =
+                employeeActivityService.getActivity("2024-03-01", "2024-03-31", "month", null);
+
+        assertEquals(2, rows.size());
+
+        EmployeeActivityDTO ana = rows.get(0);
+        assertEquals("Ana Soto", ana.getEmployeeName());
+        assertEquals("2024-03", ana.getPeriod());
+        assertEquals(3, ana.getRentsIssued());
+        assertEquals(2, ana.getReturnsProcessed());
+        assertEquals(2, ana.getDamageReports());
+        assertEquals(0, ana.getIntakes());
+        assertEquals(12000, ana.getRevenue());
+
+        assertEquals(4, rows.get(1).getIntakes());
+    }
+
+    @Test
+    void getActivity_ByDay_ShouldClipToRangeAndFilterEmployee() {
+        when(kardexRepository.countByEmployeeDayAndType(anyString(), anyString())).thenReturn(List.of(
+                movement("Ana Soto", 1, 1, 3L),
+                movement("Ana Soto", 2, 1, 1L),
+                movement("Luis Rojas", 2, 1, 5L)
+        ));
+        when(rentRepository.sumRevenueByEmployeeDay(anyString(), anyString())).thenReturn(List.of());
+
+        List<EmployeeActivityDTO> rows =
+                employeeActivityService.getActivity("2024-03-02", "2024-03-31", "day", "ana soto");
+
+        assertEquals(1, rows.size());
+        assertEquals("2024-03-02", rows.get(0).getPeriod());
+        assertEquals(1, rows.get(0).getRentsIssued());
+    }
+
+    @Test
+    void getActivity_ClosedMonths_ShouldBeLoadedOnce() {
+        when(kardexRepository.countByEmployeeDayAndType(anyString(), anyString())).thenReturn(List.of());
+        when(rentRepository.sumRevenueByEmployeeDay(anyString(), anyString())).thenReturn(List.of());
+
+        employeeActivityService.getActivity("2024-01-01", "2024-02-29", "month", null);
+        employeeActivityService.getActivity("2024-01-01", "2024-02-29", "month", null);
+
+        verify(kardexRepository, times(1)).countByEmployeeDayAndType("2024-01-01", "2024-02-01");
+        verify(kardexRepository, times(1)).countByEmployeeDayAndType("2024-02-01", "2024-03-01");
+    }
+
+    @Test
+    void getActivity_CurrentMonth_ShouldBeRecomputed() {
+        when(kardexRepository.countByEmployeeDayAndType(anyString(), anyString())).thenReturn(List.of());
+        when(rentRepository.sumRevenueByEmployeeDay(anyString(), anyString())).thenReturn(List.of());
+
+        employeeActivityService.getActivity(null, null, "month", null);
+        employeeActivityService.getActivity(null, null, "month", null);
+
+        String from = YearMonth.now().atDay(1).toString();
+        String to = YearMonth.now().plusMonths(1).atDay(1).toString();
+        verify(kardexRepository, times(2)).countByEmployeeDayAndType(from, to);
+    }
+
+    @Test
+    void isClosed_ShouldWaitOneDayAfterMonthEnd() {
+        assertFalse(EmployeeActivityService.isClosed(YearMonth.now()));
+        assertTrue(EmployeeActivityService.isClosed(YearMonth.from(LocalDate.now().minusMonths(2))));
+    }
+
+    @Test
+    void getActivity_WithInvalidInput_ShouldThrow() {
+        assertThrows(RuntimeException.class,
+                () -> employeeActivityService.getActivity(null, null, "week", null));
+        assertThrows(RuntimeException.class,
+                () -> employeeActivityService.getActivity("2024-05-01", "2024-04-01", "day", null));
+    }
+}
@@ -0,0 +1,117 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.InvalidationBus;
+import com.Tingeso.ToolRent.Entities.EmployeeEntity;
+import com.Tingeso.ToolRent.Repositories.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @InjectMocks
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(employeeRepository.save(any())).thenAnswer(inv -> {
+            EmployeeEntity e = inv.getArgument(0);
+            if (e.getId() == null) e.setId(10L);
+            return e;
+        });
+    }
+
+    private Jwt jwt(String subject, String given, String family) {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject(subject)
+                .claim("preferred_username", "user-" + subject);
+        if (given != null) builder.claim("given_name", given);
+        if (family != null) builder.claim("family_name", family);
+        return builder.build();
+    }
+
+    @Test
+    void displayName_ShouldPreferGivenAndFamily_ThenFallBack() {
+        assertEquals("Ana Soto", EmployeeService.displayName(jwt("s1", "Ana", "Soto")));
+        assertEquals("user-s2", EmployeeService.displayName(jwt("s2", "Ana", null)));
+    }
+
+    @Test
+    void resolve_NewSubject_ShouldCreateOnceAndCache() {
+        when(employeeRepository.findBySubject("abc")).thenReturn(Optional.empty());
+
+        Long first = employeeService.resolve(jwt("abc", "Ana", "Soto"));
+        Long second = employeeService.resolve(jwt("abc", "Ana", "Soto"));
+
+        assertEquals(10L, first);
+        assertEquals(10L, second);
+        verify(employeeRepository, times(1)).findBySubject("abc");
+        verify(employeeRepository, times(1)).save(argThat(e -> "abc".equals(e.getSubject())));
+        assertEquals("Ana Soto", employeeService.nameOf(10L));
+        verify(employeeRepository, never()).findAll();
+    }
+
+    @Test
+    void resolve_CachedSubjectWithNewName_ShouldUpdateTheEmployee() {
+        EmployeeEntity stored = new EmployeeEntity();
+        stored.setId(10L);
+        stored.setSubject("abc");
+        stored.setName("Ana Soto");
+        when(employeeRepository.findBySubject("abc")).thenReturn(Optional.of(stored));
+        employeeService.resolve(jwt("abc", "Ana", "Soto"));
+
+        // Cambió el apellido en Keycloak
+        Long id = employeeService.resolve(jwt("abc", "Ana", "Soto Pérez"));
+
+        assertEquals(10L, id);
+        verify(employeeRepository).save(argThat(e -> "Ana Soto Pérez".equals(e.getName())));
+        verify(invalidationBus).publishInTransaction(EmployeeService.TOPIC, "10");
+        assertEquals("Ana Soto Pérez", employeeService.nameOf(10L));
+    }
+
+    @Test
+    void resolve_FirstLogin_ShouldNotClaimHistoricalEmployeeWithSameName() {
+        when(employeeRepository.findBySubject("xyz")).thenReturn(Optional.empty());
+
+        Long id = employeeService.resolve(jwt("xyz", "Luis", "Rojas"));
+
+        assertEquals(10L, id);
+        verify(employeeRepository).save(argThat(e -> e.getId() == 10L
+                && "xyz".equals(e.getSubject()) && "Luis Rojas".equals(e.getName())));
+    }
+
+    @Test
+    void nameOf_UnknownId_ShouldLoadTableOnce() {
+        when(employeeRepository.findAll()).thenReturn(List.of(
+                new EmployeeEntity(1L, "s1", "Ana Soto", "ana"),
+                new EmployeeEntity(2L, null, "Luis Rojas", null)));
+
+        assertEquals("Luis Rojas", employeeService.nameOf(2L));
+        assertEquals("Ana Soto", employeeService.nameOf(1L));
+        assertNull(employeeService.nameOf(null));
+
+        verify(employeeRepository, times(1)).findAll();
+    }
+}
@@ -0,0 +1,67 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.JobRunEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// El devengo nocturno tal como lo corre el @Scheduled: por ClusterJobService, sin pasar por el proxy.
+// Sin transacción propia los UPDATE nativos fallaban y la corrida quedaba FAILED.
+// Usa un esquema aparte que se borra al terminar. Necesita Postgres:
+//   mvn test -Dtest=FineAccrualIntegrationTest -Dintegration=true -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "integration", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + FineAccrualIntegrationTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + FineAccrualIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + FineAccrualIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FineAccrualIntegrationTest {
+
+    static final String SCHEMA = "toolrent_accrual_check";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ClusterJobService clusterJobs;
+
+    @BeforeAll
+    void seed() {
+        String finish = LocalDate.now().minusDays(3).toString();
+        jdbcTemplate.update("INSERT INTO client (id, rut, name, status, manual_restriction) VALUES (1, '1-9', 'Cliente', 1, false)");
+        jdbcTemplate.update("INSERT INTO tool (id, name, category, replacement_value, status) VALUES (1, 'martillo', 'manual', 10000, 2)");
+        jdbcTemplate.update("INSERT INTO rate (id, daily_rental_rate, daily_late_fee_rent, category) VALUES (1, 3000, 500, NULL)");
+        jdbcTemplate.update("""
+                INSERT INTO rents (id, client_id, tool_id, start_date, finish_date, fine_amount, total_amount,
+                                   active, damaged, irreparable)
+                VALUES (1, 1, 1, ?, ?, 0, 0, true, false, false)
+                """, LocalDate.now().minusDays(10).toString(), finish);
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void nightlyJob_ShouldAccrueFinesInsideATransaction() {
+        assertTrue(clusterJobs.run(FineAccrualService.JOB));
+
+        List<JobRunEntity> runs = clusterJobs.getRecentRuns(FineAccrualService.JOB);
+        assertEquals("DONE", runs.get(0).getStatus(), runs.get(0).getError());
+        // 3 días de atraso a 500
+        assertEquals(1500, jdbcTemplate.queryForObject("SELECT fine_amount FROM rents WHERE id = 1", Integer.class));
+    }
+}
@@ -0,0 +1,60 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.RateEntity;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FineAccrualServiceTest {
+
+    @Mock
+    private RentRepository rentRepository;
+
+    @Mock
+    private RateService rateService;
+
+    @InjectMocks
+    private FineAccrualService fineAccrualService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void accrueFines_ShouldRunOneStatementPerRateTier() {
+        RateTable rates = RateTable.from(List.of(
+                new RateEntity(1L, 3000, 500),
+                new RateEntity(2L, 9000, 2000, "construccion")
+        ));
+        when(rateService.getRateTable()).thenReturn(rates);
+        when(rentRepository.accrueFinesForCategory("2025-01-10", "construccion", 2000)).thenReturn(2);
+        when(rentRepository.accrueFinesExcept("2025-01-10", List.of("construccion"), 500)).thenReturn(5);
+
+        int updated = fineAccrualService.accrueFines(LocalDate.parse("2025-01-10"));
+
+        assertEquals(7, updated);
+        verify(rentRepository, times(1)).accrueFinesForCategory(anyString(), anyString(), anyInt());
+        verify(rentRepository, times(1)).accrueFinesExcept(anyString(), anyList(), anyInt());
+        verify(rentRepository, never()).accrueFinesAll(anyString(), anyInt());
+    }
+
+    @Test
+    void accrueFines_WithOnlyGlobalRate_ShouldUseSingleStatement() {
+        when(rateService.getRateTable()).thenReturn(RateTable.global(3000, 500));
+        when(rentRepository.accrueFinesAll("2025-01-10", 500)).thenReturn(4);
+
+        int updated = fineAccrualService.accrueFines(LocalDate.parse("2025-01-10"));
+
+        assertEquals(4, updated);
+        verify(rentRepository, never()).accrueFinesForCategory(anyString(), anyString(), anyInt());
+    }
+}
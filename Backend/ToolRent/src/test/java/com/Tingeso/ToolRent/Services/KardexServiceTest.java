@@ -18,6 +18,9 @@ class KardexServiceTest {
     @Mock
     private KardexRepository kardexRepository;
 
+    @Mock
+    private EmployeeService employeeService;
+
     @InjectMocks
     private KardexService kardexService;
 
@@ -28,16 +31,16 @@ class KardexServiceTest {
 
     @Test
     void registerMovement_ShouldSaveMovementCorrectly() {
-        kardexService.registerMovement(4, 10L, "Alex");
+        kardexService.registerMovement(4, 10L, 1L);
 
-        verify(kardexRepository, times(1)).save(any(KardexEntity.class));
+        verify(kardexRepository, times(1)).save(argThat(k -> k.getEmployeeId() == 1L && k.getToolId() == 10L));
     }
 
     @Test
     void getByTool_ShouldReturnListOfDtos() {
 
         KardexEntity mov = new KardexEntity(
-                1L, 4, "2024-12-01T10:00", 1, 5L, "Alex", null
+                1L, 4, "2024-12-01T10:00", 1, 5L, 1L, null
         );
 
         when(kardexRepository.findByToolIdOrderByMovementDateDesc(5L))
@@ -54,12 +57,13 @@ class KardexServiceTest {
     void getByDateRange_ShouldReturnDtos() {
 
         KardexEntity mov = new KardexEntity(
-                1L, 3, "2024-12-02T12:00", 1, 2L, "Maria", null
+                1L, 3, "2024-12-02T12:00", 1, 2L, 2L, null
         );
 
         when(kardexRepository.findByMovementDateBetweenOrderByMovementDateDesc(
                 "2024-12-01", "2024-12-31"
         )).thenReturn(List.of(mov));
+        when(employeeService.nameOf(2L)).thenReturn("Maria");
 
         List<KardexDTO> result = kardexService.getByDateRange("2024-12-01", "2024-12-31");
 
@@ -71,8 +75,8 @@ class KardexServiceTest {
     @Test
     void getAllMovements_ShouldReturnAllDtos() {
 
-        KardexEntity mov1 = new KardexEntity(1L, 1, "2024-12-01", 1, 4L, "Alex", null);
-        KardexEntity mov2 = new KardexEntity(2L, 2, "2024-12-02", 1, 4L, "Alex", null);
+        KardexEntity mov1 = new KardexEntity(1L, 1, "2024-12-01", 1, 4L, 1L, null);
+        KardexEntity mov2 = new KardexEntity(2L, 2, "2024-12-02", 1, 4L, 1L, null);
 
         when(kardexRepository.findAll()).thenReturn(List.of(mov1, mov2));
 
@@ -0,0 +1,108 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.ClientBalanceEntity;
+import com.Tingeso.ToolRent.Entities.LedgerEntryEntity;
+import com.Tingeso.ToolRent.Repositories.ClientBalanceRepository;
+import com.Tingeso.ToolRent.Repositories.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerServiceTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private ClientBalanceRepository clientBalanceRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    private ClientBalanceEntity balance;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        balance = new ClientBalanceEntity(1L, 1000, 5L, null);
+        when(clientBalanceRepository.findForUpdate(1L)).thenReturn(Optional.of(balance));
+        when(ledgerEntryRepository.save(any(LedgerEntryEntity.class))).thenAnswer(inv -> {
+            LedgerEntryEntity e = inv.getArgument(0);
+            e.setId(6L);
+            return e;
+        });
+    }
+
+    @Test
+    void registerPayment_ShouldDecreaseBalanceIncrementally() {
+        LedgerEntryEntity entry = ledgerService.registerPayment(1L, 400);
+
+        assertEquals(-400, entry.getAmount());
+        assertEquals(600, entry.getBalanceAfter());
+        assertEquals(600, balance.getBalance());
+        assertEquals(6L, balance.getLastEntryId());
+
+        verify(clientBalanceRepository).insertIfMissing(1L);
+        verify(clientBalanceRepository).save(balance);
+    }
+
+    @Test
+    void registerPayment_WithInvalidAmount_ShouldThrow() {
+        assertThrows(RuntimeException.class, () -> ledgerService.registerPayment(1L, 0));
+        verify(ledgerEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void registerReturn_ShouldPostChargeAndFineSeparately() {
+        ledgerService.registerReturn(1L, 9L, 3500, 500);
+
+        ArgumentCaptor<LedgerEntryEntity> captor = ArgumentCaptor.forClass(LedgerEntryEntity.class);
+        verify(ledgerEntryRepository, times(2)).save(captor.capture());
+
+        assertEquals(LedgerService.CHARGE, captor.getAllValues().get(0).getType());
+        assertEquals(3000, captor.getAllValues().get(0).getAmount());
+        assertEquals(LedgerService.FINE, captor.getAllValues().get(1).getType());
+        assertEquals(500, captor.getAllValues().get(1).getAmount());
+        assertEquals(4500, balance.getBalance());
+    }
+
+    @Test
+    void registerReturn_WhenAlreadyPosted_ShouldNotChargeTwice() {
+        when(ledgerEntryRepository.existsByRentIdAndType(9L, LedgerService.CHARGE)).thenReturn(true);
+        when(ledgerEntryRepository.existsByRentIdAndType(9L, LedgerService.FINE)).thenReturn(true);
+
+        ledgerService.registerReturn(1L, 9L, 3500, 500);
+
+        verify(ledgerEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void getBalanceAsOf_ShouldUseLastEntryBeforeNextDay() {
+        LedgerEntryEntity last = new LedgerEntryEntity();
+        last.setBalanceAfter(2500);
+        when(ledgerEntryRepository.findTopByClientIdAndEntryDateLessThanOrderByEntryDateDescIdDesc(1L, "2025-03-02"))
+                .thenReturn(last);
+
+        assertEquals(2500, ledgerService.getBalanceAsOf(1L, LocalDate.parse("2025-03-01")));
+        assertEquals(0, ledgerService.getBalanceAsOf(1L, LocalDate.parse("2020-01-01")));
+    }
+
+    @Test
+    void getCurrentBalance_WithoutEntries_ShouldBeZero() {
+        when(clientBalanceRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertEquals(0, ledgerService.getCurrentBalance(2L));
+    }
+}
@@ -1,10 +1,15 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.InvalidationBus;
 import com.Tingeso.ToolRent.Entities.RateEntity;
+import com.Tingeso.ToolRent.Events.RateChangedEvent;
 import com.Tingeso.ToolRent.Repositories.RateRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -14,6 +19,12 @@ class RateServiceTest {
     @Mock
     private RateRepository rateRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private RateService rateService;
 
@@ -29,7 +40,7 @@ class RateServiceTest {
     void getLatestRate_ShouldReturnLatestRate() {
         RateEntity rate = new RateEntity(1L, 3000, 500);
 
-        when(rateRepository.findTopByOrderByIdDesc()).thenReturn(rate);
+        when(rateRepository.findTopByCategoryIsNullOrderByIdDesc()).thenReturn(rate);
 
         RateEntity result = rateService.getLatestRate();
 
@@ -37,7 +48,7 @@ class RateServiceTest {
         assertEquals(3000, result.getDailyRentalRate());
         assertEquals(500, result.getDailyLateFeeRent());
 
-        verify(rateRepository).findTopByOrderByIdDesc();
+        verify(rateRepository).findTopByCategoryIsNullOrderByIdDesc();
     }
 
     // ===========================================================
@@ -56,6 +67,8 @@ class RateServiceTest {
         assertEquals(800, result.getDailyLateFeeRent());
 
         verify(rateRepository).save(any(RateEntity.class));
+        verify(eventPublisher).publishEvent(any(RateChangedEvent.class));
+        verify(invalidationBus).publish("rates", InvalidationBus.ALL);
     }
 
     // ===========================================================
@@ -94,4 +107,71 @@ class RateServiceTest {
 
         verify(rateRepository).findTopByOrderByIdDesc();
     }
+
+    // ===========================================================
+    // TEST: tabla de tarifas por categoría
+    // ===========================================================
+    @Test
+    void getRateTable_ShouldUseCategoryRate_AndFallbackToGlobal() {
+        when(rateRepository.findAllByOrderByIdAsc()).thenReturn(List.of(
+                new RateEntity(1L, 3000, 500),
+                new RateEntity(2L, 9000, 2000, "construccion"),
+                new RateEntity(3L, 9500, 2500, "construccion")
+        ));
+
+        RateTable table = rateService.reloadRateTable();
+
+        assertEquals(9500, table.rentalRate("construccion"));
+        assertEquals(2500, table.lateFeeRate("construccion"));
+        assertEquals(3000, table.rentalRate("manual"));
+        assertEquals(500, table.lateFeeRate(null));
+    }
+
+    @Test
+    void getCategoryRates_ShouldNotExposeTheSharedArrays() {
+        when(rateRepository.findAllByOrderByIdAsc()).thenReturn(List.of(
+                new RateEntity(1L, 9000, 2000, "construccion")
+        ));
+        RateTable table = rateService.reloadRateTable();
+
+        table.getCategoryRates().get("construccion")[0] = 1;
+
+        assertEquals(9000, table.rentalRate("construccion"));
+    }
+
+    @Test
+    void createCategoryRate_ShouldNormalizeCategory_AndSwapTable() {
+        when(rateRepository.save(any(RateEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(rateRepository.findAllByOrderByIdAsc()).thenReturn(List.of(
+                new RateEntity(1L, 3000, 500),
+                new RateEntity(2L, 8000, 1000, "construccion")
+        ));
+
+        RateEntity result = rateService.createCategoryRate("  Construccion ", 8000, 1000);
+
+        assertEquals("construccion", result.getCategory());
+        assertEquals(8000, rateService.getRateTable().rentalRate("construccion"));
+        verify(rateRepository, times(1)).findAllByOrderByIdAsc();
+    }
+
+    @Test
+    void quote_ShouldComputeWithoutRepositoryCalls_OnceTableIsLoaded() {
+        when(rateRepository.findAllByOrderByIdAsc()).thenReturn(List.of(
+                new RateEntity(1L, 3000, 500),
+                new RateEntity(2L, 8000, 1000, "construccion")
+        ));
+        rateService.reloadRateTable();
+
+        assertEquals(24000, rateService.quote("Construccion", 3));
+        assertEquals(6000, rateService.quote(null, 2));
+
+        verify(rateRepository, times(1)).findAllByOrderByIdAsc();
+    }
+
+    @Test
+    void quote_WhenNoRateApplies_ShouldThrow() {
+        when(rateRepository.findAllByOrderByIdAsc()).thenReturn(List.of());
+
+        assertThrows(RuntimeException.class, () -> rateService.quote("manual", 2));
+    }
 }
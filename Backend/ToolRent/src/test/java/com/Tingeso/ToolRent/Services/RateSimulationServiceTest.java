@@ -0,0 +1,101 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.RateSimulationDTO;
+import com.Tingeso.ToolRent.DTOs.RateSimulationRowDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateSimulationServiceTest {
+
+    private final RateSimulationService simulationService = new RateSimulationService();
+
+    private void addRent(RateSimulationService.ClosedRentColumns columns, String start, String finish,
+                         String returned, boolean irreparable, int replacement, String category, int recorded) {
+        LocalDate r = LocalDate.parse(returned);
+        columns.add(
+                (int) LocalDate.parse(start).toEpochDay(),
+                (int) LocalDate.parse(finish).toEpochDay(),
+                (int) r.toEpochDay(),
+                r.getYear() * 12 + r.getMonthValue() - 1,
+                irreparable,
+                replacement,
+                category,
+                recorded);
+    }
+
+    // ============================================================
+    // simulate() sobre columnas ya cargadas
+    // ============================================================
+    @Test
+    void simulate_ShouldCompareCurrentAndProposedRates_ByCategoryAndMonth() {
+        RateSimulationService.ClosedRentColumns columns = new RateSimulationService.ClosedRentColumns();
+        // 3 días, a tiempo
+        addRent(columns, "2024-01-01", "2024-01-03", "2024-01-03", false, 0, "manual", 3000);
+        // 2 días + 1 de atraso
+        addRent(columns, "2024-02-01", "2024-02-02", "2024-02-03", false, 0, "manual", 2500);
+        // 1 día, irreparable
+        addRent(columns, "2024-02-10", "2024-02-10", "2024-02-10", true, 20000, "electrica", 21000);
+
+        RateTable current = RateTable.global(1000, 500);
+        RateTable proposed = current.withRate(null, 1200, 800);
+
+        RateSimulationDTO result = simulationService.simulate(columns, current, proposed);
+
+        assertEquals(3, result.getRentsSimulated());
+        assertEquals(3000 + 2500 + 21000, result.getCurrentRevenue());
+        assertEquals(3600 + 3200 + 21200, result.getProposedRevenue());
+        assertEquals(result.getProposedRevenue() - result.getCurrentRevenue(), result.getDelta());
+        assertEquals(26500, result.getRecordedRevenue());
+
+        assertEquals(3, result.getRows().size());
+        RateSimulationRowDTO febManual = result.getRows().stream()
+                .filter(r -> r.getCategory().equals("manual") && r.getMonth().equals("2024-02"))
+                .findFirst().orElseThrow();
+        assertEquals(1, febManual.getRents());
+        assertEquals(700, febManual.getDelta());
+    }
+
+    @Test
+    void simulate_WithCategoryProposal_ShouldOnlyChangeThatCategory() {
+        RateSimulationService.ClosedRentColumns columns = new RateSimulationService.ClosedRentColumns();
+        addRent(columns, "2024-03-01", "2024-03-01", "2024-03-01", false, 0, "manual", 1000);
+        addRent(columns, "2024-03-01", "2024-03-01", "2024-03-01", false, 0, "electrica", 1000);
+
+        RateTable current = RateTable.global(1000, 500);
+        RateTable proposed = current.withRate("electrica", 5000, 500);
+
+        RateSimulationDTO result = simulationService.simulate(columns, current, proposed);
+
+        assertEquals(4000, result.getDelta());
+    }
+
+    @Test
+    void simulate_WithNoRents_ShouldReturnEmptyResult() {
+        RateSimulationDTO result = simulationService.simulate(
+                new RateSimulationService.ClosedRentColumns(),
+                RateTable.global(1000, 500),
+                RateTable.global(2000, 500));
+
+        assertEquals(0, result.getRentsSimulated());
+        assertTrue(result.getRows().isEmpty());
+    }
+
+    @Test
+    void validate_WithBadRequest_ShouldExplain() {
+        RuntimeException missing = assertThrows(RuntimeException.class,
+                () -> simulationService.validate(null, "2025-01-31", 1000, 500));
+        assertTrue(missing.getMessage().contains("from y to"));
+
+        assertThrows(RuntimeException.class,
+                () -> simulationService.validate("31-01-2025", "2025-01-31", 1000, 500));
+        assertThrows(RuntimeException.class,
+                () -> simulationService.validate("2025-02-01", "2025-01-01", 1000, 500));
+        assertThrows(RuntimeException.class,
+                () -> simulationService.validate("2025-01-01", "2025-01-31", -1, 500));
+
+        assertDoesNotThrow(() -> simulationService.validate("2025-01-01", "2025-01-31", 1000, 500));
+    }
+}
@@ -0,0 +1,176 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Controllers.ToolController;
+import com.Tingeso.ToolRent.Entities.RentEntity;
+import com.Tingeso.ToolRent.Entities.ToolEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latencia de préstamo, devolución y edición de herramienta a nivel de servicio, contra Postgres real
+// (sin HTTP ni Keycloak). Mide también transacciones y flushes de Hibernate por operación.
+// No corre con la suite; se lanza a mano:
+//   mvn test -Dtest=RentFlowLatencyIntegrationTest -Dbench=true -Dbench.iterations=300
+//       -Dit.db.url=jdbc:postgresql://localhost:5432/ToolRent
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${it.db.url:jdbc:postgresql://localhost:5432/ToolRent}?currentSchema="
+                + RentFlowLatencyIntegrationTest.SCHEMA,
+        "spring.datasource.username=${it.db.username:postgres}",
+        "spring.datasource.password=${it.db.password:1234}",
+        "spring.flyway.schemas=" + RentFlowLatencyIntegrationTest.SCHEMA,
+        "spring.jpa.properties.hibernate.default_schema=" + RentFlowLatencyIntegrationTest.SCHEMA,
+        "spring.jpa.show-sql=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RentFlowLatencyIntegrationTest {
+
+    static final String SCHEMA = "toolrent_rent_flow_bench";
+    static final long CLIENT = 900001L;
+    static final long TOOL = 900001L;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private RentService rentService;
+    @Autowired private EmployeeService employeeService;
+    @Autowired private LedgerService ledgerService;
+    @Autowired private ToolController toolController;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private final JwtAuthenticationToken auth = new JwtAuthenticationToken(Jwt.withTokenValue("bench")
+            .header("alg", "none")
+            .subject("bench-employee")
+            .claim("preferred_username", "bench")
+            .build(), List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO client (id, rut, name, status) VALUES (?, '9-9', 'Cliente', 1)", CLIENT);
+        // La herramienta y cuatro más del mismo grupo (la edición de valor reprecia el grupo completo)
+        for (long id = TOOL; id < TOOL + 5; id++) {
+            jdbcTemplate.update("INSERT INTO tool (id, name, category, replacement_value, status) "
+                    + "VALUES (?, 'taladro', 'electrica', 50000, 1)", id);
+        }
+        jdbcTemplate.update("INSERT INTO rate (id, daily_rental_rate, daily_late_fee_rent, category) "
+                + "VALUES (900001, 3000, 500, NULL)");
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void rentReturnAndToolEdit() {
+        int iterations = Integer.getInteger("bench.iterations", 300);
+        int warmup = Integer.getInteger("bench.warmup", 50);
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // updateTool pasa por el controlador (@PreAuthorize)
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        long[] create = new long[iterations];
+        long[] ret = new long[iterations];
+        long[] update = new long[iterations * 2];
+        long[] tx = new long[3];
+        long[] flushes = new long[3];
+        String finish = LocalDate.now().plusDays(3).toString();
+
+        for (int i = -warmup; i < iterations; i++) {
+            boolean measured = i >= 0;
+            Long employeeId = employeeService.resolve(auth);
+
+            long t0 = stats.getTransactionCount(), f0 = stats.getFlushCount(), start = System.nanoTime();
+            Object created = request(() -> rentService.createRent("9-9", TOOL, finish, employeeId));
+            long elapsed = System.nanoTime() - start;
+            RentEntity rent = assertInstanceOf(RentEntity.class, created, "iteración " + i + ": " + created);
+            if (measured) {
+                create[i] = elapsed;
+                tx[0] += stats.getTransactionCount() - t0;
+                flushes[0] += stats.getFlushCount() - f0;
+            }
+
+            t0 = stats.getTransactionCount(); f0 = stats.getFlushCount(); start = System.nanoTime();
+            request(() -> rentService.returnTool(rent.getId(), false, false, employeeId));
+            elapsed = System.nanoTime() - start;
+            if (measured) {
+                ret[i] = elapsed;
+                tx[1] += stats.getTransactionCount() - t0;
+                flushes[1] += stats.getFlushCount() - f0;
+            }
+
+            // El cliente paga lo cobrado (fuera de la medición) para que no quede restringido
+            request(() -> ledgerService.registerPayment(CLIENT, ledgerService.getCurrentBalance(CLIENT)));
+
+            // A reparación con nuevo valor y de vuelta a disponible, como en la pantalla de herramientas
+            for (int step = 0; step < 2; step++) {
+                ToolEntity incoming = new ToolEntity();
+                incoming.setName("taladro");
+                incoming.setCategory("electrica");
+                incoming.setReplacementValue(50000 + (i + warmup) * 2 + step + 1);
+                incoming.setStatus(step == 0 ? 3 : 1);
+
+                t0 = stats.getTransactionCount(); f0 = stats.getFlushCount(); start = System.nanoTime();
+                assertEquals(200, request(() -> toolController.updateTool(TOOL, incoming, auth)).getStatusCode().value());
+                elapsed = System.nanoTime() - start;
+                if (measured) {
+                    update[i * 2 + step] = elapsed;
+                    tx[2] += stats.getTransactionCount() - t0;
+                    flushes[2] += stats.getFlushCount() - f0;
+                }
+            }
+        }
+
+        SecurityContextHolder.clearContext();
+
+        System.out.println("BENCH iterations=" + iterations + " warmup=" + warmup);
+        report("createRent", create, tx[0], flushes[0], iterations);
+        report("returnTool", ret, tx[1], flushes[1], iterations);
+        report("updateTool", update, tx[2], flushes[2], iterations * 2);
+    }
+
+    // Con -Dbench.osiv=true cada llamada tiene su EntityManager abierto, como open-in-view en una petición
+    // (así corría la aplicación antes de desactivarlo; sirve para medir commits anteriores)
+    private <T> T request(Supplier<T> call) {
+        if (!Boolean.getBoolean("bench.osiv")) return call.get();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(em));
+        try {
+            return call.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            em.close();
+        }
+    }
+
+    private static void report(String op, long[] nanos, long tx, long flushes, int calls) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("BENCH %-10s p50=%.2fms p95=%.2fms p99=%.2fms mean=%.2fms tx/op=%.1f flush/op=%.1f%n", op,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) (sorted.length * 0.95)] / 1e6,
+                sorted[(int) (sorted.length * 0.99)] / 1e6,
+                Arrays.stream(sorted).average().orElse(0) / 1e6,
+                (double) tx / calls, (double) flushes / calls);
+    }
+}
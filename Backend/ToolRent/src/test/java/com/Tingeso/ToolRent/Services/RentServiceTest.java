@@ -2,12 +2,15 @@ package com.Tingeso.ToolRent.Services;
 
 import com.Tingeso.ToolRent.DTOs.RentDTO;
 import com.Tingeso.ToolRent.Entities.*;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
 import com.Tingeso.ToolRent.Repositories.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,7 +27,11 @@ class RentServiceTest {
     @Mock private RentRepository rentRepository;
     @Mock private ToolRepository toolRepository;
     @Mock private KardexRepository kardexRepository;
-    @Mock private RateRepository rateRepository;
+    @Mock private RateService rateService;
+    @Mock private LedgerService ledgerService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Spy private SingleFlight singleFlight = new SingleFlight();
+    @Mock private EmployeeService employeeService;
 
     @InjectMocks
     private RentService rentService;
@@ -36,7 +43,7 @@ class RentServiceTest {
         when(clientRepository.findByRut("11-1")).thenReturn(Optional.empty());
 
         Object result = rentService.createRent("11-1", 1L,
-                LocalDate.now().plusDays(1).toString(), "Empleado");
+                LocalDate.now().plusDays(1).toString(), 7L);
 
         assertThat(result).isEqualTo("CLIENT_NOT_FOUND");
     }
@@ -50,7 +57,7 @@ class RentServiceTest {
         when(clientRepository.findByRut("11-1")).thenReturn(Optional.of(client));
 
         Object result = rentService.createRent("11-1", 1L,
-                LocalDate.now().plusDays(1).toString(), "Empleado");
+                LocalDate.now().plusDays(1).toString(), 7L);
 
         assertThat(result).isEqualTo("CLIENT_RESTRICTED");
     }
@@ -67,7 +74,7 @@ class RentServiceTest {
                         new RentEntity(), new RentEntity(), new RentEntity()));
 
         Object result = rentService.createRent("11-1", 1L,
-                LocalDate.now().plusDays(1).toString(), "Empleado");
+                LocalDate.now().plusDays(1).toString(), 7L);
 
         assertThat(result).isEqualTo("CLIENT_MAX_RENTS");
     }
@@ -85,7 +92,7 @@ class RentServiceTest {
                 .thenReturn(true);
 
         Object result = rentService.createRent("11-1", 2L,
-                LocalDate.now().plusDays(1).toString(), "Empleado");
+                LocalDate.now().plusDays(1).toString(), 7L);
 
         assertThat(result).isEqualTo("TOOL_ALREADY_RENTED_BY_CLIENT");
     }
@@ -104,7 +111,7 @@ class RentServiceTest {
         when(toolRepository.findById(2L)).thenReturn(Optional.empty());
 
         Object result = rentService.createRent("11-1", 2L,
-                LocalDate.now().plusDays(1).toString(), "Empleado");
+                LocalDate.now().plusDays(1).toString(), 7L);
 
         assertThat(result).isEqualTo("TOOL_NOT_FOUND");
     }
@@ -127,7 +134,7 @@ class RentServiceTest {
         when(toolRepository.findById(2L)).thenReturn(Optional.of(tool));
 
         Object result = rentService.createRent("11-1", 2L,
-                LocalDate.now().plusDays(1).toString(), "Empleado");
+                LocalDate.now().plusDays(1).toString(), 7L);
 
         assertThat(result).isEqualTo("TOOL_NOT_AVAILABLE");
     }
@@ -150,7 +157,7 @@ class RentServiceTest {
         when(toolRepository.findById(2L)).thenReturn(Optional.of(tool));
 
         Object result = rentService.createRent("11-1", 2L,
-                LocalDate.now().minusDays(1).toString(), "Empleado");
+                LocalDate.now().minusDays(1).toString(), 7L);
 
         assertThat(result).isEqualTo("Fecha de devolución inválida");
     }
@@ -173,19 +180,23 @@ class RentServiceTest {
         when(toolRepository.findById(2L)).thenReturn(Optional.of(tool));
         when(rentRepository.save(any(RentEntity.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
+        when(rateService.getRateTable()).thenReturn(RateTable.global(1000, 500));
 
         Object result = rentService.createRent("11-1", 2L,
-                LocalDate.now().plusDays(3).toString(), "Empleado X");
+                LocalDate.now().plusDays(3).toString(), 7L);
 
         assertThat(result).isInstanceOf(RentEntity.class);
         RentEntity saved = (RentEntity) result;
         assertThat(saved.getClientId()).isEqualTo(1L);
         assertThat(saved.getToolId()).isEqualTo(2L);
         assertThat(saved.isActive()).isTrue();
-        assertThat(saved.getEmployeeName()).isEqualTo("Empleado X");
+        assertThat(saved.getEmployeeId()).isEqualTo(7L);
+        // 4 días (hoy incluido) a 1000, devuelta a tiempo
+        assertThat(saved.getProjectedAmount()).isEqualTo(4000);
 
         verify(toolRepository).save(argThat(t -> t.getStatus() == 2));
         verify(kardexRepository, times(1)).save(any(KardexEntity.class));
+        verify(eventPublisher).publishEvent(any(RentCreatedEvent.class));
     }
 
     // =============== getAllRentsOrdered ===================
@@ -200,8 +211,8 @@ class RentServiceTest {
         late.setFinishDate(today.minusDays(2).toString());
         late.setReturnDate(null);
         late.setActive(true);
-        late.setClient(new ClientEntity(1L, "11-1", "Cliente", "cliente@test.com", "987654321", 1));
-        late.setTool(new ToolEntity(1L, "martillo", "cat", 1000, 1, null));
+        late.setClient(new ClientEntity(1L, "11-1", "Cliente", "cliente@test.com", "987654321", 1, false));
+        late.setTool(new ToolEntity(1L, "martillo", "cat", 1000, 1, null, null));
 
         RentEntity normal = new RentEntity();
         normal.setId(2L);
@@ -209,8 +220,8 @@ class RentServiceTest {
         normal.setFinishDate(today.plusDays(2).toString());
         normal.setReturnDate(null);
         normal.setActive(true);
-        normal.setClient(new ClientEntity(2L, "22-2", "Cliente B", "cliente@test.com", "987654321", 1));
-        normal.setTool(new ToolEntity(2L, "taladro", "cat", 2000, 1, null));
+        normal.setClient(new ClientEntity(2L, "22-2", "Cliente B", "cliente@test.com", "987654321", 1, false));
+        normal.setTool(new ToolEntity(2L, "taladro", "cat", 2000, 1, null, null));
 
         when(rentRepository.findAll()).thenReturn(List.of(normal, late));
 
@@ -227,10 +238,11 @@ class RentServiceTest {
     void returnTool_ShouldProcessReturnCorrectly_NoDamage() {
         RentEntity rent = new RentEntity();
         rent.setId(1L);
+        rent.setActive(true);
         rent.setToolId(5L);
         rent.setStartDate(LocalDate.now().minusDays(3).toString());
         rent.setFinishDate(LocalDate.now().minusDays(1).toString());
-        rent.setEmployeeName("Carlos");
+        rent.setEmployeeId(3L);
 
         ClientEntity client = new ClientEntity();
         client.setName("Cliente X");
@@ -244,17 +256,17 @@ class RentServiceTest {
         tool.setId(5L);
         tool.setReplacementValue(20000);
 
-        RateEntity rate = new RateEntity();
-        rate.setDailyRentalRate(1000);
-        rate.setDailyLateFeeRent(500);
+        RateTable rates = RateTable.global(1000, 500);
 
-        when(rentRepository.findById(1L)).thenReturn(Optional.of(rent));
+        when(rentRepository.findForUpdate(1L)).thenReturn(Optional.of(rent));
         when(toolRepository.findById(5L)).thenReturn(Optional.of(tool));
-        when(rateRepository.findTopByOrderByIdDesc()).thenReturn(rate);
+        when(rateService.getRateTable()).thenReturn(rates);
         when(rentRepository.save(any(RentEntity.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
 
-        RentDTO dto = rentService.returnTool(1L, false, false);
+        when(employeeService.nameOf(3L)).thenReturn("Carlos");
+
+        RentDTO dto = rentService.returnTool(1L, false, false, 9L);
 
         assertThat(dto.getToolName()).isEqualTo("Taladro");
         assertThat(dto.getEmployeeName()).isEqualTo("Carlos");
@@ -262,39 +274,40 @@ class RentServiceTest {
 
         verify(rentRepository, times(1)).save(any(RentEntity.class));
         verify(toolRepository, times(1)).save(argThat(t -> t.getStatus() == 1));
-        // SOLO movimiento de devolución
-        verify(kardexRepository, times(1)).save(any(KardexEntity.class));
+        // 3 días de arriendo (3000) + 1 día de atraso (500)
+        verify(ledgerService).registerReturn(any(), eq(1L), eq(3500), eq(500));
+        // SOLO movimiento de devolución, a nombre de quien la recibió
+        verify(kardexRepository, times(1)).save(argThat(m -> m.getEmployeeId() == 9L));
     }
 
     @Test
     void returnTool_WhenDamaged_ShouldGenerateRepairMovement() {
         RentEntity rent = new RentEntity();
         rent.setId(1L);
+        rent.setActive(true);
         rent.setToolId(7L);
         rent.setStartDate(LocalDate.now().minusDays(2).toString());
         rent.setFinishDate(LocalDate.now().toString());
-        rent.setEmployeeName("Mario");
-        rent.setClient(new ClientEntity(1L, "11-1", "Cliente", "cliente@test.com", "987654321", 1));
-        rent.setTool(new ToolEntity(7L, "Sierra", "cat", 1000, 2, null));
+        rent.setEmployeeId(4L);
+        rent.setClient(new ClientEntity(1L, "11-1", "Cliente", "cliente@test.com", "987654321", 1, false));
+        rent.setTool(new ToolEntity(7L, "Sierra", "cat", 1000, 2, null, null));
 
         ToolEntity tool = new ToolEntity();
         tool.setId(7L);
         tool.setReplacementValue(10000);
 
-        RateEntity rate = new RateEntity();
-        rate.setDailyRentalRate(1000);
-        rate.setDailyLateFeeRent(200);
+        RateTable rates = RateTable.global(1000, 200);
 
-        when(rentRepository.findById(1L)).thenReturn(Optional.of(rent));
+        when(rentRepository.findForUpdate(1L)).thenReturn(Optional.of(rent));
         when(toolRepository.findById(7L)).thenReturn(Optional.of(tool));
-        when(rateRepository.findTopByOrderByIdDesc()).thenReturn(rate);
+        when(rateService.getRateTable()).thenReturn(rates);
         when(rentRepository.save(any(RentEntity.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
 
-        rentService.returnTool(1L, true, false);
+        rentService.returnTool(1L, true, false, 9L);
 
-        // reparación + devolución
-        verify(kardexRepository, times(2)).save(any(KardexEntity.class));
+        // reparación + devolución, ambas del empleado que recibe
+        verify(kardexRepository, times(2)).save(argThat(m -> m.getEmployeeId() == 9L));
         verify(toolRepository).save(argThat(t -> t.getStatus() == 3));
     }
 
@@ -302,52 +315,99 @@ class RentServiceTest {
     void returnTool_WhenIrreparable_ShouldGenerateDecommissionMovement() {
         RentEntity rent = new RentEntity();
         rent.setId(1L);
+        rent.setActive(true);
         rent.setToolId(8L);
         rent.setStartDate(LocalDate.now().minusDays(3).toString());
         rent.setFinishDate(LocalDate.now().toString());
-        rent.setEmployeeName("Sofia");
-        rent.setClient(new ClientEntity(1L,"11-1", "Cliente", "cliente@test.com", "987654321", 1));
-        rent.setTool(new ToolEntity(8L, "Taladro", "cat", 1000, 2, null));
+        rent.setEmployeeId(5L);
+        rent.setClient(new ClientEntity(1L,"11-1", "Cliente", "cliente@test.com", "987654321", 1, false));
+        rent.setTool(new ToolEntity(8L, "Taladro", "cat", 1000, 2, null, null));
 
         ToolEntity tool = new ToolEntity();
         tool.setId(8L);
         tool.setReplacementValue(50000);
 
-        RateEntity rate = new RateEntity();
-        rate.setDailyRentalRate(1500);
-        rate.setDailyLateFeeRent(500);
+        RateTable rates = RateTable.global(1500, 500);
 
-        when(rentRepository.findById(1L)).thenReturn(Optional.of(rent));
+        when(rentRepository.findForUpdate(1L)).thenReturn(Optional.of(rent));
         when(toolRepository.findById(8L)).thenReturn(Optional.of(tool));
-        when(rateRepository.findTopByOrderByIdDesc()).thenReturn(rate);
+        when(rateService.getRateTable()).thenReturn(rates);
         when(rentRepository.save(any(RentEntity.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
 
-        rentService.returnTool(1L, false, true);
+        rentService.returnTool(1L, false, true, 9L);
 
         // baja + devolución
         verify(kardexRepository, times(2)).save(any(KardexEntity.class));
         verify(toolRepository).save(argThat(t -> t.getStatus() == 4));
     }
 
+    @Test
+    void returnTool_WithUnnormalizedCategory_ShouldUseTheCategoryRate() {
+        RentEntity rent = new RentEntity();
+        rent.setId(1L);
+        rent.setActive(true);
+        rent.setToolId(6L);
+        rent.setStartDate(LocalDate.now().minusDays(1).toString());
+        rent.setFinishDate(LocalDate.now().minusDays(1).toString());
+        rent.setEmployeeId(3L);
+        rent.setClient(new ClientEntity(1L, "11-1", "Cliente", "cliente@test.com", "987654321", 1, false));
+        rent.setTool(new ToolEntity(6L, "Betonera", "construccion", 20000, 2, null, null));
+
+        ToolEntity tool = new ToolEntity();
+        tool.setId(6L);
+        tool.setCategory(" Construccion");
+        tool.setReplacementValue(20000);
+
+        // Solo hay tarifa para la categoría, sin global
+        RateTable rates = RateTable.from(List.of(new RateEntity(1L, 4000, 800, "construccion")));
+
+        when(rentRepository.findForUpdate(1L)).thenReturn(Optional.of(rent));
+        when(toolRepository.findById(6L)).thenReturn(Optional.of(tool));
+        when(rateService.getRateTable()).thenReturn(rates);
+        when(rentRepository.save(any(RentEntity.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        rentService.returnTool(1L, false, false, 9L);
+
+        // 1 día de arriendo (4000) + 1 día de atraso (800)
+        verify(ledgerService).registerReturn(any(), eq(1L), eq(4800), eq(800));
+    }
+
     @Test
     void returnTool_WhenRateMissing_ShouldThrow() {
         RentEntity rent = new RentEntity();
         rent.setId(1L);
+        rent.setActive(true);
         rent.setToolId(9L);
         rent.setStartDate(LocalDate.now().minusDays(1).toString());
         rent.setFinishDate(LocalDate.now().toString());
-        rent.setEmployeeName("Empleado");
+        rent.setEmployeeId(6L);
 
-        when(rentRepository.findById(1L)).thenReturn(Optional.of(rent));
+        when(rentRepository.findForUpdate(1L)).thenReturn(Optional.of(rent));
         when(toolRepository.findById(9L)).thenReturn(Optional.of(new ToolEntity()));
-        when(rateRepository.findTopByOrderByIdDesc()).thenReturn(null);
+        when(rateService.getRateTable()).thenReturn(RateTable.from(List.of()));
 
-        assertThatThrownBy(() -> rentService.returnTool(1L, false, false))
+        assertThatThrownBy(() -> rentService.returnTool(1L, false, false, 9L))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Rate missing");
     }
 
+    @Test
+    void returnTool_WhenAlreadyReturned_ShouldThrowWithoutCharging() {
+        RentEntity rent = new RentEntity();
+        rent.setId(1L);
+        rent.setActive(false);
+
+        when(rentRepository.findForUpdate(1L)).thenReturn(Optional.of(rent));
+
+        assertThatThrownBy(() -> rentService.returnTool(1L, false, false, 9L))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("already returned");
+        verifyNoInteractions(ledgerService);
+        verify(rentRepository, never()).save(any());
+    }
+
     // =============== getAll ===================
 
     @Test
@@ -0,0 +1,64 @@
+package com.Tingeso.ToolRent.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCacheTest {
+
+    private final ReportCache cache = new ReportCache(60_000L, 2);
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void get_WithManyKeys_ShouldKeepAtMostMaxEntries() {
+        for (int page = 0; page < 50; page++) {
+            int p = page;
+            assertEquals(p, cache.get("late:" + p, () -> p).value);
+        }
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void get_WhenFull_ShouldEvictTheLeastRecentlyRead() throws InterruptedException {
+        AtomicInteger activeLoads = new AtomicInteger();
+        cache.get("active", activeLoads::incrementAndGet);
+        Thread.sleep(5);
+        cache.get("late:0", () -> 0);
+        Thread.sleep(5);
+        cache.get("active", activeLoads::incrementAndGet);
+        Thread.sleep(5);
+
+        cache.get("late:1", () -> 1);
+        cache.get("active", activeLoads::incrementAndGet);
+
+        // "active" se leyó hace poco: sigue en memoria y no se recalculó
+        assertEquals(1, activeLoads.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void invalidateAll_ShouldOnlyRecomputeKeysThatAreReadAgain() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("active", loads::incrementAndGet);
+        cache.get("late:0", loads::incrementAndGet);
+
+        cache.invalidateAll();
+        Thread.sleep(100);
+        assertEquals(2, loads.get());
+
+        // La lectura sirve el valor viejo y recalcula solo esa clave
+        assertEquals(1, cache.get("active", loads::incrementAndGet).value);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (loads.get() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        Thread.sleep(50);
+        assertEquals(3, loads.get());
+    }
+}
@@ -0,0 +1,185 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.ReportJobEntity;
+import com.Tingeso.ToolRent.Repositories.ReportJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    @Mock
+    private ReportJobRepository reportJobRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ReportJobService reportJobService;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(reportJobService, "dir", dir.toString());
+        ReflectionTestUtils.setField(reportJobService, "workers", 1);
+        ReflectionTestUtils.setField(reportJobService, "queueSize", 1);
+        ReflectionTestUtils.setField(reportJobService, "ttlHours", 24L);
+        reportJobService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    void submit_WithInvalidType_ShouldThrow() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> reportJobService.submit("CLIENTES", "2025-01-01", "2025-01-31", "admin"));
+
+        assertTrue(ex.getMessage().contains("Tipo de reporte inválido"));
+        verify(reportJobRepository, never()).save(any());
+    }
+
+    @Test
+    void submit_WithReversedRange_ShouldThrow() {
+        assertThrows(RuntimeException.class,
+                () -> reportJobService.submit("RENTS", "2025-02-01", "2025-01-01", "admin"));
+    }
+
+    @Test
+    void submit_ShouldSaveQueuedJobAndReturnImmediately() {
+        when(reportJobRepository.save(any())).thenAnswer(inv -> {
+            ReportJobEntity job = inv.getArgument(0);
+            job.setId(7L);
+            return job;
+        });
+        // El trabajo se ejecuta en otro hilo; aquí no encuentra la fila y termina
+        when(reportJobRepository.findById(7L)).thenReturn(Optional.empty());
+
+        ReportJobEntity job = reportJobService.submit("kardex", "2025-01-01", "2025-12-31", "admin");
+
+        assertEquals(7L, job.getId());
+        assertEquals("KARDEX", job.getType());
+        assertEquals("QUEUED", job.getStatus());
+        assertEquals(reportJobService.getNode(), job.getNode());
+    }
+
+    @Test
+    void run_WhenCancelledWhileCounting_ShouldNotStartOrOverwriteTheCancel() {
+        ReportJobEntity job = new ReportJobEntity();
+        job.setId(8L);
+        job.setType("RENTS");
+        job.setFromDate("2025-01-01");
+        job.setToDate("2025-01-31");
+        job.setStatus("QUEUED");
+        when(reportJobRepository.findById(8L)).thenReturn(Optional.of(job));
+        // Otro nodo canceló: la fila ya no está en cola
+        when(reportJobRepository.markRunning(eq(8L), anyLong())).thenReturn(0);
+
+        reportJobService.run(8L);
+
+        verify(reportJobRepository).markRunning(eq(8L), anyLong());
+        verify(reportJobRepository, never()).save(any());
+        verify(reportJobRepository, never()).markDone(anyLong(), anyLong(), any(), anyLong(), any(), any());
+        assertFalse(Files.exists(dir.resolve("job-8.csv")));
+    }
+
+    @Test
+    void getResultFile_WhenNotDone_ShouldThrow() {
+        ReportJobEntity job = new ReportJobEntity();
+        job.setId(3L);
+        job.setStatus("RUNNING");
+        when(reportJobRepository.findById(3L)).thenReturn(Optional.of(job));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> reportJobService.getResultFile(3L));
+        assertTrue(ex.getMessage().contains("no está listo"));
+    }
+
+    @Test
+    void getResultFile_WhenDone_ShouldReturnPath() throws Exception {
+        Files.writeString(dir.resolve("job-4.csv"), "id\n1\n");
+        ReportJobEntity job = new ReportJobEntity();
+        job.setId(4L);
+        job.setStatus("DONE");
+        job.setFileName("job-4.csv");
+        when(reportJobRepository.findById(4L)).thenReturn(Optional.of(job));
+
+        assertEquals(dir.resolve("job-4.csv"), reportJobService.getResultFile(4L));
+    }
+
+    @Test
+    void expireOldResults_ShouldDeleteFileAndMarkExpired() throws Exception {
+        Path file = Files.writeString(dir.resolve("job-5.csv"), "id\n1\n");
+        ReportJobEntity job = new ReportJobEntity();
+        job.setId(5L);
+        job.setStatus("DONE");
+        job.setFileName("job-5.csv");
+        job.setExpiresAt(LocalDateTime.now().minusHours(1).toString());
+        when(reportJobRepository.findByStatusAndExpiresAtLessThan(eq("DONE"), anyString()))
+                .thenReturn(List.of(job));
+
+        reportJobService.expireOldResults();
+
+        assertFalse(Files.exists(file));
+        assertEquals("EXPIRED", job.getStatus());
+        verify(reportJobRepository).save(job);
+    }
+
+    @Test
+    void csv_ShouldQuoteOnlyWhenNeeded() {
+        assertEquals("martillo", ReportJobService.csv("martillo"));
+        assertEquals("\"Pérez, Juan\"", ReportJobService.csv("Pérez, Juan"));
+        assertEquals("\"dice \"\"hola\"\"\"", ReportJobService.csv("dice \"hola\""));
+        assertEquals("", ReportJobService.csv(null));
+    }
+
+    @Test
+    void csv_ShouldNeutralizeFormulas() {
+        assertEquals("'=SUM(A1:A9)", ReportJobService.csv("=SUM(A1:A9)"));
+        assertEquals("'+56 9 1234", ReportJobService.csv("+56 9 1234"));
+        assertEquals("'@SUM(A1)", ReportJobService.csv("@SUM(A1)"));
+        assertEquals("'-2+3", ReportJobService.csv("-2+3"));
+        assertEquals("-1500", ReportJobService.csv("-1500"));
+        assertEquals("\"'=1,2\"", ReportJobService.csv("=1,2"));
+    }
+
+    @Test
+    void failInterruptedJobs_ShouldReclaimJobsOfTheConfiguredNode() throws Exception {
+        reportJobService.shutdown();
+        ReflectionTestUtils.setField(reportJobService, "configuredNode", "backend1");
+        reportJobService.start();
+
+        ReportJobEntity running = new ReportJobEntity();
+        running.setStatus("RUNNING");
+        when(reportJobRepository.findByNodeAndStatusIn("backend1", List.of("QUEUED", "RUNNING")))
+                .thenReturn(List.of(running));
+
+        reportJobService.failInterruptedJobs();
+
+        assertEquals("backend1", reportJobService.getNode());
+        assertEquals("FAILED", running.getStatus());
+        verify(reportJobRepository).save(running);
+    }
+}
@@ -1,9 +1,15 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.InvalidationBus;
 import com.Tingeso.ToolRent.DTOs.ActiveRentReportDTO;
+import com.Tingeso.ToolRent.DTOs.CachedReportDTO;
+import com.Tingeso.ToolRent.DTOs.LateClientReportDTO;
+import com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO;
+import com.Tingeso.ToolRent.DTOs.ToolUtilizationDTO;
 import com.Tingeso.ToolRent.Entities.ClientEntity;
 import com.Tingeso.ToolRent.Entities.RentEntity;
 import com.Tingeso.ToolRent.Entities.ToolEntity;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
 import com.Tingeso.ToolRent.Repositories.RentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +20,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class ReportServiceTest {
@@ -21,6 +28,15 @@ class ReportServiceTest {
     @Mock
     private RentRepository rentRepository;
 
+    @Mock
+    private ToolRankingService toolRankingService;
+
+    @Mock
+    private UtilizationService utilizationService;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private ReportService reportService;
 
@@ -41,7 +57,8 @@ class ReportServiceTest {
                 "Juan Pérez",
                 "juan@example.com",
                 "123456789",
-                1
+                1,
+                false
         );
 
         ToolEntity tool = new ToolEntity(
@@ -50,6 +67,7 @@ class ReportServiceTest {
                 "manual",
                 10000,
                 1,
+                null,
                 null
         );
 
@@ -66,14 +84,14 @@ class ReportServiceTest {
         rent.setTotalAmount(0);
         rent.setDamaged(false);
         rent.setIrreparable(false);
-        rent.setEmployeeName("Empleado 1");
+        rent.setEmployeeId(1L);
         rent.setClient(client);
         rent.setTool(tool);
 
         when(rentRepository.findByActiveTrue()).thenReturn(List.of(rent));
 
         // Act
-        List<ActiveRentReportDTO> result = reportService.getActiveRents();
+        List<ActiveRentReportDTO> result = reportService.getActiveRents().value;
 
         // Assert
         assertNotNull(result);
@@ -95,57 +113,128 @@ class ReportServiceTest {
     // 2) getLateClients()
     // ============================================================
     @Test
-    void getLateClients_ShouldReturnRepositoryResult() {
+    void getLateClients_ShouldMapAggregatedRowsToDTO() {
         List<Map<String, Object>> repoResult = new ArrayList<>();
 
         Map<String, Object> row = new HashMap<>();
+        row.put("clientid", 7L);
         row.put("clientname", "Juan Pérez");
-        row.put("rentid", 5L);
-        row.put("finishdate", "2025-11-28");
+        row.put("rut", "11.111.111-1");
+        row.put("totallatedays", 12L);   // SUM -> bigint
+        row.put("totallateoccurrences", 3L);
 
         repoResult.add(row);
 
-        when(rentRepository.findLateClients(anyString())).thenReturn(repoResult);
+        when(rentRepository.findLateClients(anyString(), anyString(), anyString(), eq(20), eq(40))).thenReturn(repoResult);
 
-        // Act
-        List<Map<String, Object>> result = reportService.getLateClients();
+        // Act: página 2 de 20
+        List<LateClientReportDTO> result = reportService.getLateClients(null, null, 2, 20).value;
 
         // Assert
-        assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals("Juan Pérez", result.get(0).get("clientname"));
-        assertEquals(5L, result.get(0).get("rentid"));
+        LateClientReportDTO dto = result.get(0);
+        assertEquals(7L, dto.clientId);
+        assertEquals("Juan Pérez", dto.clientName);
+        assertEquals("11.111.111-1", dto.rut);
+        assertEquals(12L, dto.totalLateDays);
+        assertEquals(3L, dto.totalLateOccurrences);
+
+        verify(rentRepository, times(1)).findLateClients(eq(LocalDate.now().toString()),
+                eq("0000-01-01"), eq("9999-12-31"), eq(20), eq(40));
+    }
+
+    @Test
+    void countLateClients_ShouldUseToday() {
+        when(rentRepository.countLateClients(LocalDate.now().toString(), "0000-01-01", "9999-12-31")).thenReturn(4L);
+
+        assertEquals(4L, reportService.countLateClients(null, "").value);
+    }
+
+    @Test
+    void getLateClients_WithDates_ShouldFilterByFinishDate() {
+        when(rentRepository.findLateClients(anyString(), anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of());
+
+        reportService.getLateClients("2025-01-01", "2025-01-31", 0, 50);
 
-        verify(rentRepository, times(1)).findLateClients(anyString());
+        verify(rentRepository).findLateClients(LocalDate.now().toString(), "2025-01-01", "2025-01-31", 50, 0);
+        assertThrows(RuntimeException.class, () -> reportService.getLateClients("01-01-2025", null, 0, 50));
     }
 
     // ============================================================
     // 3) getToolRanking()
     // ============================================================
     @Test
-    void getToolRanking_ShouldNormalizeKeysToCamelCase() {
-        // Simulamos la respuesta "raw" del repositorio
-        Map<String, Object> row = new HashMap<>();
-        row.put("toolname", "Taladro");
-        row.put("timesused", 7L);
-
-        List<Map<String, Object>> raw = List.of(row);
+    void getToolRanking_ShouldDelegateToRollupRanking() {
+        List<ToolRankingReportDTO> ranking = List.of(
+                new ToolRankingReportDTO(1L, "Taladro", "electrica", 7L));
 
-        when(rentRepository.getToolRanking()).thenReturn(raw);
+        when(toolRankingService.getRanking(30, "electrica", 10)).thenReturn(ranking);
 
         // Act
-        List<Map<String, Object>> result = reportService.getToolRanking();
+        List<ToolRankingReportDTO> result = reportService.getToolRanking(30, "electrica", 10).value;
 
         // Assert
-        assertNotNull(result);
         assertEquals(1, result.size());
+        assertEquals("Taladro", result.get(0).toolName);
+        assertEquals(7L, result.get(0).rentalCount);
+
+        // El ranking ya no consulta la tabla de arriendos
+        verifyNoInteractions(rentRepository);
+    }
+
+    // ============================================================
+    // 4) Caché de reportes
+    // ============================================================
+    @Test
+    void getActiveRents_SecondRead_ShouldBeServedFromCache() {
+        when(rentRepository.findByActiveTrue()).thenReturn(List.of());
 
-        Map<String, Object> mapped = result.get(0);
-        assertTrue(mapped.containsKey("toolName"));
-        assertTrue(mapped.containsKey("timesUsed"));
-        assertEquals("Taladro", mapped.get("toolName"));
-        assertEquals(7L, mapped.get("timesUsed"));
+        CachedReportDTO<List<ActiveRentReportDTO>> first = reportService.getActiveRents();
+        CachedReportDTO<List<ActiveRentReportDTO>> second = reportService.getActiveRents();
 
-        verify(rentRepository, times(1)).getToolRanking();
+        assertSame(first, second);
+        assertTrue(second.ageSeconds() >= 0);
+        verify(rentRepository, times(1)).findByActiveTrue();
+    }
+
+    @Test
+    void onRentReturned_ShouldRefreshInBackground_AndServeStaleMeanwhile() {
+        when(rentRepository.countLateClients(anyString(), anyString(), anyString())).thenReturn(1L, 2L);
+
+        assertEquals(1L, reportService.countLateClients(null, null).value);
+
+        reportService.onRentReturned(new RentReturnedEvent(1L, 1L, 1L, 0, false, false, null));
+        verify(invalidationBus).publish("reports", InvalidationBus.ALL);
+
+        // La invalidación no recalcula; la siguiente lectura devuelve el valor viejo y lanza el recálculo
+        verify(rentRepository, after(200).times(1)).countLateClients(anyString(), anyString(), anyString());
+        assertEquals(1L, reportService.countLateClients(null, null).value);
+        verify(rentRepository, timeout(2000).times(2)).countLateClients(anyString(), anyString(), anyString());
+        long deadline = System.currentTimeMillis() + 2000;
+        while (reportService.countLateClients(null, null).value != 2L && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(2L, reportService.countLateClients(null, null).value);
+    }
+
+    // ============================================================
+    // getUtilization()
+    // ============================================================
+    @Test
+    void getUtilization_WithoutDates_ShouldUseLast30DaysAndCacheByWindow() {
+        LocalDate today = LocalDate.now();
+        List<ToolUtilizationDTO> rows = List.of(
+                new ToolUtilizationDTO(null, "martillo", "manual", 2, 3, 30, 60, 0.5, 2));
+        when(utilizationService.compute(today.minusDays(29), today, "model")).thenReturn(rows);
+
+        CachedReportDTO<List<ToolUtilizationDTO>> first = reportService.getUtilization(null, null, "model");
+        CachedReportDTO<List<ToolUtilizationDTO>> second = reportService.getUtilization(
+                today.minusDays(29).toString(), today.toString(), "model");
+
+        assertSame(first, second);
+        assertEquals(0.5, first.value.get(0).getUtilization());
+        verify(utilizationService, times(2)).validate(today.minusDays(29), today, "model");
+        verify(utilizationService, times(1)).compute(today.minusDays(29), today, "model");
     }
 }
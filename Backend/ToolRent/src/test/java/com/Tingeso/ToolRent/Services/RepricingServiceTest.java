@@ -0,0 +1,168 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Entities.RepricingJobEntity;
+import com.Tingeso.ToolRent.Repositories.RentRepository;
+import com.Tingeso.ToolRent.Repositories.RepricingJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RepricingServiceTest {
+
+    @Mock
+    private RentRepository rentRepository;
+
+    @Mock
+    private RepricingJobRepository repricingJobRepository;
+
+    @Mock
+    private RateService rateService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ClusterJobService clusterJobs;
+
+    @InjectMocks
+    private RepricingService repricingService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(repricingService, "chunkSize", 10);
+        ReflectionTestUtils.setField(repricingService, "parallelism", 2);
+    }
+
+    private Map<String, Object> row(long id, LocalDate start, LocalDate finish, String category) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("startdate", start.toString());
+        row.put("finishdate", finish.toString());
+        row.put("category", category);
+        return row;
+    }
+
+    // ============================================================
+    // repriceChunk()
+    // ============================================================
+    @Test
+    void repriceChunk_ShouldProjectTotals_AndWriteOneBatch() {
+        LocalDate today = LocalDate.now();
+        RateTable rates = RateTable.global(1000, 500);
+
+        when(rentRepository.findActiveForPricing(1L, 10L)).thenReturn(List.of(
+                // a tiempo: 3 días de arriendo
+                row(1L, today.minusDays(1), today.plusDays(1), "manual"),
+                // atrasado 2 días: 3 días de arriendo + 2 de multa
+                row(2L, today.minusDays(4), today.minusDays(2), "manual")
+        ));
+
+        long updated = repricingService.repriceChunk(1L, 10L, rates, today.toEpochDay());
+
+        assertEquals(2, updated);
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        // La proyección no toca el total cobrado
+        verify(jdbcTemplate, times(1)).batchUpdate(
+                eq("UPDATE rents SET projected_amount = ? WHERE id = ? AND active = true"), captor.capture());
+
+        List<Object[]> batch = captor.getValue();
+        assertEquals(3000, batch.get(0)[0]);
+        assertEquals(1L, batch.get(0)[1]);
+        assertEquals(4000, batch.get(1)[0]);
+    }
+
+    // ============================================================
+    // run() retoma desde la última marca
+    // ============================================================
+    private RepricingJobEntity job(long id, long lastCompletedId) {
+        RepricingJobEntity job = new RepricingJobEntity();
+        job.setId(id);
+        job.setStatus("RUNNING");
+        job.setFromId(1L);
+        job.setToId(40L);
+        job.setLastCompletedId(lastCompletedId);
+        return job;
+    }
+
+    @Test
+    void run_ShouldResumeFromLastCompletedId_AndFinishJob() throws Exception {
+        when(rateService.getRateTable()).thenReturn(RateTable.global(1000, 500));
+        when(rentRepository.findActiveForPricing(anyLong(), anyLong())).thenReturn(List.of());
+
+        RepricingJobEntity job = job(1L, 20L);
+        when(repricingJobRepository.findTopByOrderByIdDesc()).thenReturn(job);
+
+        repricingService.run(job);
+
+        // Solo los tramos 21-30 y 31-40
+        verify(rentRepository, never()).findActiveForPricing(eq(1L), anyLong());
+        verify(rentRepository).findActiveForPricing(21L, 30L);
+        verify(rentRepository).findActiveForPricing(31L, 40L);
+        assertEquals(40L, job.getLastCompletedId());
+        assertEquals("DONE", job.getStatus());
+    }
+
+    // ============================================================
+    // Coordinación entre nodos
+    // ============================================================
+    @Test
+    void run_WhenAnotherNodeStartedANewerJob_ShouldStopAsSuperseded() throws Exception {
+        when(rateService.getRateTable()).thenReturn(RateTable.global(1000, 500));
+        RepricingJobEntity job = job(1L, 0L);
+        when(repricingJobRepository.findTopByOrderByIdDesc()).thenReturn(job(2L, 0L));
+
+        repricingService.run(job);
+
+        assertEquals("SUPERSEDED", job.getStatus());
+        verify(rentRepository, never()).findActiveForPricing(anyLong(), anyLong());
+    }
+
+    @Test
+    void runPending_ShouldSupersedeOlderJobs_AndRunTheLatest() throws Exception {
+        when(rateService.getRateTable()).thenReturn(RateTable.global(1000, 500));
+        RepricingJobEntity older = job(1L, 0L);
+        RepricingJobEntity latest = job(2L, 40L);
+        when(repricingJobRepository.findByStatusOrderByIdAsc("RUNNING"))
+                .thenReturn(List.of(older, latest))
+                .thenReturn(List.of());
+        when(repricingJobRepository.findTopByOrderByIdDesc()).thenReturn(latest);
+
+        repricingService.runPending();
+
+        assertEquals("SUPERSEDED", older.getStatus());
+        assertEquals("DONE", latest.getStatus());
+    }
+
+    @Test
+    void run_WhenChunkFails_ShouldMarkFailedAndRethrow() {
+        when(rateService.getRateTable()).thenReturn(RateTable.global(1000, 500));
+        RepricingJobEntity job = job(1L, 0L);
+        when(repricingJobRepository.findTopByOrderByIdDesc()).thenReturn(job);
+        when(rentRepository.findActiveForPricing(anyLong(), anyLong())).thenThrow(new RuntimeException("sin conexión"));
+
+        assertThrows(RuntimeException.class, () -> repricingService.run(job));
+        assertEquals("FAILED", job.getStatus());
+    }
+
+    @Test
+    void startJob_ShouldRunThroughTheClusterLock() {
+        when(repricingJobRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        repricingService.startJob(5L);
+
+        verify(clusterJobs, timeout(1000)).run(RepricingService.JOB);
+    }
+}
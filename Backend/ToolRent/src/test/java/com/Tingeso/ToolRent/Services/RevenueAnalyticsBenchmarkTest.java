@@ -0,0 +1,81 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.RevenueAnalyticsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Benchmark de la analítica de ingresos sobre 10 millones de arriendos sintéticos
+// (5 años, 6 categorías, 40 empleados; ~1,1 millones de celdas día/categoría/empleado/resultado).
+// No corre con el build normal:  mvn test -Dtest=RevenueAnalyticsBenchmarkTest -Dbenchmarks=true -DargLine=-Xmx3g
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RevenueAnalyticsBenchmarkTest {
+
+    private static final int RENTS = 10_000_000;
+    private static final int RUNS = 20;
+
+    @Test
+    void queries_Over10MRents_ShouldTakeLessThan10ms() {
+        RevenueAnalyticsService.RevenueColumns columns = new RevenueAnalyticsService.RevenueColumns();
+        String[] categories = {"manual", "electrica", "jardin", "construccion", "medicion", "seguridad"};
+        String[] employees = new String[40];
+        for (int i = 0; i < employees.length; i++) employees[i] = "Empleado " + i;
+
+        // Cinco años de devoluciones repartidas en orden de día
+        int firstDay = (int) LocalDate.parse("2021-01-01").toEpochDay();
+        int days = 5 * 365;
+        Random random = new Random(42);
+        for (int i = 0; i < RENTS; i++) {
+            int day = firstDay + (int) ((long) i * days / RENTS);
+            byte flags = 0;
+            int r = random.nextInt(100);
+            if (r < 8) flags |= RevenueAnalyticsService.LATE;
+            if (r < 3) flags |= RevenueAnalyticsService.DAMAGED;
+            if (r < 1) flags |= RevenueAnalyticsService.IRREPARABLE;
+            columns.append(i + 1L, day, categories[random.nextInt(categories.length)],
+                    employees[random.nextInt(employees.length)], 3000 + random.nextInt(20000), flags);
+        }
+
+        String to = LocalDate.ofEpochDay(firstDay + days - 1).toString();
+        String yearAgo = LocalDate.ofEpochDay(firstDay + days - 365).toString();
+
+        report("mes, 5 años", columns, "2021-01-01", to, "month", null, null, -1);
+        report("categoría, 5 años", columns, "2021-01-01", to, "category", null, null, -1);
+        report("empleado, 5 años", columns, "2021-01-01", to, "employee", null, null, -1);
+        report("día, último año, filtro categoría", columns, yearAgo, to, "day", "electrica", null, -1);
+        report("semana, 5 años, solo irreparables", columns, "2021-01-01", to, "week", null, null, 2);
+    }
+
+    private void report(String name, RevenueAnalyticsService.RevenueColumns columns, String from, String to,
+                        String group, String category, String employee, int outcome) {
+        int fromDay = (int) LocalDate.parse(from).toEpochDay();
+        int toDay = (int) LocalDate.parse(to).toEpochDay();
+
+        // Calentamiento del JIT
+        for (int i = 0; i < 5; i++) {
+            RevenueAnalyticsService.aggregate(columns, fromDay, toDay, group, category, employee, outcome);
+        }
+
+        long[] nanos = new long[RUNS];
+        RevenueAnalyticsDTO last = null;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            last = RevenueAnalyticsService.aggregate(columns, fromDay, toDay, group, category, employee, outcome);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double medianMs = nanos[RUNS / 2] / 1_000_000.0;
+        double p95Ms = nanos[(int) (RUNS * 0.95) - 1] / 1_000_000.0;
+
+        System.out.printf("%-40s arriendos=%d celdas=%d mediana=%.2f ms p95=%.2f ms (%d núcleos)%n",
+                name, last.getRents(), columns.size, medianMs, p95Ms, Runtime.getRuntime().availableProcessors());
+
+        assertTrue(last.getRents() > 0);
+        assertTrue(medianMs < 10.0, name + ": mediana " + medianMs + " ms");
+    }
+}
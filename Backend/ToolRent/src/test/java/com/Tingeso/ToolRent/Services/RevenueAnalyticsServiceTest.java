@@ -0,0 +1,153 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.Config.InvalidationBus;
+import com.Tingeso.ToolRent.DTOs.RevenueAnalyticsDTO;
+import com.Tingeso.ToolRent.DTOs.RevenueBucketDTO;
+import com.Tingeso.ToolRent.Events.RentReturnedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RevenueAnalyticsServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @InjectMocks
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    private static int day(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        revenueAnalyticsService.append(1L, day("2025-01-06"), "manual", "Ana", 5000, (byte) 0);
+        revenueAnalyticsService.append(2L, day("2025-01-07"), "electrica", "Ana", 12000,
+                RevenueAnalyticsService.LATE);
+        revenueAnalyticsService.append(3L, day("2025-01-15"), "electrica", "Luis", 8000,
+                RevenueAnalyticsService.DAMAGED);
+        revenueAnalyticsService.append(4L, day("2025-02-03"), "manual", "Luis", 40000,
+                (byte) (RevenueAnalyticsService.DAMAGED | RevenueAnalyticsService.IRREPARABLE));
+    }
+
+    @Test
+    void query_ByMonth_ShouldSumAmountsPerMonth() {
+        RevenueAnalyticsDTO result = revenueAnalyticsService.query("2025-01-01", "2025-02-28",
+                "month", null, null, null);
+
+        assertEquals(4, result.getRents());
+        assertEquals(65000, result.getRevenue());
+        assertEquals(2, result.getRows().size());
+
+        RevenueBucketDTO january = result.getRows().get(0);
+        assertEquals("2025-01", january.getKey());
+        assertEquals(3, january.getRents());
+        assertEquals(25000, january.getRevenue());
+        assertEquals(1, january.getLateRents());
+    }
+
+    @Test
+    void query_ByWeek_ShouldUseMondayAsKey() {
+        RevenueAnalyticsDTO result = revenueAnalyticsService.query("2025-01-01", "2025-01-31",
+                "week", null, null, null);
+
+        assertEquals(List.of("2025-01-06", "2025-01-13"),
+                result.getRows().stream().map(RevenueBucketDTO::getKey).toList());
+        assertEquals(17000, result.getRows().get(0).getRevenue());
+    }
+
+    @Test
+    void query_ByCategoryWithEmployeeFilter_ShouldOnlyCountThatEmployee() {
+        RevenueAnalyticsDTO result = revenueAnalyticsService.query("2025-01-01", "2025-12-31",
+                "category", null, "Luis", null);
+
+        assertEquals(2, result.getRows().size());
+        assertEquals(48000, result.getRevenue());
+    }
+
+    @Test
+    void query_ByOutcome_ShouldSeparateDamagedAndIrreparable() {
+        RevenueAnalyticsDTO result = revenueAnalyticsService.query("2025-01-01", "2025-12-31",
+                "outcome", "ELECTRICA", null, null);
+
+        assertEquals(List.of("ok", "damaged"),
+                result.getRows().stream().map(RevenueBucketDTO::getKey).toList());
+    }
+
+    @Test
+    void query_WithUnknownCategory_ShouldReturnEmpty() {
+        RevenueAnalyticsDTO result = revenueAnalyticsService.query("2025-01-01", "2025-12-31",
+                "month", "jardin", null, null);
+
+        assertEquals(0, result.getRents());
+        assertTrue(result.getRows().isEmpty());
+    }
+
+    @Test
+    void query_WithInvalidGroup_ShouldThrow() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> revenueAnalyticsService.query("2025-01-01", "2025-12-31", "year", null, null, null));
+
+        assertTrue(ex.getMessage().contains("Agrupación inválida"));
+    }
+
+    @Test
+    void append_SameRentTwice_ShouldBeIgnored() {
+        revenueAnalyticsService.append(1L, day("2025-01-06"), "manual", "Ana", 5000, (byte) 0);
+
+        assertEquals(4, revenueAnalyticsService.size());
+    }
+
+    @Test
+    void onRentReturned_BeforeLoad_ShouldWaitForLoadToFinish() {
+        revenueAnalyticsService.onRentReturned(new RentReturnedEvent(9L, 1L, 1L, 3000, false, false, null));
+
+        // Aún no termina la carga inicial: no se consulta la fila
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void onRentReturned_ShouldTellTheOtherNodes() {
+        revenueAnalyticsService.onRentReturned(new RentReturnedEvent(9L, 1L, 1L, 3000, false, false, null));
+
+        verify(invalidationBus).publish(RevenueAnalyticsService.TOPIC, "9");
+    }
+
+    @Test
+    void returnOnAnotherNode_ShouldBeIngestedHere() {
+        ArgumentCaptor<InvalidationBus.Subscriber> subscriber = ArgumentCaptor.forClass(InvalidationBus.Subscriber.class);
+        revenueAnalyticsService.subscribe();
+        verify(invalidationBus).subscribe(eq(RevenueAnalyticsService.TOPIC), subscriber.capture());
+        ReflectionTestUtils.setField(revenueAnalyticsService, "loading", false);
+
+        subscriber.getValue().invalidate("9");
+
+        verify(jdbcTemplate).query(contains("r.id = ?"), any(RowCallbackHandler.class), eq(9L));
+    }
+
+    @Test
+    void lostNotifications_ShouldRereadRecentReturns() {
+        ReflectionTestUtils.setField(revenueAnalyticsService, "loading", false);
+
+        revenueAnalyticsService.catchUp();
+
+        verify(jdbcTemplate).query(contains("r.return_date >= ?"), any(RowCallbackHandler.class),
+                eq(LocalDate.now().minusDays(1).toString()));
+    }
+}
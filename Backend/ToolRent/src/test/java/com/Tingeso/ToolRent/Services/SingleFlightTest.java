@@ -0,0 +1,83 @@
+package com.Tingeso.ToolRent.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void execute_ConcurrentIdenticalCalls_ShouldRunOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            // Primera llamada: queda "consultando" hasta que la soltemos
+            Future<List<String>> leader = pool.submit(() -> singleFlight.execute("tools:all", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return List.of("martillo");
+            }));
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+
+            // Siete más con la misma clave mientras la primera sigue en curso
+            List<Future<List<String>>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(pool.submit(() -> singleFlight.execute("tools:all", () -> {
+                    calls.incrementAndGet();
+                    return List.of("otra consulta");
+                })));
+            }
+
+            // Dar tiempo a que las siete se sumen a la consulta en curso
+            Thread.sleep(200);
+            release.countDown();
+
+            assertEquals(List.of("martillo"), leader.get(2, TimeUnit.SECONDS));
+            for (Future<List<String>> f : followers) {
+                assertEquals(List.of("martillo"), f.get(2, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_AfterCompletion_ShouldQueryAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("rents:ordered", calls::incrementAndGet);
+        singleFlight.execute("rents:ordered", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_WhenWorkFails_ShouldPropagateAndClearKey() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> singleFlight.execute("k", () -> { throw new RuntimeException("BD caída"); }));
+
+        assertEquals("BD caída", ex.getMessage());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.ToolRankingReportDTO;
+import com.Tingeso.ToolRent.Entities.ToolEntity;
+import com.Tingeso.ToolRent.Events.RentCreatedEvent;
+import com.Tingeso.ToolRent.Repositories.ToolRentalDailyRepository;
+import com.Tingeso.ToolRent.Repositories.ToolRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ToolRankingServiceTest {
+
+    @Mock
+    private ToolRentalDailyRepository toolRentalDailyRepository;
+
+    @Mock
+    private ToolRepository toolRepository;
+
+    @InjectMocks
+    private ToolRankingService toolRankingService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void onRentCreated_ShouldIncrementTodayCounter() {
+        ToolEntity tool = new ToolEntity(3L, "Taladro", " Electrica ", 50000, 2, null, null);
+        when(toolRepository.findById(3L)).thenReturn(Optional.of(tool));
+
+        toolRankingService.onRentCreated(new RentCreatedEvent(10L, 1L, 3L, null));
+
+        verify(toolRentalDailyRepository).increment(LocalDate.now().toString(), "Taladro", "electrica", 3L);
+    }
+
+    @Test
+    void getRanking_ShouldReturnTopKInDescendingOrder() {
+        String fromDay = LocalDate.now().minusDays(6).toString();
+        when(toolRentalDailyRepository.sumSince(fromDay)).thenReturn(List.of(
+                new ToolRankingReportDTO(1L, "Martillo", "manual", 4L),
+                new ToolRankingReportDTO(2L, "Taladro", "electrica", 9L),
+                new ToolRankingReportDTO(3L, "Sierra", "electrica", 1L),
+                new ToolRankingReportDTO(4L, "Lijadora", "electrica", 6L)
+        ));
+
+        List<ToolRankingReportDTO> ranking = toolRankingService.getRanking(7, null, 2);
+
+        assertEquals(2, ranking.size());
+        assertEquals("Taladro", ranking.get(0).toolName);
+        assertEquals("Lijadora", ranking.get(1).toolName);
+        verify(toolRentalDailyRepository, never()).sumSinceForCategory(anyString(), anyString());
+    }
+
+    @Test
+    void getRanking_WithCategory_ShouldUseNormalizedCategory() {
+        String fromDay = LocalDate.now().minusDays(29).toString();
+        when(toolRentalDailyRepository.sumSinceForCategory(fromDay, "electrica")).thenReturn(List.of(
+                new ToolRankingReportDTO(2L, "Taladro", "electrica", 9L)
+        ));
+
+        List<ToolRankingReportDTO> ranking = toolRankingService.getRanking(30, "Electrica", 10);
+
+        assertEquals(1, ranking.size());
+        assertEquals(9L, ranking.get(0).rentalCount);
+    }
+
+    @Test
+    void getRanking_WithUnsupportedWindow_ShouldThrow() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> toolRankingService.getRanking(15, null, 10));
+
+        assertTrue(ex.getMessage().contains("Ventana inválida"));
+        verifyNoInteractions(toolRentalDailyRepository);
+    }
+
+    @Test
+    void backfillIfEmpty_ShouldSkipWhenCountersExist() {
+        when(toolRentalDailyRepository.count()).thenReturn(12L);
+
+        toolRankingService.backfillIfEmpty();
+
+        verify(toolRentalDailyRepository, never()).backfillFromRents();
+    }
+}
@@ -1,13 +1,17 @@
 package com.Tingeso.ToolRent.Services;
 
+import com.Tingeso.ToolRent.Config.ReplicaRouting;
 import com.Tingeso.ToolRent.Entities.ToolEntity;
+import com.Tingeso.ToolRent.Events.ToolStatusChangedEvent;
 import com.Tingeso.ToolRent.Repositories.ToolRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
@@ -24,6 +28,12 @@ class ToolServiceTest {
     @Mock
     private KardexService kardexService;
 
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ToolService toolService;
 
@@ -33,9 +43,11 @@ class ToolServiceTest {
     void setUp() {
         ReflectionTestUtils.setField(toolService, "toolRepository", toolRepository);
         ReflectionTestUtils.setField(toolService, "kardexService", kardexService);
+        ReflectionTestUtils.setField(toolService, "singleFlight", singleFlight);
+        ReflectionTestUtils.setField(toolService, "eventPublisher", eventPublisher);
 
         baseTool = new ToolEntity(
-                1L, "Martillo", "Manual", 10000, 1, null
+                1L, "Martillo", "Manual", 10000, 1, null, null
         );
     }
 
@@ -44,19 +56,19 @@ class ToolServiceTest {
     // =====================================================
     @Test
     void addTool_ShouldNormalizeAndSetStatusAndRegisterKardex() {
-        ToolEntity toSave = new ToolEntity(null, "  Martillo  ", "  Manual  ", 10000, 0, null);
-        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
+        ToolEntity toSave = new ToolEntity(null, "  Martillo  ", "  Manual  ", 10000, 0, null, null);
+        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
 
         when(toolRepository.save(any())).thenReturn(saved);
 
-        ToolEntity result = toolService.addTool(toSave, "Empleado Test");
+        ToolEntity result = toolService.addTool(toSave, 9L);
 
         assertEquals("martillo", result.getName());
         assertEquals("manual", result.getCategory());
         assertEquals(1, result.getStatus());
 
         verify(toolRepository).save(any());
-        verify(kardexService).registerMovement(4, 1L, "Empleado Test");
+        verify(kardexService).registerMovement(4, 1L, 9L);
     }
 
     // =====================================================
@@ -109,6 +121,39 @@ class ToolServiceTest {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void getAllTools_WhenPinnedToPrimary_ShouldNotJoinASharedRead() {
+        SingleFlight flights = spy(new SingleFlight());
+        ReflectionTestUtils.setField(toolService, "singleFlight", flights);
+        when(toolRepository.findAll()).thenReturn(List.of());
+
+        ReflectionTestUtils.invokeMethod(ReplicaRouting.class, "pinToPrimary");
+        try {
+            toolService.getAllTools();
+        } finally {
+            ReflectionTestUtils.invokeMethod(ReplicaRouting.class, "unpin");
+        }
+
+        verify(flights, never()).execute(anyString(), any());
+        verify(toolRepository).findAll();
+    }
+
+    @Test
+    void getAllTools_ShouldReturnCopies_WithoutTouchingTheEntities() {
+        baseTool.setVersion(3L);
+        when(toolRepository.findAll()).thenReturn(new ArrayList<>(List.of(baseTool)));
+
+        List<ToolEntity> result = toolService.getAllTools();
+
+        assertNotSame(baseTool, result.get(0));
+        assertEquals(baseTool.getId(), result.get(0).getId());
+        assertEquals(3L, result.get(0).getVersion());
+        assertEquals(1, result.get(0).getStock());
+        // La entidad de la sesión queda como vino de la BD
+        assertNull(baseTool.getStock());
+        assertThrows(UnsupportedOperationException.class, () -> result.add(new ToolEntity()));
+    }
+
     // =====================================================
     // getToolsByCategory FIX
     // =====================================================
@@ -123,14 +168,56 @@ class ToolServiceTest {
         verify(toolRepository).findByCategory("manual");
     }
 
+    // =====================================================
+    // updateTool
+    // =====================================================
+    @Test
+    void updateTool_WithNewValueAndStatus_ShouldUpdateGroupStatusKardexAndFields() {
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity sibling = new ToolEntity(2L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity incoming = new ToolEntity(null, "martillo pro", "manual", 20000, 3, null, null);
+
+        when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(toolRepository.findByNameAndCategory("martillo", "manual"))
+                .thenReturn(new ArrayList<>(List.of(existing, sibling)));
+        when(toolRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        ToolEntity result = toolService.updateTool(1L, incoming, 9L);
+
+        assertEquals("martillo pro", result.getName());
+        assertEquals(3, result.getStatus());
+        assertEquals(20000, sibling.getReplacementValue());
+        verify(kardexService).registerMovement(5, 1L, 9L);
+        verify(eventPublisher).publishEvent(any(ToolStatusChangedEvent.class));
+    }
+
+    @Test
+    void updateTool_StatusChangeWithoutEmployee_ShouldThrowBeforeWriting() {
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity incoming = new ToolEntity(null, "martillo", "manual", 10000, 4, null, null);
+
+        when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        assertThrows(RuntimeException.class, () -> toolService.updateTool(1L, incoming, null));
+        verify(toolRepository, never()).save(any());
+        verifyNoInteractions(kardexService);
+    }
+
+    @Test
+    void updateTool_NotFound_ShouldReturnNull() {
+        when(toolRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertNull(toolService.updateTool(1L, baseTool, 9L));
+    }
+
     // =====================================================
     // updateToolFields
     // =====================================================
     @Test
     void updateToolFields_ShouldUpdateNameCategoryAndValue_NotStatus() {
-        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
-        ToolEntity incoming = new ToolEntity(1L, "martillo pro", "manual", 20000, 99, null);
-        ToolEntity saved = new ToolEntity(1L, "martillo pro", "manual", 20000, 1, null);
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity incoming = new ToolEntity(1L, "martillo pro", "manual", 20000, 99, null, null);
+        ToolEntity saved = new ToolEntity(1L, "martillo pro", "manual", 20000, 1, null, null);
 
         when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(toolRepository.save(any())).thenReturn(saved);
@@ -146,8 +233,8 @@ class ToolServiceTest {
     // =====================================================
     @Test
     void updateToolGroupValues_ShouldUpdateAllGroup() {
-        ToolEntity t1 = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
-        ToolEntity t2 = new ToolEntity(2L, "martillo", "manual", 10000, 1, null);
+        ToolEntity t1 = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity t2 = new ToolEntity(2L, "martillo", "manual", 10000, 1, null, null);
 
         List<ToolEntity> group = new ArrayList<>(List.of(t1, t2));
 
@@ -165,45 +252,45 @@ class ToolServiceTest {
     // =====================================================
     @Test
     void updateToolStatus_ToRepair_ShouldRegisterMovement5() {
-        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
-        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 3, null);
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 3, null, null);
 
         when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(toolRepository.save(any())).thenReturn(saved);
 
-        ToolEntity result = toolService.updateToolStatus(1L, 3, "Empleado Test");
+        ToolEntity result = toolService.updateToolStatus(1L, 3, 9L);
 
         assertEquals(3, result.getStatus());
-        verify(kardexService).registerMovement(5, 1L, "Empleado Test");
+        verify(kardexService).registerMovement(5, 1L, 9L);
     }
 
     @Test
     void updateToolStatus_FromRepairToAvailable_ShouldRegisterMovement4() {
-        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 3, null);
-        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 3, null, null);
+        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
 
         when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(toolRepository.save(any())).thenReturn(saved);
 
-        ToolEntity result = toolService.updateToolStatus(1L, 1, "Empleado Test");
+        ToolEntity result = toolService.updateToolStatus(1L, 1, 9L);
 
         assertEquals(1, result.getStatus());
-        verify(kardexService).registerMovement(4, 1L, "Empleado Test");
+        verify(kardexService).registerMovement(4, 1L, 9L);
     }
 
     @Test
     void updateToolStatus_ToDecommissioned_ShouldRegisterMovement3() {
-        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
-        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 4, null
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 4, null, null
         );
 
         when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(toolRepository.save(any())).thenReturn(saved);
 
-        ToolEntity result = toolService.updateToolStatus(1L, 4, "Empleado Test");
+        ToolEntity result = toolService.updateToolStatus(1L, 4, 9L);
 
         assertEquals(4, result.getStatus());
-        verify(kardexService).registerMovement(3, 1L, "Empleado Test");
+        verify(kardexService).registerMovement(3, 1L, 9L);
     }
 
     // =====================================================
@@ -211,15 +298,16 @@ class ToolServiceTest {
     // =====================================================
     @Test
     void deactivateTool_ShouldSetStatus4() {
-        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
         when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
 
-        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 4, null);
+        ToolEntity saved = new ToolEntity(1L, "martillo", "manual", 10000, 4, null, null);
         when(toolRepository.save(any())).thenReturn(saved);
 
         ToolEntity result = toolService.deactivateTool(1L);
 
         assertEquals(4, result.getStatus());
+        verify(eventPublisher).publishEvent(new ToolStatusChangedEvent(1L, 1, 4));
     }
 
     // =====================================================
@@ -231,12 +319,22 @@ class ToolServiceTest {
         verify(toolRepository).deleteById(1L);
     }
 
+    @Test
+    void deleteToolById_WhenExists_ShouldPublishStatusChange() {
+        ToolEntity existing = new ToolEntity(1L, "martillo", "manual", 10000, 3, null, null);
+        when(toolRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        toolService.deleteToolById(1L);
+
+        verify(eventPublisher).publishEvent(new ToolStatusChangedEvent(1L, 3, 0));
+    }
+
     // =====================================================
     // checkDuplicateAndSuggestPrice
     // =====================================================
     @Test
     void checkDuplicateAndSuggestPrice_WhenExists_ShouldReturnExistsTrue() {
-        ToolEntity t1 = new ToolEntity(1L, "martillo", "manual", 15000, 1, null);
+        ToolEntity t1 = new ToolEntity(1L, "martillo", "manual", 15000, 1, null, null);
 
         when(toolRepository.findByNameAndCategory("martillo", "manual"))
                 .thenReturn(List.of(t1));
@@ -275,8 +373,8 @@ class ToolServiceTest {
     // =====================================================
     @Test
     void updateReplacementValueForGroup_ShouldUpdateAllAndSaveAll() {
-        ToolEntity t1 = new ToolEntity(1L, "martillo", "manual", 10000, 1, null);
-        ToolEntity t2 = new ToolEntity(2L, "martillo", "manual", 10000, 1, null);
+        ToolEntity t1 = new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null);
+        ToolEntity t2 = new ToolEntity(2L, "martillo", "manual", 10000, 1, null, null);
 
         List<ToolEntity> tools = new ArrayList<>(List.of(t1, t2));
 
@@ -294,11 +392,11 @@ class ToolServiceTest {
 
         // ⚙️ 1) Preparamos una lista con herramientas mixtas
         List<ToolEntity> herramientas = List.of(
-                new ToolEntity(1L, "martillo", "manual", 10000, 1, null), // disponible
-                new ToolEntity(2L, "martillo", "manual", 10000, 2, null), // prestada
-                new ToolEntity(3L, "martillo", "manual", 10000, 1, null), // disponible
-                new ToolEntity(4L, "taladro", "electrica", 20000, 1, null), // disponible
-                new ToolEntity(5L, "taladro", "electrica", 20000, 3, null)  // en reparación
+                new ToolEntity(1L, "martillo", "manual", 10000, 1, null, null), // disponible
+                new ToolEntity(2L, "martillo", "manual", 10000, 2, null, null), // prestada
+                new ToolEntity(3L, "martillo", "manual", 10000, 1, null, null), // disponible
+                new ToolEntity(4L, "taladro", "electrica", 20000, 1, null, null), // disponible
+                new ToolEntity(5L, "taladro", "electrica", 20000, 3, null, null)  // en reparación
         );
 
         // ⚙️ 2) Obtenemos el método privado mediante reflexión
@@ -0,0 +1,111 @@
+package com.Tingeso.ToolRent.Services;
+
+import com.Tingeso.ToolRent.DTOs.ToolUtilizationDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilizationServiceTest {
+
+    private final UtilizationService utilizationService = new UtilizationService();
+
+    private final LocalDate from = LocalDate.of(2025, 1, 1);
+    private final LocalDate to = LocalDate.of(2025, 1, 10); // 10 días
+
+    private UtilizationService.Tools tools;
+    private UtilizationService.Intervals rents;
+
+    @BeforeEach
+    void setUp() {
+        tools = new UtilizationService.Tools();
+        tools.add(1L, "martillo", "manual", 2);
+        tools.add(2L, "martillo", "manual", 1);
+        tools.add(3L, "taladro", "electrica", 1);
+        tools.add(4L, "sierra", "manual", 4); // dada de baja y sin arriendos: no cuenta
+
+        rents = new UtilizationService.Intervals();
+    }
+
+    private int day(int dayOfMonth) {
+        return (int) LocalDate.of(2025, 1, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    void compute_ByModel_ShouldSumUnitDaysAndPeak() {
+        rents.add(0, day(1), day(5));  // martillo #1: 5 días
+        rents.add(1, day(5), day(6));  // martillo #2: 2 días, se traslapa el día 5
+        rents.add(2, day(3), day(3));  // taladro: 1 día
+
+        List<ToolUtilizationDTO> rows = utilizationService.compute(tools, rents, from, to, false);
+
+        assertEquals(2, rows.size());
+
+        ToolUtilizationDTO hammer = rows.get(0);
+        assertEquals("martillo", hammer.getName());
+        assertNull(hammer.getToolId());
+        assertEquals(2, hammer.getUnits());
+        assertEquals(2, hammer.getRents());
+        assertEquals(7, hammer.getRentedDays());
+        assertEquals(20, hammer.getAvailableDays());
+        assertEquals(0.35, hammer.getUtilization(), 1e-9);
+        assertEquals(2, hammer.getPeakConcurrent());
+
+        ToolUtilizationDTO drill = rows.get(1);
+        assertEquals("taladro", drill.getName());
+        assertEquals(1, drill.getRentedDays());
+        assertEquals(1, drill.getPeakConcurrent());
+    }
+
+    @Test
+    void compute_ByUnit_BackToBackRents_ShouldNotCountAsOverlap() {
+        rents.add(0, day(1), day(3));
+        rents.add(0, day(4), day(6));
+
+        List<ToolUtilizationDTO> rows = utilizationService.compute(tools, rents, from, to, true);
+
+        // 3 unidades en inventario (la dada de baja sin arriendos no aparece)
+        assertEquals(3, rows.size());
+
+        ToolUtilizationDTO unit = rows.get(0);
+        assertEquals(1L, unit.getToolId());
+        assertEquals(6, unit.getRentedDays());
+        assertEquals(10, unit.getAvailableDays());
+        assertEquals(1, unit.getPeakConcurrent());
+
+        assertEquals(0, rows.get(1).getRentedDays());
+        assertEquals(0.0, rows.get(2).getUtilization());
+    }
+
+    @Test
+    void compute_DecommissionedUnitWithRents_ShouldCount() {
+        rents.add(3, day(2), day(2));
+
+        List<ToolUtilizationDTO> rows = utilizationService.compute(tools, rents, from, to, false);
+
+        assertTrue(rows.stream().anyMatch(r -> r.getName().equals("sierra") && r.getRentedDays() == 1));
+    }
+
+    @Test
+    void sweep_ShouldCapBusyDaysAtCapacity() {
+        // Dos arriendos a la vez sobre una sola unidad (dato inconsistente)
+        rents.add(0, day(1), day(4));
+        rents.add(0, day(3), day(4));
+
+        long[] result = UtilizationService.sweep(rents, new int[]{0, 1}, 0, 2, 1);
+
+        assertEquals(4, result[0]);
+        assertEquals(2, result[1]);
+    }
+
+    @Test
+    void validate_ShouldRejectBadInput() {
+        assertThrows(RuntimeException.class, () -> utilizationService.validate(from, to, "semana"));
+        assertThrows(RuntimeException.class, () -> utilizationService.validate(to, from, "model"));
+        assertThrows(RuntimeException.class,
+                () -> utilizationService.validate(from, from.plusYears(4), "unit"));
+    }
+}
@@ -12,6 +12,7 @@ import KardexList from './components/KardexList'
 import ActiveRentsReport from './components/ActiveRentsReport'
 import LateClientsReport from './components/LateClientsReport'
 import ToolRankingReport from './components/ToolRankingReport'
+import ToolUtilizationReport from './components/ToolUtilizationReport'
 import { BrowserRouter as Router, Route, Routes, Navigate } from 'react-router-dom'
 import { useKeycloak } from '@react-keycloak/web'
 
@@ -108,6 +109,10 @@ return (
             path="/reports/tool-ranking" 
             element={<PrivateRoute element={<ToolRankingReport />} rolesAllowed={["ADMIN", "EMPLOYEE"]} />}
           />
+          <Route
+            path="/reports/tool-utilization"
+            element={<PrivateRoute element={<ToolUtilizationReport />} rolesAllowed={["ADMIN"]} />}
+          />
 
         </Routes>
 
@@ -1,4 +1,15 @@
+import { useEffect, useState } from "react";
+import dashboardService from "../services/dashboardService";
+import "../report.css";
+
 const Home = () => {
+    const [summary, setSummary] = useState(null);
+
+    useEffect(() => {
+        dashboardService.getSummary()
+            .then((res) => setSummary(res.data))
+            .catch(() => setSummary(null));
+    }, []);
 
     return (
         <div>
@@ -6,8 +17,27 @@ const Home = () => {
             <p>
                 ToolRent es una aplicación web para gestionar el alquiler de herramientas.
             </p>
+
+            {summary && (
+                <div className="report-box">
+                    <h2 className="report-title">Resumen</h2>
+                    <div className="divider"></div>
+
+                    <table className="report-table">
+                        <tbody>
+                            <tr><td>Préstamos activos</td><td>{summary.activeRents}</td></tr>
+                            <tr><td>Préstamos atrasados</td><td>{summary.lateRents}</td></tr>
+                            <tr><td>Herramientas disponibles</td><td>{summary.availableTools}</td></tr>
+                            <tr><td>Herramientas prestadas</td><td>{summary.rentedTools}</td></tr>
+                            <tr><td>Herramientas en reparación</td><td>{summary.inRepairTools}</td></tr>
+                            <tr><td>Devoluciones de hoy</td><td>{summary.todayReturns}</td></tr>
+                            <tr><td>Ingresos de hoy</td><td>${summary.todayRevenue}</td></tr>
+                        </tbody>
+                    </table>
+                </div>
+            )}
         </div>
     );
 };
 
-export default Home;    
\ No newline at end of file
+export default Home;
@@ -2,42 +2,39 @@ import { useEffect, useState } from "react";
 import reportService from "../services/reportService";
 import "../report.css";
 
+const PAGE_SIZE = 50;
+
 export default function LateClientsReport() {
   const [late, setLate] = useState([]);
-  const [filtered, setFiltered] = useState([]);
+  const [page, setPage] = useState(0);
+  const [total, setTotal] = useState(0);
 
   const [from, setFrom] = useState("");
   const [to, setTo] = useState("");
+  // Rango aplicado (cambia solo al pulsar Filtrar)
+  const [range, setRange] = useState({ from: "", to: "" });
 
   useEffect(() => {
-    reportService.getLateClients().then((res) => {
-      console.log("📌 Datos recibidos en LateClientsReport:", res.data);
+    reportService.getLateClients(page, PAGE_SIZE, range.from, range.to).then((res) => {
       setLate(res.data);
-      setFiltered(res.data);
+      setTotal(Number(res.headers["x-total-count"] ?? res.data.length));
     });
-  }, []);
+  }, [page, range]);
 
   const filter = () => {
-    if (!from && !to) {
-      setFiltered(late);
-      return;
-    }
-
-    const result = late.filter((c) => {
-      const d = c.finishdate; // viene como string desde el backend
-      return (!from || d >= from) && (!to || d <= to);
-    });
-
-    setFiltered(result);
+    setPage(0);
+    setRange({ from, to });
   };
 
+  const pages = Math.max(1, Math.ceil(total / PAGE_SIZE));
+
   return (
     <div className="report-container">
       <div className="report-box">
         <h2 className="report-title">Clientes con Atraso</h2>
         <div className="divider"></div>
 
-        {/* FILTROS */}
+        {/* FILTROS (por fecha de término del arriendo) */}
         <div className="filter-row">
           <label>Desde:</label>
           <input type="date" value={from} onChange={(e) => setFrom(e.target.value)} />
@@ -48,32 +45,47 @@ export default function LateClientsReport() {
           <button className="filter-btn" onClick={filter}>Filtrar</button>
         </div>
 
-        {/* TABLA */}
+        {/* TABLA (ordenada por días de atraso, de mayor a menor) */}
         <table className="report-table">
           <thead>
             <tr>
               <th>Cliente</th>
-              <th>Fecha de Término</th>
+              <th>RUT</th>
+              <th>Días de Atraso</th>
+              <th>Préstamos Atrasados</th>
             </tr>
           </thead>
 
           <tbody>
-            {filtered.length === 0 ? (
+            {late.length === 0 ? (
               <tr>
-                <td colSpan="2" style={{ textAlign: "center" }}>
+                <td colSpan="4" style={{ textAlign: "center" }}>
                   No hay clientes con atraso en este rango
                 </td>
               </tr>
             ) : (
-              filtered.map((c) => (
-                <tr key={c.rentid}>
-                  <td>{c.clientname}</td>
-                  <td>{c.finishdate}</td>
+              late.map((c) => (
+                <tr key={c.clientId}>
+                  <td>{c.clientName}</td>
+                  <td>{c.rut}</td>
+                  <td>{c.totalLateDays}</td>
+                  <td>{c.totalLateOccurrences}</td>
                 </tr>
               ))
             )}
           </tbody>
         </table>
+
+        {/* PAGINACIÓN */}
+        <div className="filter-row">
+          <button className="filter-btn" disabled={page === 0} onClick={() => setPage(page - 1)}>
+            Anterior
+          </button>
+          <label>Página {page + 1} de {pages}</label>
+          <button className="filter-btn" disabled={page + 1 >= pages} onClick={() => setPage(page + 1)}>
+            Siguiente
+          </button>
+        </div>
       </div>
     </div>
   );
@@ -186,16 +186,21 @@ export default function RentList() {
 
                 <TableCell align="center">
                   {rent.active ? (
-                    <Button
-                      variant="contained"
-                      sx={{
-                        backgroundColor: "#A97458",
-                        "&:hover": { backgroundColor: "#8B5F47" },
-                      }}
-                      onClick={() => openReturnModal(rent.id)}
-                    >
-                      Devolver
-                    </Button>
+                    <>
+                      {rent.projectedAmount != null && (
+                        <div style={{ marginBottom: 6 }}>Estimado: ${rent.projectedAmount}</div>
+                      )}
+                      <Button
+                        variant="contained"
+                        sx={{
+                          backgroundColor: "#A97458",
+                          "&:hover": { backgroundColor: "#8B5F47" },
+                        }}
+                        onClick={() => openReturnModal(rent.id)}
+                      >
+                        Devolver
+                      </Button>
+                    </>
                   ) : (
                     <b>${rent.totalAmount}</b>
                   )}
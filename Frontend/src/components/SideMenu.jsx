@@ -82,6 +82,15 @@ export default function SideMenu({ open, toggleDrawer }) {
                     <ListItemText primary="Reporte Ranking de Herramientas" />
                 </ListItemButton>
 
+                {isAdmin && (
+                <>
+                    <Divider />
+                    <ListItemButton onClick={() => navigate("/reports/tool-utilization")}>
+                    <ListItemText primary="Reporte Utilización de Herramientas" />
+                    </ListItemButton>
+                </>
+                )}
+
             </List>
 
             <Divider />
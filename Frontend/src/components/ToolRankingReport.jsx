@@ -4,13 +4,16 @@ import "../report.css";
 
 export default function ToolRankingReport() {
   const [ranking, setRanking] = useState([]);
+  const [days, setDays] = useState(30);
+  const [category, setCategory] = useState("");
 
-  useEffect(() => {
-    reportService.getToolRanking().then((res) => {
-      console.log("Ranking recibido:", res.data);
+  const load = () => {
+    reportService.getToolRanking(days, category).then((res) => {
       setRanking(res.data);
     });
-  }, []);
+  };
+
+  useEffect(load, [days]);
 
   return (
     <div className="report-container">
@@ -18,10 +21,26 @@ export default function ToolRankingReport() {
         <h2 className="report-title">Ranking de Herramientas</h2>
         <div className="divider"></div>
 
+        {/* FILTROS */}
+        <div className="filter-row">
+          <label>Periodo:</label>
+          <select value={days} onChange={(e) => setDays(Number(e.target.value))}>
+            <option value={7}>Últimos 7 días</option>
+            <option value={30}>Últimos 30 días</option>
+            <option value={365}>Último año</option>
+          </select>
+
+          <label>Categoría:</label>
+          <input type="text" value={category} onChange={(e) => setCategory(e.target.value)} />
+
+          <button className="filter-btn" onClick={load}>Filtrar</button>
+        </div>
+
         <table className="report-table">
           <thead>
             <tr>
               <th>Herramienta</th>
+              <th>Categoría</th>
               <th>Veces Arrendada</th>
             </tr>
           </thead>
@@ -29,15 +48,16 @@ export default function ToolRankingReport() {
           <tbody>
             {ranking.length === 0 ? (
               <tr>
-                <td colSpan="2" style={{ textAlign: "center" }}>
+                <td colSpan="3" style={{ textAlign: "center" }}>
                   No hay datos disponibles
                 </td>
               </tr>
             ) : (
-              ranking.map((row, index) => (
-                <tr key={index}>
+              ranking.map((row) => (
+                <tr key={`${row.toolName}-${row.category}`}>
                   <td>{row.toolName}</td>
-                  <td>{row.timesUsed}</td>
+                  <td>{row.category}</td>
+                  <td>{row.rentalCount}</td>
                 </tr>
               ))
             )}
@@ -0,0 +1,80 @@
+import { useEffect, useState } from "react";
+import reportService from "../services/reportService";
+import "../report.css";
+
+export default function ToolUtilizationReport() {
+  const [rows, setRows] = useState([]);
+  const [from, setFrom] = useState("");
+  const [to, setTo] = useState("");
+  const [groupBy, setGroupBy] = useState("model");
+
+  const load = () => {
+    reportService.getUtilization(from, to, groupBy).then((res) => {
+      setRows(res.data);
+    });
+  };
+
+  useEffect(load, [groupBy]);
+
+  return (
+    <div className="report-container">
+      <div className="report-box">
+        <h2 className="report-title">Utilización de Herramientas</h2>
+        <div className="divider"></div>
+
+        {/* FILTROS (sin fechas: últimos 30 días) */}
+        <div className="filter-row">
+          <label>Desde:</label>
+          <input type="date" value={from} onChange={(e) => setFrom(e.target.value)} />
+
+          <label>Hasta:</label>
+          <input type="date" value={to} onChange={(e) => setTo(e.target.value)} />
+
+          <label>Agrupar por:</label>
+          <select value={groupBy} onChange={(e) => setGroupBy(e.target.value)}>
+            <option value="model">Modelo</option>
+            <option value="unit">Unidad</option>
+          </select>
+
+          <button className="filter-btn" onClick={load}>Filtrar</button>
+        </div>
+
+        <table className="report-table">
+          <thead>
+            <tr>
+              {groupBy === "unit" && <th>ID</th>}
+              <th>Herramienta</th>
+              <th>Categoría</th>
+              <th>Unidades</th>
+              <th>Días Arrendada</th>
+              <th>Utilización</th>
+              <th>Máx. Simultáneos</th>
+            </tr>
+          </thead>
+
+          <tbody>
+            {rows.length === 0 ? (
+              <tr>
+                <td colSpan="7" style={{ textAlign: "center" }}>
+                  No hay datos disponibles
+                </td>
+              </tr>
+            ) : (
+              rows.map((row) => (
+                <tr key={row.toolId ?? `${row.name}-${row.category}`}>
+                  {groupBy === "unit" && <td>{row.toolId}</td>}
+                  <td>{row.name}</td>
+                  <td>{row.category}</td>
+                  <td>{row.units}</td>
+                  <td>{row.rentedDays} / {row.availableDays}</td>
+                  <td>{(row.utilization * 100).toFixed(1)}%</td>
+                  <td>{row.peakConcurrent}</td>
+                </tr>
+              ))
+            )}
+          </tbody>
+        </table>
+      </div>
+    </div>
+  );
+}
@@ -7,6 +7,9 @@ const toolRentBackendPort = import.meta.env.VITE_TOOL_RENT_BACKEND_PORT;
 console.log(toolRentBackendServer)
 console.log(toolRentBackendPort)
 
+// Marca de la última escritura (X-Last-Write): se reenvía para leer lo propio aunque haya réplica
+let lastWrite = null;
+
 const api = axios.create({
   baseURL: `http://${toolRentBackendServer}:${toolRentBackendPort}`,
   headers: {
@@ -25,6 +28,10 @@ api.interceptors.request.use(async (config) => {
   } else {
     console.log('Not authenticated, no Authorization header added');
   }
+
+  if (lastWrite) {
+    config.headers["X-Last-Write"] = lastWrite;
+  }
   
   return config;
 }, (error) => {
@@ -32,4 +39,10 @@ api.interceptors.request.use(async (config) => {
   return Promise.reject(error);
 });
 
+api.interceptors.response.use((response) => {
+  const mark = response.headers["x-last-write"];
+  if (mark) lastWrite = mark;
+  return response;
+});
+
 export default api;
\ No newline at end of file
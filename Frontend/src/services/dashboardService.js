@@ -0,0 +1,7 @@
+import httpTool from "../http-common";
+
+const getSummary = () => {
+    return httpTool.get('/api/dashboard/summary');
+}
+
+export default {getSummary};
@@ -8,7 +8,22 @@ const create = (data) => {
   return httpTool.post("/api/rate/", data);
 };
 
+const getCategoryRates = () => {
+  return httpTool.get("/api/rate/categories");
+};
+
+const createForCategory = (category, data) => {
+  return httpTool.post(`/api/rate/category/${encodeURIComponent(category)}`, data);
+};
+
+const quote = (category, days) => {
+  return httpTool.get("/api/rate/quote", { params: { category, days } });
+};
+
 export default {
   getLatest,
-  create
+  create,
+  getCategoryRates,
+  createForCategory,
+  quote
 };
@@ -0,0 +1,24 @@
+import httpTool from "../http-common";
+
+// type: RENTS | KARDEX | LATE_CLIENTS, from/to: yyyy-MM-dd
+const submit = (type, from, to) => {
+    return httpTool.post('/api/report-jobs', { type, from, to });
+}
+
+const getRecent = () => {
+    return httpTool.get('/api/report-jobs');
+}
+
+const get = (id) => {
+    return httpTool.get(`/api/report-jobs/${id}`);
+}
+
+const download = (id) => {
+    return httpTool.get(`/api/report-jobs/${id}/download`, { responseType: 'blob' });
+}
+
+const cancel = (id) => {
+    return httpTool.delete(`/api/report-jobs/${id}`);
+}
+
+export default {submit, getRecent, get, download, cancel};
@@ -4,12 +4,24 @@ const getActiveRents = () => {
     return httpTool.get('/api/reports/active');
 }
 
-const getLateClients = () => {
-    return httpTool.get('/api/reports/late');
+// from/to filtran por fecha de término del arriendo
+const getLateClients = (page = 0, size = 50, from = "", to = "") => {
+    return httpTool.get('/api/reports/late', { params: { page, size, from: from || undefined, to: to || undefined } });
 }
 
-const getToolRanking = () => {
-    return httpTool.get('/api/reports/ranking');
+const getToolRanking = (days = 30, category = "", limit = 10) => {
+    return httpTool.get('/api/reports/ranking', { params: { days, category: category || undefined, limit } });
 }
 
-export default {getActiveRents, getLateClients, getToolRanking};
\ No newline at end of file
+// groupBy: "model" (nombre/categoría) o "unit"; sin fechas el backend usa los últimos 30 días
+const getUtilization = (from, to, groupBy = "model") => {
+    return httpTool.get('/api/reports/utilization', { params: { from: from || undefined, to: to || undefined, groupBy } });
+}
+
+// granularity: "day" o "month"; sin fechas el backend usa el mes en curso
+const getEmployeeActivity = (from, to, granularity = "month", employee = "") => {
+    return httpTool.get('/api/reports/employee-activity',
+        { params: { from: from || undefined, to: to || undefined, granularity, employee: employee || undefined } });
+}
+
+export default {getActiveRents, getLateClients, getToolRanking, getUtilization, getEmployeeActivity};
\ No newline at end of file